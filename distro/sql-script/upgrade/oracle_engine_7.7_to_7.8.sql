@@ -6,3 +6,58 @@ ALTER TABLE ACT_HI_VARINST
 -- semantic version --
 ALTER TABLE ACT_RE_DECISION_DEF
   ADD VERSION_TAG_ NVARCHAR2(64);
+
+-- removal time based history cleanup --
+ALTER TABLE ACT_HI_PROCINST
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_ACTINST
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_TASKINST
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_VARINST
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_DETAIL
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_IDENTITYLINK
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_COMMENT
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_ATTACHMENT
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_INCIDENT
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_JOB_LOG
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_HI_EXT_TASK_LOG
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+ALTER TABLE ACT_GE_BYTEARRAY
+  ADD REMOVAL_TIME_ TIMESTAMP(6);
+
+create index ACT_IDX_HI_PRO_INST_RM_TIME on ACT_HI_PROCINST(REMOVAL_TIME_);
+create index ACT_IDX_HI_ACT_INST_RM_TIME on ACT_HI_ACTINST(REMOVAL_TIME_);
+create index ACT_IDX_HI_TASK_INST_RM_TIME on ACT_HI_TASKINST(REMOVAL_TIME_);
+create index ACT_IDX_HI_TASK_INST_PROCINST on ACT_HI_TASKINST(PROC_INST_ID_);
+create index ACT_IDX_HI_VAR_INST_RM_TIME on ACT_HI_VARINST(REMOVAL_TIME_);
+create index ACT_IDX_HI_DETAIL_RM_TIME on ACT_HI_DETAIL(REMOVAL_TIME_);
+create index ACT_IDX_HI_IDENT_LINK_RM_TIME on ACT_HI_IDENTITYLINK(REMOVAL_TIME_);
+create index ACT_IDX_HI_IDENT_LNK_TASK_ID on ACT_HI_IDENTITYLINK(TASK_ID_);
+create index ACT_IDX_HI_COMMENT_RM_TIME on ACT_HI_COMMENT(REMOVAL_TIME_);
+create index ACT_IDX_HI_COMMENT_PROCINST on ACT_HI_COMMENT(PROC_INST_ID_);
+create index ACT_IDX_HI_ATTACHMENT_RM_TIME on ACT_HI_ATTACHMENT(REMOVAL_TIME_);
+create index ACT_IDX_HI_ATTACHMENT_PROCINST on ACT_HI_ATTACHMENT(PROC_INST_ID_);
+create index ACT_IDX_HI_INCIDENT_RM_TIME on ACT_HI_INCIDENT(REMOVAL_TIME_);
+create index ACT_IDX_HI_INCIDENT_PROCINST on ACT_HI_INCIDENT(PROC_INST_ID_);
+create index ACT_IDX_HI_JOB_LOG_RM_TIME on ACT_HI_JOB_LOG(REMOVAL_TIME_);
+create index ACT_IDX_HI_EXT_TASK_RM_TIME on ACT_HI_EXT_TASK_LOG(REMOVAL_TIME_);
+create index ACT_IDX_BYTEARRAY_RM_TIME on ACT_GE_BYTEARRAY(REMOVAL_TIME_);
@@ -20,6 +20,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriInfo;
+import org.camunda.bpm.engine.rest.dto.metrics.MetricsHistogramDto;
 import org.camunda.bpm.engine.rest.dto.metrics.MetricsIntervalResultDto;
 
 import org.camunda.bpm.engine.rest.sub.metrics.MetricsResource;
@@ -40,4 +41,9 @@ public interface MetricsRestService {
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   List<MetricsIntervalResultDto> interval(@Context UriInfo uriInfo);
+
+  @GET
+  @Path("/histograms")
+  @Produces(MediaType.APPLICATION_JSON)
+  List<MetricsHistogramDto> getHistograms();
 }
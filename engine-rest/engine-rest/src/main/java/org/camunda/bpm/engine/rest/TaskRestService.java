@@ -37,21 +37,25 @@ public interface TaskRestService {
   @GET
   @Produces({MediaType.APPLICATION_JSON, Hal.APPLICATION_HAL_JSON})
   Object getTasks(@Context Request request, @Context UriInfo uriInfo,
-                  @QueryParam("firstResult") Integer firstResult, @QueryParam("maxResults") Integer maxResults);
+                  @QueryParam("firstResult") Integer firstResult, @QueryParam("maxResults") Integer maxResults,
+                  @QueryParam("afterId") String afterId);
 
   /**
-   * Expects the same parameters as {@link TaskRestService#getTasks(UriInfo, Integer, Integer)} (as
+   * Expects the same parameters as {@link TaskRestService#getTasks(Request, UriInfo, Integer, Integer, String)} (as
    * JSON message body) and allows more than one variable check.
    * @param query
    * @param firstResult
    * @param maxResults
+   * @param afterId the id of the last task of the previous page; tasks are then
+   * returned ordered by id without skipping the previous pages
    * @return
    */
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   List<TaskDto> queryTasks(TaskQueryDto query,
-      @QueryParam("firstResult") Integer firstResult, @QueryParam("maxResults") Integer maxResults);
+      @QueryParam("firstResult") Integer firstResult, @QueryParam("maxResults") Integer maxResults,
+      @QueryParam("afterId") String afterId);
 
   @GET
   @Path("/count")
@@ -23,6 +23,7 @@ public class FetchExternalTasksDto {
   protected int maxTasks;
   protected String workerId;
   protected boolean usePriority = false;
+  protected Long asyncResponseTimeout;
   protected List<FetchExternalTaskTopicDto> topics;
 
   public int getMaxTasks() {
@@ -52,6 +53,14 @@ public class FetchExternalTasksDto {
     this.usePriority = usePriority;
   }
 
+  public Long getAsyncResponseTimeout() {
+    return asyncResponseTimeout;
+  }
+
+  public void setAsyncResponseTimeout(Long asyncResponseTimeout) {
+    this.asyncResponseTimeout = asyncResponseTimeout;
+  }
+
   public static class FetchExternalTaskTopicDto {
     protected String topicName;
     protected long lockDuration;
@@ -49,24 +49,28 @@ public interface HistoricProcessInstanceRestService {
    * @param uriInfo
    * @param firstResult
    * @param maxResults
+   * @param afterId the id of the last historic process instance of the previous page; the
+   * instances are then returned ordered by id without skipping the previous pages
    * @return
    */
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   List<HistoricProcessInstanceDto> getHistoricProcessInstances(@Context UriInfo uriInfo, @QueryParam("firstResult") Integer firstResult,
-      @QueryParam("maxResults") Integer maxResults);
+      @QueryParam("maxResults") Integer maxResults, @QueryParam("afterId") String afterId);
 
   /**
    * @param query
    * @param firstResult
    * @param maxResults
+   * @param afterId the id of the last historic process instance of the previous page; the
+   * instances are then returned ordered by id without skipping the previous pages
    * @return
    */
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   List<HistoricProcessInstanceDto> queryHistoricProcessInstances(HistoricProcessInstanceQueryDto query, @QueryParam("firstResult") Integer firstResult,
-      @QueryParam("maxResults") Integer maxResults);
+      @QueryParam("maxResults") Integer maxResults, @QueryParam("afterId") String afterId);
 
   @GET
   @Path("/count")
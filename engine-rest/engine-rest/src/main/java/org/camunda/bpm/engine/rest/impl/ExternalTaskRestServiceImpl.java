@@ -21,6 +21,7 @@ import javax.ws.rs.core.Response.Status;
 import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.ExternalTaskService;
 import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.exception.NotFoundException;
 import org.camunda.bpm.engine.externaltask.ExternalTask;
@@ -28,6 +29,9 @@ import org.camunda.bpm.engine.externaltask.ExternalTaskQuery;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryBuilder;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher.Waiter;
 import org.camunda.bpm.engine.rest.ExternalTaskRestService;
 import org.camunda.bpm.engine.rest.dto.CountResultDto;
 import org.camunda.bpm.engine.rest.dto.batch.BatchDto;
@@ -50,6 +54,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class ExternalTaskRestServiceImpl extends AbstractRestProcessEngineAware implements ExternalTaskRestService {
 
+  /**
+   * Maximum time in milliseconds a fetch and lock request waits for external tasks
+   */
+  public static final long MAX_ASYNC_RESPONSE_TIMEOUT = 1800000;
+
   public ExternalTaskRestServiceImpl(String processEngine, ObjectMapper objectMapper) {
     super(processEngine, objectMapper);
   }
@@ -112,6 +121,76 @@ public class ExternalTaskRestServiceImpl extends AbstractRestProcessEngineAware
 
   @Override
   public List<LockedExternalTaskDto> fetchAndLock(FetchExternalTasksDto fetchingDto) {
+    Long asyncResponseTimeout = fetchingDto.getAsyncResponseTimeout();
+    ExternalTaskDispatcher dispatcher = null;
+
+    if (asyncResponseTimeout != null && asyncResponseTimeout > 0) {
+      if (asyncResponseTimeout > MAX_ASYNC_RESPONSE_TIMEOUT) {
+        throw new InvalidRequestException(Status.BAD_REQUEST, "The asynchronous response timeout cannot be set to a value greater than "
+            + MAX_ASYNC_RESPONSE_TIMEOUT + " milliseconds");
+      }
+      dispatcher = getExternalTaskDispatcher();
+    }
+
+    if (dispatcher == null || fetchingDto.getTopics() == null || fetchingDto.getTopics().isEmpty()) {
+      return LockedExternalTaskDto.fromLockedExternalTasks(executeFetchAndLock(fetchingDto));
+    }
+    else {
+      return LockedExternalTaskDto.fromLockedExternalTasks(fetchAndLockWithLongPolling(fetchingDto, dispatcher, asyncResponseTimeout));
+    }
+  }
+
+  /**
+   * Fetches and locks external tasks and, if none are available, waits until the dispatcher
+   * notifies that an external task of one of the topics became fetchable or the timeout elapses.
+   * The request thread waits at most the polling interval of the dispatcher before it fetches again,
+   * since tasks can also become fetchable without a notification, e.g. on another node. If the
+   * maximum number of waiting requests is reached and no task is available, the request is rejected
+   * with status 503 and a hint to retry after the polling interval instead of occupying a request thread.
+   */
+  protected List<LockedExternalTask> fetchAndLockWithLongPolling(FetchExternalTasksDto fetchingDto, ExternalTaskDispatcher dispatcher, long timeout) {
+    List<String> topicNames = new ArrayList<String>();
+    for (FetchExternalTaskTopicDto topicDto : fetchingDto.getTopics()) {
+      topicNames.add(topicDto.getTopicName());
+    }
+
+    long deadline = System.currentTimeMillis() + timeout;
+
+    while (true) {
+      // register before fetching, so that tasks which become fetchable in between are not missed
+      Waiter waiter = dispatcher.register(topicNames);
+      if (waiter == null) {
+        // too many requests are waiting already
+        List<LockedExternalTask> tasks = executeFetchAndLock(fetchingDto);
+        if (tasks.isEmpty()) {
+          throw new InvalidRequestException(Status.SERVICE_UNAVAILABLE, "The maximum number of "
+              + dispatcher.getMaxWaiters() + " waiting fetch and lock requests is reached, retry after "
+              + dispatcher.getPollingInterval() + " milliseconds");
+        }
+        return tasks;
+      }
+
+      try {
+        List<LockedExternalTask> tasks = executeFetchAndLock(fetchingDto);
+
+        long remainingTime = deadline - System.currentTimeMillis();
+        if (!tasks.isEmpty() || remainingTime <= 0) {
+          return tasks;
+        }
+
+        waiter.await(Math.min(remainingTime, dispatcher.getPollingInterval()));
+
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new ArrayList<LockedExternalTask>();
+
+      } finally {
+        dispatcher.unregister(waiter);
+      }
+    }
+  }
+
+  protected List<LockedExternalTask> executeFetchAndLock(FetchExternalTasksDto fetchingDto) {
     ExternalTaskQueryBuilder fetchBuilder = processEngine
       .getExternalTaskService()
       .fetchAndLock(fetchingDto.getMaxTasks(), fetchingDto.getWorkerId(), fetchingDto.isUsePriority());
@@ -133,9 +212,17 @@ public class ExternalTaskRestServiceImpl extends AbstractRestProcessEngineAware
       }
     }
 
-    List<LockedExternalTask> tasks = fetchBuilder.execute();
+    return fetchBuilder.execute();
+  }
 
-    return LockedExternalTaskDto.fromLockedExternalTasks(tasks);
+  protected ExternalTaskDispatcher getExternalTaskDispatcher() {
+    ProcessEngineConfiguration configuration = processEngine.getProcessEngineConfiguration();
+    if (configuration instanceof ProcessEngineConfigurationImpl) {
+      return ((ProcessEngineConfigurationImpl) configuration).getExternalTaskDispatcher();
+    }
+    else {
+      return null;
+    }
   }
 
   @Override
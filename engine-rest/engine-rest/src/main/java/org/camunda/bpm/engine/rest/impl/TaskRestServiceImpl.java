@@ -49,32 +49,32 @@ public class TaskRestServiceImpl extends AbstractRestProcessEngineAware implemen
     super(engineName, objectMapper);
   }
 
-  public Object getTasks(Request request, UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+  public Object getTasks(Request request, UriInfo uriInfo, Integer firstResult, Integer maxResults, String afterId) {
     Variant variant = request.selectVariant(VARIANTS);
     if (variant != null) {
       if (MediaType.APPLICATION_JSON_TYPE.equals(variant.getMediaType())) {
-        return getJsonTasks(uriInfo, firstResult, maxResults);
+        return getJsonTasks(uriInfo, firstResult, maxResults, afterId);
       }
       else if (Hal.APPLICATION_HAL_JSON_TYPE.equals(variant.getMediaType())) {
-        return getHalTasks(uriInfo, firstResult, maxResults);
+        return getHalTasks(uriInfo, firstResult, maxResults, afterId);
       }
     }
     throw new InvalidRequestException(Response.Status.NOT_ACCEPTABLE, "No acceptable content-type found");
   }
 
-  public List<TaskDto> getJsonTasks(UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+  public List<TaskDto> getJsonTasks(UriInfo uriInfo, Integer firstResult, Integer maxResults, String afterId) {
     TaskQueryDto queryDto = new TaskQueryDto(getObjectMapper(), uriInfo.getQueryParameters());
-    return queryTasks(queryDto, firstResult, maxResults);
+    return queryTasks(queryDto, firstResult, maxResults, afterId);
   }
 
-  public HalTaskList getHalTasks(UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+  public HalTaskList getHalTasks(UriInfo uriInfo, Integer firstResult, Integer maxResults, String afterId) {
     TaskQueryDto queryDto = new TaskQueryDto(getObjectMapper(), uriInfo.getQueryParameters());
 
     ProcessEngine engine = getProcessEngine();
     TaskQuery query = queryDto.toQuery(engine);
 
     // get list of tasks
-    List<Task> matchingTasks = executeTaskQuery(firstResult, maxResults, query);
+    List<Task> matchingTasks = executeTaskQuery(firstResult, maxResults, afterId, query);
 
     // get total count
     long count = query.count();
@@ -84,12 +84,12 @@ public class TaskRestServiceImpl extends AbstractRestProcessEngineAware implemen
 
   @Override
   public List<TaskDto> queryTasks(TaskQueryDto queryDto, Integer firstResult,
-      Integer maxResults) {
+      Integer maxResults, String afterId) {
     ProcessEngine engine = getProcessEngine();
     queryDto.setObjectMapper(getObjectMapper());
     TaskQuery query = queryDto.toQuery(engine);
 
-    List<Task> matchingTasks = executeTaskQuery(firstResult, maxResults, query);
+    List<Task> matchingTasks = executeTaskQuery(firstResult, maxResults, afterId, query);
 
     List<TaskDto> tasks = new ArrayList<TaskDto>();
     for (Task task : matchingTasks) {
@@ -100,13 +100,15 @@ public class TaskRestServiceImpl extends AbstractRestProcessEngineAware implemen
     return tasks;
   }
 
-  protected List<Task> executeTaskQuery(Integer firstResult, Integer maxResults, TaskQuery query) {
+  protected List<Task> executeTaskQuery(Integer firstResult, Integer maxResults, String afterId, TaskQuery query) {
 
     // enable initialization of form key:
     query.initializeFormKeys();
 
     List<Task> matchingTasks;
-    if (firstResult != null || maxResults != null) {
+    if (afterId != null) {
+      matchingTasks = executePaginatedAfterIdQuery(query, firstResult, maxResults, afterId);
+    } else if (firstResult != null || maxResults != null) {
       matchingTasks = executePaginatedQuery(query, firstResult, maxResults);
     } else {
       matchingTasks = query.list();
@@ -124,6 +126,20 @@ public class TaskRestServiceImpl extends AbstractRestProcessEngineAware implemen
     return query.listPage(firstResult, maxResults);
   }
 
+  protected List<Task> executePaginatedAfterIdQuery(TaskQuery query, Integer firstResult, Integer maxResults, String afterId) {
+    if (firstResult != null) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "Only one of the parameters firstResult and afterId can be set");
+    }
+    if (maxResults == null) {
+      maxResults = Integer.MAX_VALUE;
+    }
+    try {
+      return query.listAfter(afterId, maxResults);
+    } catch (NotValidException e) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, e, "Cannot paginate by afterId: " + e.getMessage());
+    }
+  }
+
   @Override
   public CountResultDto getTasksCount(UriInfo uriInfo) {
     TaskQueryDto queryDto = new TaskQueryDto(getObjectMapper(), uriInfo.getQueryParameters());
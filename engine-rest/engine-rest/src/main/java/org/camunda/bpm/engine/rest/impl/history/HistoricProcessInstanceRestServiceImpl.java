@@ -17,6 +17,7 @@ import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.HistoryService;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.batch.Batch;
+import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.history.HistoricProcessInstance;
 import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
 import org.camunda.bpm.engine.history.ReportResult;
@@ -63,18 +64,20 @@ import java.util.List;
   }
 
   @Override
-  public List<HistoricProcessInstanceDto> getHistoricProcessInstances(UriInfo uriInfo, Integer firstResult, Integer maxResults) {
+  public List<HistoricProcessInstanceDto> getHistoricProcessInstances(UriInfo uriInfo, Integer firstResult, Integer maxResults, String afterId) {
     HistoricProcessInstanceQueryDto queryHistoriProcessInstanceDto = new HistoricProcessInstanceQueryDto(objectMapper, uriInfo.getQueryParameters());
-    return queryHistoricProcessInstances(queryHistoriProcessInstanceDto, firstResult, maxResults);
+    return queryHistoricProcessInstances(queryHistoriProcessInstanceDto, firstResult, maxResults, afterId);
   }
 
   @Override
-  public List<HistoricProcessInstanceDto> queryHistoricProcessInstances(HistoricProcessInstanceQueryDto queryDto, Integer firstResult, Integer maxResults) {
+  public List<HistoricProcessInstanceDto> queryHistoricProcessInstances(HistoricProcessInstanceQueryDto queryDto, Integer firstResult, Integer maxResults, String afterId) {
     queryDto.setObjectMapper(objectMapper);
     HistoricProcessInstanceQuery query = queryDto.toQuery(processEngine);
 
     List<HistoricProcessInstance> matchingHistoricProcessInstances;
-    if (firstResult != null || maxResults != null) {
+    if (afterId != null) {
+      matchingHistoricProcessInstances = executePaginatedAfterIdQuery(query, firstResult, maxResults, afterId);
+    } else if (firstResult != null || maxResults != null) {
       matchingHistoricProcessInstances = executePaginatedQuery(query, firstResult, maxResults);
     } else {
       matchingHistoricProcessInstances = query.list();
@@ -98,6 +101,20 @@ import java.util.List;
     return query.listPage(firstResult, maxResults);
   }
 
+  protected List<HistoricProcessInstance> executePaginatedAfterIdQuery(HistoricProcessInstanceQuery query, Integer firstResult, Integer maxResults, String afterId) {
+    if (firstResult != null) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, "Only one of the parameters firstResult and afterId can be set");
+    }
+    if (maxResults == null) {
+      maxResults = Integer.MAX_VALUE;
+    }
+    try {
+      return query.listAfter(afterId, maxResults);
+    } catch (NotValidException e) {
+      throw new InvalidRequestException(Status.BAD_REQUEST, e, "Cannot paginate by afterId: " + e.getMessage());
+    }
+  }
+
   @Override
   public CountResultDto getHistoricProcessInstancesCount(UriInfo uriInfo) {
     HistoricProcessInstanceQueryDto queryDto = new HistoricProcessInstanceQueryDto(objectMapper, uriInfo.getQueryParameters());
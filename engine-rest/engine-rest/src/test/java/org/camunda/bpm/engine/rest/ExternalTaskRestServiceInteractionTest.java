@@ -13,7 +13,9 @@
 package org.camunda.bpm.engine.rest;
 
 import static com.jayway.restassured.RestAssured.given;
+import static org.junit.Assert.assertEquals;
 import static org.camunda.bpm.engine.rest.helper.MockProvider.createMockBatch;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Matchers.any;
@@ -26,11 +28,13 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,12 +51,16 @@ import org.camunda.bpm.engine.externaltask.ExternalTask;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQuery;
 import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
 import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher;
+import org.camunda.bpm.engine.rest.exception.InvalidRequestException;
 import org.camunda.bpm.engine.rest.exception.RestException;
 import org.camunda.bpm.engine.rest.helper.EqualsVariableMap;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
 import org.camunda.bpm.engine.rest.helper.variable.EqualsObjectValue;
 import org.camunda.bpm.engine.rest.helper.variable.EqualsPrimitiveValue;
 import org.camunda.bpm.engine.rest.helper.variable.EqualsUntypedValue;
+import org.camunda.bpm.engine.rest.impl.ExternalTaskRestServiceImpl;
 import org.camunda.bpm.engine.rest.util.VariablesBuilder;
 import org.camunda.bpm.engine.rest.util.container.TestContainerRule;
 import org.camunda.bpm.engine.variable.type.ValueType;
@@ -60,6 +68,8 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 /**
  * @author Thorben Lindhauer
@@ -207,6 +217,189 @@ public class ExternalTaskRestServiceInteractionTest extends AbstractRestServiceT
     verifyNoMoreInteractions(fetchTopicBuilder, externalTaskService);
   }
 
+  @Test
+  public void testFetchAndLockWithLongPolling() {
+    // given
+    final ExternalTaskDispatcher dispatcher = mockExternalTaskDispatcher();
+
+    // no task is available at first, then a task is created
+    when(fetchTopicBuilder.execute())
+      .thenAnswer(new Answer<List<LockedExternalTask>>() {
+        public List<LockedExternalTask> answer(InvocationOnMock invocation) throws Throwable {
+          dispatcher.notifyExternalTaskAvailable("aTopicName");
+          return Collections.emptyList();
+        }
+      })
+      .thenReturn(Arrays.asList(lockedExternalTaskMock));
+
+    // when
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("maxTasks", 5);
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("asyncResponseTimeout", 10000L);
+
+    Map<String, Object> topicParameter = new HashMap<String, Object>();
+    topicParameter.put("topicName", "aTopicName");
+    topicParameter.put("lockDuration", 12354L);
+    parameters.put("topics", Arrays.asList(topicParameter));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+      .header("accept", MediaType.APPLICATION_JSON)
+    .then()
+      .expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body("[0].id", equalTo(MockProvider.EXTERNAL_TASK_ID))
+    .when()
+      .post(FETCH_EXTERNAL_TASK_URL);
+
+    // then the tasks are fetched again after the notification
+    verify(fetchTopicBuilder, times(2)).execute();
+    assertEquals(0, dispatcher.getNumberOfWaiters("aTopicName"));
+  }
+
+  @Test
+  public void testFetchAndLockWithLongPollingTimeout() {
+    // given
+    ExternalTaskDispatcher dispatcher = mockExternalTaskDispatcher();
+    when(fetchTopicBuilder.execute()).thenReturn(Collections.<LockedExternalTask>emptyList());
+
+    // when
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("maxTasks", 5);
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("asyncResponseTimeout", 100L);
+
+    Map<String, Object> topicParameter = new HashMap<String, Object>();
+    topicParameter.put("topicName", "aTopicName");
+    topicParameter.put("lockDuration", 12354L);
+    parameters.put("topics", Arrays.asList(topicParameter));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+      .header("accept", MediaType.APPLICATION_JSON)
+    .then()
+      .expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body("size()", equalTo(0))
+    .when()
+      .post(FETCH_EXTERNAL_TASK_URL);
+
+    // then the tasks are fetched before waiting and once the timeout elapsed
+    verify(fetchTopicBuilder, times(2)).execute();
+    assertEquals(0, dispatcher.getNumberOfWaiters("aTopicName"));
+  }
+
+  @Test
+  public void testFetchAndLockWithLongPollingQueriesAfterPollingInterval() {
+    // given a task which becomes fetchable without a notification, e.g. on another node
+    ExternalTaskDispatcher dispatcher = mockExternalTaskDispatcher();
+    dispatcher.setPollingInterval(50);
+    when(fetchTopicBuilder.execute())
+      .thenReturn(Collections.<LockedExternalTask>emptyList())
+      .thenReturn(Arrays.asList(lockedExternalTaskMock));
+
+    // when
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("maxTasks", 5);
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("asyncResponseTimeout", 60000L);
+
+    Map<String, Object> topicParameter = new HashMap<String, Object>();
+    topicParameter.put("topicName", "aTopicName");
+    topicParameter.put("lockDuration", 12354L);
+    parameters.put("topics", Arrays.asList(topicParameter));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+      .header("accept", MediaType.APPLICATION_JSON)
+    .then()
+      .expect()
+      .statusCode(Status.OK.getStatusCode())
+      .body("[0].id", equalTo(MockProvider.EXTERNAL_TASK_ID))
+    .when()
+      .post(FETCH_EXTERNAL_TASK_URL);
+
+    // then the tasks are fetched again once the polling interval elapsed
+    verify(fetchTopicBuilder, times(2)).execute();
+  }
+
+  @Test
+  public void testFetchAndLockWithLongPollingMaxWaitersReached() {
+    // given
+    ExternalTaskDispatcher dispatcher = mockExternalTaskDispatcher();
+    dispatcher.setMaxWaiters(0);
+    when(fetchTopicBuilder.execute()).thenReturn(Collections.<LockedExternalTask>emptyList());
+
+    // when
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("maxTasks", 5);
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("asyncResponseTimeout", 60000L);
+
+    Map<String, Object> topicParameter = new HashMap<String, Object>();
+    topicParameter.put("topicName", "aTopicName");
+    topicParameter.put("lockDuration", 12354L);
+    parameters.put("topics", Arrays.asList(topicParameter));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+      .header("accept", MediaType.APPLICATION_JSON)
+    .then()
+      .expect()
+      .statusCode(Status.SERVICE_UNAVAILABLE.getStatusCode())
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", containsString("retry after " + dispatcher.getPollingInterval() + " milliseconds"))
+    .when()
+      .post(FETCH_EXTERNAL_TASK_URL);
+
+    // then the request does not wait
+    verify(fetchTopicBuilder, times(1)).execute();
+    assertEquals(0, dispatcher.getNumberOfWaiters("aTopicName"));
+  }
+
+  @Test
+  public void testFetchAndLockWithTooLongAsyncResponseTimeout() {
+    mockExternalTaskDispatcher();
+
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("maxTasks", 5);
+    parameters.put("workerId", "aWorkerId");
+    parameters.put("asyncResponseTimeout", ExternalTaskRestServiceImpl.MAX_ASYNC_RESPONSE_TIMEOUT + 1);
+
+    Map<String, Object> topicParameter = new HashMap<String, Object>();
+    topicParameter.put("topicName", "aTopicName");
+    topicParameter.put("lockDuration", 12354L);
+    parameters.put("topics", Arrays.asList(topicParameter));
+
+    given()
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(parameters)
+      .header("accept", MediaType.APPLICATION_JSON)
+    .then()
+      .expect()
+      .statusCode(Status.BAD_REQUEST.getStatusCode())
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+    .when()
+      .post(FETCH_EXTERNAL_TASK_URL);
+
+    verifyNoMoreInteractions(fetchTopicBuilder, externalTaskService);
+  }
+
+  protected ExternalTaskDispatcher mockExternalTaskDispatcher() {
+    ExternalTaskDispatcher dispatcher = new ExternalTaskDispatcher();
+
+    ProcessEngineConfigurationImpl processEngineConfigurationMock = mock(ProcessEngineConfigurationImpl.class);
+    when(processEngineConfigurationMock.getExternalTaskDispatcher()).thenReturn(dispatcher);
+    when(processEngine.getProcessEngineConfiguration()).thenReturn(processEngineConfigurationMock);
+
+    return dispatcher;
+  }
+
   @Test
   public void testEnableCustomObjectDeserialization() {
     // given
@@ -24,12 +24,14 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Date;
 import javax.ws.rs.core.Response.Status;
 
 
 import org.camunda.bpm.engine.ManagementService;
 import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.management.MetricsHistogram;
 import org.camunda.bpm.engine.management.MetricsQuery;
 import org.camunda.bpm.engine.rest.helper.MockProvider;
 import org.camunda.bpm.engine.rest.util.container.TestContainerRule;
@@ -297,4 +299,36 @@ public class MetricsRestServiceInteractionTest extends AbstractRestServiceTest {
   }
 
 
+  @Test
+  public void testGetHistograms() {
+    MetricsHistogram histogram = mock(MetricsHistogram.class);
+    when(histogram.getName()).thenReturn(Metrics.COMMAND_DURATION);
+    when(histogram.getCount()).thenReturn(10L);
+    when(histogram.getSum()).thenReturn(150L);
+    when(histogram.getMax()).thenReturn(90L);
+    when(histogram.getMean()).thenReturn(15.0);
+    when(histogram.getValueAtPercentile(50)).thenReturn(5L);
+    when(histogram.getValueAtPercentile(95)).thenReturn(63L);
+    when(histogram.getValueAtPercentile(99)).thenReturn(90L);
+
+    when(managementServiceMock.getMetricsHistograms()).thenReturn(Arrays.asList(histogram));
+
+    given()
+      .then()
+        .expect()
+          .statusCode(Status.OK.getStatusCode())
+          .body("[0].name", equalTo(Metrics.COMMAND_DURATION))
+          .body("[0].count", equalTo(10))
+          .body("[0].sum", equalTo(150))
+          .body("[0].max", equalTo(90))
+          .body("[0].mean", equalTo(15.0f))
+          .body("[0].p50", equalTo(5))
+          .body("[0].p95", equalTo(63))
+          .body("[0].p99", equalTo(90))
+      .when()
+        .get(METRICS_URL + "/histograms");
+
+    verify(managementServiceMock).getMetricsHistograms();
+  }
+
 }
@@ -6,6 +6,7 @@ import static org.camunda.bpm.engine.rest.util.DateTimeUtils.withTimezone;
 import static org.camunda.bpm.engine.rest.util.QueryParamUtils.arrayAsCommaSeperatedList;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
@@ -29,6 +30,7 @@ import javax.ws.rs.core.Response.Status;
 import org.camunda.bpm.ProcessApplicationService;
 import org.camunda.bpm.application.ProcessApplicationInfo;
 import org.camunda.bpm.container.RuntimeContainerDelegate;
+import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.identity.User;
 import org.camunda.bpm.engine.identity.UserQuery;
 import org.camunda.bpm.engine.repository.CaseDefinition;
@@ -874,6 +876,48 @@ public class TaskRestServiceQueryTest extends AbstractRestServiceTest {
     verify(mockQuery).listPage(firstResult, maxResults);
   }
 
+  @Test
+  public void testPaginationAfterId() {
+    String afterId = "aTaskId";
+    int maxResults = 10;
+    given().queryParam("afterId", afterId).queryParam("maxResults", maxResults)
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.OK.getStatusCode())
+      .when().get(TASK_QUERY_URL);
+
+    verify(mockQuery).listAfter(afterId, maxResults);
+    verify(mockQuery, never()).listPage(anyInt(), anyInt());
+  }
+
+  @Test
+  public void testPaginationAfterIdWithFirstResult() {
+    given().queryParam("afterId", "aTaskId").queryParam("firstResult", 0)
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.BAD_REQUEST.getStatusCode()).contentType(ContentType.JSON)
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("Only one of the parameters firstResult and afterId can be set"))
+      .when().get(TASK_QUERY_URL);
+
+    verify(mockQuery, never()).listAfter(anyString(), anyInt());
+  }
+
+  @Test
+  public void testPaginationAfterIdWithSorting() {
+    String message = "Invalid query: pagination by the id of the last result only supports the default ordering by id";
+    when(mockQuery.listAfter(anyString(), anyInt())).thenThrow(new NotValidException(message));
+
+    given().queryParam("afterId", "aTaskId").queryParam("sortBy", "dueDate").queryParam("sortOrder", "desc")
+      .header("accept", MediaType.APPLICATION_JSON)
+      .then().expect().statusCode(Status.BAD_REQUEST.getStatusCode()).contentType(ContentType.JSON)
+      .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+      .body("message", equalTo("Cannot paginate by afterId: " + message))
+      .when().get(TASK_QUERY_URL);
+
+    InOrder inOrder = inOrder(mockQuery);
+    inOrder.verify(mockQuery).orderByDueDate();
+    inOrder.verify(mockQuery).listAfter("aTaskId", Integer.MAX_VALUE);
+  }
+
   @Test
   public void testTaskVariableParameters() {
     // equals
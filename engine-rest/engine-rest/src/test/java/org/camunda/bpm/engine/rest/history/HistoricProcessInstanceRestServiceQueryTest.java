@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Set;
 import com.jayway.restassured.http.ContentType;
 import com.jayway.restassured.response.Response;
+import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.history.HistoricProcessInstance;
 import org.camunda.bpm.engine.history.HistoricProcessInstanceQuery;
 import org.camunda.bpm.engine.impl.calendar.DateTimeUtil;
@@ -33,10 +34,13 @@ import static com.jayway.restassured.path.json.JsonPath.from;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -308,6 +312,83 @@ public class HistoricProcessInstanceRestServiceQueryTest extends AbstractRestSer
     verify(mockedQuery).listPage(firstResult, maxResults);
   }
 
+  @Test
+  public void testPaginationAfterId() {
+    String afterId = "aProcessInstanceId";
+    int maxResults = 10;
+
+    given()
+      .queryParam("afterId", afterId)
+      .queryParam("maxResults", maxResults)
+    .then()
+      .expect()
+        .statusCode(Status.OK.getStatusCode())
+      .when()
+        .get(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    verify(mockedQuery).listAfter(afterId, maxResults);
+    verify(mockedQuery, never()).listPage(anyInt(), anyInt());
+  }
+
+  @Test
+  public void testPaginationAfterIdAsPost() {
+    String afterId = "aProcessInstanceId";
+    int maxResults = 10;
+
+    given()
+      .queryParam("afterId", afterId)
+      .queryParam("maxResults", maxResults)
+      .contentType(POST_JSON_CONTENT_TYPE)
+      .body(EMPTY_JSON_OBJECT)
+    .then()
+      .expect()
+        .statusCode(Status.OK.getStatusCode())
+      .when()
+        .post(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    verify(mockedQuery).listAfter(afterId, maxResults);
+  }
+
+  @Test
+  public void testPaginationAfterIdWithFirstResult() {
+    given()
+      .queryParam("afterId", "aProcessInstanceId")
+      .queryParam("firstResult", 0)
+    .then()
+      .expect()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .contentType(ContentType.JSON)
+        .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+        .body("message", equalTo("Only one of the parameters firstResult and afterId can be set"))
+      .when()
+        .get(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    verify(mockedQuery, never()).listAfter(anyString(), anyInt());
+  }
+
+  @Test
+  public void testPaginationAfterIdWithSorting() {
+    String message = "Invalid query: pagination by the id of the last result only supports the default ordering by id";
+    when(mockedQuery.listAfter(anyString(), anyInt())).thenThrow(new NotValidException(message));
+
+    given()
+      .queryParam("afterId", "aProcessInstanceId")
+      .queryParam("sortBy", "instanceId")
+      .queryParam("sortOrder", "asc")
+    .then()
+      .expect()
+        .statusCode(Status.BAD_REQUEST.getStatusCode())
+        .contentType(ContentType.JSON)
+        .body("type", equalTo(InvalidRequestException.class.getSimpleName()))
+        .body("message", equalTo("Cannot paginate by afterId: " + message))
+      .when()
+        .get(HISTORIC_PROCESS_INSTANCE_RESOURCE_URL);
+
+    InOrder inOrder = inOrder(mockedQuery);
+    inOrder.verify(mockedQuery).orderByProcessInstanceId();
+    inOrder.verify(mockedQuery).listAfter("aProcessInstanceId", Integer.MAX_VALUE);
+  }
+
   @Test
   public void testMissingFirstResultParameter() {
     int maxResults = 10;
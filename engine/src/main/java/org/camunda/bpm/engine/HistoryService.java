@@ -189,11 +189,18 @@ public interface HistoryService {
   Job cleanUpHistoryAsync(boolean immediatelyDue);
 
   /**
-   * Finds history cleanup job if present.
+   * Finds history cleanup job if present. If the history cleanup runs in several partitions
+   * (see <code>historyCleanupDegreeOfParallelism</code>), one of the jobs is returned.
    * @return job entity
    */
   Job findHistoryCleanupJob();
 
+  /**
+   * Finds the history cleanup jobs, one per partition of the historic data.
+   * @return the jobs or an empty list if history cleanup was not scheduled
+   */
+  List<Job> findHistoryCleanupJobs();
+
   /**
    * Deletes historic process instances asynchronously. All historic activities, historic task and
    * historic details (variable updates, form properties) are deleted as well.
@@ -28,9 +28,12 @@ import org.camunda.bpm.engine.batch.BatchQuery;
 import org.camunda.bpm.engine.batch.BatchStatisticsQuery;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.management.ActivityStatisticsQuery;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.management.DeploymentStatisticsQuery;
 import org.camunda.bpm.engine.management.JobDefinition;
 import org.camunda.bpm.engine.management.JobDefinitionQuery;
+import org.camunda.bpm.engine.management.CommandProfile;
+import org.camunda.bpm.engine.management.MetricsHistogram;
 import org.camunda.bpm.engine.management.MetricsQuery;
 import org.camunda.bpm.engine.management.ProcessDefinitionStatisticsQuery;
 import org.camunda.bpm.engine.management.TableMetaData;
@@ -1162,6 +1165,45 @@ public interface ManagementService {
    */
   void reportDbMetricsNow();
 
+  /**
+   * Returns the distributions of the values recorded by this engine's histogram metrics
+   * (e.g. {@link org.camunda.bpm.engine.management.Metrics#COMMAND_DURATION}) since the metrics
+   * were last reported. The histograms are node-local and not read from the database. Only the number
+   * of recorded values is reported to the database (e.g. <code>command-duration-count</code>), since
+   * percentiles cannot be summed up by a {@link org.camunda.bpm.engine.management.MetricsQuery}.
+   *
+   * @throws ProcessEngineException if metrics reporting is disabled
+   * @throws AuthorizationException
+   *          If the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}.
+   *
+   * @since 7.8
+   */
+  List<MetricsHistogram> getMetricsHistograms();
+
+  /**
+   * Returns the profiles of the most recently executed commands of this engine, ordered
+   * from the least to the most recently completed command. The profiles are node-local
+   * and not read from the database.
+   *
+   * @throws ProcessEngineException if command profiling is disabled
+   * @throws AuthorizationException if the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}
+   *
+   * @since 7.8
+   */
+  List<CommandProfile> getCommandProfiles();
+
+  /**
+   * Returns the size of each deployment cache of this engine and, if the caches were created
+   * by a {@link org.camunda.bpm.engine.impl.persistence.deploy.cache.WeightedCacheFactory},
+   * their hits, misses, loads and evictions. The statistics are node-local and not read from
+   * the database.
+   *
+   * @throws AuthorizationException if the user is not a member of the group {@link Groups#CAMUNDA_ADMIN}
+   *
+   * @since 7.8
+   */
+  List<DeploymentCacheStatistics> getDeploymentCacheStatistics();
+
   /**
    * Creates a query to search for {@link org.camunda.bpm.engine.batch.Batch} instances.
    *
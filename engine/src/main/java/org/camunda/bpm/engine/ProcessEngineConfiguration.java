@@ -169,6 +169,19 @@ public abstract class ProcessEngineConfiguration {
    */
   public static final String AUTHORIZATION_CHECK_REVOKE_AUTO = "auto";
 
+  /**
+   * The history cleanup removes historic process instances whose end time lies further in the past
+   * than the history time to live of their process definition. This is the default strategy.
+   */
+  public static final String HISTORY_CLEANUP_STRATEGY_END_TIME_BASED = "endTimeBased";
+
+  /**
+   * The removal time of the historic data is computed once when a process instance ends and stored
+   * in each history table. The history cleanup then removes all rows whose removal time has passed
+   * table by table, without joining the historic process instances.
+   */
+  public static final String HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED = "removalTimeBased";
+
   protected String processEngineName = ProcessEngines.NAME_DEFAULT;
   protected int idBlockSize = 100;
   protected String history = HISTORY_DEFAULT;
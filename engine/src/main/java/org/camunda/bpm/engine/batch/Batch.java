@@ -39,6 +39,7 @@ public interface Batch {
   String TYPE_HISTORIC_PROCESS_INSTANCE_DELETION = "historic-instance-deletion";
   String TYPE_SET_JOB_RETRIES = "set-job-retries";
   String TYPE_SET_EXTERNAL_TASK_RETRIES = "set-external-task-retries";
+  String TYPE_MESSAGE_CORRELATION = "message-correlation";
 
   /**
    * @return the id of the batch
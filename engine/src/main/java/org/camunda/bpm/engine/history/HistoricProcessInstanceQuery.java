@@ -18,6 +18,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.query.Query;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
 
@@ -289,4 +290,15 @@ public interface HistoricProcessInstanceQuery extends Query<HistoricProcessInsta
 
   /** Only select historic process instances that executed an job before the given date. */
   HistoricProcessInstanceQuery executedJobBefore(Date date);
+
+  /**
+   * Executes the query and returns at most <code>maxResults</code> historic process instances ordered by id
+   * which come after the given one. Unlike {@link #listPage(int, int)}, the database does not need to
+   * skip the results of the previous pages, so that iterating through many results stays fast.
+   *
+   * @param afterId the id of the last historic process instance of the previous page or <code>null</code> to get the first page
+   *
+   * @throws NotValidException if an ordering other than the default ordering by id was specified
+   */
+  List<HistoricProcessInstance> listAfter(String afterId, int maxResults);
 }
@@ -19,7 +19,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.camunda.bpm.application.ProcessApplicationReference;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.impl.cfg.IdGenerator;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
@@ -64,6 +69,11 @@ public abstract class AbstractDefinitionDeployer<DefinitionEntity extends Resour
   }
 
   protected List<DefinitionEntity> parseDefinitionResources(DeploymentEntity deployment, Properties properties) {
+    ExecutorService parsingExecutor = Context.getProcessEngineConfiguration().getDeploymentParsingExecutor();
+    if (parsingExecutor != null && isParallelParsingSupported() && countHandledResources(deployment) > 1) {
+      return parseDefinitionResourcesInParallel(deployment, properties, parsingExecutor);
+    }
+
     List<DefinitionEntity> definitions = new ArrayList<DefinitionEntity>();
     for (ResourceEntity resource : deployment.getResources().values()) {
       LOG.debugProcessingResource(resource.getName());
@@ -74,6 +84,94 @@ public abstract class AbstractDefinitionDeployer<DefinitionEntity extends Resour
     return definitions;
   }
 
+  /**
+   * Transforms the handled resources of the deployment concurrently. Each resource is transformed
+   * with its own properties, which are merged in the order of the resources afterwards, so that the
+   * result does not depend on the order in which the transformations complete.
+   */
+  protected List<DefinitionEntity> parseDefinitionResourcesInParallel(DeploymentEntity deployment, Properties properties, ExecutorService parsingExecutor) {
+    List<ResourceEntity> resources = new ArrayList<ResourceEntity>();
+    List<Properties> resourceProperties = new ArrayList<Properties>();
+    List<Future<Collection<DefinitionEntity>>> transformations = new ArrayList<Future<Collection<DefinitionEntity>>>();
+
+    TransformResourceContext context = new TransformResourceContext();
+
+    try {
+      for (ResourceEntity resource : deployment.getResources().values()) {
+        LOG.debugProcessingResource(resource.getName());
+        if (isResourceHandled(resource)) {
+          Properties transformProperties = new Properties();
+          resources.add(resource);
+          resourceProperties.add(transformProperties);
+          transformations.add(parsingExecutor.submit(new TransformResourceTask(context, deployment, resource, transformProperties)));
+        }
+      }
+
+      List<DefinitionEntity> definitions = new ArrayList<DefinitionEntity>();
+      for (int i = 0; i < transformations.size(); i++) {
+        definitions.addAll(awaitTransformation(resources.get(i), transformations.get(i)));
+        mergeTransformProperties(properties, resourceProperties.get(i));
+      }
+      return definitions;
+
+    } finally {
+      // transformations which are not needed anymore after a failure
+      for (Future<Collection<DefinitionEntity>> transformation : transformations) {
+        transformation.cancel(false);
+      }
+    }
+  }
+
+  protected Collection<DefinitionEntity> awaitTransformation(ResourceEntity resource, Future<Collection<DefinitionEntity>> transformation) {
+    try {
+      return transformation.get();
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      else {
+        throw LOG.exceptionParsingResourceInParallel(resource.getName(), cause);
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw LOG.exceptionParsingResourceInParallel(resource.getName(), e);
+    }
+  }
+
+  protected int countHandledResources(DeploymentEntity deployment) {
+    int handledResources = 0;
+    for (ResourceEntity resource : deployment.getResources().values()) {
+      if (isResourceHandled(resource)) {
+        handledResources++;
+      }
+    }
+    return handledResources;
+  }
+
+  /**
+   * Deployers which support parallel parsing must be able to {@link #transformDefinitions(DeploymentEntity, ResourceEntity, Properties) transform}
+   * resources without a command context and without changing the deployment, and must
+   * {@link #mergeTransformProperties(Properties, Properties) merge} the properties of the transformations.
+   *
+   * @return true if the resources of a deployment may be transformed concurrently
+   */
+  protected boolean isParallelParsingSupported() {
+    return false;
+  }
+
+  /**
+   * Merges the properties of a resource transformed in parallel into the properties of the deployment.
+   */
+  protected void mergeTransformProperties(Properties properties, Properties resourceProperties) {
+    // nothing to merge by default
+  }
+
   protected boolean isResourceHandled(ResourceEntity resource) {
     String resourceName = resource.getName();
 
@@ -193,6 +291,54 @@ public abstract class AbstractDefinitionDeployer<DefinitionEntity extends Resour
     }
   }
 
+  /**
+   * The thread context of the deploying thread which is propagated to the threads transforming resources.
+   */
+  protected static class TransformResourceContext {
+
+    protected final ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    protected final ProcessApplicationReference processApplication = Context.getCurrentProcessApplication();
+    protected final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+  }
+
+  protected class TransformResourceTask implements Callable<Collection<DefinitionEntity>> {
+
+    protected final TransformResourceContext context;
+    protected final DeploymentEntity deployment;
+    protected final ResourceEntity resource;
+    protected final Properties properties;
+
+    public TransformResourceTask(TransformResourceContext context, DeploymentEntity deployment, ResourceEntity resource, Properties properties) {
+      this.context = context;
+      this.deployment = deployment;
+      this.resource = resource;
+      this.properties = properties;
+    }
+
+    public Collection<DefinitionEntity> call() throws Exception {
+      Thread currentThread = Thread.currentThread();
+      ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+
+      currentThread.setContextClassLoader(context.contextClassLoader);
+      Context.setProcessEngineConfiguration(context.processEngineConfiguration);
+      if (context.processApplication != null) {
+        Context.setCurrentProcessApplication(context.processApplication);
+      }
+
+      try {
+        return transformResource(deployment, resource, properties);
+
+      } finally {
+        if (context.processApplication != null) {
+          Context.removeCurrentProcessApplication();
+        }
+        Context.removeProcessEngineConfiguration();
+        currentThread.setContextClassLoader(previousClassLoader);
+      }
+    }
+  }
+
   protected void postProcessDefinitions(DeploymentEntity deployment, List<DefinitionEntity> definitions, Properties properties) {
     if (deployment.isNew()) {
       // if the deployment is new persist the new definitions
@@ -61,6 +61,11 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
 
   protected Set<Validator<AbstractQuery<?, ?>>> validators = new HashSet<Validator<AbstractQuery<?, ?>>>();
 
+  /**
+   * Id of the last result of the previous page when paginating by keyset, see {@link #listPageAfter(String, int)}.
+   */
+  protected String afterId;
+
   protected AbstractQuery() {
   }
 
@@ -150,6 +155,27 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     return evaluateExpressionsAndExecuteList(Context.getCommandContext(), new Page(firstResult, maxResults));
   }
 
+  /**
+   * Returns at most <code>maxResults</code> results ordered by id whose id is greater than the given one.
+   * In contrast to {@link #listPage(int, int)}, the database does not need to skip the results of all
+   * previous pages, so that iterating through large result sets does not get slower with each page.
+   * Only query types whose mapping restricts the results by {@link #getAfterId()} may expose this.
+   *
+   * @param afterId the id of the last result of the previous page or <code>null</code> for the first page
+   */
+  protected List<U> listPageAfter(String afterId, int maxResults) {
+    if (!orderingProperties.isEmpty()) {
+      throw new NotValidException("Invalid query: pagination by the id of the last result only supports the default ordering by id");
+    }
+
+    this.afterId = afterId;
+    try {
+      return listPage(0, maxResults);
+    } finally {
+      this.afterId = null;
+    }
+  }
+
   public long count() {
     this.resultType = ResultType.COUNT;
     if (commandExecutor!=null) {
@@ -334,4 +360,8 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     throw new UnsupportedOperationException();
   }
 
+  public String getAfterId() {
+    return afterId;
+  }
+
 }
@@ -15,6 +15,7 @@ package org.camunda.bpm.engine.impl;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import org.camunda.bpm.engine.impl.event.EventType;
 
@@ -50,6 +51,10 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
   protected boolean isTenantIdSet = false;
   protected String[] tenantIds;
 
+  protected String executionIdAfter;
+  protected String executionIdUpTo;
+  protected Date eventSubscriptionCreatedBefore;
+
   public ExecutionQueryImpl() {
   }
 
@@ -178,6 +183,30 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return this;
   }
 
+  /**
+   * Only select executions with an id greater than the given one.
+   */
+  public ExecutionQueryImpl executionIdAfter(String executionIdAfter) {
+    this.executionIdAfter = executionIdAfter;
+    return this;
+  }
+
+  /**
+   * Only select executions with an id less than or equal to the given one.
+   */
+  public ExecutionQueryImpl executionIdUpTo(String executionIdUpTo) {
+    this.executionIdUpTo = executionIdUpTo;
+    return this;
+  }
+
+  /**
+   * Only match the event subscriptions of the query which were created at or before the given time.
+   */
+  public ExecutionQueryImpl eventSubscriptionCreatedBefore(Date eventSubscriptionCreatedBefore) {
+    this.eventSubscriptionCreatedBefore = eventSubscriptionCreatedBefore;
+    return this;
+  }
+
   //ordering ////////////////////////////////////////////////////
 
   public ExecutionQueryImpl orderByProcessInstanceId() {
@@ -200,6 +229,11 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return this;
   }
 
+  public ExecutionQueryImpl orderByExecutionId() {
+    orderBy(ExecutionQueryProperty.EXECUTION_ID);
+    return this;
+  }
+
   //results ////////////////////////////////////////////////////
 
   @Override
@@ -221,6 +255,18 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
       .findExecutionsByQueryCriteria(this, page);
   }
 
+  /**
+   * Selects the ids of the given page ordered by the query's ordering,
+   * e.g. for keyset pagination in combination with {@link #executionIdAfter(String)}.
+   */
+  public List<String> executeIdPage(CommandContext commandContext, Page page) {
+    checkQueryOk();
+    ensureVariablesInitialized();
+    return commandContext
+      .getExecutionManager()
+      .findExecutionIdPageByQueryCriteria(this, page);
+  }
+
   //getters ////////////////////////////////////////////////////
 
   public String getProcessDefinitionKey() {
@@ -239,6 +285,18 @@ public class ExecutionQueryImpl extends AbstractVariableQueryImpl<ExecutionQuery
     return processInstanceId;
   }
 
+  public String getExecutionIdAfter() {
+    return executionIdAfter;
+  }
+
+  public String getExecutionIdUpTo() {
+    return executionIdUpTo;
+  }
+
+  public Date getEventSubscriptionCreatedBefore() {
+    return eventSubscriptionCreatedBefore;
+  }
+
   public String getProcessInstanceIds() {
     return null;
   }
@@ -28,5 +28,6 @@ public interface ExecutionQueryProperty {
   public static final QueryProperty PROCESS_DEFINITION_ID = new QueryPropertyImpl("ID_");
   public static final QueryProperty SEQUENCE_COUNTER = new QueryPropertyImpl("SEQUENCE_COUNTER_");
   public static final QueryProperty TENANT_ID = new QueryPropertyImpl("TENANT_ID_");
+  public static final QueryProperty EXECUTION_ID = new QueryPropertyImpl("ID_");
 
 }
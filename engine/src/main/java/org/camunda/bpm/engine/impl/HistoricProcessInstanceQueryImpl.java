@@ -275,6 +275,10 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
       .findHistoricProcessInstanceCountByQueryCriteria(this);
   }
 
+  public List<HistoricProcessInstance> listAfter(String afterId, int maxResults) {
+    return listPageAfter(afterId, maxResults);
+  }
+
   public List<HistoricProcessInstance> executeList(CommandContext commandContext, Page page) {
     checkQueryOk();
     ensureVariablesInitialized();
@@ -12,20 +12,28 @@
  */
 package org.camunda.bpm.engine.impl;
 
+import java.util.Date;
 import java.util.List;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensurePositive;
 
 import java.util.Map;
 
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.cmd.CommandLogger;
+import org.camunda.bpm.engine.impl.cmd.CorrelateAllMessageChunkCmd;
 import org.camunda.bpm.engine.impl.cmd.CorrelateAllMessageCmd;
 import org.camunda.bpm.engine.impl.cmd.CorrelateMessageCmd;
 import org.camunda.bpm.engine.impl.cmd.CorrelateStartMessageCmd;
+import org.camunda.bpm.engine.impl.cmd.batch.CorrelateAllMessageBatchCmd;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
 import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
 import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResultType;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.variable.VariableMap;
 import org.camunda.bpm.engine.variable.impl.VariableMapImpl;
@@ -204,6 +212,49 @@ public class MessageCorrelationBuilderImpl implements MessageCorrelationBuilder
     return execute(new CorrelateAllMessageCmd(this));
   }
 
+  public long correlateAllInChunks(int chunkSize) {
+    ensureProcessDefinitionIdNotSet();
+    ensureProcessInstanceAndTenantIdNotSet();
+    ensurePositive(BadUserRequestException.class, "chunkSize", (long) chunkSize);
+
+    long numberOfCorrelations = 0;
+    String executionIdAfter = null;
+    String executionIdUpTo = null;
+    boolean correlateStartMessages = true;
+
+    // the first chunk bounds the executions by the greatest matching id and the subscription
+    // time, so that executions created by the correlation are not correlated a second time
+    Date subscribedBefore = ClockUtil.getCurrentTime();
+
+    while (true) {
+      CorrelateAllMessageChunkCmd chunkCmd = new CorrelateAllMessageChunkCmd(this, executionIdAfter, executionIdUpTo,
+          subscribedBefore, chunkSize, correlateStartMessages);
+      List<MessageCorrelationResult> results = execute(chunkCmd);
+      executionIdUpTo = chunkCmd.getExecutionIdUpTo();
+      numberOfCorrelations += results.size();
+      correlateStartMessages = false;
+
+      int correlatedExecutions = 0;
+      for (MessageCorrelationResult result : results) {
+        if (result.getResultType() == MessageCorrelationResultType.Execution) {
+          executionIdAfter = result.getExecution().getId();
+          correlatedExecutions++;
+        }
+      }
+
+      if (correlatedExecutions < chunkSize) {
+        return numberOfCorrelations;
+      }
+    }
+  }
+
+  public Batch correlateAllAsync() {
+    ensureProcessDefinitionIdNotSet();
+    ensureProcessInstanceAndTenantIdNotSet();
+
+    return execute(new CorrelateAllMessageBatchCmd(this));
+  }
+
   public ProcessInstance correlateStartMessage() {
     ensureCorrelationVariablesNotSet();
     ensureProcessDefinitionAndTenantIdNotSet();
@@ -4,9 +4,11 @@ import java.util.List;
 
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -83,6 +85,11 @@ public class ModificationBatchJobHandler extends AbstractBatchJobHandler<Modific
     return ModificationBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<ModificationBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<ModificationBatchConfiguration>(getJsonConverterInstance(), ModificationBatchConfigurationJsonConverter.PROCESS_INSTANCE_IDS);
+  }
+
   protected ProcessDefinitionEntity getProcessDefinition(CommandContext commandContext, String processDefinitionId) {
     return commandContext.getProcessEngineConfiguration()
         .getDeploymentCache()
@@ -97,6 +97,10 @@ public class ProcessEngineImpl implements ProcessEngine {
 
     executeSchemaOperations();
 
+    if (processEngineConfiguration.getHistoryEventWriter() != null) {
+      processEngineConfiguration.getHistoryEventWriter().start();
+    }
+
     if (name == null) {
       LOG.processEngineCreated(ProcessEngines.NAME_DEFAULT);
     } else {
@@ -145,6 +149,11 @@ public class ProcessEngineImpl implements ProcessEngine {
       jobExecutor.unregisterProcessEngine(this);
     }
 
+    if (processEngineConfiguration.getHistoryEventWriter() != null) {
+      // write the remaining history events before the schema may be dropped
+      processEngineConfiguration.getHistoryEventWriter().stop();
+    }
+
     commandExecutorSchemaOperations.execute(new SchemaOperationProcessEngineClose());
 
     processEngineConfiguration.close();
@@ -18,6 +18,7 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
@@ -61,6 +62,11 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
   protected boolean isTenantIdSet = false;
   protected String[] tenantIds;
 
+  /** restricts the query to process instances with an id greater than the given one, for keyset pagination */
+  protected String processInstanceIdAfter;
+  /** excludes process instances whose historic process instance started after the given time */
+  protected Date startedBefore;
+
   public ProcessInstanceQueryImpl() {
   }
 
@@ -224,6 +230,16 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return this;
   }
 
+  public ProcessInstanceQueryImpl processInstanceIdAfter(String processInstanceIdAfter) {
+    this.processInstanceIdAfter = processInstanceIdAfter;
+    return this;
+  }
+
+  public ProcessInstanceQueryImpl startedBefore(Date startedBefore) {
+    this.startedBefore = startedBefore;
+    return this;
+  }
+
   //results /////////////////////////////////////////////////////////////////
 
   @Override
@@ -252,6 +268,18 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
       .findProcessInstancesIdsByQueryCriteria(this);
   }
 
+  /**
+   * Selects the ids of the given page ordered by the query's ordering,
+   * e.g. for keyset pagination in combination with {@link #processInstanceIdAfter(String)}.
+   */
+  public List<String> executeIdPage(CommandContext commandContext, Page page) {
+    checkQueryOk();
+    ensureVariablesInitialized();
+    return commandContext
+      .getExecutionManager()
+      .findProcessInstanceIdPageByQueryCriteria(this, page);
+  }
+
   //getters /////////////////////////////////////////////////////////////////
 
   public String getProcessInstanceId() {
@@ -326,4 +354,24 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return subCaseInstanceId;
   }
 
+  public String[] getActivityIds() {
+    return activityIds;
+  }
+
+  public boolean isTenantIdSet() {
+    return isTenantIdSet;
+  }
+
+  public String[] getTenantIds() {
+    return tenantIds;
+  }
+
+  public String getProcessInstanceIdAfter() {
+    return processInstanceIdAfter;
+  }
+
+  public Date getStartedBefore() {
+    return startedBefore;
+  }
+
 }
@@ -4,9 +4,11 @@ import java.util.List;
 
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -101,4 +103,9 @@ public class RestartProcessInstancesJobHandler extends AbstractBatchJobHandler<R
     return RestartProcessInstancesBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<RestartProcessInstancesBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<RestartProcessInstancesBatchConfiguration>(getJsonConverterInstance(), RestartProcessInstancesBatchConfigurationJsonConverter.PROCESS_INSTANCE_IDS);
+  }
+
 }
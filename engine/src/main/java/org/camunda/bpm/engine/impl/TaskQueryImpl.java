@@ -1310,6 +1310,10 @@ public class TaskQueryImpl extends AbstractQuery<TaskQuery, Task> implements Tas
 
   //results ////////////////////////////////////////////////////////////////
 
+  public List<Task> listAfter(String afterId, int maxResults) {
+    return listPageAfter(afterId, maxResults);
+  }
+
   @Override
   public List<Task> executeList(CommandContext commandContext, Page page) {
     ensureVariablesInitialized();
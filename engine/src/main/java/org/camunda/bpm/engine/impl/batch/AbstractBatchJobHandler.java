@@ -13,6 +13,9 @@
 
 package org.camunda.bpm.engine.impl.batch;
 
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -22,14 +25,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
-import org.camunda.bpm.engine.impl.util.IoUtil;
-import org.camunda.bpm.engine.impl.util.StringUtil;
-import org.camunda.bpm.engine.impl.util.json.JSONObject;
-import org.camunda.bpm.engine.impl.util.json.JSONTokener;
-
-import java.io.ByteArrayOutputStream;
-import java.io.Reader;
-import java.io.Writer;
+
 import java.util.List;
 
 /**
@@ -39,6 +35,9 @@ import java.util.List;
  */
 public abstract class AbstractBatchJobHandler<T extends BatchConfiguration> implements BatchJobHandler<T> {
 
+  protected BatchConfigurationCodec<T> jsonConfigurationCodec;
+  protected BatchConfigurationCodec<T> compactConfigurationCodec;
+
   public abstract JobDeclaration<BatchJobContext, MessageEntity> getJobDeclaration();
 
   @Override
@@ -129,21 +128,53 @@ public abstract class AbstractBatchJobHandler<T extends BatchConfiguration> impl
 
   @Override
   public byte[] writeConfiguration(T configuration) {
-    JSONObject jsonObject = getJsonConverterInstance().toJsonObject(configuration);
-
-    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-    Writer writer = StringUtil.writerForStream(outStream);
+    BatchConfigurationCodec<T> codec = null;
 
-    jsonObject.write(writer);
-    IoUtil.flushSilently(writer);
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null && processEngineConfiguration.isCompactBatchConfigurationEnabled()) {
+      codec = getCompactConfigurationCodec();
+    }
+    if (codec == null) {
+      codec = getJsonConfigurationCodec();
+    }
 
-    return outStream.toByteArray();
+    return codec.encode(configuration);
   }
 
   @Override
   public T readConfiguration(byte[] serializedConfiguration) {
-    Reader jsonReader = StringUtil.readerFromBytes(serializedConfiguration);
-    return getJsonConverterInstance().toObject(new JSONObject(new JSONTokener(jsonReader)));
+    if (CompactBatchConfigurationCodec.isCompact(serializedConfiguration)) {
+      BatchConfigurationCodec<T> codec = getCompactConfigurationCodec();
+      ensureNotNull("Batch handler '" + getType() + "' cannot read compact configurations", "codec", codec);
+      return codec.decode(serializedConfiguration);
+    }
+    else {
+      return getJsonConfigurationCodec().decode(serializedConfiguration);
+    }
+  }
+
+  protected BatchConfigurationCodec<T> getJsonConfigurationCodec() {
+    if (jsonConfigurationCodec == null) {
+      jsonConfigurationCodec = new JsonBatchConfigurationCodec<T>(getJsonConverterInstance());
+    }
+    return jsonConfigurationCodec;
+  }
+
+  protected BatchConfigurationCodec<T> getCompactConfigurationCodec() {
+    if (compactConfigurationCodec == null) {
+      compactConfigurationCodec = createCompactConfigurationCodec();
+    }
+    return compactConfigurationCodec;
+  }
+
+  /**
+   * Handlers opt into the compact configuration format by returning a codec here.
+   *
+   * @return the codec used if compact batch configurations are enabled or null if the
+   *   configurations of this handler are always written as JSON
+   */
+  protected BatchConfigurationCodec<T> createCompactConfigurationCodec() {
+    return null;
   }
 
   protected abstract JsonObjectConverter<T> getJsonConverterInstance();
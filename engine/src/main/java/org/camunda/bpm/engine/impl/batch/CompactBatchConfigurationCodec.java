@@ -0,0 +1,214 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.batch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.json.JsonObjectConverter;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONArray;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+
+/**
+ * <p>Compact binary encoding of batch configurations. The id list, which makes up most of a
+ * configuration, is written as varint length prefixed UTF-8 strings; the remaining properties
+ * are written as JSON without the id list. If it pays off, the payload is deflated.</p>
+ *
+ * <p>Layout: a {@link #MAGIC} byte which never starts a JSON document, a format
+ * {@link #VERSION} byte and a flags byte, followed by the (possibly deflated) payload consisting
+ * of the length prefixed JSON properties, the number of ids and the length prefixed ids.</p>
+ *
+ * <p>Configurations which do not start with the magic byte are decoded as JSON, so that
+ * configurations written before the codec was enabled can still be read.</p>
+ */
+public class CompactBatchConfigurationCodec<T extends BatchConfiguration> implements BatchConfigurationCodec<T> {
+
+  public static final byte MAGIC = 0;
+  public static final byte VERSION = 1;
+  public static final byte FLAG_DEFLATED = 1;
+
+  /** payloads smaller than this are not deflated */
+  public static final int DEFLATE_THRESHOLD = 256;
+
+  protected static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  protected JsonObjectConverter<T> converter;
+  protected String idsFieldName;
+  protected JsonBatchConfigurationCodec<T> jsonCodec;
+
+  /**
+   * @param converter the JSON converter of the configuration
+   * @param idsFieldName the name of the JSON field the converter writes the ids to
+   */
+  public CompactBatchConfigurationCodec(JsonObjectConverter<T> converter, String idsFieldName) {
+    this.converter = converter;
+    this.idsFieldName = idsFieldName;
+    this.jsonCodec = new JsonBatchConfigurationCodec<T>(converter);
+  }
+
+  public static boolean isCompact(byte[] bytes) {
+    return bytes != null && bytes.length > 0 && bytes[0] == MAGIC;
+  }
+
+  public byte[] encode(T configuration) {
+    JSONObject properties = converter.toJsonObject(configuration);
+    properties.remove(idsFieldName);
+
+    byte[] payload = writePayload(JsonBatchConfigurationCodec.toBytes(properties), configuration.getIds());
+
+    byte flags = 0;
+    if (payload.length >= DEFLATE_THRESHOLD) {
+      byte[] deflatedPayload = deflate(payload);
+      if (deflatedPayload.length < payload.length) {
+        payload = deflatedPayload;
+        flags |= FLAG_DEFLATED;
+      }
+    }
+
+    byte[] bytes = new byte[payload.length + 3];
+    bytes[0] = MAGIC;
+    bytes[1] = VERSION;
+    bytes[2] = flags;
+    System.arraycopy(payload, 0, bytes, 3, payload.length);
+
+    return bytes;
+  }
+
+  public T decode(byte[] bytes) {
+    if (!isCompact(bytes)) {
+      return jsonCodec.decode(bytes);
+    }
+
+    if (bytes.length < 3 || bytes[1] != VERSION) {
+      throw new ProcessEngineException("Unsupported batch configuration format version " + (bytes.length > 1 ? bytes[1] : -1));
+    }
+
+    InputStream inputStream = new ByteArrayInputStream(bytes, 3, bytes.length - 3);
+    if ((bytes[2] & FLAG_DEFLATED) != 0) {
+      inputStream = new InflaterInputStream(inputStream);
+    }
+
+    try {
+      JSONObject properties = JsonBatchConfigurationCodec.toJsonObject(readBytes(inputStream));
+      List<String> ids = readIds(inputStream);
+
+      // the converter expects the id field to be present
+      properties.put(idsFieldName, new JSONArray());
+      T configuration = converter.toObject(properties);
+      configuration.setIds(ids);
+
+      return configuration;
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Unable to read batch configuration", e);
+    }
+    finally {
+      IoUtil.closeSilently(inputStream);
+    }
+  }
+
+  protected byte[] writePayload(byte[] properties, List<String> ids) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(properties.length + 40 * ids.size() + 16);
+    try {
+      writeBytes(outputStream, properties);
+      writeVarInt(outputStream, ids.size());
+      for (String id : ids) {
+        writeBytes(outputStream, id.getBytes(UTF_8));
+      }
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Unable to write batch configuration", e);
+    }
+    return outputStream.toByteArray();
+  }
+
+  protected List<String> readIds(InputStream inputStream) throws IOException {
+    int numberOfIds = readVarInt(inputStream);
+    List<String> ids = new ArrayList<String>(numberOfIds);
+    for (int i = 0; i < numberOfIds; i++) {
+      ids.add(new String(readBytes(inputStream), UTF_8));
+    }
+    return ids;
+  }
+
+  protected byte[] deflate(byte[] bytes) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2);
+    DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream);
+    try {
+      deflaterStream.write(bytes);
+      deflaterStream.finish();
+    }
+    catch (IOException e) {
+      throw new ProcessEngineException("Unable to deflate batch configuration", e);
+    }
+    finally {
+      IoUtil.closeSilently(deflaterStream);
+    }
+    return outputStream.toByteArray();
+  }
+
+  protected static void writeBytes(OutputStream outputStream, byte[] bytes) throws IOException {
+    writeVarInt(outputStream, bytes.length);
+    outputStream.write(bytes);
+  }
+
+  protected static byte[] readBytes(InputStream inputStream) throws IOException {
+    byte[] bytes = new byte[readVarInt(inputStream)];
+    int offset = 0;
+    while (offset < bytes.length) {
+      int read = inputStream.read(bytes, offset, bytes.length - offset);
+      if (read < 0) {
+        throw new IOException("Unexpected end of batch configuration");
+      }
+      offset += read;
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes the given non-negative value in groups of seven bits, least significant group first.
+   */
+  protected static void writeVarInt(OutputStream outputStream, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      outputStream.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    outputStream.write(value);
+  }
+
+  protected static int readVarInt(InputStream inputStream) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = inputStream.read();
+      if (b < 0) {
+        throw new IOException("Unexpected end of batch configuration");
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed length in batch configuration");
+  }
+
+}
@@ -0,0 +1,59 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.camunda.bpm.engine.impl.json.JsonObjectConverter;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+import org.camunda.bpm.engine.impl.util.StringUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+import org.camunda.bpm.engine.impl.util.json.JSONTokener;
+
+/**
+ * Stores batch configurations as JSON documents.
+ */
+public class JsonBatchConfigurationCodec<T> implements BatchConfigurationCodec<T> {
+
+  protected JsonObjectConverter<T> converter;
+
+  public JsonBatchConfigurationCodec(JsonObjectConverter<T> converter) {
+    this.converter = converter;
+  }
+
+  public byte[] encode(T configuration) {
+    return toBytes(converter.toJsonObject(configuration));
+  }
+
+  public T decode(byte[] bytes) {
+    return converter.toObject(toJsonObject(bytes));
+  }
+
+  public static byte[] toBytes(JSONObject jsonObject) {
+    ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+    Writer writer = StringUtil.writerForStream(outStream);
+
+    jsonObject.write(writer);
+    IoUtil.flushSilently(writer);
+
+    return outStream.toByteArray();
+  }
+
+  public static JSONObject toJsonObject(byte[] bytes) {
+    Reader jsonReader = StringUtil.readerFromBytes(bytes);
+    return new JSONObject(new JSONTokener(jsonReader));
+  }
+
+}
@@ -0,0 +1,139 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.camunda.bpm.engine.impl.batch;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.ProcessInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.json.JsonProcessInstanceQueryConverter;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
+
+/**
+ * <p>A process instance query stored in a batch configuration instead of the ids it yields.
+ * The seed job pages through the query results ordered by id, starting after the last id
+ * of the previous page (keyset pagination).</p>
+ *
+ * <p>The query is bound to the process instances started before the batch was created, using
+ * the start time of the historic process instances. Process instances without a historic
+ * process instance, e.g. started before the history was enabled, are included.</p>
+ */
+public class ProcessInstanceQueryCursor {
+
+  protected ProcessInstanceQueryImpl query;
+
+  /** the creation time of the batch */
+  protected Date startedBefore;
+
+  protected String lastProcessInstanceId;
+
+  /** the authentication the batch was created with, used when executing the query */
+  protected Authentication authentication;
+
+  public ProcessInstanceQueryCursor(ProcessInstanceQueryImpl query, Date startedBefore, Authentication authentication) {
+    this.query = query;
+    this.startedBefore = startedBefore;
+    this.authentication = authentication;
+  }
+
+  /**
+   * The query can be stored if paging is enabled, no ids are given explicitly and the
+   * query criteria can be converted to JSON. Since the query is bound by the start time of
+   * the historic process instances, these have to be written with the process instances,
+   * i.e. the history level has to produce process instance start events and the history
+   * must not be written asynchronously.
+   */
+  public static boolean isApplicable(CommandContext commandContext, ProcessInstanceQuery query, Collection<String> ids) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+
+    return processEngineConfiguration.isBatchQueryPagingEnabled()
+        && query != null
+        && (ids == null || ids.isEmpty())
+        && JsonProcessInstanceQueryConverter.INSTANCE.isConvertible((ProcessInstanceQueryImpl) query)
+        && processEngineConfiguration.getHistoryLevel().isHistoryEventProduced(HistoryEventTypes.PROCESS_INSTANCE_START, null)
+        && !processEngineConfiguration.isAsyncHistoryEnabled();
+  }
+
+  public static ProcessInstanceQueryCursor create(CommandContext commandContext, ProcessInstanceQuery query) {
+    return new ProcessInstanceQueryCursor((ProcessInstanceQueryImpl) query, ClockUtil.getCurrentTime(), commandContext.getAuthentication());
+  }
+
+  /**
+   * @return the number of process instances the query yields when the batch is created
+   */
+  public long count() {
+    query.startedBefore(startedBefore);
+    return query.count();
+  }
+
+  /**
+   * Selects the ids of the next page with the authentication of the batch creator
+   * and moves the cursor behind them.
+   *
+   * @return the ids of the page, fewer than the page size if the query is exhausted
+   */
+  public List<String> nextPage(CommandContext commandContext, int pageSize) {
+    query.startedBefore(startedBefore);
+    query.processInstanceIdAfter(lastProcessInstanceId);
+    query.orderByProcessInstanceId().asc();
+
+    IdentityService identityService = commandContext.getProcessEngineConfiguration().getIdentityService();
+    Authentication currentAuthentication = identityService.getCurrentAuthentication();
+
+    List<String> processInstanceIds;
+    identityService.setAuthentication(authentication);
+    try {
+      processInstanceIds = query.executeIdPage(commandContext, new Page(0, pageSize));
+    }
+    finally {
+      identityService.setAuthentication(currentAuthentication);
+    }
+
+    if (!processInstanceIds.isEmpty()) {
+      lastProcessInstanceId = processInstanceIds.get(processInstanceIds.size() - 1);
+    }
+
+    return processInstanceIds;
+  }
+
+  public ProcessInstanceQueryImpl getQuery() {
+    return query;
+  }
+
+  public Date getStartedBefore() {
+    return startedBefore;
+  }
+
+  public String getLastProcessInstanceId() {
+    return lastProcessInstanceId;
+  }
+
+  public void setLastProcessInstanceId(String lastProcessInstanceId) {
+    this.lastProcessInstanceId = lastProcessInstanceId;
+  }
+
+  public Authentication getAuthentication() {
+    return authentication;
+  }
+
+}
@@ -16,9 +16,11 @@ package org.camunda.bpm.engine.impl.batch.deletion;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
 import org.camunda.bpm.engine.impl.batch.BatchConfiguration;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
@@ -43,6 +45,11 @@ public class DeleteHistoricProcessInstancesJobHandler extends AbstractBatchJobHa
     return DeleteHistoricProcessInstanceBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<BatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<BatchConfiguration>(getJsonConverterInstance(), DeleteHistoricProcessInstanceBatchConfigurationJsonConverter.HISTORIC_PROCESS_INSTANCE_IDS);
+  }
+
   @Override
   public JobDeclaration<BatchJobContext, MessageEntity> getJobDeclaration() {
     return JOB_DECLARATION;
@@ -14,6 +14,7 @@
 package org.camunda.bpm.engine.impl.batch.deletion;
 
 import org.camunda.bpm.engine.impl.batch.BatchConfiguration;
+import org.camunda.bpm.engine.impl.batch.ProcessInstanceQueryCursor;
 
 import java.util.List;
 
@@ -30,6 +31,9 @@ public class DeleteProcessInstanceBatchConfiguration extends BatchConfiguration
   protected String deleteReason;
   protected boolean skipCustomListeners;
 
+  /** if set, the seed job pages through the results of this query instead of the ids */
+  protected ProcessInstanceQueryCursor processInstanceQueryCursor;
+
   public DeleteProcessInstanceBatchConfiguration(List<String> ids, boolean skipCustomListeners) {
     this(ids, null, skipCustomListeners);
   }
@@ -52,4 +56,12 @@ public class DeleteProcessInstanceBatchConfiguration extends BatchConfiguration
     return skipCustomListeners;
   }
 
+  public ProcessInstanceQueryCursor getProcessInstanceQueryCursor() {
+    return processInstanceQueryCursor;
+  }
+
+  public void setProcessInstanceQueryCursor(ProcessInstanceQueryCursor processInstanceQueryCursor) {
+    this.processInstanceQueryCursor = processInstanceQueryCursor;
+  }
+
 }
@@ -14,6 +14,7 @@
 package org.camunda.bpm.engine.impl.batch.deletion;
 
 import org.camunda.bpm.engine.impl.json.JsonObjectConverter;
+import org.camunda.bpm.engine.impl.json.JsonProcessInstanceQueryCursorConverter;
 import org.camunda.bpm.engine.impl.util.JsonUtil;
 import org.camunda.bpm.engine.impl.util.json.JSONObject;
 
@@ -31,6 +32,7 @@ public class DeleteProcessInstanceBatchConfigurationJsonConverter extends JsonOb
   public static final String DELETE_REASON = "deleteReason";
   public static final String PROCESS_INSTANCE_IDS = "processInstanceIds";
   public static final String SKIP_CUSTOM_LISTENERS = "skipCustomListeners";
+  public static final String PROCESS_INSTANCE_QUERY_CURSOR = "processInstanceQueryCursor";
 
   public JSONObject toJsonObject(DeleteProcessInstanceBatchConfiguration configuration) {
     JSONObject json = new JSONObject();
@@ -38,6 +40,7 @@ public class DeleteProcessInstanceBatchConfigurationJsonConverter extends JsonOb
     JsonUtil.addField(json, DELETE_REASON, configuration.getDeleteReason());
     JsonUtil.addListField(json, PROCESS_INSTANCE_IDS, configuration.getIds());
     JsonUtil.addField(json, SKIP_CUSTOM_LISTENERS, configuration.isSkipCustomListeners());
+    JsonUtil.addField(json, PROCESS_INSTANCE_QUERY_CURSOR, JsonProcessInstanceQueryCursorConverter.INSTANCE, configuration.getProcessInstanceQueryCursor());
     return json;
   }
 
@@ -50,6 +53,10 @@ public class DeleteProcessInstanceBatchConfigurationJsonConverter extends JsonOb
       configuration.setDeleteReason(deleteReason);
     }
 
+    if (json.has(PROCESS_INSTANCE_QUERY_CURSOR)) {
+      configuration.setProcessInstanceQueryCursor(JsonProcessInstanceQueryCursorConverter.INSTANCE.toObject(json.getJSONObject(PROCESS_INSTANCE_QUERY_CURSOR)));
+    }
+
     return configuration;
   }
 
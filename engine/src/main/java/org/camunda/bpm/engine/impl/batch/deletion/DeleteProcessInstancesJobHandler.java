@@ -16,10 +16,12 @@ package org.camunda.bpm.engine.impl.batch.deletion;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.ProcessInstanceQueryImpl;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchEntity;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -30,6 +32,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -50,6 +53,11 @@ public class DeleteProcessInstancesJobHandler extends AbstractBatchJobHandler<De
     return DeleteProcessInstanceBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<DeleteProcessInstanceBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<DeleteProcessInstanceBatchConfiguration>(getJsonConverterInstance(), DeleteProcessInstanceBatchConfigurationJsonConverter.PROCESS_INSTANCE_IDS);
+  }
+
   @Override
   public JobDeclaration<BatchJobContext, MessageEntity> getJobDeclaration() {
     return JOB_DECLARATION;
@@ -87,8 +95,11 @@ public class DeleteProcessInstancesJobHandler extends AbstractBatchJobHandler<De
   public boolean createJobs(BatchEntity batch) {
     DeleteProcessInstanceBatchConfiguration configuration = readConfiguration(batch.getConfigurationBytes());
 
+    if (configuration.getProcessInstanceQueryCursor() != null) {
+      return createJobsFromQuery(batch, configuration);
+    }
+
     List<String> ids = configuration.getIds();
-    final CommandContext commandContext = Context.getCommandContext();
 
     int batchJobsPerSeed = batch.getBatchJobsPerSeed();
     int invocationsPerBatchJob = batch.getInvocationsPerBatchJob();
@@ -97,6 +108,36 @@ public class DeleteProcessInstancesJobHandler extends AbstractBatchJobHandler<De
     // view of process instances to process
     final List<String> processIds = ids.subList(0, numberOfItemsToProcess);
 
+    createJobsPerDeployment(batch, configuration, processIds, invocationsPerBatchJob);
+
+    return ids.isEmpty();
+  }
+
+  /**
+   * Creates the jobs for the next page of the stored process instance query, so that
+   * the ids never have to be kept in the batch configuration.
+   */
+  protected boolean createJobsFromQuery(BatchEntity batch, DeleteProcessInstanceBatchConfiguration configuration) {
+    int invocationsPerBatchJob = batch.getInvocationsPerBatchJob();
+    int pageSize = invocationsPerBatchJob * batch.getBatchJobsPerSeed();
+
+    List<String> processIds = configuration.getProcessInstanceQueryCursor()
+        .nextPage(Context.getCommandContext(), pageSize);
+
+    if (!processIds.isEmpty()) {
+      createJobsPerDeployment(batch, configuration, new ArrayList<String>(processIds), invocationsPerBatchJob);
+    }
+
+    // update batch configuration with the new position
+    batch.setConfigurationBytes(writeConfiguration(configuration));
+
+    return processIds.size() < pageSize;
+  }
+
+  protected void createJobsPerDeployment(BatchEntity batch, DeleteProcessInstanceBatchConfiguration configuration,
+      final List<String> processIds, int invocationsPerBatchJob) {
+    final CommandContext commandContext = Context.getCommandContext();
+
     List<String> deploymentIds = commandContext.runWithoutAuthorization(new Callable<List<String>>() {
       @Override
       public List<String> call() throws Exception {
@@ -124,8 +165,6 @@ public class DeleteProcessInstancesJobHandler extends AbstractBatchJobHandler<De
     if (!processIds.isEmpty()) {
       createJobEntities(batch, configuration, null, processIds, invocationsPerBatchJob);
     }
-
-    return ids.isEmpty();
   }
 
   protected void createJobEntities(BatchEntity batch, DeleteProcessInstanceBatchConfiguration configuration, String deploymentId,
@@ -4,9 +4,11 @@ import java.util.List;
 
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.SetRetriesBatchConfiguration;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -63,4 +65,9 @@ public class SetExternalTaskRetriesJobHandler extends AbstractBatchJobHandler<Se
     return SetExternalTaskRetriesBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<SetRetriesBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<SetRetriesBatchConfiguration>(getJsonConverterInstance(), SetExternalTaskRetriesBatchConfigurationJsonConverter.EXTERNAL_TASK_IDS);
+  }
+
 }
@@ -15,9 +15,11 @@ package org.camunda.bpm.engine.impl.batch.job;
 
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.SetRetriesBatchConfiguration;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -43,6 +45,11 @@ public class SetJobRetriesJobHandler extends AbstractBatchJobHandler<SetRetriesB
     return SetJobRetriesBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<SetRetriesBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<SetRetriesBatchConfiguration>(getJsonConverterInstance(), SetJobRetriesBatchConfigurationJsonConverter.JOB_IDS);
+  }
+
   @Override
   public JobDeclaration<BatchJobContext, MessageEntity> getJobDeclaration() {
     return JOB_DECLARATION;
@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.batch.message;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.batch.BatchConfiguration;
+import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.runtime.CorrelationSet;
+
+/**
+ * Configuration of a batch correlating a message to executions.
+ * The ids are the ids of the executions.
+ *
+ * If the correlation set is given, the seed job pages through the executions matching it
+ * instead of taking the ids, starting after the last execution id of the previous page
+ * and ending with the greatest id matching at the creation of the batch.
+ */
+public class MessageCorrelationBatchConfiguration extends BatchConfiguration {
+
+  protected String messageName;
+  protected Map<String, Object> variables;
+
+  protected CorrelationSet correlationSet;
+  /** the creation time of the batch, executions subscribing to the message later are not matched */
+  protected Date subscribedBefore;
+  protected String lastExecutionId;
+  protected String executionIdUpTo;
+  /** the authentication the batch was created with, used when selecting the executions */
+  protected Authentication authentication;
+
+  public MessageCorrelationBatchConfiguration(List<String> executionIds, String messageName, Map<String, Object> variables) {
+    super(executionIds);
+    this.messageName = messageName;
+    this.variables = variables;
+  }
+
+  public String getMessageName() {
+    return messageName;
+  }
+
+  public Map<String, Object> getVariables() {
+    return variables;
+  }
+
+  public CorrelationSet getCorrelationSet() {
+    return correlationSet;
+  }
+
+  public void setCorrelationSet(CorrelationSet correlationSet) {
+    this.correlationSet = correlationSet;
+  }
+
+  public Date getSubscribedBefore() {
+    return subscribedBefore;
+  }
+
+  public void setSubscribedBefore(Date subscribedBefore) {
+    this.subscribedBefore = subscribedBefore;
+  }
+
+  public String getLastExecutionId() {
+    return lastExecutionId;
+  }
+
+  public void setLastExecutionId(String lastExecutionId) {
+    this.lastExecutionId = lastExecutionId;
+  }
+
+  public String getExecutionIdUpTo() {
+    return executionIdUpTo;
+  }
+
+  public void setExecutionIdUpTo(String executionIdUpTo) {
+    this.executionIdUpTo = executionIdUpTo;
+  }
+
+  public Authentication getAuthentication() {
+    return authentication;
+  }
+
+  public void setAuthentication(Authentication authentication) {
+    this.authentication = authentication;
+  }
+
+}
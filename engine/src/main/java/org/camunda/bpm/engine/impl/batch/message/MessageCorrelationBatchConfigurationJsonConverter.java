@@ -0,0 +1,239 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.batch.message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.CommandLogger;
+import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.json.JsonObjectConverter;
+import org.camunda.bpm.engine.impl.runtime.CorrelationSet;
+import org.camunda.bpm.engine.impl.util.JsonUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONArray;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.type.ValueType;
+
+/**
+ * Writes the payload variables and correlation keys together with their type, so that numbers
+ * keep their type. Only variables of primitive types are supported.
+ */
+public class MessageCorrelationBatchConfigurationJsonConverter extends JsonObjectConverter<MessageCorrelationBatchConfiguration> {
+
+  private final static CommandLogger LOG = ProcessEngineLogger.CMD_LOGGER;
+
+  public static final MessageCorrelationBatchConfigurationJsonConverter INSTANCE = new MessageCorrelationBatchConfigurationJsonConverter();
+
+  public static final String EXECUTION_IDS = "executionIds";
+  public static final String MESSAGE_NAME = "messageName";
+  public static final String VARIABLES = "variables";
+  public static final String VARIABLE_NAME = "name";
+  public static final String VARIABLE_TYPE = "type";
+  public static final String VARIABLE_VALUE = "value";
+  public static final String CORRELATION_SET = "correlationSet";
+  public static final String BUSINESS_KEY = "businessKey";
+  public static final String CORRELATION_KEYS = "correlationKeys";
+  public static final String LOCAL_CORRELATION_KEYS = "localCorrelationKeys";
+  public static final String PROCESS_INSTANCE_ID = "processInstanceId";
+  public static final String TENANT_ID = "tenantId";
+  public static final String IS_TENANT_ID_SET = "isTenantIdSet";
+  public static final String SUBSCRIBED_BEFORE = "subscribedBefore";
+  public static final String LAST_EXECUTION_ID = "lastExecutionId";
+  public static final String EXECUTION_ID_UP_TO = "executionIdUpTo";
+  public static final String AUTHENTICATED_USER_ID = "authenticatedUserId";
+  public static final String AUTHENTICATED_GROUP_IDS = "authenticatedGroupIds";
+  public static final String AUTHENTICATED_TENANT_IDS = "authenticatedTenantIds";
+
+  public JSONObject toJsonObject(MessageCorrelationBatchConfiguration configuration) {
+    JSONObject json = new JSONObject();
+
+    JsonUtil.addListField(json, EXECUTION_IDS, configuration.getIds());
+    JsonUtil.addField(json, MESSAGE_NAME, configuration.getMessageName());
+    json.put(VARIABLES, writeVariables(configuration.getVariables()));
+
+    CorrelationSet correlationSet = configuration.getCorrelationSet();
+    if (correlationSet != null) {
+      json.put(CORRELATION_SET, writeCorrelationSet(correlationSet));
+      JsonUtil.addDateField(json, SUBSCRIBED_BEFORE, configuration.getSubscribedBefore());
+      JsonUtil.addField(json, LAST_EXECUTION_ID, configuration.getLastExecutionId());
+      JsonUtil.addField(json, EXECUTION_ID_UP_TO, configuration.getExecutionIdUpTo());
+
+      Authentication authentication = configuration.getAuthentication();
+      if (authentication != null) {
+        JsonUtil.addField(json, AUTHENTICATED_USER_ID, authentication.getUserId());
+        if (authentication.getGroupIds() != null) {
+          JsonUtil.addListField(json, AUTHENTICATED_GROUP_IDS, authentication.getGroupIds());
+        }
+        if (authentication.getTenantIds() != null) {
+          JsonUtil.addListField(json, AUTHENTICATED_TENANT_IDS, authentication.getTenantIds());
+        }
+      }
+    }
+
+    return json;
+  }
+
+  public MessageCorrelationBatchConfiguration toObject(JSONObject json) {
+    MessageCorrelationBatchConfiguration configuration = new MessageCorrelationBatchConfiguration(
+        readExecutionIds(json), json.getString(MESSAGE_NAME), readVariables(json.getJSONArray(VARIABLES)));
+
+    if (json.has(CORRELATION_SET)) {
+      configuration.setCorrelationSet(readCorrelationSet(json.getJSONObject(CORRELATION_SET)));
+      if (json.has(SUBSCRIBED_BEFORE)) {
+        configuration.setSubscribedBefore(JsonUtil.getDateField(json, SUBSCRIBED_BEFORE));
+      }
+      if (json.has(LAST_EXECUTION_ID)) {
+        configuration.setLastExecutionId(json.getString(LAST_EXECUTION_ID));
+      }
+      if (json.has(EXECUTION_ID_UP_TO)) {
+        configuration.setExecutionIdUpTo(json.getString(EXECUTION_ID_UP_TO));
+      }
+      if (json.has(AUTHENTICATED_USER_ID)) {
+        configuration.setAuthentication(new Authentication(json.getString(AUTHENTICATED_USER_ID),
+            readStringList(json, AUTHENTICATED_GROUP_IDS), readStringList(json, AUTHENTICATED_TENANT_IDS)));
+      }
+    }
+
+    return configuration;
+  }
+
+  protected JSONObject writeCorrelationSet(CorrelationSet correlationSet) {
+    JSONObject json = new JSONObject();
+
+    JsonUtil.addField(json, BUSINESS_KEY, correlationSet.getBusinessKey());
+    json.put(CORRELATION_KEYS, writeVariables(correlationSet.getCorrelationKeys()));
+    json.put(LOCAL_CORRELATION_KEYS, writeVariables(correlationSet.getLocalCorrelationKeys()));
+    JsonUtil.addField(json, PROCESS_INSTANCE_ID, correlationSet.getProcessInstanceId());
+    JsonUtil.addField(json, TENANT_ID, correlationSet.getTenantId());
+    JsonUtil.addField(json, IS_TENANT_ID_SET, correlationSet.isTenantIdSet());
+
+    return json;
+  }
+
+  protected CorrelationSet readCorrelationSet(JSONObject json) {
+    VariableMap correlationKeys = readVariables(json.getJSONArray(CORRELATION_KEYS));
+    VariableMap localCorrelationKeys = readVariables(json.getJSONArray(LOCAL_CORRELATION_KEYS));
+
+    return new CorrelationSet(
+        json.has(BUSINESS_KEY) ? json.getString(BUSINESS_KEY) : null,
+        correlationKeys.isEmpty() ? null : correlationKeys,
+        localCorrelationKeys.isEmpty() ? null : localCorrelationKeys,
+        json.has(PROCESS_INSTANCE_ID) ? json.getString(PROCESS_INSTANCE_ID) : null,
+        null,
+        json.has(TENANT_ID) ? json.getString(TENANT_ID) : null,
+        json.getBoolean(IS_TENANT_ID_SET));
+  }
+
+  protected JSONArray writeVariables(Map<String, Object> variables) {
+    JSONArray jsonVariables = new JSONArray();
+
+    if (variables != null) {
+      for (Map.Entry<String, Object> variable : variables.entrySet()) {
+        JSONObject jsonVariable = new JSONObject();
+        jsonVariable.put(VARIABLE_NAME, variable.getKey());
+        jsonVariable.put(VARIABLE_TYPE, getTypeName(variable.getKey(), variable.getValue()));
+        JsonUtil.addField(jsonVariable, VARIABLE_VALUE, variable.getValue());
+
+        jsonVariables.put(jsonVariable);
+      }
+    }
+
+    return jsonVariables;
+  }
+
+  protected String getTypeName(String variableName, Object value) {
+    if (value == null) {
+      return ValueType.NULL.getName();
+    }
+    else if (value instanceof String) {
+      return ValueType.STRING.getName();
+    }
+    else if (value instanceof Boolean) {
+      return ValueType.BOOLEAN.getName();
+    }
+    else if (value instanceof Integer) {
+      return ValueType.INTEGER.getName();
+    }
+    else if (value instanceof Long) {
+      return ValueType.LONG.getName();
+    }
+    else if (value instanceof Short) {
+      return ValueType.SHORT.getName();
+    }
+    else if (value instanceof Double) {
+      return ValueType.DOUBLE.getName();
+    }
+    else {
+      throw LOG.exceptionUnsupportedCorrelationPayload(variableName, value);
+    }
+  }
+
+  protected VariableMap readVariables(JSONArray jsonVariables) {
+    VariableMap variables = Variables.createVariables();
+
+    for (int i = 0; i < jsonVariables.length(); i++) {
+      JSONObject jsonVariable = jsonVariables.getJSONObject(i);
+      String name = jsonVariable.getString(VARIABLE_NAME);
+      String type = jsonVariable.getString(VARIABLE_TYPE);
+
+      if (ValueType.STRING.getName().equals(type)) {
+        variables.putValue(name, jsonVariable.getString(VARIABLE_VALUE));
+      }
+      else if (ValueType.BOOLEAN.getName().equals(type)) {
+        variables.putValue(name, jsonVariable.getBoolean(VARIABLE_VALUE));
+      }
+      else if (ValueType.INTEGER.getName().equals(type)) {
+        variables.putValue(name, jsonVariable.getInt(VARIABLE_VALUE));
+      }
+      else if (ValueType.LONG.getName().equals(type)) {
+        variables.putValue(name, jsonVariable.getLong(VARIABLE_VALUE));
+      }
+      else if (ValueType.SHORT.getName().equals(type)) {
+        variables.putValue(name, (short) jsonVariable.getInt(VARIABLE_VALUE));
+      }
+      else if (ValueType.DOUBLE.getName().equals(type)) {
+        variables.putValue(name, jsonVariable.getDouble(VARIABLE_VALUE));
+      }
+      else {
+        variables.putValue(name, null);
+      }
+    }
+
+    return variables;
+  }
+
+  protected List<String> readStringList(JSONObject jsonObject, String name) {
+    if (!jsonObject.has(name)) {
+      return null;
+    }
+    List<String> values = new ArrayList<String>();
+    for (Object value : JsonUtil.jsonArrayAsList(jsonObject.getJSONArray(name))) {
+      values.add((String) value);
+    }
+    return values;
+  }
+
+  protected List<String> readExecutionIds(JSONObject jsonObject) {
+    List<Object> objects = JsonUtil.jsonArrayAsList(jsonObject.getJSONArray(EXECUTION_IDS));
+    List<String> executionIds = new ArrayList<String>();
+    for (Object object : objects) {
+      executionIds.add((String) object);
+    }
+    return executionIds;
+  }
+
+}
@@ -0,0 +1,149 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.batch.message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.batch.Batch;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.batch.BatchEntity;
+import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
+import org.camunda.bpm.engine.impl.batch.BatchJobContext;
+import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.cmd.CommandLogger;
+import org.camunda.bpm.engine.impl.cmd.MessageEventReceivedCmd;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.event.EventType;
+import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionManager;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
+import org.camunda.bpm.engine.impl.runtime.DefaultCorrelationHandler;
+
+/**
+ * Correlates a message to the executions of a batch job. Executions which are no longer
+ * waiting for the message, e.g. because they have been correlated or ended in the meantime,
+ * are skipped.
+ */
+public class MessageCorrelationBatchJobHandler extends AbstractBatchJobHandler<MessageCorrelationBatchConfiguration> {
+
+  private final static CommandLogger LOG = ProcessEngineLogger.CMD_LOGGER;
+
+  public static final BatchJobDeclaration JOB_DECLARATION = new BatchJobDeclaration(Batch.TYPE_MESSAGE_CORRELATION);
+
+  @Override
+  public String getType() {
+    return Batch.TYPE_MESSAGE_CORRELATION;
+  }
+
+  protected MessageCorrelationBatchConfigurationJsonConverter getJsonConverterInstance() {
+    return MessageCorrelationBatchConfigurationJsonConverter.INSTANCE;
+  }
+
+  @Override
+  protected BatchConfigurationCodec<MessageCorrelationBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<MessageCorrelationBatchConfiguration>(getJsonConverterInstance(), MessageCorrelationBatchConfigurationJsonConverter.EXECUTION_IDS);
+  }
+
+  @Override
+  public JobDeclaration<BatchJobContext, MessageEntity> getJobDeclaration() {
+    return JOB_DECLARATION;
+  }
+
+  @Override
+  public boolean createJobs(BatchEntity batch) {
+    MessageCorrelationBatchConfiguration configuration = readConfiguration(batch.getConfigurationBytes());
+
+    if (configuration.getCorrelationSet() == null) {
+      return super.createJobs(batch);
+    }
+
+    int pageSize = batch.getInvocationsPerBatchJob() * batch.getBatchJobsPerSeed();
+    List<String> executionIds = findNextExecutionIds(Context.getCommandContext(), configuration, pageSize);
+
+    if (!executionIds.isEmpty()) {
+      configuration.setLastExecutionId(executionIds.get(executionIds.size() - 1));
+    }
+
+    // the jobs of the page are created like for a list of ids, which
+    // also writes the configuration with the new position
+    configuration.setIds(new ArrayList<String>(executionIds));
+    batch.setConfigurationBytes(writeConfiguration(configuration));
+    super.createJobs(batch);
+
+    return executionIds.size() < pageSize;
+  }
+
+  /**
+   * Selects the next page of executions matching the correlation set with the authentication
+   * of the batch creator.
+   */
+  protected List<String> findNextExecutionIds(CommandContext commandContext, MessageCorrelationBatchConfiguration configuration, int pageSize) {
+    CorrelationHandler correlationHandler = commandContext.getProcessEngineConfiguration().getCorrelationHandler();
+    if (!(correlationHandler instanceof DefaultCorrelationHandler)) {
+      throw LOG.exceptionCorrelateMessageInChunksNotSupported(correlationHandler);
+    }
+
+    IdentityService identityService = commandContext.getProcessEngineConfiguration().getIdentityService();
+    Authentication currentAuthentication = identityService.getCurrentAuthentication();
+
+    identityService.setAuthentication(configuration.getAuthentication());
+    try {
+      return ((DefaultCorrelationHandler) correlationHandler).findCorrelatedExecutionIds(commandContext, configuration.getMessageName(),
+          configuration.getCorrelationSet(), configuration.getLastExecutionId(), configuration.getExecutionIdUpTo(),
+          configuration.getSubscribedBefore(), pageSize);
+    }
+    finally {
+      identityService.setAuthentication(currentAuthentication);
+    }
+  }
+
+  @Override
+  protected MessageCorrelationBatchConfiguration createJobConfiguration(MessageCorrelationBatchConfiguration configuration, List<String> executionIdsForJob) {
+    return new MessageCorrelationBatchConfiguration(executionIdsForJob, configuration.getMessageName(), configuration.getVariables());
+  }
+
+  @Override
+  public void execute(BatchJobConfiguration configuration, ExecutionEntity execution, CommandContext commandContext, String tenantId) {
+    ByteArrayEntity configurationEntity = commandContext
+        .getDbEntityManager()
+        .selectById(ByteArrayEntity.class, configuration.getConfigurationByteArrayId());
+
+    MessageCorrelationBatchConfiguration batchConfiguration = readConfiguration(configurationEntity.getBytes());
+    String messageName = batchConfiguration.getMessageName();
+
+    EventSubscriptionManager eventSubscriptionManager = commandContext.getEventSubscriptionManager();
+    for (String executionId : batchConfiguration.getIds()) {
+      List<EventSubscriptionEntity> eventSubscriptions = eventSubscriptionManager
+          .findEventSubscriptionsByNameAndExecution(EventType.MESSAGE.name(), messageName, executionId, false);
+
+      if (!eventSubscriptions.isEmpty()) {
+        new MessageEventReceivedCmd(messageName, executionId, batchConfiguration.getVariables())
+          .execute(commandContext);
+      }
+    }
+
+    commandContext.getByteArrayManager().delete(configurationEntity);
+  }
+
+}
@@ -15,9 +15,11 @@ package org.camunda.bpm.engine.impl.batch.update;
 import java.util.List;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
@@ -37,6 +39,11 @@ public class UpdateProcessInstancesSuspendStateJobHandler extends AbstractBatchJ
     return UpdateProcessInstancesSuspendStateBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<UpdateProcessInstancesSuspendStateBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<UpdateProcessInstancesSuspendStateBatchConfiguration>(getJsonConverterInstance(), UpdateProcessInstancesSuspendStateBatchConfigurationJsonConverter.PROCESS_INSTANCE_IDS);
+  }
+
   @Override
   public JobDeclaration<BatchJobContext, MessageEntity> getJobDeclaration() {
     return JOB_DECLARATION;
@@ -108,6 +108,21 @@ public class BpmnDeployer extends AbstractDefinitionDeployer<ProcessDefinitionEn
     return bpmnParse.getProcessDefinitions();
   }
 
+  @Override
+  protected boolean isParallelParsingSupported() {
+    return true;
+  }
+
+  @Override
+  protected void mergeTransformProperties(Properties properties, Properties resourceProperties) {
+    if (!properties.contains(JOB_DECLARATIONS_PROPERTY)) {
+      properties.set(JOB_DECLARATIONS_PROPERTY, new HashMap<String, List<JobDeclaration<?, ?>>>());
+    }
+    if (resourceProperties.contains(JOB_DECLARATIONS_PROPERTY)) {
+      properties.get(JOB_DECLARATIONS_PROPERTY).putAll(resourceProperties.get(JOB_DECLARATIONS_PROPERTY));
+    }
+  }
+
   @Override
   protected ProcessDefinitionEntity findDefinitionByDeploymentAndKey(String deploymentId, String definitionKey) {
     return getProcessDefinitionManager().findProcessDefinitionByDeploymentAndKey(deploymentId, definitionKey);
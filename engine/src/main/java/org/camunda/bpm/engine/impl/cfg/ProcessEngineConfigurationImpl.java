@@ -16,6 +16,7 @@ package org.camunda.bpm.engine.impl.cfg;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
@@ -35,6 +36,12 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.naming.InitialContext;
 import javax.sql.DataSource;
@@ -94,6 +101,7 @@ import org.camunda.bpm.engine.impl.batch.deletion.DeleteHistoricProcessInstances
 import org.camunda.bpm.engine.impl.batch.deletion.DeleteProcessInstancesJobHandler;
 import org.camunda.bpm.engine.impl.batch.externaltask.SetExternalTaskRetriesJobHandler;
 import org.camunda.bpm.engine.impl.batch.job.SetJobRetriesJobHandler;
+import org.camunda.bpm.engine.impl.batch.message.MessageCorrelationBatchJobHandler;
 import org.camunda.bpm.engine.impl.batch.update.UpdateProcessInstancesSuspendStateJobHandler;
 import org.camunda.bpm.engine.impl.bpmn.behavior.ExternalTaskActivityBehavior;
 import org.camunda.bpm.engine.impl.bpmn.deployer.BpmnDeployer;
@@ -120,7 +128,9 @@ import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformFactory;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformListener;
 import org.camunda.bpm.engine.impl.cmmn.transformer.CmmnTransformer;
 import org.camunda.bpm.engine.impl.cmmn.transformer.DefaultCmmnTransformFactory;
+import org.camunda.bpm.engine.impl.db.ConcurrentDbIdGenerator;
 import org.camunda.bpm.engine.impl.db.DbIdGenerator;
+import org.camunda.bpm.engine.impl.db.HasDbModificationCounter;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManagerFactory;
 import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCacheKeyMapping;
 import org.camunda.bpm.engine.impl.db.sql.DbSqlPersistenceProviderFactory;
@@ -145,7 +155,10 @@ import org.camunda.bpm.engine.impl.event.EventHandler;
 import org.camunda.bpm.engine.impl.event.EventHandlerImpl;
 import org.camunda.bpm.engine.impl.event.EventType;
 import org.camunda.bpm.engine.impl.event.SignalEventHandler;
+import org.camunda.bpm.engine.impl.event.StartEventSubscriptionIndex;
 import org.camunda.bpm.engine.impl.externaltask.DefaultExternalTaskPriorityProvider;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskIndex;
 import org.camunda.bpm.engine.impl.form.engine.FormEngine;
 import org.camunda.bpm.engine.impl.form.engine.HtmlFormEngine;
 import org.camunda.bpm.engine.impl.form.engine.JuelFormEngine;
@@ -165,8 +178,12 @@ import org.camunda.bpm.engine.impl.form.validator.ReadOnlyValidator;
 import org.camunda.bpm.engine.impl.form.validator.RequiredValidator;
 import org.camunda.bpm.engine.impl.history.HistoryLevel;
 import org.camunda.bpm.engine.impl.history.event.HistoricDecisionInstanceManager;
+import org.camunda.bpm.engine.impl.history.handler.AsyncDbHistoryEventHandler;
 import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventBuffer;
 import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventJournal;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventWriter;
 import org.camunda.bpm.engine.impl.history.parser.HistoryParseListener;
 import org.camunda.bpm.engine.impl.history.producer.CacheAwareCmmnHistoryEventProducer;
 import org.camunda.bpm.engine.impl.history.producer.CacheAwareHistoryEventProducer;
@@ -184,6 +201,7 @@ import org.camunda.bpm.engine.impl.interceptor.CommandContextFactory;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutorImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.engine.impl.interceptor.CommandProfilingInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
 import org.camunda.bpm.engine.impl.interceptor.SessionFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.AsyncContinuationJobHandler;
@@ -197,6 +215,7 @@ import org.camunda.bpm.engine.impl.jobexecutor.JobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.NotifyAcquisitionRejectedJobsHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.ProcessEventJobHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.RejectedJobsHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.SkipLockedAcquireJobsCommandFactory;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerActivateJobDefinitionHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerActivateProcessDefinitionHandler;
 import org.camunda.bpm.engine.impl.jobexecutor.TimerCatchIntermediateEventJobHandler;
@@ -249,6 +268,7 @@ import org.camunda.bpm.engine.impl.persistence.GenericManagerFactory;
 import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheFactory;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.DefaultCacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.WeightedCacheFactory;
 import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
 import org.camunda.bpm.engine.impl.persistence.entity.AttachmentManager;
 import org.camunda.bpm.engine.impl.persistence.entity.AuthorizationManager;
@@ -276,6 +296,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceMa
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityInfoManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IdentityLinkManager;
 import org.camunda.bpm.engine.impl.persistence.entity.IncidentManager;
+import org.camunda.bpm.engine.impl.persistence.entity.InstancePrefetchProfile;
 import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionManager;
 import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
 import org.camunda.bpm.engine.impl.persistence.entity.MeterLogManager;
@@ -290,6 +311,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.TaskReportManager;
 import org.camunda.bpm.engine.impl.persistence.entity.TenantManager;
 import org.camunda.bpm.engine.impl.persistence.entity.UserOperationLogManager;
 import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceManager;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
 import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
 import org.camunda.bpm.engine.impl.runtime.DefaultCorrelationHandler;
 import org.camunda.bpm.engine.impl.scripting.ScriptFactory;
@@ -420,6 +442,46 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected int cacheCapacity = 1000;
   protected boolean enableFetchProcessDefinitionDescription = true;
 
+  /**
+   * If true, the latest definition versions per key and tenant are indexed in the
+   * deployment cache, so that starting or evaluating the latest version by key does not
+   * query the database. Deployments made by other nodes of a cluster are only noticed
+   * once an indexed version expires after {@link #latestDefinitionIndexTimeToLive} milliseconds.
+   */
+  protected boolean latestDefinitionIndexEnabled = false;
+  protected long latestDefinitionIndexTimeToLive = 10000L;
+
+  /**
+   * If true, process definitions evicted from the deployment cache are softly retained, so that
+   * they are restored without parsing the BPMN resource again as long as the heap permits.
+   * The definitions are only retained in memory, so that the resources are parsed again after
+   * a restart. Requires a {@link WeightedCacheFactory}, which is used if no cache factory is set.
+   */
+  protected boolean processDefinitionRetentionEnabled = false;
+
+  /** The maximum number of evicted process definitions which are retained. */
+  protected int processDefinitionRetentionCapacity = 1000;
+
+  /**
+   * If true, the start event subscriptions of process definitions are indexed per event name,
+   * so that throwing a signal or correlating a message only queries the subscriptions of
+   * executions. Deployments made by other nodes of a cluster are only noticed once an indexed
+   * event name expires after {@link #startEventSubscriptionIndexTimeToLive} milliseconds.
+   */
+  protected boolean startEventSubscriptionIndexEnabled = false;
+  protected long startEventSubscriptionIndexTimeToLive = 10000L;
+  protected StartEventSubscriptionIndex startEventSubscriptionIndex;
+
+  /**
+   * If true, the BPMN and DMN resources of a deployment are parsed concurrently by a pool of
+   * {@link #deploymentParsingPoolSize} threads. Parse listeners must then not access the command context.
+   */
+  protected boolean parallelDeploymentParsingEnabled = false;
+  protected int deploymentParsingPoolSize = Runtime.getRuntime().availableProcessors();
+
+  /** shut down when the process engine is closed */
+  protected ExecutorService deploymentParsingExecutor;
+
   // JOB EXECUTOR /////////////////////////////////////////////////////////////
 
   protected List<JobHandler> customJobHandlers;
@@ -428,9 +490,44 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected PriorityProvider<JobDeclaration<?, ?>> jobPriorityProvider;
 
+  /**
+   * If true, jobs are acquired with a single <code>SELECT ... FOR UPDATE SKIP LOCKED</code>
+   * and locked by one bulk update instead of one optimistic update per job. Only takes
+   * effect on databases which support skipping locked rows, see
+   * {@link DbSqlSessionFactory#isSkipLockedSupported(String)}.
+   */
+  protected boolean jobExecutorAcquireWithSkipLocked = false;
+
   // EXTERNAL TASK /////////////////////////////////////////////////////////////
   protected PriorityProvider<ExternalTaskActivityBehavior> externalTaskPriorityProvider;
 
+  /**
+   * Wakes up clients waiting for external tasks, e.g. long polling fetch and lock requests
+   */
+  protected ExternalTaskDispatcher externalTaskDispatcher;
+
+  /**
+   * Maximum time in milliseconds a waiting client, e.g. a long polling fetch and lock request,
+   * waits for a notification before it queries the external tasks again
+   */
+  protected long externalTaskLongPollingInterval = ExternalTaskDispatcher.DEFAULT_POLLING_INTERVAL;
+
+  /**
+   * Maximum number of clients which wait for external tasks at the same time. Each waiting
+   * long polling fetch and lock request blocks a request thread, so the request thread pool
+   * of the server must be considerably larger than this value to keep serving other requests.
+   * Requests beyond this limit which find no external task are rejected with a hint to retry
+   * after the polling interval.
+   */
+  protected int externalTaskLongPollingMaxWaiters = ExternalTaskDispatcher.DEFAULT_MAX_WAITERS;
+
+  /**
+   * If true, external tasks created or unlocked on this node are kept in a node-local
+   * {@link ExternalTaskIndex} which is consulted before querying the tasks of a topic.
+   */
+  protected boolean externalTaskIndexEnabled = false;
+  protected ExternalTaskIndex externalTaskIndex;
+
   // MYBATIS SQL SESSION FACTORY //////////////////////////////////////////////
 
   protected SqlSessionFactory sqlSessionFactory;
@@ -440,6 +537,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   // ID GENERATOR /////////////////////////////////////////////////////////////
   protected IdGenerator idGenerator;
   protected DataSource idGeneratorDataSource;
+
+  /**
+   * If true, the {@link ConcurrentDbIdGenerator} is used instead of the {@link DbIdGenerator}
+   * (unless a custom id generator is set).
+   */
+  protected boolean isConcurrentIdGeneratorEnabled = false;
   protected String idGeneratorDataSourceJndiName;
 
   // INCIDENT HANDLER /////////////////////////////////////////////////////////
@@ -468,6 +571,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    * default priority for batch jobs
    */
   protected long batchJobPriority = DefaultJobPriorityProvider.DEFAULT_PRIORITY;
+  /**
+   * If true, deletion and migration batches created from a process instance query store
+   * the query instead of the resulting ids. The seed job then pages through the query
+   * results by id, so that the ids are never held in memory or in the batch configuration
+   * at once. Process instances started after the batch was created are excluded by the start
+   * time of their historic process instance, so the query is only stored if the history
+   * level produces process instance start events and the history is written synchronously.
+   * Batches created from historic process instance or job queries always resolve the ids,
+   * since these queries cannot be stored.
+   */
+  protected boolean batchQueryPagingEnabled = false;
+  /**
+   * If true, batch configurations are written in a compact binary format which stores the
+   * ids as length-prefixed strings and deflates larger payloads. Configurations in the
+   * JSON format are read regardless of this setting, so it should only be enabled once
+   * all nodes of a cluster are able to read the compact format.
+   */
+  protected boolean compactBatchConfigurationEnabled = false;
 
   // OTHER ////////////////////////////////////////////////////////////////////
   protected List<FormEngine> customFormEngines;
@@ -595,8 +716,28 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected HistoryEventHandler historyEventHandler;
 
+  /**
+   * If true, history events are written asynchronously after the transaction producing them
+   * has been committed. History becomes visible with a delay in that case.
+   */
+  protected boolean asyncHistoryEnabled = false;
+  protected int asyncHistoryQueueCapacity = HistoryEventWriter.DEFAULT_QUEUE_CAPACITY;
+
+  /**
+   * Directory to which history events are journaled if the asynchronous writer cannot keep up.
+   * If not set, committing transactions waits for the writer instead.
+   */
+  protected String asyncHistoryJournalDirectory;
+  protected HistoryEventWriter historyEventWriter;
+
   protected boolean isExecutionTreePrefetchEnabled = true;
 
+  /**
+   * The entities which are prefetched for a whole process instance once they are accessed
+   * for one of its executions. If null, referenced entities are loaded per execution.
+   */
+  protected InstancePrefetchProfile instancePrefetchProfile;
+
   /**
    * If true the process engine will attempt to acquire an exclusive lock before
    * creating a deployment.
@@ -611,11 +752,28 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   /**
    * Allows setting whether the process engine should try reusing the first level entity cache.
    * Default setting is false, enabling it improves performance of asynchronous continuations.
+   * The cache is reused by the jobs executed in one job executor thread after each other, i.e.
+   * the exclusive jobs of one process instance, and discarded when a job's transaction is rolled
+   * back. Concurrent changes of reused entities are detected by optimistic locking when the
+   * entities are updated.
    */
   protected boolean isDbEntityCacheReuseEnabled = false;
 
   protected boolean isInvokeCustomVariableListeners = true;
 
+  /**
+   * If true, the INSERT, UPDATE and DELETE statements of a flush are sent to the database
+   * in JDBC batches (MyBatis BATCH executor) instead of one round trip per statement.
+   */
+  protected boolean jdbcBatchProcessing = false;
+
+  /**
+   * If true, the entity cache detects changes of entities which implement
+   * {@link HasDbModificationCounter} by their modification counter instead of
+   * comparing persistent state snapshots. Other entities are still checked using snapshots.
+   */
+  protected boolean isDbEntityModificationTrackingEnabled = false;
+
   /**
    * The process engine created by this configuration.
    */
@@ -638,6 +796,21 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected boolean isMetricsEnabled = true;
   protected boolean isDbMetricsReporterActivate = true;
 
+  /**
+   * If true, the distributions of command durations, job execution and acquisition times
+   * and flush sizes are recorded as histograms and reported with the other metrics.
+   */
+  protected boolean isMetricsHistogramsEnabled = false;
+
+  /**
+   * If true, the SQL statements, flushed entities and durations of the commands executed
+   * by this engine are recorded with the {@link CommandProfiler}, which keeps the profiles
+   * of the last {@link #commandProfilerCapacity} commands.
+   */
+  protected boolean commandProfilingEnabled = false;
+  protected int commandProfilerCapacity = CommandProfiler.DEFAULT_CAPACITY;
+  protected CommandProfiler commandProfiler;
+
   protected MetricsReporterIdProvider metricsReporterIdProvider;
 
   /**
@@ -700,6 +873,16 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    * Indicates the minimal amount of data to trigger the history cleanup.
    */
   private int historyCleanupBatchThreshold = 10;
+  /**
+   * Number of history cleanup jobs which clean up disjoint partitions of the historic data
+   * concurrently. The data is partitioned by the minute of its end time, so at most
+   * {@link HistoryCleanupHelper#MAX_DEGREE_OF_PARALLELISM} jobs are supported.
+   */
+  private int historyCleanupDegreeOfParallelism = 1;
+  /**
+   * Either {@link #HISTORY_CLEANUP_STRATEGY_END_TIME_BASED} or {@link #HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED}.
+   */
+  private String historyCleanupStrategy = HISTORY_CLEANUP_STRATEGY_END_TIME_BASED;
 
   private boolean historyCleanupMetricsEnabled = true;
 
@@ -737,11 +920,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initCommandContextFactory();
     initTransactionContextFactory();
     initCommandExecutors();
+    initHistoryEventWriter();
     initServices();
     initIdGenerator();
     initDeployers();
     initJobProvider();
     initExternalTaskPriorityProvider();
+    initExternalTaskDispatcher();
+    initExternalTaskIndex();
     initBatchHandlers();
     initJobExecutor();
     initDataSource();
@@ -787,6 +973,18 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       throw LOG.invalidPropertyValue("historyCleanupBatchThreshold", String.valueOf(historyCleanupBatchThreshold),
           "History cleanup batch threshold cannot be negative.");
     }
+
+    if (historyCleanupDegreeOfParallelism < 1 || historyCleanupDegreeOfParallelism > HistoryCleanupHelper.MAX_DEGREE_OF_PARALLELISM) {
+      throw LOG.invalidPropertyValue("historyCleanupDegreeOfParallelism", String.valueOf(historyCleanupDegreeOfParallelism),
+          String.format("value for degree of parallelism should be between 1 and %s", HistoryCleanupHelper.MAX_DEGREE_OF_PARALLELISM));
+    }
+
+    if (!HISTORY_CLEANUP_STRATEGY_END_TIME_BASED.equals(historyCleanupStrategy)
+        && !HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED.equals(historyCleanupStrategy)) {
+      throw LOG.invalidPropertyValue("historyCleanupStrategy", String.valueOf(historyCleanupStrategy),
+          String.format("history cleanup strategy must be either set to '%s' or '%s'",
+              HISTORY_CLEANUP_STRATEGY_END_TIME_BASED, HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED));
+    }
   }
 
   private void initHistoryCleanupBatchWindowEndTime() {
@@ -881,6 +1079,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
       UpdateProcessInstancesSuspendStateJobHandler suspendProcessInstancesJobHandler = new UpdateProcessInstancesSuspendStateJobHandler();
       batchHandlers.put(suspendProcessInstancesJobHandler.getType(), suspendProcessInstancesJobHandler);
+
+      MessageCorrelationBatchJobHandler messageCorrelationBatchJobHandler = new MessageCorrelationBatchJobHandler();
+      batchHandlers.put(messageCorrelationBatchJobHandler.getType(), messageCorrelationBatchJobHandler);
     }
 
     if (customBatchJobHandlers != null) {
@@ -898,6 +1099,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected void initCommandExecutors() {
     initActualCommandExecutor();
+    initCommandProfiler();
     initCommandInterceptorsTxRequired();
     initCommandExecutorTxRequired();
     initCommandInterceptorsTxRequiresNew();
@@ -909,12 +1111,20 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     actualCommandExecutor = new CommandExecutorImpl();
   }
 
+  protected void initCommandProfiler() {
+    if (commandProfilingEnabled && commandProfiler == null) {
+      commandProfiler = new CommandProfiler(commandProfilerCapacity);
+    }
+  }
+
   protected void initCommandInterceptorsTxRequired() {
     if (commandInterceptorsTxRequired == null) {
+      commandInterceptorsTxRequired = new ArrayList<CommandInterceptor>();
+      if (commandProfiler != null) {
+        commandInterceptorsTxRequired.add(new CommandProfilingInterceptor(commandProfiler));
+      }
       if (customPreCommandInterceptorsTxRequired != null) {
-        commandInterceptorsTxRequired = new ArrayList<CommandInterceptor>(customPreCommandInterceptorsTxRequired);
-      } else {
-        commandInterceptorsTxRequired = new ArrayList<CommandInterceptor>();
+        commandInterceptorsTxRequired.addAll(customPreCommandInterceptorsTxRequired);
       }
       commandInterceptorsTxRequired.addAll(getDefaultCommandInterceptorsTxRequired());
       if (customPostCommandInterceptorsTxRequired != null) {
@@ -926,10 +1136,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected void initCommandInterceptorsTxRequiresNew() {
     if (commandInterceptorsTxRequiresNew == null) {
+      commandInterceptorsTxRequiresNew = new ArrayList<CommandInterceptor>();
+      if (commandProfiler != null) {
+        commandInterceptorsTxRequiresNew.add(new CommandProfilingInterceptor(commandProfiler));
+      }
       if (customPreCommandInterceptorsTxRequiresNew != null) {
-        commandInterceptorsTxRequiresNew = new ArrayList<CommandInterceptor>(customPreCommandInterceptorsTxRequiresNew);
-      } else {
-        commandInterceptorsTxRequiresNew = new ArrayList<CommandInterceptor>();
+        commandInterceptorsTxRequiresNew.addAll(customPreCommandInterceptorsTxRequiresNew);
       }
       commandInterceptorsTxRequiresNew.addAll(getDefaultCommandInterceptorsTxRequiresNew());
       if (customPostCommandInterceptorsTxRequiresNew != null) {
@@ -1096,6 +1308,13 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       ensureNotNull("couldn't deduct database type from database product name '" + databaseProductName + "'", "databaseType", databaseType);
       LOG.debugDatabaseType(databaseType);
 
+      if (jdbcBatchProcessing && DbSqlSessionFactory.ORACLE.equals(databaseType) && databaseMetaData.getDriverMajorVersion() < 12) {
+        // these drivers report Statement.SUCCESS_NO_INFO instead of the number of affected rows
+        throw LOG.invalidPropertyValue("jdbcBatchProcessing", "true", "the Oracle JDBC driver "
+            + databaseMetaData.getDriverVersion() + " does not report the number of rows affected by batched statements, "
+            + "which optimistic locking requires");
+      }
+
     } catch (SQLException e) {
       e.printStackTrace();
     } finally {
@@ -1295,6 +1514,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(BatchManager.class));
       addSessionFactory(new GenericManagerFactory(HistoricBatchManager.class));
       addSessionFactory(new GenericManagerFactory(TenantManager.class));
+      addSessionFactory(new GenericManagerFactory(HistoryEventBuffer.class));
 
       addSessionFactory(new GenericManagerFactory(CaseDefinitionManager.class));
       addSessionFactory(new GenericManagerFactory(CaseExecutionManager.class));
@@ -1331,6 +1551,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     dbSqlSessionFactory.setCmmnEnabled(cmmnEnabled);
     dbSqlSessionFactory.setDmnEnabled(dmnEnabled);
     dbSqlSessionFactory.setDatabaseTablePrefix(databaseTablePrefix);
+    dbSqlSessionFactory.setJdbcBatchProcessing(jdbcBatchProcessing);
 
     //hack for the case when schema is defined via databaseTablePrefix parameter and not via databaseSchema parameter
     if (databaseTablePrefix != null && databaseSchema == null && databaseTablePrefix.contains(".")) {
@@ -1459,9 +1680,43 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       initCacheFactory();
       deploymentCache = new DeploymentCache(cacheFactory, cacheCapacity);
       deploymentCache.setDeployers(deployers);
+
+      if (latestDefinitionIndexEnabled) {
+        deploymentCache.enableLatestDefinitionIndex(latestDefinitionIndexTimeToLive);
+      }
+      if (processDefinitionRetentionEnabled) {
+        if (processDefinitionRetentionCapacity <= 0) {
+          throw LOG.invalidPropertyValue("processDefinitionRetentionCapacity", String.valueOf(processDefinitionRetentionCapacity),
+              "value must be greater than 0");
+        }
+        deploymentCache.enableProcessDefinitionRetention(processDefinitionRetentionCapacity);
+      }
+    }
+    if (startEventSubscriptionIndexEnabled && startEventSubscriptionIndex == null) {
+      startEventSubscriptionIndex = new StartEventSubscriptionIndex(startEventSubscriptionIndexTimeToLive);
+    }
+    if (parallelDeploymentParsingEnabled && deploymentParsingExecutor == null) {
+      initDeploymentParsingExecutor();
     }
   }
 
+  protected void initDeploymentParsingExecutor() {
+    final AtomicInteger threadCounter = new AtomicInteger();
+
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(deploymentParsingPoolSize, deploymentParsingPoolSize, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "camunda-deployment-parser-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    // deployments are rare, so the threads terminate in between
+    executor.allowCoreThreadTimeOut(true);
+
+    deploymentParsingExecutor = executor;
+  }
+
   protected Collection<? extends Deployer> getDefaultDeployers() {
     List<Deployer> defaultDeployers = new ArrayList<Deployer>();
 
@@ -1648,6 +1903,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
     jobExecutor.setAutoActivate(jobExecutorActivate);
 
+    if (jobExecutorAcquireWithSkipLocked) {
+      jobExecutor.setAcquireJobsCmdFactory(new SkipLockedAcquireJobsCommandFactory(jobExecutor));
+    }
+
     if (jobExecutor.getRejectedJobsHandler() == null) {
       if (customRejectedJobsHandler != null) {
         jobExecutor.setRejectedJobsHandler(customRejectedJobsHandler);
@@ -1672,6 +1931,20 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initExternalTaskDispatcher() {
+    if (externalTaskDispatcher == null) {
+      externalTaskDispatcher = new ExternalTaskDispatcher();
+      externalTaskDispatcher.setPollingInterval(externalTaskLongPollingInterval);
+      externalTaskDispatcher.setMaxWaiters(externalTaskLongPollingMaxWaiters);
+    }
+  }
+
+  protected void initExternalTaskIndex() {
+    if (externalTaskIndexEnabled && externalTaskIndex == null) {
+      externalTaskIndex = new ExternalTaskIndex();
+    }
+  }
+
   // history //////////////////////////////////////////////////////////////////
 
   public void initHistoryLevel() {
@@ -1729,7 +2002,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         idGeneratorCommandExecutor = commandExecutorTxRequiresNew;
       }
 
-      DbIdGenerator dbIdGenerator = new DbIdGenerator();
+      DbIdGenerator dbIdGenerator;
+      if (isConcurrentIdGeneratorEnabled) {
+        dbIdGenerator = new ConcurrentDbIdGenerator();
+      } else {
+        dbIdGenerator = new DbIdGenerator();
+      }
       dbIdGenerator.setIdBlockSize(idBlockSize);
       dbIdGenerator.setCommandExecutor(idGeneratorCommandExecutor);
       idGenerator = dbIdGenerator;
@@ -1798,6 +2076,17 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     metricsRegistry.createMeter(Metrics.JOB_EXECUTION_REJECTED);
 
     metricsRegistry.createMeter(Metrics.EXECUTED_DECISION_ELEMENTS);
+
+    metricsRegistry.createMeter(Metrics.DEPLOYMENT_CACHE_HIT);
+    metricsRegistry.createMeter(Metrics.DEPLOYMENT_CACHE_MISS);
+
+    if (isMetricsHistogramsEnabled) {
+      metricsRegistry.createHistogram(Metrics.COMMAND_DURATION);
+      metricsRegistry.createHistogram(Metrics.JOB_EXECUTION_TIME);
+      metricsRegistry.createHistogram(Metrics.JOB_ACQUISITION_ROUND_TIME);
+      metricsRegistry.createHistogram(Metrics.FLUSH_SIZE);
+      metricsRegistry.createHistogram(Metrics.DEPLOYMENT_CACHE_LOAD_TIME);
+    }
   }
 
   protected void initSerialization() {
@@ -2058,7 +2347,27 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected void initHistoryEventHandler() {
     if (historyEventHandler == null) {
-      historyEventHandler = new DbHistoryEventHandler();
+      if (asyncHistoryEnabled) {
+        historyEventHandler = new AsyncDbHistoryEventHandler();
+      }
+      else {
+        historyEventHandler = new DbHistoryEventHandler();
+      }
+    }
+  }
+
+  protected void initHistoryEventWriter() {
+    if (historyEventHandler instanceof AsyncDbHistoryEventHandler) {
+      AsyncDbHistoryEventHandler asyncHistoryEventHandler = (AsyncDbHistoryEventHandler) historyEventHandler;
+
+      if (historyEventWriter == null) {
+        HistoryEventJournal journal = null;
+        if (asyncHistoryJournalDirectory != null) {
+          journal = new HistoryEventJournal(new File(asyncHistoryJournalDirectory));
+        }
+        historyEventWriter = new HistoryEventWriter(commandExecutorTxRequired, asyncHistoryEventHandler, asyncHistoryQueueCapacity, journal);
+      }
+      asyncHistoryEventHandler.setHistoryEventWriter(historyEventWriter);
     }
   }
 
@@ -2091,7 +2400,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected void initCacheFactory() {
     if (cacheFactory == null) {
-      cacheFactory = new DefaultCacheFactory();
+      // only the weighted caches report their evictions
+      cacheFactory = processDefinitionRetentionEnabled ? new WeightedCacheFactory() : new DefaultCacheFactory();
+    }
+    else if (processDefinitionRetentionEnabled && !(cacheFactory instanceof WeightedCacheFactory)) {
+      throw LOG.invalidPropertyValue("cacheFactory", cacheFactory.getClass().getName(),
+          "process definition retention requires a " + WeightedCacheFactory.class.getName());
     }
   }
 
@@ -2362,6 +2676,51 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.externalTaskPriorityProvider = externalTaskPriorityProvider;
   }
 
+  public ExternalTaskDispatcher getExternalTaskDispatcher() {
+    return externalTaskDispatcher;
+  }
+
+  public ProcessEngineConfigurationImpl setExternalTaskDispatcher(ExternalTaskDispatcher externalTaskDispatcher) {
+    this.externalTaskDispatcher = externalTaskDispatcher;
+    return this;
+  }
+
+  public long getExternalTaskLongPollingInterval() {
+    return externalTaskLongPollingInterval;
+  }
+
+  public ProcessEngineConfigurationImpl setExternalTaskLongPollingInterval(long externalTaskLongPollingInterval) {
+    this.externalTaskLongPollingInterval = externalTaskLongPollingInterval;
+    return this;
+  }
+
+  public int getExternalTaskLongPollingMaxWaiters() {
+    return externalTaskLongPollingMaxWaiters;
+  }
+
+  public ProcessEngineConfigurationImpl setExternalTaskLongPollingMaxWaiters(int externalTaskLongPollingMaxWaiters) {
+    this.externalTaskLongPollingMaxWaiters = externalTaskLongPollingMaxWaiters;
+    return this;
+  }
+
+  public boolean isExternalTaskIndexEnabled() {
+    return externalTaskIndexEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setExternalTaskIndexEnabled(boolean externalTaskIndexEnabled) {
+    this.externalTaskIndexEnabled = externalTaskIndexEnabled;
+    return this;
+  }
+
+  public ExternalTaskIndex getExternalTaskIndex() {
+    return externalTaskIndex;
+  }
+
+  public ProcessEngineConfigurationImpl setExternalTaskIndex(ExternalTaskIndex externalTaskIndex) {
+    this.externalTaskIndex = externalTaskIndex;
+    return this;
+  }
+
   public IdGenerator getIdGenerator() {
     return idGenerator;
   }
@@ -2482,6 +2841,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public CacheFactory getCacheFactory() {
+    return cacheFactory;
+  }
+
   public void setCacheFactory(CacheFactory cacheFactory) {
     this.cacheFactory = cacheFactory;
   }
@@ -2498,6 +2861,99 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this.enableFetchProcessDefinitionDescription;
   }
 
+  public boolean isLatestDefinitionIndexEnabled() {
+    return latestDefinitionIndexEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setLatestDefinitionIndexEnabled(boolean latestDefinitionIndexEnabled) {
+    this.latestDefinitionIndexEnabled = latestDefinitionIndexEnabled;
+    return this;
+  }
+
+  public long getLatestDefinitionIndexTimeToLive() {
+    return latestDefinitionIndexTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setLatestDefinitionIndexTimeToLive(long latestDefinitionIndexTimeToLive) {
+    this.latestDefinitionIndexTimeToLive = latestDefinitionIndexTimeToLive;
+    return this;
+  }
+
+  public boolean isProcessDefinitionRetentionEnabled() {
+    return processDefinitionRetentionEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setProcessDefinitionRetentionEnabled(boolean processDefinitionRetentionEnabled) {
+    this.processDefinitionRetentionEnabled = processDefinitionRetentionEnabled;
+    return this;
+  }
+
+  public int getProcessDefinitionRetentionCapacity() {
+    return processDefinitionRetentionCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setProcessDefinitionRetentionCapacity(int processDefinitionRetentionCapacity) {
+    this.processDefinitionRetentionCapacity = processDefinitionRetentionCapacity;
+    return this;
+  }
+
+  public boolean isStartEventSubscriptionIndexEnabled() {
+    return startEventSubscriptionIndexEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setStartEventSubscriptionIndexEnabled(boolean startEventSubscriptionIndexEnabled) {
+    this.startEventSubscriptionIndexEnabled = startEventSubscriptionIndexEnabled;
+    return this;
+  }
+
+  public long getStartEventSubscriptionIndexTimeToLive() {
+    return startEventSubscriptionIndexTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setStartEventSubscriptionIndexTimeToLive(long startEventSubscriptionIndexTimeToLive) {
+    this.startEventSubscriptionIndexTimeToLive = startEventSubscriptionIndexTimeToLive;
+    return this;
+  }
+
+  public boolean isParallelDeploymentParsingEnabled() {
+    return parallelDeploymentParsingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setParallelDeploymentParsingEnabled(boolean parallelDeploymentParsingEnabled) {
+    this.parallelDeploymentParsingEnabled = parallelDeploymentParsingEnabled;
+    return this;
+  }
+
+  public int getDeploymentParsingPoolSize() {
+    return deploymentParsingPoolSize;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentParsingPoolSize(int deploymentParsingPoolSize) {
+    this.deploymentParsingPoolSize = deploymentParsingPoolSize;
+    return this;
+  }
+
+  /**
+   * @return the executor which parses the resources of deployments or null if they are parsed sequentially
+   */
+  public ExecutorService getDeploymentParsingExecutor() {
+    return deploymentParsingExecutor;
+  }
+
+  public ProcessEngineConfigurationImpl setDeploymentParsingExecutor(ExecutorService deploymentParsingExecutor) {
+    this.deploymentParsingExecutor = deploymentParsingExecutor;
+    return this;
+  }
+
+  public StartEventSubscriptionIndex getStartEventSubscriptionIndex() {
+    return startEventSubscriptionIndex;
+  }
+
+  public ProcessEngineConfigurationImpl setStartEventSubscriptionIndex(StartEventSubscriptionIndex startEventSubscriptionIndex) {
+    this.startEventSubscriptionIndex = startEventSubscriptionIndex;
+    return this;
+  }
+
   public Permission getDefaultUserPermissionForTask() {
     return defaultUserPermissionForTask;
   }
@@ -2887,6 +3343,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return delegateInterceptor;
   }
 
+  public boolean isJobExecutorAcquireWithSkipLocked() {
+    return jobExecutorAcquireWithSkipLocked;
+  }
+
+  public ProcessEngineConfigurationImpl setJobExecutorAcquireWithSkipLocked(boolean jobExecutorAcquireWithSkipLocked) {
+    this.jobExecutorAcquireWithSkipLocked = jobExecutorAcquireWithSkipLocked;
+    return this;
+  }
+
   public RejectedJobsHandler getCustomRejectedJobsHandler() {
     return customRejectedJobsHandler;
   }
@@ -2972,6 +3437,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.idGeneratorDataSource = idGeneratorDataSource;
   }
 
+  public boolean isConcurrentIdGeneratorEnabled() {
+    return isConcurrentIdGeneratorEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setConcurrentIdGeneratorEnabled(boolean isConcurrentIdGeneratorEnabled) {
+    this.isConcurrentIdGeneratorEnabled = isConcurrentIdGeneratorEnabled;
+    return this;
+  }
+
   public String getIdGeneratorDataSourceJndiName() {
     return idGeneratorDataSourceJndiName;
   }
@@ -3013,6 +3487,42 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return historyEventHandler;
   }
 
+  public boolean isAsyncHistoryEnabled() {
+    return asyncHistoryEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryEnabled(boolean asyncHistoryEnabled) {
+    this.asyncHistoryEnabled = asyncHistoryEnabled;
+    return this;
+  }
+
+  public int getAsyncHistoryQueueCapacity() {
+    return asyncHistoryQueueCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryQueueCapacity(int asyncHistoryQueueCapacity) {
+    this.asyncHistoryQueueCapacity = asyncHistoryQueueCapacity;
+    return this;
+  }
+
+  public String getAsyncHistoryJournalDirectory() {
+    return asyncHistoryJournalDirectory;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncHistoryJournalDirectory(String asyncHistoryJournalDirectory) {
+    this.asyncHistoryJournalDirectory = asyncHistoryJournalDirectory;
+    return this;
+  }
+
+  public HistoryEventWriter getHistoryEventWriter() {
+    return historyEventWriter;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryEventWriter(HistoryEventWriter historyEventWriter) {
+    this.historyEventWriter = historyEventWriter;
+    return this;
+  }
+
   public IncidentHandler getIncidentHandler(String incidentType) {
     return incidentHandlers.get(incidentType);
   }
@@ -3065,6 +3575,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.invocationsPerBatchJob = invocationsPerBatchJob;
   }
 
+  public boolean isBatchQueryPagingEnabled() {
+    return batchQueryPagingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setBatchQueryPagingEnabled(boolean batchQueryPagingEnabled) {
+    this.batchQueryPagingEnabled = batchQueryPagingEnabled;
+    return this;
+  }
+
+  public boolean isCompactBatchConfigurationEnabled() {
+    return compactBatchConfigurationEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setCompactBatchConfigurationEnabled(boolean compactBatchConfigurationEnabled) {
+    this.compactBatchConfigurationEnabled = compactBatchConfigurationEnabled;
+    return this;
+  }
+
   public int getBatchPollTime() {
     return batchPollTime;
   }
@@ -3196,6 +3724,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.isExecutionTreePrefetchEnabled = isExecutionTreePrefetchingEnabled;
   }
 
+  public InstancePrefetchProfile getInstancePrefetchProfile() {
+    return instancePrefetchProfile;
+  }
+
+  public ProcessEngineConfigurationImpl setInstancePrefetchProfile(InstancePrefetchProfile instancePrefetchProfile) {
+    this.instancePrefetchProfile = instancePrefetchProfile;
+    return this;
+  }
+
   public ProcessEngineImpl getProcessEngine() {
     return processEngine;
   }
@@ -3361,6 +3898,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public boolean isJdbcBatchProcessing() {
+    return jdbcBatchProcessing;
+  }
+
+  public ProcessEngineConfigurationImpl setJdbcBatchProcessing(boolean jdbcBatchProcessing) {
+    this.jdbcBatchProcessing = jdbcBatchProcessing;
+    return this;
+  }
+
+  public boolean isDbEntityModificationTrackingEnabled() {
+    return isDbEntityModificationTrackingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setDbEntityModificationTrackingEnabled(boolean isDbEntityModificationTrackingEnabled) {
+    this.isDbEntityModificationTrackingEnabled = isDbEntityModificationTrackingEnabled;
+    return this;
+  }
+
   public DbEntityCacheKeyMapping getDbEntityCacheKeyMapping() {
     return dbEntityCacheKeyMapping;
   }
@@ -3399,6 +3954,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       // ACT-233: connection pool of Ibatis is not properely initialized if this is not called!
       ((PooledDataSource) dataSource).forceCloseAll();
     }
+
+    if (deploymentParsingExecutor != null) {
+      deploymentParsingExecutor.shutdown();
+    }
+
+    if (idGenerator instanceof ConcurrentDbIdGenerator) {
+      ((ConcurrentDbIdGenerator) idGenerator).close();
+    }
   }
 
   public MetricsRegistry getMetricsRegistry() {
@@ -3437,6 +4000,42 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
 
+  public boolean isMetricsHistogramsEnabled() {
+    return isMetricsHistogramsEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setMetricsHistogramsEnabled(boolean isMetricsHistogramsEnabled) {
+    this.isMetricsHistogramsEnabled = isMetricsHistogramsEnabled;
+    return this;
+  }
+
+  public boolean isCommandProfilingEnabled() {
+    return commandProfilingEnabled;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandProfilingEnabled(boolean commandProfilingEnabled) {
+    this.commandProfilingEnabled = commandProfilingEnabled;
+    return this;
+  }
+
+  public int getCommandProfilerCapacity() {
+    return commandProfilerCapacity;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandProfilerCapacity(int commandProfilerCapacity) {
+    this.commandProfilerCapacity = commandProfilerCapacity;
+    return this;
+  }
+
+  public CommandProfiler getCommandProfiler() {
+    return commandProfiler;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandProfiler(CommandProfiler commandProfiler) {
+    this.commandProfiler = commandProfiler;
+    return this;
+  }
+
   public MetricsReporterIdProvider getMetricsReporterIdProvider() {
     return metricsReporterIdProvider;
   }
@@ -3723,6 +4322,26 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     this.historyCleanupBatchThreshold = historyCleanupBatchThreshold;
   }
 
+  public int getHistoryCleanupDegreeOfParallelism() {
+    return historyCleanupDegreeOfParallelism;
+  }
+
+  public void setHistoryCleanupDegreeOfParallelism(int historyCleanupDegreeOfParallelism) {
+    this.historyCleanupDegreeOfParallelism = historyCleanupDegreeOfParallelism;
+  }
+
+  public String getHistoryCleanupStrategy() {
+    return historyCleanupStrategy;
+  }
+
+  public void setHistoryCleanupStrategy(String historyCleanupStrategy) {
+    this.historyCleanupStrategy = historyCleanupStrategy;
+  }
+
+  public boolean isHistoryCleanupRemovalTimeBased() {
+    return HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED.equals(historyCleanupStrategy);
+  }
+
   public boolean isHistoryCleanupMetricsEnabled() {
     return historyCleanupMetricsEnabled;
   }
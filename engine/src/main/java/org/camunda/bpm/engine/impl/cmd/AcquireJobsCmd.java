@@ -33,7 +33,7 @@ import java.util.*;
  */
 public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingListener {
 
-  private final JobExecutor jobExecutor;
+  protected final JobExecutor jobExecutor;
 
   protected AcquiredJobs acquiredJobs;
   protected int numJobsToAcquire;
@@ -55,11 +55,31 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
       .getJobManager()
       .findNextJobsToExecute(new Page(0, numJobsToAcquire));
 
+    for (JobEntity job : jobs) {
+      lockJob(job);
+    }
+
+    addJobIdBatches(jobs);
+
+    // register an OptimisticLockingListener which is notified about jobs which cannot be acquired.
+    // the listener removes them from the list of acquired jobs.
+    commandContext
+      .getDbEntityManager()
+      .registerOptimisticLockingListener(this);
+
+
+    return acquiredJobs;
+  }
+
+  /**
+   * Adds the ids of the given jobs to the acquired jobs. Exclusive jobs of the
+   * same process instance are grouped into one batch.
+   */
+  protected void addJobIdBatches(List<JobEntity> jobs) {
     Map<String, List<String>> exclusiveJobsByProcessInstance = new HashMap<String, List<String>>();
 
     for (JobEntity job : jobs) {
-
-      lockJob(job);
+      acquiredJobs.setJobPriority(job.getId(), job.getPriority());
 
       if(job.isExclusive()) {
         List<String> list = exclusiveJobsByProcessInstance.get(job.getProcessInstanceId());
@@ -77,27 +97,21 @@ public class AcquireJobsCmd implements Command<AcquiredJobs>, OptimisticLockingL
     for (List<String> jobIds : exclusiveJobsByProcessInstance.values()) {
       acquiredJobs.addJobIdBatch(jobIds);
     }
-
-    // register an OptimisticLockingListener which is notified about jobs which cannot be acquired.
-    // the listener removes them from the list of acquired jobs.
-    commandContext
-      .getDbEntityManager()
-      .registerOptimisticLockingListener(this);
-
-
-    return acquiredJobs;
   }
 
   protected void lockJob(JobEntity job) {
     String lockOwner = jobExecutor.getLockOwner();
     job.setLockOwner(lockOwner);
+    job.setLockExpirationTime(calculateLockExpirationTime());
+  }
 
+  protected Date calculateLockExpirationTime() {
     int lockTimeInMillis = jobExecutor.getLockTimeInMillis();
 
     GregorianCalendar gregorianCalendar = new GregorianCalendar();
     gregorianCalendar.setTime(ClockUtil.getCurrentTime());
     gregorianCalendar.add(Calendar.MILLISECOND, lockTimeInMillis);
-    job.setLockExpirationTime(gregorianCalendar.getTime());
+    return gregorianCalendar.getTime();
   }
 
   public Class<? extends DbEntity> getEntityType() {
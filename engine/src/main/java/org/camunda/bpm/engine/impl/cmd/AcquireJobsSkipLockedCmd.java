@@ -0,0 +1,78 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.Page;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSessionFactory;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobManager;
+
+/**
+ * <p>Acquires jobs by selecting them with <code>FOR UPDATE SKIP LOCKED</code> and
+ * locking all of them with a single bulk update.</p>
+ *
+ * <p>The selected rows stay locked until the acquisition transaction commits. Concurrent
+ * acquisitions skip them instead of selecting the same jobs, so the lock update cannot
+ * fail with an optimistic locking exception and no acquired job has to be dropped.</p>
+ *
+ * <p>If the process engine does not enable
+ * {@link ProcessEngineConfigurationImpl#isJobExecutorAcquireWithSkipLocked()} or the database
+ * does not support skipping locked rows, the jobs are acquired like by the {@link AcquireJobsCmd}.</p>
+ */
+public class AcquireJobsSkipLockedCmd extends AcquireJobsCmd {
+
+  public AcquireJobsSkipLockedCmd(JobExecutor jobExecutor) {
+    super(jobExecutor);
+  }
+
+  public AcquireJobsSkipLockedCmd(JobExecutor jobExecutor, int numJobsToAcquire) {
+    super(jobExecutor, numJobsToAcquire);
+  }
+
+  public AcquiredJobs execute(CommandContext commandContext) {
+    if (!isSkipLockedEnabled(commandContext.getProcessEngineConfiguration())) {
+      return super.execute(commandContext);
+    }
+
+    acquiredJobs = new AcquiredJobs(numJobsToAcquire);
+
+    JobManager jobManager = commandContext.getJobManager();
+    List<JobEntity> jobs = jobManager.findNextJobsToExecuteSkipLocked(new Page(0, numJobsToAcquire));
+
+    if (!jobs.isEmpty()) {
+      List<String> jobIds = new ArrayList<String>();
+      for (JobEntity job : jobs) {
+        jobIds.add(job.getId());
+      }
+
+      jobManager.updateJobLocks(jobIds, jobExecutor.getLockOwner(), calculateLockExpirationTime());
+
+      addJobIdBatches(jobs);
+    }
+
+    return acquiredJobs;
+  }
+
+  protected boolean isSkipLockedEnabled(ProcessEngineConfigurationImpl configuration) {
+    return configuration.isJobExecutorAcquireWithSkipLocked()
+        && DbSqlSessionFactory.isSkipLockedSupported(configuration.getDatabaseType());
+  }
+
+}
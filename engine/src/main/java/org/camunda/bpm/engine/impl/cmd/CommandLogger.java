@@ -270,4 +270,30 @@ public class CommandLogger extends ProcessEngineLogger {
       historicProcessInstance.getProcessDefinitionId()
     ));
   }
+
+  public ProcessEngineException exceptionCorrelateMessageInChunksNotSupported(Object correlationHandler) {
+    return new ProcessEngineException(exceptionMessage(
+      "041",
+      "Cannot correlate message in chunks. The correlation handler '{}' does not support paging through the matching executions.",
+      correlationHandler
+    ));
+  }
+
+  public ProcessEngineException exceptionUnsupportedCorrelationPayload(String variableName, Object value) {
+    return new ProcessEngineException(exceptionMessage(
+      "042",
+      "Cannot correlate message asynchronously. The value of variable '{}' is of type '{}' but only strings, numbers, booleans and null are supported.",
+      variableName,
+      value.getClass().getName()
+    ));
+  }
+
+  public ProcessEngineException exceptionParsingResourceInParallel(String resourceName, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+      "043",
+      "Exception while parsing resource '{}' of the deployment in parallel: {}",
+      resourceName,
+      cause.getMessage()
+    ), cause);
+  }
 }
@@ -0,0 +1,113 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureAtLeastOneNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.camunda.bpm.engine.impl.MessageCorrelationBuilderImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
+import org.camunda.bpm.engine.impl.runtime.CorrelationHandlerResult;
+import org.camunda.bpm.engine.impl.runtime.CorrelationSet;
+import org.camunda.bpm.engine.impl.runtime.DefaultCorrelationHandler;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+
+/**
+ * Correlates a message to the next chunk of matching executions in the order of their ids
+ * and, if requested, to the matching message start events.
+ */
+public class CorrelateAllMessageChunkCmd extends AbstractCorrelateMessageCmd implements Command<List<MessageCorrelationResult>> {
+
+  private final static CommandLogger LOG = ProcessEngineLogger.CMD_LOGGER;
+
+  protected final String executionIdAfter;
+  protected String executionIdUpTo;
+  protected final Date subscribedBefore;
+  protected final int chunkSize;
+  protected final boolean correlateStartMessages;
+
+  /**
+   * @param executionIdAfter only executions with a greater id are correlated, may be null
+   * @param executionIdUpTo only executions with a lower or equal id are correlated; if null,
+   *   the greatest id of the matching executions is selected and kept for the next chunks
+   * @param subscribedBefore only executions which subscribed to the message at or before this time are correlated
+   * @param chunkSize the maximal number of executions to correlate
+   * @param correlateStartMessages whether matching message start events are triggered as well
+   */
+  public CorrelateAllMessageChunkCmd(MessageCorrelationBuilderImpl builder, String executionIdAfter, String executionIdUpTo,
+      Date subscribedBefore, int chunkSize, boolean correlateStartMessages) {
+    super(builder);
+    this.executionIdAfter = executionIdAfter;
+    this.executionIdUpTo = executionIdUpTo;
+    this.subscribedBefore = subscribedBefore;
+    this.chunkSize = chunkSize;
+    this.correlateStartMessages = correlateStartMessages;
+  }
+
+  public List<MessageCorrelationResult> execute(final CommandContext commandContext) {
+    ensureAtLeastOneNotNull(
+        "At least one of the following correlation criteria has to be present: " + "messageName, businessKey, correlationKeys, processInstanceId", messageName,
+        builder.getBusinessKey(), builder.getCorrelationProcessInstanceVariables(), builder.getProcessInstanceId());
+
+    CorrelationHandler correlationHandler = commandContext.getProcessEngineConfiguration().getCorrelationHandler();
+    if (!(correlationHandler instanceof DefaultCorrelationHandler)) {
+      throw LOG.exceptionCorrelateMessageInChunksNotSupported(correlationHandler);
+    }
+
+    final DefaultCorrelationHandler defaultCorrelationHandler = (DefaultCorrelationHandler) correlationHandler;
+    final CorrelationSet correlationSet = new CorrelationSet(builder);
+    List<CorrelationHandlerResult> correlationResults = commandContext.runWithoutAuthorization(new Callable<List<CorrelationHandlerResult>>() {
+      public List<CorrelationHandlerResult> call() throws Exception {
+        List<CorrelationHandlerResult> results = new ArrayList<CorrelationHandlerResult>();
+        if (executionIdUpTo == null) {
+          executionIdUpTo = defaultCorrelationHandler.findLastCorrelatedExecutionId(commandContext, messageName, correlationSet, subscribedBefore);
+        }
+        if (executionIdUpTo != null) {
+          results.addAll(defaultCorrelationHandler.correlateMessageToExecutions(commandContext, messageName, correlationSet,
+              executionIdAfter, executionIdUpTo, subscribedBefore, chunkSize));
+        }
+        if (correlateStartMessages) {
+          results.addAll(defaultCorrelationHandler.correlateStartMessages(commandContext, messageName, correlationSet));
+        }
+        return results;
+      }
+    });
+
+    // check authorization
+    for (CorrelationHandlerResult correlationResult : correlationResults) {
+      checkAuthorization(correlationResult);
+    }
+
+    List<MessageCorrelationResult> results = new ArrayList<MessageCorrelationResult>();
+    for (CorrelationHandlerResult correlationResult : correlationResults) {
+      results.add(createMessageCorrelationResult(commandContext, correlationResult));
+    }
+
+    return results;
+  }
+
+  /**
+   * @return the upper bound of the execution ids, which is selected by the first chunk
+   */
+  public String getExecutionIdUpTo() {
+    return executionIdUpTo;
+  }
+
+}
@@ -0,0 +1,49 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.metrics.Histogram;
+import org.camunda.bpm.engine.management.MetricsHistogram;
+
+/**
+ * Returns the values recorded by the histograms of this node since the metrics were last reported.
+ */
+public class GetMetricsHistogramsCmd implements Command<List<MetricsHistogram>>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public List<MetricsHistogram> execute(CommandContext commandContext) {
+    commandContext.getAuthorizationManager().checkCamundaAdmin();
+
+    ProcessEngineConfigurationImpl engineConfiguration = commandContext.getProcessEngineConfiguration();
+
+    if (!engineConfiguration.isMetricsEnabled()) {
+      throw new ProcessEngineException("Metrics reporting is disabled");
+    }
+
+    List<MetricsHistogram> histograms = new ArrayList<MetricsHistogram>();
+    for (Histogram histogram : engineConfiguration.getMetricsRegistry().getHistograms().values()) {
+      histograms.add(histogram.snapshot());
+    }
+    return histograms;
+  }
+
+}
@@ -14,7 +14,10 @@
 package org.camunda.bpm.engine.impl.cmd;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 import org.camunda.bpm.engine.authorization.Permissions;
 import org.camunda.bpm.engine.authorization.Resources;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
@@ -26,6 +29,7 @@ import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupCont
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupHelper;
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupJobDeclaration;
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupJobHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupJobHandlerConfiguration;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
 import org.camunda.bpm.engine.runtime.Job;
@@ -54,38 +58,93 @@ public class HistoryCleanupCmd implements Command<Job>, Serializable {
       LOG.debugHistoryCleanupWrongConfiguration();
     }
 
-    //find job instance
-    JobEntity historyCleanupJob = commandContext.getJobManager().findJobByHandlerType(HistoryCleanupJobHandler.TYPE);
+    //one job per partition of the historic data
+    List<int[]> minuteChunks = HistoryCleanupHelper.listMinuteChunks(getDegreeOfParallelism(commandContext));
 
-    boolean createJob = historyCleanupJob == null && willBeScheduled(commandContext);
+    //find job instances
+    List<JobEntity> historyCleanupJobs = findHistoryCleanupJobs(commandContext);
 
-    boolean reconfigureJob = historyCleanupJob != null && willBeScheduled(commandContext);
+    boolean createJobs = !isScheduledForPartitions(historyCleanupJobs, minuteChunks) && willBeScheduled(commandContext);
 
-    boolean suspendJob = historyCleanupJob != null && !willBeScheduled(commandContext);
-
-    if (createJob) {
+    if (createJobs) {
       //exclusive lock
       commandContext.getPropertyManager().acquireExclusiveLockForHistoryCleanupJob();
 
       //check again after lock
-      historyCleanupJob = commandContext.getJobManager().findJobByHandlerType(HistoryCleanupJobHandler.TYPE);
+      historyCleanupJobs = findHistoryCleanupJobs(commandContext);
+    }
+
+    List<JobEntity> partitionJobs = new ArrayList<JobEntity>();
+    for (int[] minuteChunk : minuteChunks) {
+      HistoryCleanupContext historyCleanupContext = new HistoryCleanupContext(immediatelyDue, minuteChunk[0], minuteChunk[1]);
+      JobEntity historyCleanupJob = removeJobForPartition(historyCleanupJobs, minuteChunk);
 
-      if (historyCleanupJob == null) {
-        historyCleanupJob = HISTORY_CLEANUP_JOB_DECLARATION.createJobInstance(new HistoryCleanupContext(immediatelyDue));
+      if (historyCleanupJob == null && createJobs) {
+        historyCleanupJob = HISTORY_CLEANUP_JOB_DECLARATION.createJobInstance(historyCleanupContext);
         Context.getCommandContext().getJobManager().insertAndHintJobExecutor(historyCleanupJob);
+      } else if (historyCleanupJob != null && willBeScheduled(commandContext)) {
+        //apply new configuration
+        HISTORY_CLEANUP_JOB_DECLARATION.reconfigure(historyCleanupContext, historyCleanupJob);
+        Date newDueDate = HISTORY_CLEANUP_JOB_DECLARATION.resolveDueDate(historyCleanupContext);
+        commandContext.getJobManager().reschedule(historyCleanupJob, newDueDate);
+      } else if (historyCleanupJob != null) {
+        suspendJob(historyCleanupJob);
+      }
+
+      if (historyCleanupJob != null) {
+        partitionJobs.add(historyCleanupJob);
+      }
+    }
+
+    //the remaining jobs belong to partitions of a former degree of parallelism
+    for (JobEntity historyCleanupJob : historyCleanupJobs) {
+      if (createJobs) {
+        commandContext.getJobManager().deleteJob(historyCleanupJob);
+      } else {
+        suspendJob(historyCleanupJob);
       }
-    } else if (reconfigureJob) {
-      //apply new configuration
-      HistoryCleanupContext historyCleanupContext = new HistoryCleanupContext(immediatelyDue);
-      HISTORY_CLEANUP_JOB_DECLARATION.reconfigure(historyCleanupContext, historyCleanupJob);
-      Date newDueDate = HISTORY_CLEANUP_JOB_DECLARATION.resolveDueDate(historyCleanupContext);
-      commandContext.getJobManager().reschedule(historyCleanupJob, newDueDate);
-    } else if (suspendJob) {
-      historyCleanupJob.setDuedate(null);
-      historyCleanupJob.setSuspensionState(SuspensionState.SUSPENDED.getStateCode());
     }
 
-    return historyCleanupJob;
+    return partitionJobs.isEmpty() ? null : partitionJobs.get(0);
+  }
+
+  protected List<JobEntity> findHistoryCleanupJobs(CommandContext commandContext) {
+    return new ArrayList<JobEntity>(commandContext.getJobManager().findJobsByHandlerType(HistoryCleanupJobHandler.TYPE));
+  }
+
+  protected boolean isScheduledForPartitions(List<JobEntity> historyCleanupJobs, List<int[]> minuteChunks) {
+    if (historyCleanupJobs.size() != minuteChunks.size()) {
+      return false;
+    }
+    List<JobEntity> jobs = new ArrayList<JobEntity>(historyCleanupJobs);
+    for (int[] minuteChunk : minuteChunks) {
+      if (removeJobForPartition(jobs, minuteChunk) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected JobEntity removeJobForPartition(List<JobEntity> historyCleanupJobs, int[] minuteChunk) {
+    Iterator<JobEntity> iterator = historyCleanupJobs.iterator();
+    while (iterator.hasNext()) {
+      JobEntity historyCleanupJob = iterator.next();
+      HistoryCleanupJobHandlerConfiguration configuration = (HistoryCleanupJobHandlerConfiguration) historyCleanupJob.getJobHandlerConfiguration();
+      if (configuration.getMinuteFrom() == minuteChunk[0] && configuration.getMinuteTo() == minuteChunk[1]) {
+        iterator.remove();
+        return historyCleanupJob;
+      }
+    }
+    return null;
+  }
+
+  protected void suspendJob(JobEntity historyCleanupJob) {
+    historyCleanupJob.setDuedate(null);
+    historyCleanupJob.setSuspensionState(SuspensionState.SUSPENDED.getStateCode());
+  }
+
+  protected int getDegreeOfParallelism(CommandContext commandContext) {
+    return commandContext.getProcessEngineConfiguration().getHistoryCleanupDegreeOfParallelism();
   }
 
   private boolean willBeScheduled(CommandContext commandContext) {
@@ -12,6 +12,7 @@
  */
 package org.camunda.bpm.engine.impl.cmd;
 
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
 
 /**
@@ -31,5 +32,9 @@ public class UnlockExternalTaskCmd extends ExternalTaskCmd {
   @Override
   protected void execute(ExternalTaskEntity externalTask) {
     externalTask.unlock();
+
+    Context.getCommandContext()
+      .getExternalTaskManager()
+      .indexExternalTask(externalTask);
   }
 }
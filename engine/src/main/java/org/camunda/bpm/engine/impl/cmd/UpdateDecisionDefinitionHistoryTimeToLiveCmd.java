@@ -47,6 +47,10 @@ public class UpdateDecisionDefinitionHistoryTimeToLiveCmd implements Command<Voi
     DecisionDefinitionEntity decisionDefinitionEntity = commandContext.getDecisionDefinitionManager().findDecisionDefinitionById(decisionDefinitionId);
     decisionDefinitionEntity.setHistoryTimeToLive(historyTimeToLive);
 
+    commandContext.getProcessEngineConfiguration()
+      .getDeploymentCache()
+      .invalidateLatestDecisionDefinitions();
+
     return null;
   }
 
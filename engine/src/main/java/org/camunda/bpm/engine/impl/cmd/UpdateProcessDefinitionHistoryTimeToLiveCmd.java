@@ -50,6 +50,10 @@ public class UpdateProcessDefinitionHistoryTimeToLiveCmd implements Command<Void
     logUserOperation(commandContext, processDefinitionEntity);
     processDefinitionEntity.setHistoryTimeToLive(historyTimeToLive);
 
+    commandContext.getProcessEngineConfiguration()
+      .getDeploymentCache()
+      .invalidateLatestProcessDefinitions();
+
     return null;
   }
 
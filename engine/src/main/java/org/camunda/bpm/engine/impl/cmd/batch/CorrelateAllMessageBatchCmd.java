@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.cmd.batch;
+
+import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.batch.Batch;
+import org.camunda.bpm.engine.history.UserOperationLogEntry;
+import org.camunda.bpm.engine.impl.MessageCorrelationBuilderImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.batch.BatchEntity;
+import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.message.MessageCorrelationBatchConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.CommandLogger;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyChange;
+import org.camunda.bpm.engine.impl.runtime.CorrelationHandler;
+import org.camunda.bpm.engine.impl.runtime.CorrelationSet;
+import org.camunda.bpm.engine.impl.runtime.DefaultCorrelationHandler;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+
+/**
+ * Creates a batch which correlates a message to all executions matching the correlation.
+ * The correlation criteria are stored in the batch, and the seed job pages through the
+ * matching executions in the order of their ids, up to the greatest id matching at creation.
+ * Executions which subscribe to the message after the batch was created are not matched.
+ */
+public class CorrelateAllMessageBatchCmd extends AbstractBatchCmd<Batch> {
+
+  private final static CommandLogger LOG = ProcessEngineLogger.CMD_LOGGER;
+
+  protected final MessageCorrelationBuilderImpl builder;
+  protected final String messageName;
+
+  public CorrelateAllMessageBatchCmd(MessageCorrelationBuilderImpl builder) {
+    this.builder = builder;
+    this.messageName = builder.getMessageName();
+  }
+
+  @Override
+  public Batch execute(CommandContext commandContext) {
+    ensureNotNull(BadUserRequestException.class, "messageName", messageName);
+
+    CorrelationHandler correlationHandler = commandContext.getProcessEngineConfiguration().getCorrelationHandler();
+    if (!(correlationHandler instanceof DefaultCorrelationHandler)) {
+      throw LOG.exceptionCorrelateMessageInChunksNotSupported(correlationHandler);
+    }
+
+    CorrelationSet correlationSet = new CorrelationSet(builder);
+    Date subscribedBefore = ClockUtil.getCurrentTime();
+
+    DefaultCorrelationHandler defaultCorrelationHandler = (DefaultCorrelationHandler) correlationHandler;
+    long numberOfExecutions = defaultCorrelationHandler.countCorrelatedExecutions(commandContext, messageName, correlationSet, subscribedBefore);
+    if (numberOfExecutions == 0) {
+      throw new BadUserRequestException("executionIds is empty");
+    }
+    String executionIdUpTo = defaultCorrelationHandler.findLastCorrelatedExecutionId(commandContext, messageName, correlationSet, subscribedBefore);
+
+    checkAuthorizations(commandContext);
+    writeUserOperationLog(commandContext, numberOfExecutions);
+
+    MessageCorrelationBatchConfiguration configuration = new MessageCorrelationBatchConfiguration(
+        new ArrayList<String>(), messageName, builder.getPayloadProcessInstanceVariables());
+    configuration.setCorrelationSet(correlationSet);
+    configuration.setSubscribedBefore(subscribedBefore);
+    configuration.setExecutionIdUpTo(executionIdUpTo);
+    configuration.setAuthentication(commandContext.getAuthentication());
+
+    BatchEntity batch = createBatch(commandContext, configuration, numberOfExecutions);
+
+    batch.createSeedJobDefinition();
+    batch.createMonitorJobDefinition();
+    batch.createBatchJobDefinition();
+
+    batch.fireHistoricStartEvent();
+
+    batch.createSeedJob();
+
+    return batch;
+  }
+
+  protected BatchEntity createBatch(CommandContext commandContext, MessageCorrelationBatchConfiguration configuration, long numberOfExecutions) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+    BatchJobHandler<MessageCorrelationBatchConfiguration> batchJobHandler = getBatchJobHandler(processEngineConfiguration);
+    int invocationsPerBatchJob = processEngineConfiguration.getInvocationsPerBatchJob();
+
+    BatchEntity batch = new BatchEntity();
+    batch.setType(batchJobHandler.getType());
+    batch.setTotalJobs((int) ((numberOfExecutions + invocationsPerBatchJob - 1) / invocationsPerBatchJob));
+    batch.setBatchJobsPerSeed(processEngineConfiguration.getBatchJobsPerSeed());
+    batch.setInvocationsPerBatchJob(invocationsPerBatchJob);
+    batch.setConfigurationBytes(batchJobHandler.writeConfiguration(configuration));
+    commandContext.getBatchManager().insert(batch);
+
+    return batch;
+  }
+
+  protected void writeUserOperationLog(CommandContext commandContext, long numberOfExecutions) {
+    List<PropertyChange> propertyChanges = new ArrayList<PropertyChange>();
+    propertyChanges.add(new PropertyChange("messageName", null, messageName));
+    propertyChanges.add(new PropertyChange("nrOfExecutions", null, numberOfExecutions));
+    propertyChanges.add(new PropertyChange("async", null, true));
+
+    commandContext.getOperationLogManager()
+      .logProcessInstanceOperation(UserOperationLogEntry.OPERATION_TYPE_CORRELATE_MESSAGE,
+          null,
+          null,
+          null,
+          propertyChanges);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected BatchJobHandler<MessageCorrelationBatchConfiguration> getBatchJobHandler(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    return (BatchJobHandler<MessageCorrelationBatchConfiguration>) processEngineConfiguration.getBatchHandlers().get(Batch.TYPE_MESSAGE_CORRELATION);
+  }
+
+}
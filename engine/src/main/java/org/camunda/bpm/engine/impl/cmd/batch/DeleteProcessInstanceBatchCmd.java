@@ -20,6 +20,7 @@ import org.camunda.bpm.engine.impl.ProcessInstanceQueryImpl;
 import org.camunda.bpm.engine.impl.batch.BatchConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchEntity;
 import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.ProcessInstanceQueryCursor;
 import org.camunda.bpm.engine.impl.batch.deletion.DeleteProcessInstanceBatchConfiguration;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
@@ -73,6 +74,10 @@ public class DeleteProcessInstanceBatchCmd extends AbstractIDBasedBatchCmd<Batch
 
   @Override
   public Batch execute(CommandContext commandContext) {
+    if (ProcessInstanceQueryCursor.isApplicable(commandContext, processInstanceQuery, processInstanceIds)) {
+      return createBatchFromQuery(commandContext);
+    }
+
     List<String> processInstanceIds = collectProcessInstanceIds();
 
     ensureNotEmpty(BadUserRequestException.class, "processInstanceIds", processInstanceIds);
@@ -84,6 +89,48 @@ public class DeleteProcessInstanceBatchCmd extends AbstractIDBasedBatchCmd<Batch
 
     BatchEntity batch = createBatch(commandContext, processInstanceIds);
 
+    startBatch(batch);
+
+    return batch;
+  }
+
+  protected Batch createBatchFromQuery(CommandContext commandContext) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+
+    ProcessInstanceQueryCursor cursor = ProcessInstanceQueryCursor.create(commandContext, processInstanceQuery);
+
+    long numberOfInstances = cursor.count();
+    if (numberOfInstances == 0) {
+      throw new BadUserRequestException("processInstanceIds is empty");
+    }
+
+    checkAuthorizations(commandContext);
+    writeUserOperationLog(commandContext,
+        deleteReason,
+        (int) numberOfInstances,
+        true);
+
+    DeleteProcessInstanceBatchConfiguration configuration =
+        new DeleteProcessInstanceBatchConfiguration(new ArrayList<String>(), deleteReason, skipCustomListeners);
+    configuration.setProcessInstanceQueryCursor(cursor);
+
+    BatchJobHandler<DeleteProcessInstanceBatchConfiguration> batchJobHandler = getBatchJobHandler(processEngineConfiguration);
+    int invocationsPerBatchJob = processEngineConfiguration.getInvocationsPerBatchJob();
+
+    BatchEntity batch = new BatchEntity();
+    batch.setType(batchJobHandler.getType());
+    batch.setTotalJobs((int) ((numberOfInstances + invocationsPerBatchJob - 1) / invocationsPerBatchJob));
+    batch.setBatchJobsPerSeed(processEngineConfiguration.getBatchJobsPerSeed());
+    batch.setInvocationsPerBatchJob(invocationsPerBatchJob);
+    batch.setConfigurationBytes(batchJobHandler.writeConfiguration(configuration));
+    commandContext.getBatchManager().insert(batch);
+
+    startBatch(batch);
+
+    return batch;
+  }
+
+  protected void startBatch(BatchEntity batch) {
     batch.createSeedJobDefinition();
     batch.createMonitorJobDefinition();
     batch.createBatchJobDefinition();
@@ -91,8 +138,6 @@ public class DeleteProcessInstanceBatchCmd extends AbstractIDBasedBatchCmd<Batch
     batch.fireHistoricStartEvent();
 
     batch.createSeedJob();
-
-    return batch;
   }
 
   protected BatchConfiguration getAbstractIdsBatchConfiguration(List<String> processInstanceIds) {
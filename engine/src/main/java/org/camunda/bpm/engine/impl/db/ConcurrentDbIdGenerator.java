@@ -0,0 +1,315 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.cmd.GetNextIdBlockCmd;
+
+/**
+ * <p>{@link DbIdGenerator} which does not serialize all threads on a single monitor.</p>
+ *
+ * <p>The id block fetched from the database is split into sub blocks. Each thread draws
+ * ids from the sub block of its stripe using atomic operations only. When a stripe is
+ * exhausted, the next sub block is carved out of the current id block, again without
+ * locking. Once a configurable share of the current id block is used up, the next id
+ * block is fetched in the background so that threads usually do not have to wait for
+ * the {@link GetNextIdBlockCmd} transaction.</p>
+ *
+ * <p>Ids are unique but not strictly ascending across threads, and ids of a sub block
+ * may be skipped when two threads refill the same stripe concurrently. Since every stripe
+ * holds a share of the id block, a larger {@link #setIdBlockSize(int) id block size}
+ * than for the {@link DbIdGenerator} is recommended.</p>
+ */
+public class ConcurrentDbIdGenerator extends DbIdGenerator {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final int DEFAULT_STRIPE_COUNT = 2 * Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The next id block is prefetched once the remaining ids of the current
+   * block fall below this share (in percent) of the id block size.
+   */
+  public static final int DEFAULT_PREFETCH_THRESHOLD_PERCENTAGE = 50;
+
+  protected int prefetchThresholdPercentage = DEFAULT_PREFETCH_THRESHOLD_PERCENTAGE;
+
+  protected AtomicReferenceArray<IdRange> stripes;
+  protected volatile IdRange currentBlock;
+
+  protected volatile Future<IdBlock> prefetchedBlock;
+  protected ReentrantLock blockLock = new ReentrantLock();
+  protected ExecutorService prefetchExecutor;
+  protected volatile boolean isClosed = false;
+
+  public ConcurrentDbIdGenerator() {
+    setStripeCount(DEFAULT_STRIPE_COUNT);
+  }
+
+  public String getNextId() {
+    int stripeIndex = getStripeIndex();
+
+    IdRange stripe = stripes.get(stripeIndex);
+    if (stripe != null) {
+      long id = stripe.nextId();
+      if (id >= 0) {
+        return Long.toString(id);
+      }
+    }
+
+    IdRange newStripe = takeSubBlock();
+    long id = newStripe.nextId();
+
+    // if another thread refilled the stripe in the meantime, the remaining ids of the new sub block are skipped
+    stripes.compareAndSet(stripeIndex, stripe, newStripe);
+
+    return Long.toString(id);
+  }
+
+  protected int getStripeIndex() {
+    return (int) (Thread.currentThread().getId() & (stripes.length() - 1));
+  }
+
+  protected IdRange takeSubBlock() {
+    int subBlockSize = getSubBlockSize();
+
+    while (true) {
+      IdRange block = currentBlock;
+
+      if (block != null) {
+        long firstId = block.take(subBlockSize);
+        if (firstId >= 0) {
+          if (block.getRemaining() * 100 < (long) idBlockSize * prefetchThresholdPercentage) {
+            prefetchNextBlock();
+          }
+          return new IdRange(firstId, Math.min(firstId + subBlockSize - 1, block.getLastId()));
+        }
+      }
+
+      switchToNextBlock(block);
+    }
+  }
+
+  protected int getSubBlockSize() {
+    return Math.max(1, idBlockSize / stripes.length());
+  }
+
+  /**
+   * Replaces the exhausted block with the prefetched one or, if no block was prefetched,
+   * fetches the next block right away. Only the first thread noticing that the block is
+   * exhausted performs the switch; the others wait for it and continue with the new block.
+   */
+  protected void switchToNextBlock(IdRange exhaustedBlock) {
+    blockLock.lock();
+    try {
+      if (currentBlock != exhaustedBlock) {
+        // another thread already switched the block
+        return;
+      }
+
+      IdBlock idBlock = takePrefetchedBlock();
+      if (idBlock == null) {
+        idBlock = fetchBlock();
+      }
+
+      currentBlock = new IdRange(idBlock.getNextId(), idBlock.getLastId());
+
+    } finally {
+      blockLock.unlock();
+    }
+  }
+
+  protected IdBlock takePrefetchedBlock() {
+    Future<IdBlock> prefetched = prefetchedBlock;
+    prefetchedBlock = null;
+
+    if (prefetched == null) {
+      return null;
+    }
+
+    try {
+      return prefetched.get();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.idBlockPrefetchFailed(e);
+      return null;
+
+    } catch (ExecutionException e) {
+      LOG.idBlockPrefetchFailed(e.getCause());
+      return null;
+
+    } catch (CancellationException e) {
+      LOG.idBlockPrefetchFailed(e);
+      return null;
+    }
+  }
+
+  protected void prefetchNextBlock() {
+    if (isClosed || prefetchedBlock != null || !blockLock.tryLock()) {
+      // the generator is closed, a block is prefetched already or the block is switched right now
+      return;
+    }
+
+    try {
+      // close() holds the lock as well, so no executor is created once the generator is closed
+      if (!isClosed && prefetchedBlock == null) {
+        prefetchedBlock = getPrefetchExecutor().submit(new Callable<IdBlock>() {
+          public IdBlock call() throws Exception {
+            return fetchBlock();
+          }
+        });
+      }
+    } finally {
+      blockLock.unlock();
+    }
+  }
+
+  protected IdBlock fetchBlock() {
+    return commandExecutor.execute(new GetNextIdBlockCmd(idBlockSize));
+  }
+
+  protected synchronized ExecutorService getPrefetchExecutor() {
+    if (prefetchExecutor == null) {
+      // the single prefetch thread terminates when no block has been requested for a while
+      prefetchExecutor = new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "camunda-id-block-prefetch");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return prefetchExecutor;
+  }
+
+  /**
+   * Shuts down the prefetch thread and discards a block which is being prefetched.
+   * Ids which are requested afterwards are still generated, but the next id block
+   * is then fetched synchronously.
+   */
+  public void close() {
+    blockLock.lock();
+    try {
+      isClosed = true;
+
+      // a prefetch which is still queued is dropped by the executor and would never complete
+      Future<IdBlock> prefetched = prefetchedBlock;
+      prefetchedBlock = null;
+      if (prefetched != null) {
+        prefetched.cancel(true);
+      }
+
+      synchronized (this) {
+        if (prefetchExecutor != null) {
+          prefetchExecutor.shutdownNow();
+          prefetchExecutor = null;
+        }
+      }
+
+    } finally {
+      blockLock.unlock();
+    }
+  }
+
+  /**
+   * Reset inner state so that the generator fetches a new block of IDs from the database
+   * when the next ID generation request is received. A block which is prefetched at the
+   * time of the reset is discarded.
+   */
+  public void reset() {
+    super.reset();
+    currentBlock = null;
+    prefetchedBlock = null;
+    if (stripes != null) {
+      stripes = new AtomicReferenceArray<IdRange>(stripes.length());
+    }
+  }
+
+  public int getStripeCount() {
+    return stripes.length();
+  }
+
+  /**
+   * Sets the number of stripes; the value is rounded up to the next power of two.
+   */
+  public void setStripeCount(int stripeCount) {
+    int powerOfTwo = 1;
+    while (powerOfTwo < stripeCount) {
+      powerOfTwo <<= 1;
+    }
+    this.stripes = new AtomicReferenceArray<IdRange>(powerOfTwo);
+  }
+
+  public int getPrefetchThresholdPercentage() {
+    return prefetchThresholdPercentage;
+  }
+
+  public void setPrefetchThresholdPercentage(int prefetchThresholdPercentage) {
+    this.prefetchThresholdPercentage = prefetchThresholdPercentage;
+  }
+
+  /**
+   * A range of ids which can be drawn from concurrently.
+   */
+  protected static class IdRange {
+
+    protected final AtomicLong nextId;
+    protected final long lastId;
+
+    public IdRange(long nextId, long lastId) {
+      this.nextId = new AtomicLong(nextId);
+      this.lastId = lastId;
+    }
+
+    /**
+     * @return the next id of this range or -1 if the range is exhausted
+     */
+    public long nextId() {
+      long id = nextId.getAndIncrement();
+      return id <= lastId ? id : -1;
+    }
+
+    /**
+     * @return the first of <code>count</code> consecutive ids taken from this range
+     *   or -1 if the range is exhausted. Less than <code>count</code> ids may be left
+     *   in the range.
+     */
+    public long take(int count) {
+      long firstId = nextId.getAndAdd(count);
+      return firstId <= lastId ? firstId : -1;
+    }
+
+    public long getRemaining() {
+      return Math.max(0, lastId - nextId.get() + 1);
+    }
+
+    public long getLastId() {
+      return lastId;
+    }
+  }
+
+}
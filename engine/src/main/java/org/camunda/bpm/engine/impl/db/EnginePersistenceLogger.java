@@ -644,4 +644,99 @@ public class EnginePersistenceLogger extends ProcessEngineLogger {
         thatDeploymentId);
   }
 
+
+  public ProcessEngineException wrongBatchResultsSizeException(List<DbOperation> operations, int numberOfUpdateCounts) {
+    return new ProcessEngineException(exceptionMessage(
+        "081",
+        "Unable to correlate {} update counts reported by the JDBC batch with {} executed database operations: {}",
+        numberOfUpdateCounts,
+        operations.size(),
+        buildStringFromList(operations)
+        ));
+  }
+
+  public void batchOperationWithoutUpdateCount(DbOperation operation) {
+    logDebug(
+        "082",
+        "JDBC driver did not report the number of affected rows for batched operation '{}'.",
+        operation);
+  }
+
+  public ProcessEngineException batchOperationWithoutUpdateCountException(DbOperation operation) {
+    return new ProcessEngineException(exceptionMessage(
+        "091",
+        "JDBC driver did not report the number of affected rows for batched operation '{}'. Optimistic locking cannot be checked "
+        + "with this driver, disable the configuration property 'jdbcBatchProcessing'.",
+        operation));
+  }
+
+  public ProcessEngineException flushDbOperationsException(List<DbOperation> operationsToFlush, Throwable cause) {
+    return new ProcessEngineException(exceptionMessage(
+        "083",
+        "Exception while executing batched Database Operations with message '{}'. Flush summary: \n {}",
+        cause.getMessage(),
+        buildStringFromList(operationsToFlush)
+        ), cause);
+  }
+
+  public void idBlockPrefetchFailed(Throwable cause) {
+    logWarn(
+        "084",
+        "Prefetching the next id block failed, fetching it synchronously instead: {}",
+        cause.getMessage(),
+        cause);
+  }
+
+  public void historyEventJournalAppendFailed(Throwable cause) {
+    logWarn(
+        "085",
+        "Unable to append history events to the journal, waiting for the history event writer instead: {}",
+        cause.getMessage(),
+        cause);
+  }
+
+  public void historyEventWriteFailed(int attempt, int maxAttempts, Throwable cause) {
+    logWarn(
+        "086",
+        "Attempt {} of {} to write history events failed: {}",
+        attempt,
+        maxAttempts,
+        cause.getMessage(),
+        cause);
+  }
+
+  public void historyEventsQuarantined(int numberOfEvents, String location) {
+    logError(
+        "087",
+        "Unable to write {} history events. The events have been saved to '{}'",
+        numberOfEvents,
+        location);
+  }
+
+  public void historyEventsLost(int numberOfEvents, Throwable cause) {
+    logError(
+        "088",
+        "Unable to write {} history events. The events are lost: {}",
+        numberOfEvents,
+        cause != null ? cause.getMessage() : null,
+        cause);
+  }
+
+  public void historyEventJournalReadFailed(String location, Throwable cause) {
+    logError(
+        "089",
+        "Unable to read history event journal entry '{}'. The entry has been moved aside: {}",
+        location,
+        cause.getMessage(),
+        cause);
+  }
+
+  public void historyEventWriterFailed(Throwable cause) {
+    logError(
+        "090",
+        "Unexpected exception in the history event writer: {}",
+        cause.getMessage(),
+        cause);
+  }
+
 }
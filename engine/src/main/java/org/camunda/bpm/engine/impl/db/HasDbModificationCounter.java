@@ -0,0 +1,31 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.db;
+
+/**
+ * Entities which track changes of their persistent state themselves can implement this
+ * interface. If modification tracking is enabled, the entity cache compares the counter
+ * instead of {@link DbEntity#getPersistentState() persistent state} snapshots to decide
+ * whether an entity is dirty.
+ *
+ * <p>Implementations must increment the counter whenever a value which is part of
+ * the persistent state changes.</p>
+ */
+public interface HasDbModificationCounter {
+
+  /**
+   * @return a counter which is incremented on every change of the persistent state
+   */
+  int getModificationCounter();
+
+}
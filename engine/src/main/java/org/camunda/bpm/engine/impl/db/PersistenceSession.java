@@ -28,6 +28,16 @@ public interface PersistenceSession extends Session {
 
   void executeDbOperation(DbOperation operation);
 
+  /**
+   * Flushes the statements which were deferred by {@link #executeDbOperation(DbOperation)}
+   * while batch processing is enabled and correlates the reported update counts with the
+   * operations. Operations which failed are marked as {@link DbOperation#isFailed() failed}.
+   *
+   * @return the operations which were flushed by this call; an empty list if
+   *   the session executes every operation immediately.
+   */
+  List<DbOperation> flushOperations();
+
   List<?> selectList(String statement, Object parameter);
 
   <T extends DbEntity> T selectById(Class<T> type, String id);
@@ -66,7 +66,10 @@ import org.camunda.bpm.engine.impl.identity.db.DbGroupQueryImpl;
 import org.camunda.bpm.engine.impl.identity.db.DbUserQueryImpl;
 import org.camunda.bpm.engine.impl.interceptor.Session;
 import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
 import org.camunda.bpm.engine.impl.util.EnsureUtil;
+import org.camunda.bpm.engine.management.Metrics;
 
 /**
  *
@@ -128,6 +131,10 @@ public class DbEntityManager implements Session, EntityLoadListener {
       }
     }
 
+    if (processEngineConfiguration != null) {
+      dbEntityCache.setModificationTrackingEnabled(processEngineConfiguration.isDbEntityModificationTrackingEnabled());
+    }
+
   }
 
   // selects /////////////////////////////////////////////////
@@ -261,6 +268,8 @@ public class DbEntityManager implements Session, EntityLoadListener {
 
   public void lock(String statement, Object parameter) {
     persistenceSession.lock(statement, parameter);
+    // pending batches are sent to the database before the lock statement
+    flushBatchedOperations(Collections.<DbOperation>emptyList());
   }
 
   public boolean isDirty(DbEntity dbEntity) {
@@ -281,6 +290,16 @@ public class DbEntityManager implements Session, EntityLoadListener {
     flushDbOperationManager();
   }
 
+  protected void recordFlushSize(int flushSize) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null && processEngineConfiguration.isMetricsEnabled()) {
+      MetricsRegistry metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+      if (metricsRegistry != null) {
+        metricsRegistry.recordValue(Metrics.FLUSH_SIZE, flushSize);
+      }
+    }
+  }
+
   public void setIgnoreForeignKeysForNextFlush(boolean ignoreForeignKeysForNextFlush) {
     isIgnoreForeignKeysForNextFlush = ignoreForeignKeysForNextFlush;
   }
@@ -289,6 +308,8 @@ public class DbEntityManager implements Session, EntityLoadListener {
     // obtain totally ordered operation list from operation manager
     List<DbOperation> operationsToFlush = dbOperationManager.calculateFlush();
     LOG.databaseFlushSummary(operationsToFlush);
+    recordFlushSize(operationsToFlush.size());
+    CommandProfiler.entityCacheFlushed(dbEntityCache.size());
 
     // If we want to delete all table data as bulk operation, on tables which have self references,
     // We need to turn the foreign key check off on MySQL and MariaDB.
@@ -299,6 +320,7 @@ public class DbEntityManager implements Session, EntityLoadListener {
     // execute the flush
     try {
       for (DbOperation dbOperation : operationsToFlush) {
+        CommandProfiler.entityFlushed(dbOperation.getEntityType());
         try {
           persistenceSession.executeDbOperation(dbOperation);
         } catch (Exception e) {
@@ -308,6 +330,9 @@ public class DbEntityManager implements Session, EntityLoadListener {
           handleOptimisticLockingException(dbOperation);
         }
       }
+
+      flushBatchedOperations(operationsToFlush);
+
     } finally {
       if (isIgnoreForeignKeysForNextFlush) {
         persistenceSession.executeNonEmptyUpdateStmt(TOGGLE_FOREIGN_KEY_STMT, true);
@@ -316,6 +341,26 @@ public class DbEntityManager implements Session, EntityLoadListener {
     }
   }
 
+  /**
+   * If the persistence session defers statements into JDBC batches, the results of the
+   * operations are only known after the batches are sent to the database. Failed operations
+   * are then handled the same way as in non-batched mode.
+   */
+  protected void flushBatchedOperations(List<DbOperation> operationsToFlush) {
+    List<DbOperation> flushedOperations;
+    try {
+      flushedOperations = persistenceSession.flushOperations();
+    } catch (Exception e) {
+      throw LOG.flushDbOperationsException(operationsToFlush, e);
+    }
+
+    for (DbOperation dbOperation : flushedOperations) {
+      if (dbOperation.isFailed()) {
+        handleOptimisticLockingException(dbOperation);
+      }
+    }
+  }
+
   public void flushEntity(DbEntity entity) {
     CachedDbEntity cachedEntity = dbEntityCache.getCachedEntity(entity);
     if (cachedEntity != null) {
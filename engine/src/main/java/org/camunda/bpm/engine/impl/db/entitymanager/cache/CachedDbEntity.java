@@ -16,6 +16,7 @@ import java.util.Collections;
 import java.util.Set;
 
 import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.HasDbModificationCounter;
 import org.camunda.bpm.engine.impl.db.HasDbReferences;
 import org.camunda.bpm.engine.impl.db.entitymanager.Recyclable;
 
@@ -33,6 +34,14 @@ public class CachedDbEntity implements Recyclable {
 
   protected DbEntityState entityState;
 
+  /**
+   * If true, entities implementing {@link HasDbModificationCounter} are checked for
+   * changes using their counter instead of a persistent state snapshot.
+   */
+  protected boolean isModificationTrackingEnabled;
+
+  protected int modificationCounterCopy;
+
   /**
    * Ids of referenced entities of the same entity type
    */
@@ -43,6 +52,7 @@ public class CachedDbEntity implements Recyclable {
     dbEntity = null;
     copy = null;
     entityState = null;
+    modificationCounterCopy = 0;
   }
 
   /**
@@ -50,16 +60,36 @@ public class CachedDbEntity implements Recyclable {
    * @return true if the entity is dirty (state has changed since it was put into the cache)
    */
   public boolean isDirty() {
-    return !dbEntity.getPersistentState().equals(copy);
+    if (isTrackingModifications()) {
+      return getModificationCounter() != modificationCounterCopy;
+    } else {
+      return !dbEntity.getPersistentState().equals(copy);
+    }
   }
 
   public void forceSetDirty() {
-    // set the value of the copy to some value which will always be different from the new entity state.
-    this.copy = -1;
+    if (isTrackingModifications()) {
+      this.modificationCounterCopy = getModificationCounter() - 1;
+    } else {
+      // set the value of the copy to some value which will always be different from the new entity state.
+      this.copy = -1;
+    }
   }
 
   public void makeCopy() {
-    copy = dbEntity.getPersistentState();
+    if (isTrackingModifications()) {
+      modificationCounterCopy = getModificationCounter();
+    } else {
+      copy = dbEntity.getPersistentState();
+    }
+  }
+
+  protected boolean isTrackingModifications() {
+    return isModificationTrackingEnabled && dbEntity instanceof HasDbModificationCounter;
+  }
+
+  protected int getModificationCounter() {
+    return ((HasDbModificationCounter) dbEntity).getModificationCounter();
   }
 
   public String toString() {
@@ -101,6 +131,14 @@ public class CachedDbEntity implements Recyclable {
     this.entityState = entityState;
   }
 
+  public boolean isModificationTrackingEnabled() {
+    return isModificationTrackingEnabled;
+  }
+
+  public void setModificationTrackingEnabled(boolean isModificationTrackingEnabled) {
+    this.isModificationTrackingEnabled = isModificationTrackingEnabled;
+  }
+
   public Class<? extends DbEntity> getEntityType() {
     return dbEntity.getClass();
   }
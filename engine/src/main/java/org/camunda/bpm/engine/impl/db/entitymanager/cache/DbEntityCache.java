@@ -55,6 +55,12 @@ public class DbEntityCache {
 
   protected DbEntityCacheKeyMapping cacheKeyMapping;
 
+  /**
+   * If true, entities which track their own modifications are not
+   * checked for changes by comparing persistent state snapshots.
+   */
+  protected boolean isModificationTrackingEnabled = false;
+
   public DbEntityCache() {
     this.cacheKeyMapping = DbEntityCacheKeyMapping.emptyMapping();
   }
@@ -144,7 +150,7 @@ public class DbEntityCache {
    * @param e the object to put into the cache
    */
   public void putTransient(DbEntity e) {
-    CachedDbEntity cachedDbEntity = new CachedDbEntity();
+    CachedDbEntity cachedDbEntity = createCachedDbEntity();
     cachedDbEntity.setEntity(e);
     cachedDbEntity.setEntityState(TRANSIENT);
     putInternal(cachedDbEntity);
@@ -156,7 +162,7 @@ public class DbEntityCache {
    * @param e the object to put into the cache
    */
   public void putPersistent(DbEntity e) {
-    CachedDbEntity cachedDbEntity = new CachedDbEntity();
+    CachedDbEntity cachedDbEntity = createCachedDbEntity();
     cachedDbEntity.setEntity(e);
     cachedDbEntity.setEntityState(PERSISTENT);
     cachedDbEntity.determineEntityReferences();
@@ -171,7 +177,7 @@ public class DbEntityCache {
    * @param e the object to put into the cache
    */
   public void putMerged(DbEntity e) {
-    CachedDbEntity cachedDbEntity = new CachedDbEntity();
+    CachedDbEntity cachedDbEntity = createCachedDbEntity();
     cachedDbEntity.setEntity(e);
     cachedDbEntity.setEntityState(MERGED);
     cachedDbEntity.determineEntityReferences();
@@ -180,6 +186,12 @@ public class DbEntityCache {
     putInternal(cachedDbEntity);
   }
 
+  protected CachedDbEntity createCachedDbEntity() {
+    CachedDbEntity cachedDbEntity = new CachedDbEntity();
+    cachedDbEntity.setModificationTrackingEnabled(isModificationTrackingEnabled);
+    return cachedDbEntity;
+  }
+
   protected void putInternal(CachedDbEntity entityToAdd) {
     Class<? extends DbEntity> type = entityToAdd.getEntity().getClass();
     Class<?> cacheKey = cacheKeyMapping.getEntityCacheKey(type);
@@ -345,6 +357,17 @@ public class DbEntityCache {
     return result;
   }
 
+  /**
+   * @return the number of cached entities
+   */
+  public int size() {
+    int size = 0;
+    for (Map<String, CachedDbEntity> typeCache : cachedEntites.values()) {
+      size += typeCache.size();
+    }
+    return size;
+  }
+
   /**
    * Sets an object to a deleted state. It will not be removed from the cache but
    * transition to one of the DELETED states, depending on it's current state.
@@ -365,7 +388,7 @@ public class DbEntityCache {
       }
     } else {
       // put a deleted merged into the cache
-      CachedDbEntity cachedDbEntity = new CachedDbEntity();
+      CachedDbEntity cachedDbEntity = createCachedDbEntity();
       cachedDbEntity.setEntity(dbEntity);
       cachedDbEntity.setEntityState(DELETED_MERGED);
       putInternal(cachedDbEntity);
@@ -383,4 +406,12 @@ public class DbEntityCache {
     }
   }
 
+  public boolean isModificationTrackingEnabled() {
+    return isModificationTrackingEnabled;
+  }
+
+  public void setModificationTrackingEnabled(boolean isModificationTrackingEnabled) {
+    this.isModificationTrackingEnabled = isModificationTrackingEnabled;
+  }
+
 }
@@ -29,9 +29,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
@@ -42,6 +45,9 @@ import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbBulkOperation;
 import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
 import org.camunda.bpm.engine.impl.util.IoUtil;
 import org.camunda.bpm.engine.impl.util.ReflectUtil;
 
@@ -65,26 +71,57 @@ public class DbSqlSession extends AbstractPersistenceSession {
   protected String connectionMetadataDefaultCatalog = null;
   protected String connectionMetadataDefaultSchema = null;
 
+  /**
+   * If true, INSERT, UPDATE and DELETE statements are collected in JDBC batches
+   * and only sent to the database on {@link #flushOperations()}.
+   */
+  protected boolean isBatchProcessing;
+
+  /**
+   * Operations which were executed in batch mode but whose results were not
+   * yet reported by the JDBC driver.
+   */
+  protected List<DbOperation> batchedOperations = new ArrayList<DbOperation>();
+
+  /**
+   * Operations whose batches had to be sent to the database ahead of a select or an
+   * immediately executed statement. They are returned by the next {@link #flushOperations()},
+   * so that failed operations are handled by the caller like any other flushed operation.
+   */
+  protected List<DbOperation> flushedOperations = new ArrayList<DbOperation>();
+
   public DbSqlSession(DbSqlSessionFactory dbSqlSessionFactory) {
     this.dbSqlSessionFactory = dbSqlSessionFactory;
+    this.isBatchProcessing = dbSqlSessionFactory.isJdbcBatchProcessing();
     this.sqlSession = dbSqlSessionFactory
       .getSqlSessionFactory()
-      .openSession();
+      .openSession(getExecutorType());
   }
 
   public DbSqlSession(DbSqlSessionFactory dbSqlSessionFactory, Connection connection, String catalog, String schema) {
     this.dbSqlSessionFactory = dbSqlSessionFactory;
+    this.isBatchProcessing = dbSqlSessionFactory.isJdbcBatchProcessing();
     this.sqlSession = dbSqlSessionFactory
       .getSqlSessionFactory()
-      .openSession(connection);
+      .openSession(getExecutorType(), connection);
     this.connectionMetadataDefaultCatalog = catalog;
     this.connectionMetadataDefaultSchema = schema;
   }
 
+  protected ExecutorType getExecutorType() {
+    if (isBatchProcessing) {
+      return ExecutorType.BATCH;
+    } else {
+      return ExecutorType.SIMPLE;
+    }
+  }
+
   // select ////////////////////////////////////////////
 
   public List<?> selectList(String statement, Object parameter){
+    flushBatchedStatements();
     statement = dbSqlSessionFactory.mapStatement(statement);
+    CommandProfiler.statementExecuted(statement);
     List<Object> resultList = sqlSession.selectList(statement, parameter);
     for (Object object : resultList) {
       fireEntityLoaded(object);
@@ -98,13 +135,17 @@ public class DbSqlSession extends AbstractPersistenceSession {
     selectStatement = dbSqlSessionFactory.mapStatement(selectStatement);
     ensureNotNull("no select statement for " + type + " in the ibatis mapping files", "selectStatement", selectStatement);
 
+    flushBatchedStatements();
+    CommandProfiler.statementExecuted(selectStatement);
     Object result = sqlSession.selectOne(selectStatement, id);
     fireEntityLoaded(result);
     return (T) result;
   }
 
   public Object selectOne(String statement, Object parameter) {
+    flushBatchedStatements();
     statement = dbSqlSessionFactory.mapStatement(statement);
+    CommandProfiler.statementExecuted(statement);
     Object result = sqlSession.selectOne(statement, parameter);
     fireEntityLoaded(result);
     return result;
@@ -118,7 +159,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // Id using the DbIdGenerator while performing a deployment.
     if (!DbSqlSessionFactory.H2.equals(dbSqlSessionFactory.getDatabaseType())) {
       String mappedStatement = dbSqlSessionFactory.mapStatement(statement);
-      sqlSession.update(mappedStatement, parameter);
+      executeUpdateImmediately(mappedStatement, parameter);
     }
   }
 
@@ -137,12 +178,18 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // execute the insert
     executeInsertEntity(insertStatement, dbEntity);
 
+    if (isBatchProcessing) {
+      // the insert contributes an update count to the batch results of the flush
+      batchedOperations.add(operation);
+    }
+
     // perform post insert actions on entity
     entityInserted(dbEntity);
   }
 
   protected void executeInsertEntity(String insertStatement, Object parameter) {
     LOG.executeDatabaseOperation("INSERT", parameter);
+    CommandProfiler.statementExecuted(insertStatement);
     sqlSession.insert(insertStatement, parameter);
 
     // set revision of our copy to 1
@@ -172,6 +219,17 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // execute the delete
     int nrOfRowsDeleted = executeDelete(deleteStatement, dbEntity);
 
+    if (isBatchProcessing) {
+      // the number of deleted rows is reported on flush
+      batchedOperations.add(operation);
+    } else {
+      postProcessDelete(operation, nrOfRowsDeleted);
+    }
+  }
+
+  protected void postProcessDelete(DbEntityOperation operation, int nrOfRowsDeleted) {
+    DbEntity dbEntity = operation.getEntity();
+
     // It only makes sense to check for optimistic locking exceptions for objects that actually have a revision
     if (dbEntity instanceof HasDbRevision && nrOfRowsDeleted == 0) {
       operation.setFailed(true);
@@ -185,6 +243,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
   protected int executeDelete(String deleteStatement, Object parameter) {
     // map the statement
     deleteStatement = dbSqlSessionFactory.mapStatement(deleteStatement);
+    CommandProfiler.statementExecuted(deleteStatement);
     return sqlSession.delete(deleteStatement, parameter);
   }
 
@@ -200,6 +259,10 @@ public class DbSqlSession extends AbstractPersistenceSession {
     LOG.executeDatabaseBulkOperation("DELETE", statement, parameter);
 
     executeDelete(statement, parameter);
+
+    if (isBatchProcessing) {
+      batchedOperations.add(operation);
+    }
   }
 
   // update ////////////////////////////////////////
@@ -217,6 +280,17 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // execute update
     int numOfRowsUpdated = executeUpdate(updateStatement, dbEntity);
 
+    if (isBatchProcessing) {
+      // the number of updated rows is reported on flush
+      batchedOperations.add(operation);
+    } else {
+      postProcessUpdate(operation, numOfRowsUpdated);
+    }
+  }
+
+  protected void postProcessUpdate(DbEntityOperation operation, int numOfRowsUpdated) {
+    DbEntity dbEntity = operation.getEntity();
+
     if (dbEntity instanceof HasDbRevision) {
       if(numOfRowsUpdated != 1) {
         // failed with optimistic locking
@@ -236,6 +310,7 @@ public class DbSqlSession extends AbstractPersistenceSession {
   @Override
   public int executeUpdate(String updateStatement, Object parameter) {
     updateStatement = dbSqlSessionFactory.mapStatement(updateStatement);
+    CommandProfiler.statementExecuted(updateStatement);
     return sqlSession.update(updateStatement, parameter);
   }
 
@@ -248,7 +323,35 @@ public class DbSqlSession extends AbstractPersistenceSession {
     if (mappedStatement.getBoundSql(parameter).getSql().isEmpty())
       return 0;
 
-    return sqlSession.update(updateStmt, parameter);
+    return executeUpdateImmediately(updateStmt, parameter);
+  }
+
+  /**
+   * Executes the given (already mapped) update statement and makes sure that it reaches
+   * the database right away, even if batch processing is enabled. Used for statements
+   * whose effect must be visible before subsequent operations (e.g. locks).
+   */
+  protected int executeUpdateImmediately(String mappedStatement, Object parameter) {
+    // the update counts of this statement must not be mixed up with those of pending operations
+    flushBatchedStatements();
+
+    CommandProfiler.statementExecuted(mappedStatement);
+    if (!isBatchProcessing) {
+      return sqlSession.update(mappedStatement, parameter);
+    }
+
+    // a driver may execute a batch without reporting the number of affected rows (e.g. Oracle),
+    // so the statement is executed without batching on the connection of this session
+    SqlSession nonBatchingSqlSession = dbSqlSessionFactory
+      .getSqlSessionFactory()
+      .openSession(ExecutorType.SIMPLE, sqlSession.getConnection());
+    // the session is not closed, since this would close the shared connection
+    int rowsAffected = nonBatchingSqlSession.update(mappedStatement, parameter);
+
+    // the statement bypassed this session, which must not return cached results anymore
+    sqlSession.clearCache();
+
+    return rowsAffected;
   }
 
   protected void entityUpdated(final DbEntity entity) {
@@ -263,6 +366,10 @@ public class DbSqlSession extends AbstractPersistenceSession {
     LOG.executeDatabaseBulkOperation("UPDATE", statement, parameter);
 
     executeUpdate(statement, parameter);
+
+    if (isBatchProcessing) {
+      batchedOperations.add(operation);
+    }
   }
 
   // flush ////////////////////////////////////////////////////////////////////
@@ -271,6 +378,89 @@ public class DbSqlSession extends AbstractPersistenceSession {
     // nothing to do
   }
 
+  public List<DbOperation> flushOperations() {
+    if (!isBatchProcessing) {
+      return Collections.emptyList();
+    }
+
+    List<DbOperation> operations = flushedOperations;
+    flushedOperations = new ArrayList<DbOperation>();
+    operations.addAll(executeBatchedOperations());
+    return operations;
+  }
+
+  /**
+   * MyBatis sends pending batches to the database before executing a select and discards
+   * their update counts. Therefore, the batches are sent beforehand and their results are
+   * kept until the next {@link #flushOperations()}.
+   */
+  protected void flushBatchedStatements() {
+    if (isBatchProcessing && !batchedOperations.isEmpty()) {
+      flushedOperations.addAll(executeBatchedOperations());
+    }
+  }
+
+  protected List<DbOperation> executeBatchedOperations() {
+    List<DbOperation> executedOperations = batchedOperations;
+    batchedOperations = new ArrayList<DbOperation>();
+
+    List<BatchResult> batchResults = sqlSession.flushStatements();
+
+    // MyBatis groups consecutive executions of the same statement into one batch result;
+    // each execution contributes exactly one update count, in execution order
+    List<Integer> updateCounts = new ArrayList<Integer>(executedOperations.size());
+    for (BatchResult batchResult : batchResults) {
+      for (int updateCount : batchResult.getUpdateCounts()) {
+        updateCounts.add(updateCount);
+      }
+    }
+
+    if (updateCounts.size() != executedOperations.size()) {
+      throw LOG.wrongBatchResultsSizeException(executedOperations, updateCounts.size());
+    }
+
+    for (int i = 0; i < executedOperations.size(); i++) {
+      postProcessBatchedOperation(executedOperations.get(i), updateCounts.get(i));
+    }
+
+    return executedOperations;
+  }
+
+  protected void postProcessBatchedOperation(DbOperation operation, int updateCount) {
+    DbOperationType operationType = operation.getOperationType();
+    if (operationType == DbOperationType.INSERT) {
+      // a failing insert makes the whole batch fail with an exception
+      return;
+    }
+
+    if (updateCount == Statement.SUCCESS_NO_INFO) {
+      // the driver executed the statement but cannot tell how many rows were affected
+      if (operation instanceof DbEntityOperation
+          && ((DbEntityOperation) operation).getEntity() instanceof HasDbRevision) {
+        // a concurrent modification would go unnoticed
+        throw LOG.batchOperationWithoutUpdateCountException(operation);
+      }
+      LOG.batchOperationWithoutUpdateCount(operation);
+      updateCount = 1;
+    }
+
+    switch (operationType) {
+      case UPDATE:
+        postProcessUpdate((DbEntityOperation) operation, updateCount);
+        break;
+      case DELETE:
+        postProcessDelete((DbEntityOperation) operation, updateCount);
+        break;
+      default:
+        // bulk operations have no expected result
+        break;
+    }
+  }
+
+  public boolean isBatchProcessing() {
+    return isBatchProcessing;
+  }
+
   public void close() {
     sqlSession.close();
   }
@@ -100,8 +100,11 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "NEW_VALUE_ || '_|_' || PROPERTY_");
     constants.put("constant_for_update", "for update");
+    // h2 does not know SKIP LOCKED; concurrent acquisitions wait for each other instead
+    constants.put("constant_for_update_skip_locked", "for update");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.minute", "MINUTE");
     constants.put("constant.null.startTime", "null START_TIME_");
     dbSpecificConstants.put(H2, constants);
 
@@ -140,13 +143,17 @@ public class DbSqlSessionFactory implements SessionFactory {
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectHistoricDecisionInstanceIdsForCleanup", "selectHistoricDecisionInstanceIdsForCleanup_mysql");
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectHistoricCaseInstanceIdsForCleanup", "selectHistoricCaseInstanceIdsForCleanup_mysql");
       addDatabaseSpecificStatement(mysqlLikeDatabase, "selectFinishedProcessInstancesReportEntities", "selectFinishedProcessInstancesReportEntities_mysql");
+      addDatabaseSpecificStatement(mysqlLikeDatabase, "updateHistoricByteArrayRemovalTimeByProcessInstanceId", "updateHistoricByteArrayRemovalTimeByProcessInstanceId_mysql");
 
       constants = new HashMap<String, String>();
       constants.put("constant.event", "'event'");
       constants.put("constant.op_message", "CONCAT(NEW_VALUE_, '_|_', PROPERTY_)");
       constants.put("constant_for_update", "for update");
+      // requires MySQL 8.0 or MariaDB 10.6
+      constants.put("constant_for_update_skip_locked", "for update skip locked");
       constants.put("constant.datepart.quarter", "QUARTER");
       constants.put("constant.datepart.month", "MONTH");
+      constants.put("constant.datepart.minute", "MINUTE");
       constants.put("constant.null.startTime", "null START_TIME_");
       dbSpecificConstants.put(mysqlLikeDatabase, constants);
     }
@@ -199,14 +206,17 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(POSTGRES, "selectHistoricProcessInstanceIdsForCleanupCount", "selectHistoricProcessInstanceIdsForCleanupCount_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectHistoricDecisionInstanceIdsForCleanup", "selectHistoricDecisionInstanceIdsForCleanup_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectHistoricCaseInstanceIdsForCleanup", "selectHistoricCaseInstanceIdsForCleanup_postgres");
+    addDatabaseSpecificStatement(POSTGRES, "deleteHistoryByRemovalTime", "deleteHistoryByRemovalTime_postgres");
     addDatabaseSpecificStatement(POSTGRES, "selectFinishedProcessInstancesReportEntities", "selectFinishedProcessInstancesReportEntities_postgres");
 
     constants = new HashMap<String, String>();
     constants.put("constant.event", "'event'");
     constants.put("constant.op_message", "NEW_VALUE_ || '_|_' || PROPERTY_");
     constants.put("constant_for_update", "for update");
+    constants.put("constant_for_update_skip_locked", "for update skip locked");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.minute", "MINUTE");
     constants.put("constant.null.startTime", "null START_TIME_");
     dbSpecificConstants.put(POSTGRES, constants);
 
@@ -240,6 +250,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(ORACLE, "selectHistoricProcessInstanceIdsForCleanupCount", "selectHistoricProcessInstanceIdsForCleanupCount_oracle");
     addDatabaseSpecificStatement(ORACLE, "selectHistoricDecisionInstanceIdsForCleanup", "selectHistoricDecisionInstanceIdsForCleanup_oracle");
     addDatabaseSpecificStatement(ORACLE, "selectHistoricCaseInstanceIdsForCleanup", "selectHistoricCaseInstanceIdsForCleanup_oracle");
+    addDatabaseSpecificStatement(ORACLE, "deleteHistoryByRemovalTime", "deleteHistoryByRemovalTime_oracle");
     addDatabaseSpecificStatement(ORACLE, "selectFinishedProcessInstancesReportEntities", "selectFinishedProcessInstancesReportEntities_oracle");
 
     constants = new HashMap<String, String>();
@@ -248,6 +259,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant_for_update", "for update");
     constants.put("constant.datepart.quarter", "'Q'");
     constants.put("constant.datepart.month", "'MM'");
+    constants.put("constant.datepart.minute", "'MI'");
     constants.put("constant.null.startTime", "null START_TIME_");
     dbSpecificConstants.put(ORACLE, constants);
 
@@ -288,6 +300,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(DB2, "selectHistoricProcessInstanceIdsForCleanupCount", "selectHistoricProcessInstanceIdsForCleanupCount_db2");
     addDatabaseSpecificStatement(DB2, "selectHistoricDecisionInstanceIdsForCleanup", "selectHistoricDecisionInstanceIdsForCleanup_db2");
     addDatabaseSpecificStatement(DB2, "selectHistoricCaseInstanceIdsForCleanup", "selectHistoricCaseInstanceIdsForCleanup_db2");
+    addDatabaseSpecificStatement(DB2, "deleteHistoryByRemovalTime", "deleteHistoryByRemovalTime_db2");
     addDatabaseSpecificStatement(DB2, "selectFinishedProcessInstancesReportEntities", "selectFinishedProcessInstancesReportEntities_db2");
 
     constants = new HashMap<String, String>();
@@ -296,6 +309,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant_for_update", "for read only with rs use and keep update locks");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.minute", "MINUTE");
     constants.put("constant.null.startTime", "CAST(NULL as timestamp) as START_TIME_");
     dbSpecificConstants.put(DB2, constants);
 
@@ -338,6 +352,7 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement(MSSQL, "selectHistoricProcessInstanceIdsForCleanupCount", "selectHistoricProcessInstanceIdsForCleanupCount_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectHistoricDecisionInstanceIdsForCleanup", "selectHistoricDecisionInstanceIdsForCleanup_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectHistoricCaseInstanceIdsForCleanup", "selectHistoricCaseInstanceIdsForCleanup_mssql");
+    addDatabaseSpecificStatement(MSSQL, "deleteHistoryByRemovalTime", "deleteHistoryByRemovalTime_mssql");
     addDatabaseSpecificStatement(MSSQL, "selectFinishedProcessInstancesReportEntities", "selectFinishedProcessInstancesReportEntities_mssql");
 
     constants = new HashMap<String, String>();
@@ -345,10 +360,21 @@ public class DbSqlSessionFactory implements SessionFactory {
     constants.put("constant.op_message", "NEW_VALUE_ + '_|_' + PROPERTY_");
     constants.put("constant.datepart.quarter", "QUARTER");
     constants.put("constant.datepart.month", "MONTH");
+    constants.put("constant.datepart.minute", "MINUTE");
     constants.put("constant.null.startTime", "null START_TIME_");
     dbSpecificConstants.put(MSSQL, constants);
   }
 
+  /**
+   * @return true if rows can be selected with <code>${constant_for_update_skip_locked}</code>
+   *   on the given database type. Oracle, DB2 and MS SQL Server are not supported since their
+   *   paging statements cannot be combined with a locking clause.
+   */
+  public static boolean isSkipLockedSupported(String databaseType) {
+    Map<String, String> constants = dbSpecificConstants.get(databaseType);
+    return constants != null && constants.containsKey("constant_for_update_skip_locked");
+  }
+
   protected String databaseType;
   protected String databaseTablePrefix = "";
   /**
@@ -369,6 +395,7 @@ public class DbSqlSessionFactory implements SessionFactory {
   protected boolean isDbHistoryUsed = true;
   protected boolean cmmnEnabled = true;
   protected boolean dmnEnabled = true;
+  protected boolean jdbcBatchProcessing = false;
 
   public Class< ? > getSessionType() {
     return DbSqlSession.class;
@@ -538,6 +565,14 @@ public class DbSqlSessionFactory implements SessionFactory {
     this.dmnEnabled = dmnEnabled;
   }
 
+  public boolean isJdbcBatchProcessing() {
+    return jdbcBatchProcessing;
+  }
+
+  public void setJdbcBatchProcessing(boolean jdbcBatchProcessing) {
+    this.jdbcBatchProcessing = jdbcBatchProcessing;
+  }
+
   public void setDatabaseTablePrefix(String databaseTablePrefix) {
     this.databaseTablePrefix = databaseTablePrefix;
   }
@@ -65,6 +65,11 @@ public class DecisionRequirementsDefinitionDeployer extends AbstractDefinitionDe
     }
   }
 
+  @Override
+  protected boolean isParallelParsingSupported() {
+    return true;
+  }
+
   @Override
   protected DecisionRequirementsDefinitionEntity findDefinitionByDeploymentAndKey(String deploymentId, String definitionKey) {
     return getDecisionRequirementsDefinitionManager().findDecisionRequirementsDefinitionByDeploymentAndKey(deploymentId, definitionKey);
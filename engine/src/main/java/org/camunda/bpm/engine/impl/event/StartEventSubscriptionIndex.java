@@ -0,0 +1,94 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.ExpiringIndex;
+import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
+
+/**
+ * <p>Node-local index of the start event subscriptions of process definitions (i.e. subscriptions
+ * without an execution) per event type and name, which allows to throw signals and correlate
+ * messages without querying the start event subscriptions from the database.</p>
+ *
+ * <p>Start event subscriptions only change when process definitions are deployed or deleted.
+ * The entries of an event name are invalidated whenever a start event subscription with this name
+ * is inserted or deleted on this node.</p>
+ */
+public class StartEventSubscriptionIndex extends ExpiringIndex<String, List<EventSubscriptionEntity>> {
+
+  /**
+   * @param timeToLive the time in milliseconds after which an entry expires
+   */
+  public StartEventSubscriptionIndex(long timeToLive) {
+    super(timeToLive);
+  }
+
+  /**
+   * @return the key of the subscriptions with the given event type and name
+   */
+  public static String indexKey(String eventType, String eventName) {
+    // the event type never contains a colon
+    return eventType + ":" + eventName;
+  }
+
+  /**
+   * @return copies of the indexed start event subscriptions of all tenants or null if
+   *   they are not indexed or the entry expired
+   */
+  public List<EventSubscriptionEntity> get(String eventType, String eventName, long now) {
+    List<EventSubscriptionEntity> indexedSubscriptions = get(indexKey(eventType, eventName), now);
+    if (indexedSubscriptions == null) {
+      return null;
+    }
+
+    // callers may modify the subscriptions, e.g. by resolving their activity
+    List<EventSubscriptionEntity> subscriptions = new ArrayList<EventSubscriptionEntity>(indexedSubscriptions.size());
+    for (EventSubscriptionEntity subscription : indexedSubscriptions) {
+      subscriptions.add(copy(subscription));
+    }
+    return subscriptions;
+  }
+
+  /**
+   * @param subscriptions the start event subscriptions of all tenants
+   */
+  public void put(String eventType, String eventName, List<EventSubscriptionEntity> subscriptions, long observedGeneration) {
+    List<EventSubscriptionEntity> indexedSubscriptions = new ArrayList<EventSubscriptionEntity>(subscriptions.size());
+    for (EventSubscriptionEntity subscription : subscriptions) {
+      indexedSubscriptions.add(copy(subscription));
+    }
+
+    put(indexKey(eventType, eventName), indexedSubscriptions, observedGeneration);
+  }
+
+  public void invalidate(String eventType, String eventName) {
+    invalidate(indexKey(eventType, eventName));
+  }
+
+  protected EventSubscriptionEntity copy(EventSubscriptionEntity subscription) {
+    EventSubscriptionEntity copy = new EventSubscriptionEntity();
+    copy.setId(subscription.getId());
+    copy.setRevision(subscription.getRevision());
+    copy.setEventType(subscription.getEventType());
+    copy.setEventName(subscription.getEventName());
+    copy.setConfiguration(subscription.getConfiguration());
+    copy.setActivityId(subscription.getActivityId());
+    copy.setCreated(subscription.getCreated());
+    copy.setTenantId(subscription.getTenantId());
+    return copy;
+  }
+
+}
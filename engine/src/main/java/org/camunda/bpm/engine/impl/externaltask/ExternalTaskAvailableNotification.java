@@ -0,0 +1,35 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.externaltask;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Notifies the {@link ExternalTaskDispatcher} of an external task which became fetchable
+ * (e.g. because it was created or unlocked) once the transaction has been committed.
+ */
+public class ExternalTaskAvailableNotification implements TransactionListener {
+
+  protected ExternalTaskDispatcher dispatcher;
+  protected String topicName;
+
+  public ExternalTaskAvailableNotification(ExternalTaskDispatcher dispatcher, String topicName) {
+    this.dispatcher = dispatcher;
+    this.topicName = topicName;
+  }
+
+  public void execute(CommandContext commandContext) {
+    dispatcher.notifyExternalTaskAvailable(topicName);
+  }
+}
@@ -0,0 +1,192 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.externaltask;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Wakes up clients which wait for external tasks of certain topics, e.g. long polling
+ * fetch and lock requests, once an external task of one of these topics has become
+ * fetchable on this node, i.e. it has been created, unlocked or its retries were reset.</p>
+ *
+ * <p>A client {@link #register(Collection) registers} a {@link Waiter} for its topics
+ * <em>before</em> it fetches and locks external tasks. If no task could be fetched, it
+ * {@link Waiter#await(long) awaits} the waiter for at most the {@link #getPollingInterval() polling interval}
+ * and fetches again. The waiter must be {@link #unregister(Waiter) unregistered} afterwards.
+ * Since tasks may also become fetchable without a notification (e.g. when they are created
+ * on another node or their lock expires), clients must not wait longer than the polling interval.</p>
+ *
+ * <p>Each notification wakes up only the longest waiting client of the topic, so that a single
+ * task does not make all waiting clients query the database. The number of waiting clients is
+ * limited by {@link #getMaxWaiters()}; if it is reached, {@link #register(Collection)} returns
+ * <code>null</code> and the client must not wait. Since every waiting client usually blocks a
+ * request thread, the limit has to be well below the size of the request thread pool; clients
+ * beyond the limit should back off for the polling interval instead of fetching in a tight loop.</p>
+ *
+ * <p>There is one dispatcher per process engine. Notifications are only produced once
+ * a client has registered, so that the engine does not pay for the feature unless it is used.</p>
+ */
+public class ExternalTaskDispatcher {
+
+  public static final long DEFAULT_POLLING_INTERVAL = 10000;
+  public static final int DEFAULT_MAX_WAITERS = 100;
+
+  protected final Map<String, Set<Waiter>> waitersByTopic = new HashMap<String, Set<Waiter>>();
+  protected int numberOfWaiters = 0;
+
+  protected long pollingInterval = DEFAULT_POLLING_INTERVAL;
+  protected int maxWaiters = DEFAULT_MAX_WAITERS;
+
+  protected volatile boolean inUse = false;
+
+  /**
+   * Registers a waiter which is notified once an external task of one of the given topics becomes fetchable.
+   *
+   * @return the waiter or <code>null</code> if the maximum number of waiters is reached
+   */
+  public Waiter register(Collection<String> topicNames) {
+    Waiter waiter = new Waiter(topicNames);
+
+    synchronized (waitersByTopic) {
+      if (numberOfWaiters >= maxWaiters) {
+        return null;
+      }
+      numberOfWaiters++;
+
+      for (String topicName : waiter.topicNames) {
+        Set<Waiter> waiters = waitersByTopic.get(topicName);
+        if (waiters == null) {
+          // keeps the registration order, so that the longest waiting client is notified first
+          waiters = new LinkedHashSet<Waiter>();
+          waitersByTopic.put(topicName, waiters);
+        }
+        waiters.add(waiter);
+      }
+    }
+
+    inUse = true;
+
+    return waiter;
+  }
+
+  public void unregister(Waiter waiter) {
+    synchronized (waitersByTopic) {
+      numberOfWaiters--;
+
+      for (String topicName : waiter.topicNames) {
+        Set<Waiter> waiters = waitersByTopic.get(topicName);
+        if (waiters != null) {
+          waiters.remove(waiter);
+          if (waiters.isEmpty()) {
+            waitersByTopic.remove(topicName);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Notifies the longest registered waiter of the given topic which has not been notified yet.
+   * Notified waiters are not removed, so that a waiter is also woken up by tasks which become
+   * fetchable between its registration and its await.
+   */
+  public void notifyExternalTaskAvailable(String topicName) {
+    synchronized (waitersByTopic) {
+      Set<Waiter> waiters = waitersByTopic.get(topicName);
+      if (waiters != null) {
+        for (Waiter waiter : waiters) {
+          if (!waiter.isSignaled()) {
+            waiter.signal();
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if a client has registered for notifications since the engine was started
+   */
+  public boolean isInUse() {
+    return inUse;
+  }
+
+  public int getNumberOfWaiters(String topicName) {
+    synchronized (waitersByTopic) {
+      Set<Waiter> waiters = waitersByTopic.get(topicName);
+      return waiters != null ? waiters.size() : 0;
+    }
+  }
+
+  /**
+   * @return the maximum time in milliseconds a client waits for a notification
+   *   before it queries the database again
+   */
+  public long getPollingInterval() {
+    return pollingInterval;
+  }
+
+  public void setPollingInterval(long pollingInterval) {
+    this.pollingInterval = pollingInterval;
+  }
+
+  /**
+   * @return the maximum number of clients which can wait at the same time
+   */
+  public int getMaxWaiters() {
+    return maxWaiters;
+  }
+
+  public void setMaxWaiters(int maxWaiters) {
+    this.maxWaiters = maxWaiters;
+  }
+
+  public static class Waiter {
+
+    protected final Set<String> topicNames;
+    protected final CountDownLatch signal = new CountDownLatch(1);
+
+    public Waiter(Collection<String> topicNames) {
+      this.topicNames = new HashSet<String>(topicNames);
+    }
+
+    protected void signal() {
+      signal.countDown();
+    }
+
+    protected boolean isSignaled() {
+      return signal.getCount() == 0;
+    }
+
+    /**
+     * Waits until an external task of one of the topics becomes fetchable or the timeout elapses.
+     *
+     * @return true if the waiter was notified, false if the timeout elapsed
+     */
+    public boolean await(long timeoutInMillis) throws InterruptedException {
+      return signal.await(timeoutInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Set<String> getTopicNames() {
+      return topicNames;
+    }
+  }
+
+}
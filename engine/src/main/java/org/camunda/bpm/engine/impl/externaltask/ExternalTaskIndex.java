@@ -0,0 +1,254 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.externaltask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+
+/**
+ * <p>Node-local index of external tasks which are available for fetching, partitioned by topic
+ * and ordered by priority.</p>
+ *
+ * <p>The index is filled when external tasks are created or unlocked on this node and is only a hint:
+ * fetching external tasks {@link #claim(Collection, int, boolean) claims} indexed tasks, looks them up
+ * by id and checks that they are still available before locking them. Claimed tasks are not handed out
+ * to other fetches on this node. They are {@link #remove(Collection) removed} once the fetching transaction
+ * has been committed and {@link #release(Collection) released} if it is rolled back.</p>
+ *
+ * <p>The index never replaces the query: whenever it cannot provide enough tasks, the topics are queried.
+ * Tasks which become available without this node noticing it (e.g. created on another node, whose lock
+ * expired or which were unlocked after their retry timeout) are therefore still fetched, and they are
+ * indexed by the next {@link #reconcile(String, List, long) reconciliation} of their topic once the
+ * {@link #setReconciliationInterval(long) reconciliation interval} has elapsed.</p>
+ */
+public class ExternalTaskIndex {
+
+  public static final int DEFAULT_MAX_TASKS_PER_TOPIC = 1000;
+  public static final long DEFAULT_RECONCILIATION_INTERVAL = 60000L;
+
+  protected int maxTasksPerTopic = DEFAULT_MAX_TASKS_PER_TOPIC;
+
+  /**
+   * Time in milliseconds after which the tasks of a topic are reconciled with the database
+   */
+  protected long reconciliationInterval = DEFAULT_RECONCILIATION_INTERVAL;
+
+  protected final ConcurrentMap<String, ConcurrentSkipListSet<IndexedExternalTask>> tasksByTopic =
+      new ConcurrentHashMap<String, ConcurrentSkipListSet<IndexedExternalTask>>();
+
+  protected final ConcurrentMap<String, IndexedExternalTask> tasksById = new ConcurrentHashMap<String, IndexedExternalTask>();
+
+  /**
+   * Ids of the tasks which are claimed by fetches whose transaction has not been completed yet
+   */
+  protected final Set<String> claimedTaskIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  protected final ConcurrentMap<String, Long> reconciliationTimes = new ConcurrentHashMap<String, Long>();
+
+  protected final AtomicLong sequenceCounter = new AtomicLong();
+
+  public void add(String topicName, String externalTaskId, long priority) {
+    ConcurrentSkipListSet<IndexedExternalTask> tasks = getTasks(topicName);
+
+    // size() traverses the set, so the bound is only approximate under concurrent additions
+    if (tasks.size() >= maxTasksPerTopic) {
+      return;
+    }
+
+    IndexedExternalTask task = new IndexedExternalTask(topicName, externalTaskId, priority, sequenceCounter.incrementAndGet());
+    if (tasksById.putIfAbsent(externalTaskId, task) == null) {
+      tasks.add(task);
+    }
+  }
+
+  /**
+   * Claims and returns up to maxResults ids of external tasks of the given topics which are not
+   * claimed yet, ordered by priority if usePriority is true and by topic and the time they were
+   * indexed otherwise. The ids must either be {@link #remove(Collection) removed} or
+   * {@link #release(Collection) released} afterwards.
+   */
+  public List<String> claim(Collection<String> topicNames, int maxResults, boolean usePriority) {
+    List<IndexedExternalTask> candidates = new ArrayList<IndexedExternalTask>();
+
+    for (String topicName : topicNames) {
+      ConcurrentSkipListSet<IndexedExternalTask> tasks = tasksByTopic.get(topicName);
+      if (tasks == null) {
+        continue;
+      }
+
+      int candidatesOfTopic = 0;
+      for (IndexedExternalTask task : tasks) {
+        if (candidatesOfTopic >= maxResults) {
+          break;
+        }
+        if (!claimedTaskIds.contains(task.externalTaskId)) {
+          candidates.add(task);
+          candidatesOfTopic++;
+        }
+      }
+    }
+
+    if (usePriority) {
+      Collections.sort(candidates);
+    }
+
+    List<String> externalTaskIds = new ArrayList<String>();
+    for (IndexedExternalTask candidate : candidates) {
+      if (externalTaskIds.size() >= maxResults) {
+        break;
+      }
+      // another fetch may have claimed the task concurrently
+      if (claimedTaskIds.add(candidate.externalTaskId)) {
+        externalTaskIds.add(candidate.externalTaskId);
+      }
+    }
+
+    return externalTaskIds;
+  }
+
+  /**
+   * Removes the claimed tasks from the index, e.g. because they were locked.
+   */
+  public void remove(Collection<String> externalTaskIds) {
+    for (String externalTaskId : externalTaskIds) {
+      IndexedExternalTask task = tasksById.remove(externalTaskId);
+      if (task != null) {
+        ConcurrentSkipListSet<IndexedExternalTask> tasks = tasksByTopic.get(task.topicName);
+        if (tasks != null) {
+          tasks.remove(task);
+        }
+      }
+      claimedTaskIds.remove(externalTaskId);
+    }
+  }
+
+  /**
+   * Makes the claimed tasks available to other fetches again, e.g. because the fetching transaction was rolled back.
+   */
+  public void release(Collection<String> externalTaskIds) {
+    claimedTaskIds.removeAll(externalTaskIds);
+  }
+
+  /**
+   * @return the topics of the given ones whose tasks have not been reconciled with the database
+   *   within the reconciliation interval
+   */
+  public List<String> getTopicsToReconcile(Collection<String> topicNames, long now) {
+    List<String> topicsToReconcile = new ArrayList<String>();
+    for (String topicName : topicNames) {
+      Long reconciliationTime = reconciliationTimes.get(topicName);
+      if (reconciliationTime == null || now - reconciliationTime >= reconciliationInterval) {
+        topicsToReconcile.add(topicName);
+      }
+    }
+    return topicsToReconcile;
+  }
+
+  /**
+   * Replaces the indexed tasks of the given topic by the available tasks found in the database.
+   * At most {@link #getMaxTasksPerTopic()} tasks are expected.
+   */
+  public void reconcile(String topicName, List<ExternalTaskEntity> availableTasks, long now) {
+    ConcurrentSkipListSet<IndexedExternalTask> tasks = getTasks(topicName);
+    for (IndexedExternalTask task : tasks) {
+      tasksById.remove(task.externalTaskId, task);
+    }
+    tasks.clear();
+
+    for (ExternalTaskEntity task : availableTasks) {
+      add(topicName, task.getId(), task.getPriority());
+    }
+
+    reconciliationTimes.put(topicName, now);
+  }
+
+  public void clear() {
+    tasksByTopic.clear();
+    tasksById.clear();
+    claimedTaskIds.clear();
+    reconciliationTimes.clear();
+  }
+
+  public int size(String topicName) {
+    ConcurrentSkipListSet<IndexedExternalTask> tasks = tasksByTopic.get(topicName);
+    return tasks != null ? tasks.size() : 0;
+  }
+
+  protected ConcurrentSkipListSet<IndexedExternalTask> getTasks(String topicName) {
+    ConcurrentSkipListSet<IndexedExternalTask> tasks = tasksByTopic.get(topicName);
+    if (tasks == null) {
+      tasks = new ConcurrentSkipListSet<IndexedExternalTask>();
+      ConcurrentSkipListSet<IndexedExternalTask> existingTasks = tasksByTopic.putIfAbsent(topicName, tasks);
+      if (existingTasks != null) {
+        tasks = existingTasks;
+      }
+    }
+    return tasks;
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public int getMaxTasksPerTopic() {
+    return maxTasksPerTopic;
+  }
+
+  public void setMaxTasksPerTopic(int maxTasksPerTopic) {
+    this.maxTasksPerTopic = maxTasksPerTopic;
+  }
+
+  public long getReconciliationInterval() {
+    return reconciliationInterval;
+  }
+
+  public void setReconciliationInterval(long reconciliationInterval) {
+    this.reconciliationInterval = reconciliationInterval;
+  }
+
+  protected static class IndexedExternalTask implements Comparable<IndexedExternalTask> {
+
+    protected final String topicName;
+    protected final String externalTaskId;
+    protected final long priority;
+    protected final long sequence;
+
+    public IndexedExternalTask(String topicName, String externalTaskId, long priority, long sequence) {
+      this.topicName = topicName;
+      this.externalTaskId = externalTaskId;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    public int compareTo(IndexedExternalTask other) {
+      // higher priority first, then in the order of indexing
+      if (priority != other.priority) {
+        return priority > other.priority ? -1 : 1;
+      }
+      else if (sequence != other.sequence) {
+        return sequence < other.sequence ? -1 : 1;
+      }
+      else {
+        return 0;
+      }
+    }
+  }
+
+}
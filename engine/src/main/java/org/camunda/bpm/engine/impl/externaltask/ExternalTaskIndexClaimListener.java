@@ -0,0 +1,45 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.externaltask;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Completes the claim of external tasks taken from the {@link ExternalTaskIndex}:
+ * the tasks are removed from the index once the fetching transaction has been committed
+ * and released if it has been rolled back.
+ */
+public class ExternalTaskIndexClaimListener implements TransactionListener {
+
+  protected ExternalTaskIndex index;
+  protected List<String> externalTaskIds;
+  protected boolean isCommitted;
+
+  public ExternalTaskIndexClaimListener(ExternalTaskIndex index, List<String> externalTaskIds, boolean isCommitted) {
+    this.index = index;
+    this.externalTaskIds = externalTaskIds;
+    this.isCommitted = isCommitted;
+  }
+
+  public void execute(CommandContext commandContext) {
+    if (isCommitted) {
+      index.remove(externalTaskIds);
+    }
+    else {
+      index.release(externalTaskIds);
+    }
+  }
+}
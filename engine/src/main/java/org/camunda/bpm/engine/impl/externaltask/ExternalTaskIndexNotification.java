@@ -0,0 +1,39 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.externaltask;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Adds an external task to the {@link ExternalTaskIndex} once the transaction
+ * that made it available for fetching has been committed.
+ */
+public class ExternalTaskIndexNotification implements TransactionListener {
+
+  protected ExternalTaskIndex index;
+  protected String topicName;
+  protected String externalTaskId;
+  protected long priority;
+
+  public ExternalTaskIndexNotification(ExternalTaskIndex index, String topicName, String externalTaskId, long priority) {
+    this.index = index;
+    this.topicName = topicName;
+    this.externalTaskId = externalTaskId;
+    this.priority = priority;
+  }
+
+  public void execute(CommandContext commandContext) {
+    index.add(topicName, externalTaskId, priority);
+  }
+}
@@ -0,0 +1,111 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionEvaluationEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricScopeInstanceEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * <p>History event handler which does not write the history events in the transaction
+ * producing them. Instead, the events are buffered in the command context and handed to
+ * the {@link HistoryEventWriter} after the transaction has been committed. The writer
+ * persists them asynchronously, so history becomes visible with a delay and events of
+ * rolled back transactions are discarded.</p>
+ *
+ * <p>The writer combines the events of several transactions into one command. Since the
+ * cache aware history event producer cannot see the buffered events, updates of an event
+ * inserted by the same command arrive as separate event objects. They are merged after
+ * the inserts have been flushed, which yields the same rows as writing the events
+ * in separate transactions.</p>
+ */
+public class AsyncDbHistoryEventHandler extends DbHistoryEventHandler {
+
+  protected HistoryEventWriter historyEventWriter;
+
+  public void handleEvent(HistoryEvent historyEvent) {
+    CommandContext commandContext = Context.getCommandContext();
+    HistoryEventBuffer buffer = commandContext.getSession(HistoryEventBuffer.class);
+
+    if (buffer.isEmpty()) {
+      commandContext.getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, new HistoryEventBufferSubmission(buffer, historyEventWriter));
+    }
+
+    buffer.add(historyEvent);
+  }
+
+  /**
+   * Writes the given events in the current command context. Called by the {@link HistoryEventWriter}.
+   */
+  public void writeEvents(List<HistoryEvent> historyEvents) {
+    List<HistoryEvent> updatesOfCachedEvents = new ArrayList<HistoryEvent>();
+
+    for (HistoryEvent historyEvent : historyEvents) {
+      if (isUpdateOfCachedEvent(historyEvent)) {
+        updatesOfCachedEvents.add(historyEvent);
+      }
+      else {
+        super.handleEvent(historyEvent);
+      }
+    }
+
+    if (!updatesOfCachedEvents.isEmpty()) {
+      DbEntityManager dbEntityManager = getDbEntityManager();
+      // make sure the updated events exist in the database
+      dbEntityManager.flush();
+
+      for (HistoryEvent historyEvent : updatesOfCachedEvents) {
+        mergeUpdateOfCachedEvent(dbEntityManager, historyEvent);
+        // e.g. the end of a process instance which was started within the same batch
+        addRemovalTimeIfProcessInstanceEnded(historyEvent);
+      }
+    }
+  }
+
+  protected boolean isUpdateOfCachedEvent(HistoryEvent historyEvent) {
+    return !(historyEvent instanceof HistoricVariableUpdateEventEntity)
+        && !(historyEvent instanceof HistoricDecisionEvaluationEvent)
+        && !isInitialEvent(historyEvent)
+        && historyEvent.getId() != null
+        && getDbEntityManager().getCachedEntity(historyEvent.getClass(), historyEvent.getId()) != null;
+  }
+
+  protected void mergeUpdateOfCachedEvent(DbEntityManager dbEntityManager, HistoryEvent historyEvent) {
+    HistoryEvent cachedEvent = dbEntityManager.getCachedEntity(historyEvent.getClass(), historyEvent.getId());
+
+    if (historyEvent instanceof HistoricScopeInstanceEvent && cachedEvent instanceof HistoricScopeInstanceEvent) {
+      HistoricScopeInstanceEvent historicScopeInstanceEvent = (HistoricScopeInstanceEvent) historyEvent;
+      historicScopeInstanceEvent.setStartTime(((HistoricScopeInstanceEvent) cachedEvent).getStartTime());
+    }
+
+    dbEntityManager.merge(historyEvent);
+  }
+
+  public HistoryEventWriter getHistoryEventWriter() {
+    return historyEventWriter;
+  }
+
+  public void setHistoryEventWriter(HistoryEventWriter historyEventWriter) {
+    this.historyEventWriter = historyEventWriter;
+  }
+
+}
@@ -12,18 +12,22 @@
  */
 package org.camunda.bpm.engine.impl.history.handler;
 
+import java.util.Date;
 import java.util.List;
 
 import org.camunda.bpm.engine.history.HistoricVariableInstance;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.history.event.HistoricDecisionEvaluationEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoricScopeInstanceEvent;
 import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
 import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupHelper;
 import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 
 /**
  * <p>History event handler that writes history events to the process engine
@@ -44,6 +48,8 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
       insertOrUpdate(historyEvent);
     }
 
+    addRemovalTimeIfProcessInstanceEnded(historyEvent);
+
   }
 
   public void handleEvents(List<HistoryEvent> historyEvents) {
@@ -137,6 +143,40 @@ public class DbHistoryEventHandler implements HistoryEventHandler {
   }
 
 
+  protected void addRemovalTimeIfProcessInstanceEnded(HistoryEvent historyEvent) {
+    if (historyEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_END)
+        && historyEvent instanceof HistoricProcessInstanceEventEntity
+        && Context.getProcessEngineConfiguration().isHistoryCleanupRemovalTimeBased()) {
+      addRemovalTime((HistoricProcessInstanceEventEntity) historyEvent);
+    }
+  }
+
+  /**
+   * Stores the point in time from which on the historic data of the ended process instance
+   * may be removed, so that the history cleanup does not need to join the process definition.
+   */
+  protected void addRemovalTime(HistoricProcessInstanceEventEntity historyEvent) {
+    Date endTime = historyEvent.getEndTime();
+    if (endTime == null) {
+      return;
+    }
+
+    ProcessDefinitionEntity processDefinition = Context
+      .getProcessEngineConfiguration()
+      .getDeploymentCache()
+      .findDeployedProcessDefinitionById(historyEvent.getProcessDefinitionId());
+
+    Integer historyTimeToLive = processDefinition.getHistoryTimeToLive();
+    if (historyTimeToLive != null) {
+      Date removalTime = HistoryCleanupHelper.calculateRemovalTime(endTime, historyTimeToLive);
+
+      Context
+        .getCommandContext()
+        .getHistoricProcessInstanceManager()
+        .addRemovalTimeByProcessInstanceId(historyEvent.getProcessInstanceId(), removalTime);
+    }
+  }
+
   protected void insertHistoricDecisionEvaluationEvent(HistoricDecisionEvaluationEvent event) {
 
     Context
@@ -0,0 +1,35 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Submits the buffered history events of a transaction to the {@link HistoryEventWriter}
+ * once the transaction has been committed.
+ */
+public class HistoryEventBufferSubmission implements TransactionListener {
+
+  protected HistoryEventBuffer buffer;
+  protected HistoryEventWriter writer;
+
+  public HistoryEventBufferSubmission(HistoryEventBuffer buffer, HistoryEventWriter writer) {
+    this.buffer = buffer;
+    this.writer = writer;
+  }
+
+  public void execute(CommandContext commandContext) {
+    writer.submit(buffer.getHistoryEvents());
+  }
+}
@@ -0,0 +1,172 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.util.IoUtil;
+
+/**
+ * <p>Local journal of history events which could not be handed to the {@link HistoryEventWriter}
+ * because its queue was full. Each entry is a file containing the serialized events of one
+ * transaction. Files are named by a sequence number, so entries are replayed in the order they
+ * were appended. An entry is written to a temporary file first and renamed afterwards, so
+ * partially written entries are never replayed.</p>
+ *
+ * <p>Entries whose events could not be written are moved aside with the {@value #FAILED_SUFFIX}
+ * suffix and are not replayed again.</p>
+ */
+public class HistoryEventJournal {
+
+  public static final String ENTRY_SUFFIX = ".journal";
+  public static final String FAILED_SUFFIX = ".failed";
+  protected static final String TEMP_SUFFIX = ".tmp";
+
+  protected File directory;
+  protected long sequence;
+
+  public HistoryEventJournal(File directory) {
+    this.directory = directory;
+
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IllegalStateException("Cannot create history event journal directory " + directory.getAbsolutePath());
+    }
+
+    // continue after entries left by a previous run, including the failed ones
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        sequence = Math.max(sequence, getSequence(file));
+      }
+    }
+  }
+
+  public synchronized void append(List<HistoryEvent> historyEvents) throws IOException {
+    String name = formatSequence(++sequence);
+    File tempFile = new File(directory, name + TEMP_SUFFIX);
+
+    ObjectOutputStream outputStream = null;
+    try {
+      outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+      outputStream.writeObject(new ArrayList<HistoryEvent>(historyEvents));
+    }
+    finally {
+      IoUtil.closeSilently(outputStream);
+    }
+
+    if (!tempFile.renameTo(new File(directory, name + ENTRY_SUFFIX))) {
+      tempFile.delete();
+      throw new IOException("Cannot rename history event journal entry " + tempFile.getAbsolutePath());
+    }
+  }
+
+  /**
+   * @return the oldest entry or null if the journal is empty
+   */
+  public File getOldestEntry() {
+    File[] entries = getEntries();
+    if (entries.length == 0) {
+      return null;
+    }
+    Arrays.sort(entries);
+    return entries[0];
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<HistoryEvent> read(File entry) throws IOException {
+    ObjectInputStream inputStream = null;
+    try {
+      inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(entry)));
+      return (List<HistoryEvent>) inputStream.readObject();
+    }
+    catch (ClassNotFoundException e) {
+      throw new IOException("Cannot read history event journal entry " + entry.getAbsolutePath() + ": " + e.getMessage());
+    }
+    finally {
+      IoUtil.closeSilently(inputStream);
+    }
+  }
+
+  public void remove(File entry) {
+    entry.delete();
+  }
+
+  /**
+   * Moves the given entry aside so that it is not replayed again.
+   */
+  public void markFailed(File entry) {
+    entry.renameTo(new File(directory, entry.getName() + FAILED_SUFFIX));
+  }
+
+  /**
+   * Appends the given events as an entry which is not replayed.
+   */
+  public void appendFailed(List<HistoryEvent> historyEvents) throws IOException {
+    File entry;
+    synchronized (this) {
+      append(historyEvents);
+      entry = new File(directory, formatSequence(sequence) + ENTRY_SUFFIX);
+    }
+    markFailed(entry);
+  }
+
+  public boolean isEmpty() {
+    return getEntries().length == 0;
+  }
+
+  public int size() {
+    return getEntries().length;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  protected File[] getEntries() {
+    File[] entries = directory.listFiles(new FilenameFilter() {
+      public boolean accept(File dir, String name) {
+        return name.endsWith(ENTRY_SUFFIX);
+      }
+    });
+    return entries != null ? entries : new File[0];
+  }
+
+  protected String formatSequence(long sequence) {
+    // zero padded so that the file names sort in the order of appending
+    return String.format("%019d", sequence);
+  }
+
+  protected long getSequence(File entry) {
+    String name = entry.getName();
+    int end = name.indexOf('.');
+    try {
+      return Long.parseLong(end > 0 ? name.substring(0, end) : name);
+    }
+    catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+}
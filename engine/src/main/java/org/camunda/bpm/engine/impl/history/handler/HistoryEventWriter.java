@@ -0,0 +1,497 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.history.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+
+/**
+ * <p>Writes the history events submitted by the {@link AsyncDbHistoryEventHandler} in a
+ * background thread. The events of several transactions are combined into one command,
+ * so that they are flushed together (in JDBC batches if batch processing is enabled).</p>
+ *
+ * <p>The events are kept in a bounded queue. If the queue is full, the events are appended to
+ * the {@link HistoryEventJournal} and replayed once the queue has been drained. Without a
+ * journal, submitting blocks until the queue has free capacity.</p>
+ *
+ * <p>Writes which fail are retried. If the events still cannot be written, they are split into halves
+ * which are written separately, down to the events of a single history entity. Only the events which
+ * cannot be written are saved as failed journal entries, or logged as lost if there is no journal.
+ * Later updates of a quarantined history entity are quarantined as well instead of being applied
+ * to a missing row.</p>
+ */
+public class HistoryEventWriter implements Runnable {
+
+  protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+  public static final int DEFAULT_MAX_EVENTS_PER_WRITE = 1000;
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  public static final long DEFAULT_RETRY_WAIT_TIME = 500L;
+  public static final long DEFAULT_IDLE_WAIT_TIME = 100L;
+
+  /** number of quarantined history entities whose later updates are recognized */
+  public static final int MAX_QUARANTINED_ENTITIES = 10000;
+
+  protected CommandExecutor commandExecutor;
+  protected AsyncDbHistoryEventHandler historyEventHandler;
+  protected BlockingQueue<List<HistoryEvent>> queue;
+  protected HistoryEventJournal journal;
+
+  protected int maxEventsPerWrite = DEFAULT_MAX_EVENTS_PER_WRITE;
+  protected int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+  protected long retryWaitTime = DEFAULT_RETRY_WAIT_TIME;
+  protected long idleWaitTime = DEFAULT_IDLE_WAIT_TIME;
+
+  /** true while new events are appended to the journal to keep them behind the already journaled ones; guarded by this */
+  protected boolean spilling;
+
+  /** keys of the quarantined history entities, in the order of quarantining; accessed by the writing thread only */
+  protected Map<String, Boolean> quarantinedEntities = new LinkedHashMap<String, Boolean>() {
+    private static final long serialVersionUID = 1L;
+
+    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+      return size() > MAX_QUARANTINED_ENTITIES;
+    }
+  };
+
+  protected final AtomicLong queuedSubmissions = new AtomicLong();
+  protected final AtomicLong processedSubmissions = new AtomicLong();
+
+  protected volatile boolean isShutdown = true;
+  protected Thread thread;
+
+  public HistoryEventWriter(CommandExecutor commandExecutor, AsyncDbHistoryEventHandler historyEventHandler, int queueCapacity, HistoryEventJournal journal) {
+    this.commandExecutor = commandExecutor;
+    this.historyEventHandler = historyEventHandler;
+    this.queue = new ArrayBlockingQueue<List<HistoryEvent>>(queueCapacity);
+    this.journal = journal;
+
+    // entries left by a previous run are replayed before new events
+    this.spilling = journal != null && !journal.isEmpty();
+  }
+
+  public synchronized void start() {
+    if (isShutdown) {
+      isShutdown = false;
+      thread = new Thread(this, "history-event-writer");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Stops the background thread and writes the queued events. Journal entries
+   * are kept and replayed when the writer is started again.
+   */
+  public void stop() {
+    Thread writerThread;
+    synchronized (this) {
+      if (isShutdown) {
+        return;
+      }
+      isShutdown = true;
+      writerThread = thread;
+      thread = null;
+    }
+
+    try {
+      writerThread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    List<HistoryEvent> historyEvents = queue.poll();
+    while (historyEvents != null) {
+      writeQueuedEvents(historyEvents);
+      historyEvents = queue.poll();
+    }
+  }
+
+  public void submit(List<HistoryEvent> historyEvents) {
+    if (historyEvents.isEmpty()) {
+      return;
+    }
+
+    synchronized (this) {
+      if (!spilling && queue.offer(historyEvents)) {
+        queuedSubmissions.incrementAndGet();
+        return;
+      }
+
+      if (journal != null) {
+        try {
+          journal.append(historyEvents);
+          spilling = true;
+          return;
+        }
+        catch (IOException e) {
+          LOG.historyEventJournalAppendFailed(e);
+        }
+      }
+    }
+
+    // back pressure: wait for the writer
+    try {
+      // the events must not overtake the journaled ones
+      awaitJournalReplayed();
+      queue.put(historyEvents);
+      queuedSubmissions.incrementAndGet();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.historyEventsLost(historyEvents.size(), e);
+    }
+  }
+
+  protected synchronized void awaitJournalReplayed() throws InterruptedException {
+    while (spilling && !isShutdown) {
+      wait(idleWaitTime);
+    }
+  }
+
+  public void run() {
+    while (!isShutdown) {
+      try {
+        List<HistoryEvent> historyEvents = isSpilling() ? queue.poll() : queue.poll(idleWaitTime, TimeUnit.MILLISECONDS);
+
+        if (historyEvents != null) {
+          writeQueuedEvents(historyEvents);
+        }
+        else if (journal != null) {
+          replayJournal();
+        }
+      }
+      catch (InterruptedException e) {
+        // check for shutdown
+      }
+      catch (RuntimeException e) {
+        // keep the writer alive
+        LOG.historyEventWriterFailed(e);
+      }
+    }
+  }
+
+  /**
+   * Waits until all submitted events have been written or the timeout has elapsed.
+   *
+   * @return true if all submitted events have been written
+   */
+  public boolean awaitWritten(long timeout) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+
+    while (!isWritten()) {
+      if (System.currentTimeMillis() >= deadline) {
+        return false;
+      }
+      Thread.sleep(10);
+    }
+    return true;
+  }
+
+  public boolean isWritten() {
+    return queuedSubmissions.get() == processedSubmissions.get()
+        && (journal == null || journal.isEmpty());
+  }
+
+  protected void writeQueuedEvents(List<HistoryEvent> firstSubmission) {
+    List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>(firstSubmission);
+    int submissions = 1;
+
+    // combine further submissions into the same write
+    while (historyEvents.size() < maxEventsPerWrite) {
+      List<HistoryEvent> nextSubmission = queue.poll();
+      if (nextSubmission == null) {
+        break;
+      }
+      historyEvents.addAll(nextSubmission);
+      submissions++;
+    }
+
+    try {
+      writeOrQuarantine(historyEvents);
+    }
+    finally {
+      processedSubmissions.addAndGet(submissions);
+    }
+  }
+
+  protected void replayJournal() {
+    File entry = null;
+
+    synchronized (this) {
+      entry = journal.getOldestEntry();
+      if (entry == null) {
+        // the queue has been drained and the journal is empty
+        spilling = false;
+        notifyAll();
+        return;
+      }
+    }
+
+    List<HistoryEvent> historyEvents;
+    try {
+      historyEvents = journal.read(entry);
+    }
+    catch (IOException e) {
+      journal.markFailed(entry);
+      LOG.historyEventJournalReadFailed(entry.getAbsolutePath(), e);
+      return;
+    }
+
+    // events which cannot be written are quarantined in new entries
+    writeOrQuarantine(historyEvents);
+    journal.remove(entry);
+  }
+
+  /**
+   * Writes the given events. If they cannot be written, they are split up so that only the
+   * events of the history entities which cannot be written are quarantined. The events of
+   * one history entity are never separated, since its initial insert and the following
+   * updates must be written together.
+   */
+  protected void writeOrQuarantine(List<HistoryEvent> historyEvents) {
+    List<HistoryEvent> eventsToWrite = new ArrayList<HistoryEvent>();
+    List<HistoryEvent> updatesOfQuarantinedEntities = new ArrayList<HistoryEvent>();
+
+    for (HistoryEvent historyEvent : historyEvents) {
+      String entityKey = getEntityKey(historyEvent);
+      if (entityKey != null && quarantinedEntities.containsKey(entityKey)) {
+        updatesOfQuarantinedEntities.add(historyEvent);
+      }
+      else {
+        eventsToWrite.add(historyEvent);
+      }
+    }
+
+    if (!updatesOfQuarantinedEntities.isEmpty()) {
+      // the rows to update do not exist, so the updates are kept next to their initial events
+      quarantine(updatesOfQuarantinedEntities);
+    }
+
+    if (!eventsToWrite.isEmpty() && !write(eventsToWrite, maxAttempts)) {
+      writeSplit(eventsToWrite);
+    }
+  }
+
+  /**
+   * Writes the two halves of the given events separately and splits them further if they fail,
+   * until the failing events belong to a single history entity. Failures are not retried here,
+   * since the whole events have been retried before.
+   */
+  protected void writeSplit(List<HistoryEvent> historyEvents) {
+    List<List<HistoryEvent>> eventsByEntity = groupByEntity(historyEvents);
+    if (eventsByEntity.size() <= 1) {
+      quarantine(historyEvents);
+      return;
+    }
+
+    int half = eventsByEntity.size() / 2;
+    List<List<List<HistoryEvent>>> parts = new ArrayList<List<List<HistoryEvent>>>();
+    parts.add(eventsByEntity.subList(0, half));
+    parts.add(eventsByEntity.subList(half, eventsByEntity.size()));
+
+    for (List<List<HistoryEvent>> part : parts) {
+      List<HistoryEvent> partEvents = selectInOrder(historyEvents, part);
+      if (!write(partEvents, 1)) {
+        writeSplit(partEvents);
+      }
+    }
+  }
+
+  /**
+   * @return the events grouped by the history entity they belong to, in the order of the first event of each entity
+   */
+  protected List<List<HistoryEvent>> groupByEntity(List<HistoryEvent> historyEvents) {
+    List<List<HistoryEvent>> eventsByEntity = new ArrayList<List<HistoryEvent>>();
+    Map<String, List<HistoryEvent>> eventsByEntityKey = new HashMap<String, List<HistoryEvent>>();
+
+    for (HistoryEvent historyEvent : historyEvents) {
+      String entityKey = getEntityKey(historyEvent);
+      List<HistoryEvent> entityEvents = entityKey != null ? eventsByEntityKey.get(entityKey) : null;
+      if (entityEvents == null) {
+        entityEvents = new ArrayList<HistoryEvent>();
+        eventsByEntity.add(entityEvents);
+        if (entityKey != null) {
+          eventsByEntityKey.put(entityKey, entityEvents);
+        }
+      }
+      entityEvents.add(historyEvent);
+    }
+
+    return eventsByEntity;
+  }
+
+  /**
+   * @return the events of the given groups in the order of the given events
+   */
+  protected List<HistoryEvent> selectInOrder(List<HistoryEvent> historyEvents, List<List<HistoryEvent>> groups) {
+    Map<HistoryEvent, Boolean> selectedEvents = new IdentityHashMap<HistoryEvent, Boolean>();
+    for (List<HistoryEvent> group : groups) {
+      for (HistoryEvent historyEvent : group) {
+        selectedEvents.put(historyEvent, Boolean.TRUE);
+      }
+    }
+
+    List<HistoryEvent> result = new ArrayList<HistoryEvent>();
+    for (HistoryEvent historyEvent : historyEvents) {
+      if (selectedEvents.containsKey(historyEvent)) {
+        result.add(historyEvent);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return a key identifying the history entity the event inserts or updates,
+   *   or null if the event has no id
+   */
+  protected String getEntityKey(HistoryEvent historyEvent) {
+    if (historyEvent instanceof HistoricVariableUpdateEventEntity) {
+      // the id of a variable update is the id of its detail, while all updates
+      // of a variable instance insert or update the same historic variable instance
+      String variableInstanceId = ((HistoricVariableUpdateEventEntity) historyEvent).getVariableInstanceId();
+      if (variableInstanceId != null) {
+        return HistoricVariableUpdateEventEntity.class.getName() + "#" + variableInstanceId;
+      }
+    }
+    if (historyEvent.getId() == null) {
+      return null;
+    }
+    return historyEvent.getClass().getName() + "#" + historyEvent.getId();
+  }
+
+  /**
+   * @return true if the events have been written
+   */
+  protected boolean write(final List<HistoryEvent> historyEvents, int maxAttempts) {
+    for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+      try {
+        commandExecutor.execute(new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            historyEventHandler.writeEvents(historyEvents);
+            return null;
+          }
+        });
+        return true;
+      }
+      catch (RuntimeException e) {
+        LOG.historyEventWriteFailed(attempt, maxAttempts, e);
+
+        if (attempt < maxAttempts && !waitBeforeRetry(attempt)) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  protected boolean waitBeforeRetry(int attempt) {
+    try {
+      Thread.sleep(retryWaitTime * attempt);
+      return true;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  protected void quarantine(List<HistoryEvent> historyEvents) {
+    for (HistoryEvent historyEvent : historyEvents) {
+      String entityKey = getEntityKey(historyEvent);
+      if (entityKey != null) {
+        quarantinedEntities.put(entityKey, Boolean.TRUE);
+      }
+    }
+
+    if (journal != null) {
+      try {
+        journal.appendFailed(historyEvents);
+        LOG.historyEventsQuarantined(historyEvents.size(), journal.getDirectory().getAbsolutePath());
+        return;
+      }
+      catch (IOException e) {
+        LOG.historyEventsLost(historyEvents.size(), e);
+        return;
+      }
+    }
+    LOG.historyEventsLost(historyEvents.size(), null);
+  }
+
+  protected synchronized boolean isSpilling() {
+    return spilling;
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public HistoryEventJournal getJournal() {
+    return journal;
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  public int getMaxEventsPerWrite() {
+    return maxEventsPerWrite;
+  }
+
+  public void setMaxEventsPerWrite(int maxEventsPerWrite) {
+    this.maxEventsPerWrite = maxEventsPerWrite;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+
+  public long getRetryWaitTime() {
+    return retryWaitTime;
+  }
+
+  public void setRetryWaitTime(long retryWaitTime) {
+    this.retryWaitTime = retryWaitTime;
+  }
+
+  public long getIdleWaitTime() {
+    return idleWaitTime;
+  }
+
+  public void setIdleWaitTime(long idleWaitTime) {
+    this.idleWaitTime = idleWaitTime;
+  }
+
+}
@@ -35,6 +35,7 @@ import org.camunda.bpm.engine.impl.identity.Authentication;
 import org.camunda.bpm.engine.impl.identity.ReadOnlyIdentityProvider;
 import org.camunda.bpm.engine.impl.identity.WritableIdentityProvider;
 import org.camunda.bpm.engine.impl.jobexecutor.FailedJobCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
 import org.camunda.bpm.engine.impl.persistence.entity.*;
 
 import java.util.*;
@@ -158,6 +159,7 @@ public class CommandContext {
               LOG.errorException(commandInvocationContext.getThrowable());
             }
             transactionContext.rollback();
+            discardReusedEntityCache();
           }
         }
       } catch (Throwable exception) {
@@ -173,6 +175,17 @@ public class CommandContext {
     commandInvocationContext.rethrow();
   }
 
+  /**
+   * The entities cached by a rolled back transaction may hold changes which were not flushed or
+   * revisions which were not committed, so subsequent jobs must load them from the database again.
+   */
+  protected void discardReusedEntityCache() {
+    JobExecutorContext jobExecutorContext = Context.getJobExecutorContext();
+    if (jobExecutorContext != null) {
+      jobExecutorContext.setEntityCache(null);
+    }
+  }
+
   protected boolean shouldLogInfo(Throwable exception) {
     return exception instanceof TaskAlreadyClaimedException;
   }
@@ -18,6 +18,8 @@ import org.camunda.bpm.engine.delegate.ProcessEngineServicesAware;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.cmd.CommandLogger;
 import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.Metrics;
 
 /**
  * <p>Interceptor used for opening the {@link CommandContext} and {@link CommandInvocationContext}.</p>
@@ -83,6 +85,7 @@ public class CommandContextInterceptor extends CommandInterceptor {
     }
 
     boolean openNew = (context == null);
+    long startTime = openNew ? System.currentTimeMillis() : 0;
 
     CommandInvocationContext commandInvocationContext = new CommandInvocationContext(command);
     Context.setCommandInvocationContext(commandInvocationContext);
@@ -110,7 +113,11 @@ public class CommandContextInterceptor extends CommandInterceptor {
       try {
         if (openNew) {
           LOG.closingCommandContext();
-          context.close(commandInvocationContext);
+          try {
+            context.close(commandInvocationContext);
+          } finally {
+            recordCommandDuration(System.currentTimeMillis() - startTime);
+          }
         } else {
           commandInvocationContext.rethrow();
         }
@@ -124,6 +131,15 @@ public class CommandContextInterceptor extends CommandInterceptor {
     return null;
   }
 
+  protected void recordCommandDuration(long duration) {
+    if (processEngineConfiguration != null && processEngineConfiguration.isMetricsEnabled()) {
+      MetricsRegistry metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+      if (metricsRegistry != null) {
+        metricsRegistry.recordValue(Metrics.COMMAND_DURATION, duration);
+      }
+    }
+  }
+
   protected boolean isFromSameEngine(CommandContext existingCommandContext) {
     return processEngineConfiguration == existingCommandContext.getProcessEngineConfiguration();
   }
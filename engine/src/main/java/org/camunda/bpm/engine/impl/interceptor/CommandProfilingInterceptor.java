@@ -0,0 +1,54 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.interceptor;
+
+import org.camunda.bpm.engine.impl.profiling.CommandProfileImpl;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
+
+/**
+ * Records a {@link CommandProfileImpl profile} of each command with the {@link CommandProfiler}.
+ * The interceptor is placed in front of the {@link CommandContextInterceptor} so that the
+ * profile includes closing the command context, i.e. flushing the entities and invoking the
+ * transaction listeners.
+ */
+public class CommandProfilingInterceptor extends CommandInterceptor {
+
+  protected CommandProfiler commandProfiler;
+
+  public CommandProfilingInterceptor(CommandProfiler commandProfiler) {
+    this.commandProfiler = commandProfiler;
+  }
+
+  public <T> T execute(Command<T> command) {
+    if (CommandProfiler.getCurrentProfile() != null) {
+      // attribute nested commands to the outermost command
+      return next.execute(command);
+    }
+
+    CommandProfileImpl profile = commandProfiler.startProfile(command);
+    boolean failed = true;
+    try {
+      T result = next.execute(command);
+      failed = false;
+      return result;
+    }
+    finally {
+      commandProfiler.endProfile(profile, failed);
+    }
+  }
+
+  public CommandProfiler getCommandProfiler() {
+    return commandProfiler;
+  }
+
+}
@@ -13,9 +13,11 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -29,6 +31,7 @@ public class AcquiredJobs {
 
   protected List<List<String>> acquiredJobBatches = new ArrayList<List<String>>();
   protected Set<String> acquiredJobs = new HashSet<String>();
+  protected Map<String, Long> jobPriorities = new HashMap<String, Long>();
 
   protected int numberOfJobsFailedToLock = 0;
 
@@ -54,6 +57,24 @@ public class AcquiredJobs {
     addJobIdBatch(list);
   }
 
+  public void setJobPriority(String jobId, long priority) {
+    jobPriorities.put(jobId, priority);
+  }
+
+  /**
+   * @return the highest priority of the given jobs or 0 if their priorities are unknown
+   */
+  public long getPriority(List<String> jobIds) {
+    Long highestPriority = null;
+    for (String jobId : jobIds) {
+      Long priority = jobPriorities.get(jobId);
+      if (priority != null && (highestPriority == null || priority > highestPriority)) {
+        highestPriority = priority;
+      }
+    }
+    return highestPriority != null ? highestPriority : 0;
+  }
+
   public boolean contains(String jobId) {
     return acquiredJobs.contains(jobId);
   }
@@ -66,6 +87,7 @@ public class AcquiredJobs {
     numberOfJobsFailedToLock++;
 
     acquiredJobs.remove(id);
+    jobPriorities.remove(id);
 
     Iterator<List<String>> batchIterator = acquiredJobBatches.iterator();
     while (batchIterator.hasNext()) {
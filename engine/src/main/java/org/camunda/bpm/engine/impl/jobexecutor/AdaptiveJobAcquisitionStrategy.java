@@ -0,0 +1,297 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Determines the number of jobs to acquire and the time to wait between acquisition cycles
+ * from the observed load of the job executor's execution resources.
+ *
+ * <p>After every acquisition cycle, the strategy samples
+ *   <ul>
+ *     <li>the occupancy of the execution resources (running and queued job batches
+ *       relative to the {@link JobExecutor#getExecutionCapacity() capacity}),
+ *     <li>the average execution time of a job and
+ *     <li>the share of job batches that were rejected for execution.
+ *   </ul>
+ *
+ * <p>The number of jobs to acquire for an engine is steered towards the free capacity up to the
+ * {@link #setTargetOccupancy(float) target occupancy}, which is shared evenly between the engines.
+ * If the capacity is unknown, the number is increased by one per cycle in which the engine could acquire
+ * all requested jobs. Rejected jobs halve the number (additive increase, multiplicative decrease).
+ *
+ * <p>While the execution resources are saturated, the acquisition waits for about the time it takes
+ * to execute a job, so that jobs are not acquired faster than they can be executed. When no jobs are
+ * available or jobs could not be locked, the acquisition waits with an exponential backoff like the
+ * {@link BackoffJobAcquisitionStrategy}.
+ */
+public class AdaptiveJobAcquisitionStrategy implements JobAcquisitionStrategy {
+
+  public static final float DEFAULT_TARGET_OCCUPANCY = 0.8f;
+  public static final int DEFAULT_MAX_NUM_JOBS_TO_ACQUIRE_FACTOR = 10;
+
+  /**
+   * Weight of the latest sample in the moving average of the job execution time
+   */
+  protected static final double EXECUTION_TIME_SMOOTHING_FACTOR = 0.2;
+
+  protected JobExecutor jobExecutor;
+
+  /*
+   * all wait times are in milliseconds
+   */
+  protected long baseIdleWaitTime;
+  protected float waitIncreaseFactor;
+  protected long maxIdleWaitTime;
+  protected long idleWaitTime = 0;
+
+  protected long baseBackoffWaitTime;
+  protected long maxBackoffWaitTime;
+  protected long backoffWaitTime = 0;
+
+  protected long executionSaturationWaitTime = BackoffJobAcquisitionStrategy.DEFAULT_EXECUTION_SATURATION_WAIT_TIME;
+
+  protected long waitTime = 0;
+
+  protected float targetOccupancy = DEFAULT_TARGET_OCCUPANCY;
+  protected int baseNumJobsToAcquire;
+  protected int maxNumJobsToAcquire;
+
+  protected Map<String, Integer> jobsToAcquire = new HashMap<String, Integer>();
+
+  /*
+   * observed execution statistics
+   */
+  protected long lastExecutedJobsCount;
+  protected long lastJobExecutionTime;
+  protected double averageJobExecutionTime = 0;
+
+  public AdaptiveJobAcquisitionStrategy(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+
+    this.baseIdleWaitTime = jobExecutor.getWaitTimeInMillis();
+    this.waitIncreaseFactor = jobExecutor.getWaitIncreaseFactor();
+    this.maxIdleWaitTime = jobExecutor.getMaxWait();
+    this.baseBackoffWaitTime = jobExecutor.getBackoffTimeInMillis();
+    this.maxBackoffWaitTime = jobExecutor.getMaxBackoff();
+
+    this.baseNumJobsToAcquire = jobExecutor.getMaxJobsPerAcquisition();
+    this.maxNumJobsToAcquire = baseNumJobsToAcquire * DEFAULT_MAX_NUM_JOBS_TO_ACQUIRE_FACTOR;
+
+    this.lastExecutedJobsCount = jobExecutor.getExecutedJobsCount();
+    this.lastJobExecutionTime = jobExecutor.getJobExecutionTimeInMillis();
+  }
+
+  @Override
+  public void reconfigure(JobAcquisitionContext context) {
+    updateAverageJobExecutionTime();
+
+    int capacity = jobExecutor.getExecutionCapacity();
+    int load = jobExecutor.getExecutionLoad();
+    float rejectionRate = calculateRejectionRate(context);
+
+    reconfigureNumberOfJobsToAcquire(context, capacity, load, rejectionRate);
+    reconfigureWaitTime(context, capacity, load, rejectionRate);
+  }
+
+  protected void updateAverageJobExecutionTime() {
+    long executedJobsCount = jobExecutor.getExecutedJobsCount();
+    long jobExecutionTime = jobExecutor.getJobExecutionTimeInMillis();
+
+    long executedJobs = executedJobsCount - lastExecutedJobsCount;
+    if (executedJobs > 0) {
+      double sample = (double) (jobExecutionTime - lastJobExecutionTime) / executedJobs;
+
+      if (averageJobExecutionTime == 0) {
+        averageJobExecutionTime = sample;
+      }
+      else {
+        averageJobExecutionTime += EXECUTION_TIME_SMOOTHING_FACTOR * (sample - averageJobExecutionTime);
+      }
+    }
+
+    lastExecutedJobsCount = executedJobsCount;
+    lastJobExecutionTime = jobExecutionTime;
+  }
+
+  /**
+   * @return the share of job batches submitted for execution in this cycle (spanning all engines)
+   *   that were rejected
+   */
+  protected float calculateRejectionRate(JobAcquisitionContext context) {
+    int numBatchesSubmitted = 0;
+    int numBatchesRejected = 0;
+
+    for (Map.Entry<String, AcquiredJobs> acquiredJobsForEngine : context.getAcquiredJobsByEngine().entrySet()) {
+      String engineName = acquiredJobsForEngine.getKey();
+
+      numBatchesSubmitted += acquiredJobsForEngine.getValue().getJobIdBatches().size();
+
+      List<List<String>> resubmittedJobBatches = context.getAdditionalJobsByEngine().get(engineName);
+      if (resubmittedJobBatches != null) {
+        numBatchesSubmitted += resubmittedJobBatches.size();
+      }
+
+      List<List<String>> rejectedJobBatches = context.getRejectedJobsByEngine().get(engineName);
+      if (rejectedJobBatches != null) {
+        numBatchesRejected += rejectedJobBatches.size();
+      }
+    }
+
+    if (numBatchesSubmitted == 0) {
+      return 0;
+    }
+    else {
+      return Math.min(1, (float) numBatchesRejected / numBatchesSubmitted);
+    }
+  }
+
+  protected void reconfigureNumberOfJobsToAcquire(JobAcquisitionContext context, int capacity, int load, float rejectionRate) {
+    Map<String, AcquiredJobs> acquiredJobsByEngine = context.getAcquiredJobsByEngine();
+    int numEngines = acquiredJobsByEngine.size();
+
+    for (Map.Entry<String, AcquiredJobs> acquiredJobsEntry : acquiredJobsByEngine.entrySet()) {
+      String engineName = acquiredJobsEntry.getKey();
+      AcquiredJobs acquiredJobs = acquiredJobsEntry.getValue();
+
+      int numJobsToAcquire = getNumJobsToAcquire(engineName);
+
+      if (rejectionRate > 0) {
+        // multiplicative decrease; stop acquiring if nothing could be executed
+        numJobsToAcquire = rejectionRate >= 1 ? 0 : numJobsToAcquire / 2;
+      }
+      else if (capacity > 0 && load >= 0) {
+        // steer towards the free capacity up to the target occupancy
+        int freeCapacity = (int) (targetOccupancy * capacity) - load;
+        int freeCapacityPerEngine = (int) Math.ceil((double) freeCapacity / numEngines);
+        numJobsToAcquire = numJobsToAcquire + (freeCapacityPerEngine - numJobsToAcquire) / 2;
+      }
+      else if (acquiredJobs.size() >= acquiredJobs.getNumberOfJobsAttemptedToAcquire()) {
+        // additive increase as long as the engine has more jobs than it acquires
+        numJobsToAcquire++;
+      }
+
+      // jobs rejected in this cycle are resubmitted in the next one
+      List<List<String>> rejectedJobBatchesForEngine = context.getRejectedJobsByEngine().get(engineName);
+      if (rejectedJobBatchesForEngine != null) {
+        numJobsToAcquire -= rejectedJobBatchesForEngine.size();
+      }
+
+      if (rejectionRate < 1) {
+        numJobsToAcquire = Math.max(1, numJobsToAcquire);
+      }
+      numJobsToAcquire = Math.max(0, Math.min(maxNumJobsToAcquire, numJobsToAcquire));
+
+      jobsToAcquire.put(engineName, numJobsToAcquire);
+    }
+  }
+
+  protected void reconfigureWaitTime(JobAcquisitionContext context, int capacity, int load, float rejectionRate) {
+    boolean executionSaturated = rejectionRate > 0
+        || (capacity > 0 && load >= targetOccupancy * capacity);
+
+    if (context.hasJobAcquisitionLockFailureOccurred()) {
+      backoffWaitTime = increaseWaitTime(backoffWaitTime, baseBackoffWaitTime, maxBackoffWaitTime);
+    }
+    else {
+      backoffWaitTime = 0;
+    }
+
+    if (!context.isJobAdded() && (context.areAllEnginesIdle() || context.getAcquisitionException() != null)) {
+      idleWaitTime = increaseWaitTime(idleWaitTime, baseIdleWaitTime, maxIdleWaitTime);
+    }
+    else {
+      idleWaitTime = 0;
+    }
+
+    if (executionSaturated) {
+      // give the execution resources about the time to execute a job
+      long saturationWaitTime = Math.max(executionSaturationWaitTime, (long) averageJobExecutionTime);
+      waitTime = Math.min(saturationWaitTime, Math.max(maxIdleWaitTime, executionSaturationWaitTime));
+    }
+    else if (idleWaitTime > 0) {
+      waitTime = idleWaitTime;
+    }
+    else if (backoffWaitTime > 0) {
+      // add a bounded random jitter to avoid multiple job acquisitions getting exactly the same
+      // polling interval
+      waitTime = backoffWaitTime + (long) (Math.random() * (backoffWaitTime / 2));
+    }
+    else {
+      waitTime = 0;
+    }
+  }
+
+  protected long increaseWaitTime(long currentWaitTime, long baseWaitTime, long maxWaitTime) {
+    if (baseWaitTime <= 0 || maxWaitTime <= 0) {
+      return 0;
+    }
+    else if (currentWaitTime <= 0) {
+      return Math.min(baseWaitTime, maxWaitTime);
+    }
+    else {
+      return Math.min((long) (currentWaitTime * waitIncreaseFactor), maxWaitTime);
+    }
+  }
+
+  @Override
+  public long getWaitTime() {
+    return waitTime;
+  }
+
+  @Override
+  public int getNumJobsToAcquire(String processEngine) {
+    Integer numJobsToAcquire = jobsToAcquire.get(processEngine);
+    if (numJobsToAcquire != null) {
+      return numJobsToAcquire;
+    }
+    else {
+      return baseNumJobsToAcquire;
+    }
+  }
+
+  public double getAverageJobExecutionTime() {
+    return averageJobExecutionTime;
+  }
+
+  public float getTargetOccupancy() {
+    return targetOccupancy;
+  }
+
+  /**
+   * @param targetOccupancy the share of the execution capacity (between 0 and 1)
+   *   the acquisition tries to keep busy
+   */
+  public void setTargetOccupancy(float targetOccupancy) {
+    this.targetOccupancy = targetOccupancy;
+  }
+
+  public int getMaxNumJobsToAcquire() {
+    return maxNumJobsToAcquire;
+  }
+
+  public void setMaxNumJobsToAcquire(int maxNumJobsToAcquire) {
+    this.maxNumJobsToAcquire = maxNumJobsToAcquire;
+  }
+
+  public long getExecutionSaturationWaitTime() {
+    return executionSaturationWaitTime;
+  }
+
+  public void setExecutionSaturationWaitTime(long executionSaturationWaitTime) {
+    this.executionSaturationWaitTime = executionSaturationWaitTime;
+  }
+}
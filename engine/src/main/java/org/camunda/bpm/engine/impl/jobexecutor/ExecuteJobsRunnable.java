@@ -47,18 +47,24 @@ public class ExecuteJobsRunnable implements Runnable {
 
     currentProcessorJobQueue.addAll(jobIds);
 
+    long startTime = System.currentTimeMillis();
+
     Context.setJobExecutorContext(jobExecutorContext);
     try {
       while (!currentProcessorJobQueue.isEmpty()) {
 
         String nextJobId = currentProcessorJobQueue.remove(0);
         if(jobExecutor.isActive()) {
+          long jobStartTime = System.currentTimeMillis();
           try {
              executeJob(nextJobId, commandExecutor);
           }
           catch(Throwable t) {
             LOG.exceptionWhileExecutingJob(nextJobId, t);
           }
+          finally {
+            jobExecutor.logJobExecutionTime(processEngine, System.currentTimeMillis() - jobStartTime);
+          }
         } else {
             try {
               unlockJob(nextJobId, commandExecutor);
@@ -77,6 +83,7 @@ public class ExecuteJobsRunnable implements Runnable {
 
     } finally {
       Context.removeJobExecutorContext();
+      jobExecutor.logJobExecution(jobIds.size(), System.currentTimeMillis() - startTime);
     }
   }
 
@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +28,9 @@ public class JobAcquisitionContext {
   protected Map<String, List<List<String>>> rejectedJobBatchesByEngine;
   protected Map<String, AcquiredJobs> acquiredJobsByEngine;
   protected Map<String, List<List<String>>> additionalJobBatchesByEngine;
+  /** the known priorities of the rejected and additional job batches */
+  protected Map<List<String>, Long> rejectedJobBatchPriorities;
+  protected Map<List<String>, Long> additionalJobBatchPriorities;
   protected Exception acquisitionException;
   protected long acquisitionTime;
   protected boolean isJobAdded;
@@ -35,12 +39,23 @@ public class JobAcquisitionContext {
     this.rejectedJobBatchesByEngine = new HashMap<String, List<List<String>>>();
     this.additionalJobBatchesByEngine = new HashMap<String, List<List<String>>>();
     this.acquiredJobsByEngine = new HashMap<String, AcquiredJobs>();
+    this.rejectedJobBatchPriorities = new IdentityHashMap<List<String>, Long>();
+    this.additionalJobBatchPriorities = new IdentityHashMap<List<String>, Long>();
   }
 
   public void submitRejectedBatch(String engineName, List<String> jobIds) {
     CollectionUtil.addToMapOfLists(rejectedJobBatchesByEngine, engineName, jobIds);
   }
 
+  /**
+   * Submits a rejected batch whose highest job priority is known, so that it is
+   * resubmitted with its priority in the next acquisition cycle.
+   */
+  public void submitRejectedBatch(String engineName, List<String> jobIds, long priority) {
+    submitRejectedBatch(engineName, jobIds);
+    rejectedJobBatchPriorities.put(jobIds, priority);
+  }
+
   public void submitAcquiredJobs(String engineName, AcquiredJobs acquiredJobs) {
     acquiredJobsByEngine.put(engineName, acquiredJobs);
   }
@@ -55,8 +70,11 @@ public class JobAcquisitionContext {
     // jobs that were rejected in the previous acquisition cycle
     // are to be resubmitted for execution in the current cycle
     additionalJobBatchesByEngine.putAll(rejectedJobBatchesByEngine);
+    additionalJobBatchPriorities.clear();
+    additionalJobBatchPriorities.putAll(rejectedJobBatchPriorities);
 
     rejectedJobBatchesByEngine.clear();
+    rejectedJobBatchPriorities.clear();
     acquiredJobsByEngine.clear();
     acquisitionException = null;
     acquisitionTime = 0;
@@ -127,6 +145,15 @@ public class JobAcquisitionContext {
     return additionalJobBatchesByEngine;
   }
 
+  /**
+   * @return the highest job priority of the given additional job batch
+   *   or 0 if it is unknown
+   */
+  public long getAdditionalJobBatchPriority(List<String> jobIds) {
+    Long priority = additionalJobBatchPriorities.get(jobIds);
+    return priority != null ? priority : 0;
+  }
+
   public void setAcquisitionException(Exception e) {
     this.acquisitionException = e;
   }
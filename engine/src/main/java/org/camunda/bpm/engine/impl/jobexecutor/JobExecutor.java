@@ -17,6 +17,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.interceptor.Command;
@@ -71,6 +73,16 @@ public abstract class JobExecutor {
   protected String lockOwner = UUID.randomUUID().toString();
   protected int lockTimeInMillis = 5 * 60 * 1000;
 
+  /**
+   * If true, the number of jobs to acquire and the time between acquisition cycles
+   * are derived from the load of the execution resources, see {@link AdaptiveJobAcquisitionStrategy}.
+   */
+  protected boolean adaptiveJobAcquisition = false;
+
+  // execution statistics the acquisition strategy can adapt to
+  protected AtomicLong executedJobsCount = new AtomicLong();
+  protected AtomicLong jobExecutionTimeInMillis = new AtomicLong();
+
   public void start() {
     if (isActive) {
       return;
@@ -93,12 +105,14 @@ public abstract class JobExecutor {
   }
 
   protected void ensureInitialization() {
-    acquireJobsCmdFactory = new DefaultAcquireJobsCommandFactory(this);
+    if (acquireJobsCmdFactory == null) {
+      acquireJobsCmdFactory = new DefaultAcquireJobsCommandFactory(this);
+    }
     acquireJobsRunnable = new SequentialJobAcquisitionRunnable(this);
   }
 
   protected void ensureCleanup() {
-    acquireJobsCmdFactory = null;
+    // a configured acquire jobs command factory is kept for the next start
     acquireJobsRunnable = null;
   }
 
@@ -130,6 +144,14 @@ public abstract class JobExecutor {
   protected abstract void stopExecutingJobs();
   public abstract void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine);
 
+  /**
+   * Executes a job batch whose highest job priority is known. Job executors which do not
+   * take priorities into account execute the batch like {@link #executeJobs(List, ProcessEngineImpl)}.
+   */
+  public void executeJobs(List<String> jobIds, long priority, ProcessEngineImpl processEngine) {
+    executeJobs(jobIds, processEngine);
+  }
+
   /**
    * Deprecated: use {@link #executeJobs(List, ProcessEngineImpl)} instead
    * @param jobIds
@@ -165,6 +187,22 @@ public abstract class JobExecutor {
     }
   }
 
+  public void logAcquisitionTime(ProcessEngineImpl engine, long acquisitionTimeInMillis) {
+    if (engine != null && engine.getProcessEngineConfiguration().isMetricsEnabled()) {
+      engine.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .recordValue(Metrics.JOB_ACQUISITION_ROUND_TIME, acquisitionTimeInMillis);
+    }
+  }
+
+  public void logJobExecutionTime(ProcessEngineImpl engine, long executionTimeInMillis) {
+    if (engine != null && engine.getProcessEngineConfiguration().isMetricsEnabled()) {
+      engine.getProcessEngineConfiguration()
+        .getMetricsRegistry()
+        .recordValue(Metrics.JOB_EXECUTION_TIME, executionTimeInMillis);
+    }
+  }
+
   public void logRejectedExecution(ProcessEngineImpl engine, int numJobs) {
     if (engine != null && engine.getProcessEngineConfiguration().isMetricsEnabled()) {
       engine.getProcessEngineConfiguration()
@@ -173,6 +211,27 @@ public abstract class JobExecutor {
     }
   }
 
+  public void logJobExecution(int numJobs, long executionTimeInMillis) {
+    executedJobsCount.addAndGet(numJobs);
+    jobExecutionTimeInMillis.addAndGet(executionTimeInMillis);
+  }
+
+  /**
+   * @return the number of job batches which can be executed or queued for execution
+   *   at the same time or -1 if the capacity of the execution resources is unknown
+   */
+  public int getExecutionCapacity() {
+    return -1;
+  }
+
+  /**
+   * @return the number of job batches which are currently executed or queued for execution
+   *   or -1 if the load of the execution resources is unknown
+   */
+  public int getExecutionLoad() {
+    return -1;
+  }
+
   // getters and setters //////////////////////////////////////////////////////
 
   public List<ProcessEngineImpl> getProcessEngines() {
@@ -303,6 +362,28 @@ public abstract class JobExecutor {
     return name;
   }
 
+  public boolean isAdaptiveJobAcquisition() {
+    return adaptiveJobAcquisition;
+  }
+
+  public void setAdaptiveJobAcquisition(boolean adaptiveJobAcquisition) {
+    this.adaptiveJobAcquisition = adaptiveJobAcquisition;
+  }
+
+  /**
+   * @return the number of jobs executed by this job executor since it was created
+   */
+  public long getExecutedJobsCount() {
+    return executedJobsCount.get();
+  }
+
+  /**
+   * @return the accumulated time in milliseconds spent on executing jobs
+   */
+  public long getJobExecutionTimeInMillis() {
+    return jobExecutionTimeInMillis.get();
+  }
+
   public Command<AcquiredJobs> getAcquireJobsCmd(int numJobs) {
     return acquireJobsCmdFactory.getCommand(numJobs);
   }
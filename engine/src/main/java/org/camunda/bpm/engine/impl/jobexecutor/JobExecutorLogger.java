@@ -169,4 +169,14 @@ public class JobExecutorLogger extends ProcessEngineLogger {
         "026", "No job found with id '{}'", jobId));
   }
 
+  public void virtualThreadsNotAvailable(Exception e) {
+    logInfo(
+        "027", "Virtual threads are not available on this JVM, executing jobs on platform threads instead: {}", e.getMessage());
+  }
+
+  public void exceptionWhileExecutingJobBatch(RuntimeException e) {
+    logWarn(
+        "028", "Exception while executing a job batch: {}", e.getMessage(), e);
+  }
+
 }
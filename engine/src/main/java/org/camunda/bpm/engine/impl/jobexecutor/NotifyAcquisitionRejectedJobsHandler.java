@@ -24,10 +24,18 @@ public class NotifyAcquisitionRejectedJobsHandler implements RejectedJobsHandler
 
   @Override
   public void jobsRejected(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutor jobExecutor) {
+    jobsRejected(jobIds, 0, processEngine, jobExecutor);
+  }
+
+  /**
+   * Submits the rejected jobs together with their highest priority, so that they are
+   * executed with this priority in the next acquisition cycle.
+   */
+  public void jobsRejected(List<String> jobIds, long priority, ProcessEngineImpl processEngine, JobExecutor jobExecutor) {
     AcquireJobsRunnable acquireJobsRunnable = jobExecutor.getAcquireJobsRunnable();
     if (acquireJobsRunnable instanceof SequentialJobAcquisitionRunnable) {
       JobAcquisitionContext context = ((SequentialJobAcquisitionRunnable) acquireJobsRunnable).getAcquisitionContext();
-      context.submitRejectedBatch(processEngine.getName(), jobIds);
+      context.submitRejectedBatch(processEngine.getName(), jobIds, priority);
     }
     else {
       jobExecutor.getExecuteJobsRunnable(jobIds, processEngine).run();
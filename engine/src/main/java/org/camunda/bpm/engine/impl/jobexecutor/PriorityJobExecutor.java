@@ -0,0 +1,346 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+
+/**
+ * <p>{@link JobExecutor} which queues acquired job batches by the highest priority of their
+ * jobs instead of in the order of their acquisition, so that a batch of high priority jobs
+ * does not wait behind a full queue of low priority batches.</p>
+ *
+ * <p>To prevent the starvation of low priority batches, a queued batch gains one priority
+ * unit for each {@link #setAgingInterval(long) aging interval} it waits. In addition, the
+ * number of threads executing batches of a priority band can be
+ * {@link #setPriorityBandConcurrency(long, int) limited}, so that some threads remain
+ * available for batches of higher priority.</p>
+ *
+ * <p>Job priorities are only known if jobs are acquired by priority
+ * (see <code>jobExecutorAcquireByPriority</code>). Otherwise, all batches have priority 0
+ * and are executed in the order of their acquisition.</p>
+ */
+public class PriorityJobExecutor extends JobExecutor {
+
+  private final static JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
+
+  protected int poolSize = 3;
+  protected int queueSize = 3;
+
+  /**
+   * Time in milliseconds after which a queued batch gains one priority unit or 0 if batches do not age
+   */
+  protected long agingInterval = 1000L;
+
+  /**
+   * Time in seconds to wait for queued and running job batches on shutdown
+   */
+  protected long shutdownTimeout = 60L;
+
+  /** the maximum number of threads per lowest priority of a band, which ends at the next band */
+  protected TreeMap<Long, Integer> priorityBandConcurrency = new TreeMap<Long, Integer>();
+
+  protected final Object queueMonitor = new Object();
+  protected TreeSet<QueuedJobBatch> queue;
+  protected Map<Long, Integer> runningBatchesByBand = new HashMap<Long, Integer>();
+  protected int runningBatches = 0;
+  protected long sequenceCounter = 0;
+  protected boolean isAcceptingBatches = false;
+
+  protected List<Thread> workerThreads = new ArrayList<Thread>();
+
+  protected void startExecutingJobs() {
+    synchronized (queueMonitor) {
+      queue = new TreeSet<QueuedJobBatch>(new QueuedJobBatchComparator());
+      runningBatchesByBand.clear();
+      runningBatches = 0;
+      isAcceptingBatches = true;
+    }
+
+    workerThreads.clear();
+    for (int i = 0; i < poolSize; i++) {
+      Thread workerThread = new Thread(new Worker(), getThreadNamePrefix() + i);
+      workerThreads.add(workerThread);
+      workerThread.start();
+    }
+
+    startJobAcquisitionThread();
+  }
+
+  protected void stopExecutingJobs() {
+    stopJobAcquisitionThread();
+
+    // the workers execute the queued batches before they terminate
+    synchronized (queueMonitor) {
+      isAcceptingBatches = false;
+      queueMonitor.notifyAll();
+    }
+
+    long shutdownTime = System.currentTimeMillis() + shutdownTimeout * 1000;
+    try {
+      for (Thread workerThread : workerThreads) {
+        workerThread.join(Math.max(1, shutdownTime - System.currentTimeMillis()));
+        if (workerThread.isAlive()) {
+          LOG.timeoutDuringShutdown();
+          break;
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.interruptedWhileShuttingDownjobExecutor(e);
+    }
+
+    workerThreads.clear();
+  }
+
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    executeJobs(jobIds, 0, processEngine);
+  }
+
+  public void executeJobs(List<String> jobIds, long priority, ProcessEngineImpl processEngine) {
+    boolean isQueued = false;
+
+    synchronized (queueMonitor) {
+      if (isAcceptingBatches && queue.size() < queueSize) {
+        Runnable executeJobsRunnable = getExecuteJobsRunnable(jobIds, processEngine);
+        long band = getPriorityBand(priority);
+        queue.add(new QueuedJobBatch(executeJobsRunnable, priority, band, System.currentTimeMillis(), sequenceCounter++));
+        queueMonitor.notifyAll();
+        isQueued = true;
+      }
+    }
+
+    if (!isQueued) {
+      logRejectedExecution(processEngine, jobIds.size());
+      if (rejectedJobsHandler instanceof NotifyAcquisitionRejectedJobsHandler) {
+        // the batch is submitted again with its priority
+        ((NotifyAcquisitionRejectedJobsHandler) rejectedJobsHandler).jobsRejected(jobIds, priority, processEngine, this);
+      }
+      else {
+        rejectedJobsHandler.jobsRejected(jobIds, processEngine, this);
+      }
+    }
+  }
+
+  /**
+   * @return the lowest priority of the band of the given priority
+   *   or {@link Long#MIN_VALUE} if it belongs to no band with limited concurrency
+   */
+  protected long getPriorityBand(long priority) {
+    Long band = priorityBandConcurrency.floorKey(priority);
+    return band != null ? band : Long.MIN_VALUE;
+  }
+
+  /**
+   * Removes the queued batch with the highest aged priority whose band has a thread available.
+   * Waits while there is no such batch.
+   *
+   * @return the batch to execute or null if the executor was stopped and all batches were taken
+   */
+  protected QueuedJobBatch takeNextBatch() throws InterruptedException {
+    synchronized (queueMonitor) {
+      while (true) {
+        Iterator<QueuedJobBatch> batches = queue.iterator();
+        while (batches.hasNext()) {
+          QueuedJobBatch batch = batches.next();
+          if (isBandAvailable(batch.band)) {
+            batches.remove();
+            incrementRunningBatches(batch.band, 1);
+            return batch;
+          }
+        }
+
+        if (!isAcceptingBatches && queue.isEmpty()) {
+          return null;
+        }
+
+        queueMonitor.wait();
+      }
+    }
+  }
+
+  protected void completeBatch(QueuedJobBatch batch) {
+    synchronized (queueMonitor) {
+      incrementRunningBatches(batch.band, -1);
+      // a batch of the band may now be taken
+      queueMonitor.notifyAll();
+    }
+  }
+
+  protected boolean isBandAvailable(long band) {
+    Integer maxConcurrency = priorityBandConcurrency.get(band);
+    if (maxConcurrency == null) {
+      return true;
+    }
+    Integer bandBatches = runningBatchesByBand.get(band);
+    return bandBatches == null || bandBatches < maxConcurrency;
+  }
+
+  protected void incrementRunningBatches(long band, int increment) {
+    Integer bandBatches = runningBatchesByBand.get(band);
+    runningBatchesByBand.put(band, (bandBatches != null ? bandBatches : 0) + increment);
+    runningBatches += increment;
+  }
+
+  protected String getThreadNamePrefix() {
+    return "camunda-job-executor-";
+  }
+
+  public int getExecutionCapacity() {
+    return poolSize + queueSize;
+  }
+
+  public int getExecutionLoad() {
+    synchronized (queueMonitor) {
+      if (queue == null) {
+        return -1;
+      }
+      return runningBatches + queue.size();
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  /**
+   * Sets the number of threads executing job batches.
+   */
+  public void setPoolSize(int poolSize) {
+    this.poolSize = poolSize;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * Sets the number of job batches which can wait for a thread. Further batches are rejected.
+   */
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public long getAgingInterval() {
+    return agingInterval;
+  }
+
+  /**
+   * Must not be changed while the job executor is running.
+   */
+  public void setAgingInterval(long agingInterval) {
+    this.agingInterval = agingInterval;
+  }
+
+  public long getShutdownTimeout() {
+    return shutdownTimeout;
+  }
+
+  public void setShutdownTimeout(long shutdownTimeout) {
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+  public Map<Long, Integer> getPriorityBandConcurrency() {
+    return priorityBandConcurrency;
+  }
+
+  /**
+   * Limits the number of threads which execute job batches of the band starting at the given
+   * priority. The band includes all priorities up to the lowest priority of the next band.
+   * Must not be changed while the job executor is running.
+   */
+  public void setPriorityBandConcurrency(long lowestPriority, int maxConcurrency) {
+    priorityBandConcurrency.put(lowestPriority, maxConcurrency);
+  }
+
+  protected class Worker implements Runnable {
+
+    public void run() {
+      while (true) {
+        QueuedJobBatch batch;
+        try {
+          batch = takeNextBatch();
+        } catch (InterruptedException e) {
+          LOG.interruptedWhileShuttingDownjobExecutor(e);
+          return;
+        }
+
+        if (batch == null) {
+          return;
+        }
+
+        try {
+          batch.executeJobsRunnable.run();
+        } catch (RuntimeException e) {
+          LOG.exceptionWhileExecutingJobBatch(e);
+        } finally {
+          completeBatch(batch);
+        }
+      }
+    }
+  }
+
+  protected static class QueuedJobBatch {
+
+    protected final Runnable executeJobsRunnable;
+    protected final long priority;
+    protected final long band;
+    protected final long queuedTime;
+    protected final long sequence;
+
+    public QueuedJobBatch(Runnable executeJobsRunnable, long priority, long band, long queuedTime, long sequence) {
+      this.executeJobsRunnable = executeJobsRunnable;
+      this.priority = priority;
+      this.band = band;
+      this.queuedTime = queuedTime;
+      this.sequence = sequence;
+    }
+  }
+
+  /**
+   * Orders batches by their aged priority, which is their priority plus the number of aging
+   * intervals they waited. Since all batches age at the same rate, the order does not change
+   * while the batches wait: a batch precedes another if its queued time minus its priority in
+   * aging intervals is smaller.
+   */
+  protected class QueuedJobBatchComparator implements Comparator<QueuedJobBatch> {
+
+    public int compare(QueuedJobBatch batch, QueuedJobBatch otherBatch) {
+      int result;
+      if (agingInterval > 0) {
+        double rank = batch.queuedTime - (double) batch.priority * agingInterval;
+        double otherRank = otherBatch.queuedTime - (double) otherBatch.priority * agingInterval;
+        result = Double.compare(rank, otherRank);
+      }
+      else {
+        result = batch.priority > otherBatch.priority ? -1 : (batch.priority < otherBatch.priority ? 1 : 0);
+      }
+
+      if (result == 0) {
+        result = batch.sequence < otherBatch.sequence ? -1 : (batch.sequence > otherBatch.sequence ? 1 : 0);
+      }
+      return result;
+    }
+  }
+
+}
@@ -99,7 +99,12 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
   }
 
   protected JobAcquisitionStrategy initializeAcquisitionStrategy() {
-    return new BackoffJobAcquisitionStrategy(jobExecutor);
+    if (jobExecutor.isAdaptiveJobAcquisition()) {
+      return new AdaptiveJobAcquisitionStrategy(jobExecutor);
+    }
+    else {
+      return new BackoffJobAcquisitionStrategy(jobExecutor);
+    }
   }
 
   public JobAcquisitionContext getAcquisitionContext() {
@@ -114,7 +119,7 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
       for (List<String> jobBatch : additionalJobs) {
         LOG.executeJobs(currentProcessEngine.getName(), jobBatch);
 
-        jobExecutor.executeJobs(jobBatch, currentProcessEngine);
+        jobExecutor.executeJobs(jobBatch, context.getAdditionalJobBatchPriority(jobBatch), currentProcessEngine);
       }
     }
 
@@ -122,7 +127,7 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
     for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
       LOG.executeJobs(currentProcessEngine.getName(), jobIds);
 
-      jobExecutor.executeJobs(jobIds, currentProcessEngine);
+      jobExecutor.executeJobs(jobIds, acquiredJobs.getPriority(jobIds), currentProcessEngine);
     }
   }
 
@@ -139,7 +144,9 @@ public class SequentialJobAcquisitionRunnable extends AcquireJobsRunnable {
 
     if (numJobsToAcquire > 0) {
       jobExecutor.logAcquisitionAttempt(currentProcessEngine);
+      long acquisitionStartTime = System.currentTimeMillis();
       acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd(numJobsToAcquire));
+      jobExecutor.logAcquisitionTime(currentProcessEngine, System.currentTimeMillis() - acquisitionStartTime);
     }
     else {
       acquiredJobs = new AcquiredJobs(numJobsToAcquire);
@@ -0,0 +1,33 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsSkipLockedCmd;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+
+/**
+ * Creates {@link AcquireJobsSkipLockedCmd commands} which acquire jobs with
+ * <code>SELECT ... FOR UPDATE SKIP LOCKED</code>.
+ */
+public class SkipLockedAcquireJobsCommandFactory implements AcquireJobsCommandFactory {
+
+  protected JobExecutor jobExecutor;
+
+  public SkipLockedAcquireJobsCommandFactory(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+  }
+
+  public Command<AcquiredJobs> getCommand(int numJobsToAcquire) {
+    return new AcquireJobsSkipLockedCmd(jobExecutor, numJobsToAcquire);
+  }
+}
@@ -13,6 +13,7 @@
 package org.camunda.bpm.engine.impl.jobexecutor;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -46,6 +47,21 @@ public class ThreadPoolJobExecutor extends JobExecutor {
     }
   }
 
+  public int getExecutionCapacity() {
+    if (threadPoolExecutor == null) {
+      return -1;
+    }
+    BlockingQueue<Runnable> queue = threadPoolExecutor.getQueue();
+    return threadPoolExecutor.getMaximumPoolSize() + queue.size() + queue.remainingCapacity();
+  }
+
+  public int getExecutionLoad() {
+    if (threadPoolExecutor == null) {
+      return -1;
+    }
+    return threadPoolExecutor.getActiveCount() + threadPoolExecutor.getQueue().size();
+  }
+
   // getters / setters
 
   public ThreadPoolExecutor getThreadPoolExecutor() {
@@ -0,0 +1,200 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.jobexecutor;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+
+/**
+ * <p>{@link JobExecutor} which executes every acquired job batch on a thread of its own,
+ * preferably a virtual thread.</p>
+ *
+ * <p>Instead of a thread pool size, the number of job batches executed at the same time is
+ * limited by {@link #setMaxConcurrency(int) maxConcurrency}. Job batches exceeding this limit
+ * are handed to the {@link RejectedJobsHandler} like jobs rejected by a saturated thread pool.
+ * This suits jobs which mostly wait for I/O, e.g. calls to remote services.</p>
+ *
+ * <p>Virtual threads are looked up reflectively. On JVMs without virtual threads,
+ * the job batches are executed on new daemon platform threads.</p>
+ */
+public class VirtualThreadJobExecutor extends JobExecutor {
+
+  private final static JobExecutorLogger LOG = ProcessEngineLogger.JOB_EXECUTOR_LOGGER;
+
+  public static final int DEFAULT_MAX_CONCURRENCY = 1000;
+
+  protected int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+  /**
+   * Time in seconds to wait for running job batches on shutdown
+   */
+  protected long shutdownTimeout = 60L;
+
+  protected Semaphore executionPermits;
+  protected ThreadFactory threadFactory;
+
+  protected void startExecutingJobs() {
+    executionPermits = new Semaphore(maxConcurrency);
+
+    if (threadFactory == null) {
+      threadFactory = createThreadFactory();
+    }
+
+    startJobAcquisitionThread();
+  }
+
+  protected void stopExecutingJobs() {
+    stopJobAcquisitionThread();
+
+    // wait until all running job batches have returned their permits
+    try {
+      if (executionPermits.tryAcquire(maxConcurrency, shutdownTimeout, TimeUnit.SECONDS)) {
+        executionPermits.release(maxConcurrency);
+      }
+      else {
+        LOG.timeoutDuringShutdown();
+      }
+    } catch (InterruptedException e) {
+      LOG.interruptedWhileShuttingDownjobExecutor(e);
+    }
+  }
+
+  public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    if (!executionPermits.tryAcquire()) {
+      rejectJobs(jobIds, processEngine);
+      return;
+    }
+
+    try {
+      Thread thread = threadFactory.newThread(new PermitReleasingRunnable(getExecuteJobsRunnable(jobIds, processEngine), executionPermits));
+      thread.start();
+
+    } catch (RuntimeException e) {
+      executionPermits.release();
+      rejectJobs(jobIds, processEngine);
+
+    } catch (OutOfMemoryError e) {
+      // thrown if no more native threads can be created
+      executionPermits.release();
+      rejectJobs(jobIds, processEngine);
+    }
+  }
+
+  protected void rejectJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    logRejectedExecution(processEngine, jobIds.size());
+    rejectedJobsHandler.jobsRejected(jobIds, processEngine, this);
+  }
+
+  protected ThreadFactory createThreadFactory() {
+    try {
+      // Thread.ofVirtual().name(prefix, 0).factory()
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+      builder = nameMethod.invoke(builder, getThreadNamePrefix(), 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+    } catch (Exception e) {
+      LOG.virtualThreadsNotAvailable(e);
+      return new PlatformThreadFactory(getThreadNamePrefix());
+    }
+  }
+
+  protected String getThreadNamePrefix() {
+    return "camunda-job-executor-";
+  }
+
+  public int getExecutionCapacity() {
+    return maxConcurrency;
+  }
+
+  public int getExecutionLoad() {
+    if (executionPermits == null) {
+      return -1;
+    }
+    return maxConcurrency - executionPermits.availablePermits();
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public void setMaxConcurrency(int maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  public long getShutdownTimeout() {
+    return shutdownTimeout;
+  }
+
+  public void setShutdownTimeout(long shutdownTimeout) {
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+  public ThreadFactory getThreadFactory() {
+    return threadFactory;
+  }
+
+  /**
+   * Sets the factory creating the threads job batches are executed on.
+   * If not set, a factory for virtual threads is used if available.
+   */
+  public void setThreadFactory(ThreadFactory threadFactory) {
+    this.threadFactory = threadFactory;
+  }
+
+  protected static class PermitReleasingRunnable implements Runnable {
+
+    protected Runnable delegate;
+    protected Semaphore permits;
+
+    public PermitReleasingRunnable(Runnable delegate, Semaphore permits) {
+      this.delegate = delegate;
+      this.permits = permits;
+    }
+
+    public void run() {
+      try {
+        delegate.run();
+      } finally {
+        permits.release();
+      }
+    }
+  }
+
+  protected static class PlatformThreadFactory implements ThreadFactory {
+
+    protected String namePrefix;
+    protected AtomicInteger threadNumber = new AtomicInteger();
+
+    public PlatformThreadFactory(String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
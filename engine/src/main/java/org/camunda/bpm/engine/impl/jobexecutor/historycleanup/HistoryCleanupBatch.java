@@ -1,10 +1,14 @@
 package org.camunda.bpm.engine.impl.jobexecutor.historycleanup;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricProcessInstanceManager;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
 import org.camunda.bpm.engine.management.Metrics;
 
 /**
@@ -18,10 +22,41 @@ public class HistoryCleanupBatch {
    */
   public final static int MAX_BATCH_SIZE = 500;
 
+  /**
+   * Tables which are cleaned up by the removal time of their rows, in the order of deletion. The byte arrays
+   * follow the tables which reference them and the historic process instances come last.
+   */
+  public final static List<String> REMOVAL_TIME_TABLES = Collections.unmodifiableList(Arrays.asList(
+      "ACT_HI_ACTINST",
+      "ACT_HI_TASKINST",
+      "ACT_HI_VARINST",
+      "ACT_HI_DETAIL",
+      "ACT_HI_IDENTITYLINK",
+      "ACT_HI_COMMENT",
+      "ACT_HI_ATTACHMENT",
+      "ACT_HI_INCIDENT",
+      "ACT_HI_JOB_LOG",
+      "ACT_HI_EXT_TASK_LOG",
+      "ACT_GE_BYTEARRAY",
+      "ACT_HI_PROCINST"));
+
   private List<String> historicProcessInstanceIds = Collections.emptyList();
   private List<String> historicDecisionInstanceIds = Collections.emptyList();
   private List<String> historicCaseInstanceIds = Collections.emptyList();
 
+  private HistoryCleanupJobHandlerConfiguration configuration;
+
+  private boolean removalTimeBased;
+  private int removedRowCount;
+
+  public HistoryCleanupBatch() {
+    this(new HistoryCleanupJobHandlerConfiguration());
+  }
+
+  public HistoryCleanupBatch(HistoryCleanupJobHandlerConfiguration configuration) {
+    this.configuration = configuration;
+  }
+
   public List<String> getHistoricProcessInstanceIds() {
     return historicProcessInstanceIds;
   }
@@ -46,11 +81,20 @@ public class HistoryCleanupBatch {
     this.historicCaseInstanceIds = historicCaseInstanceIds;
   }
 
+  public boolean isRemovalTimeBased() {
+    return removalTimeBased;
+  }
+
+  public void setRemovalTimeBased(boolean removalTimeBased) {
+    this.removalTimeBased = removalTimeBased;
+  }
+
   /**
-   * Size of the batch.
+   * Size of the batch. The rows which are removed by their removal time are only known
+   * after {@link #performCleanup()} and are counted from then on.
    */
   public int size() {
-    return historicProcessInstanceIds.size() + historicDecisionInstanceIds.size() + historicCaseInstanceIds.size();
+    return historicProcessInstanceIds.size() + historicDecisionInstanceIds.size() + historicCaseInstanceIds.size() + removedRowCount;
   }
 
   public void performCleanup() {
@@ -67,13 +111,57 @@ public class HistoryCleanupBatch {
       commandContext.getHistoricCaseInstanceManager().deleteHistoricCaseInstancesByIds(historicCaseInstanceIds);
       recordValue(Metrics.HISTORY_CLEANUP_REMOVED_CASE_INSTANCES, historicCaseInstanceIds.size());
     }
+    if (removalTimeBased) {
+      performRemovalTimeBasedCleanup(commandContext);
+    }
+  }
+
+  /**
+   * Deletes a bounded chunk of the history tables by a range condition on the removal time. The rows of a
+   * process instance share its removal time, so a table is only cleaned up once no removable rows are left in
+   * the tables before it. Otherwise the cleanup stops and continues with the next batch, so that neither a
+   * historic process instance nor a referenced byte array is removed before the rows which depend on it.
+   */
+  protected void performRemovalTimeBasedCleanup(CommandContext commandContext) {
+    HistoricProcessInstanceManager historicProcessInstanceManager = commandContext.getHistoricProcessInstanceManager();
+    int batchSize = commandContext.getProcessEngineConfiguration().getHistoryCleanupBatchSize();
+    Date removalTime = ClockUtil.getCurrentTime();
+    Integer minuteFrom = null;
+    Integer minuteTo = null;
+    if (configuration.isPartition()) {
+      minuteFrom = configuration.getMinuteFrom();
+      minuteTo = configuration.getMinuteTo();
+    }
+
+    for (String tableName : REMOVAL_TIME_TABLES) {
+      int removedRows = historicProcessInstanceManager.deleteHistoryByRemovalTime(tableName, removalTime, batchSize, minuteFrom, minuteTo);
+      removedRowCount += removedRows;
+      if ("ACT_HI_PROCINST".equals(tableName) && removedRows > 0) {
+        recordValue(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES, removedRows);
+      }
+      if (removedRows >= batchSize) {
+        // the table may still contain removable rows
+        break;
+      }
+    }
   }
 
   protected void recordValue(String name, long value) {
     final ProcessEngineConfigurationImpl processEngineConfiguration = Context.getCommandContext().getProcessEngineConfiguration();
     if (processEngineConfiguration.isHistoryCleanupMetricsEnabled()) {
       processEngineConfiguration.getDbMetricsReporter().reportValueAtOnce(name, value);
+      if (configuration.isPartition()) {
+        processEngineConfiguration.getDbMetricsReporter().reportValueAtOnce(getPartitionMetricName(name), value);
+      }
     }
   }
 
+  /**
+   * The progress of a partition is additionally reported as metric named after the partition's range of minutes,
+   * e.g. <code>history-cleanup-removed-process-instances-0-29</code>.
+   */
+  protected String getPartitionMetricName(String name) {
+    return name + "-" + configuration.getMinuteFrom() + "-" + configuration.getMinuteTo();
+  }
+
 }
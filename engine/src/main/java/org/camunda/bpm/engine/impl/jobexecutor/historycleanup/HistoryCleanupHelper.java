@@ -2,6 +2,7 @@ package org.camunda.bpm.engine.impl.jobexecutor.historycleanup;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -13,6 +14,13 @@ import org.camunda.bpm.engine.impl.interceptor.CommandContext;
  */
 public abstract class HistoryCleanupHelper {
 
+  /**
+   * The historic data is partitioned by the minute of its end time.
+   */
+  public static final int MAX_MINUTE = 59;
+
+  public static final int MAX_DEGREE_OF_PARALLELISM = MAX_MINUTE + 1;
+
   private static final SimpleDateFormat TIME_FORMAT_WITHOUT_SECONDS = new SimpleDateFormat("HH:mm");
 
   public static final SimpleDateFormat TIME_FORMAT_WITHOUT_SECONDS_WITH_TIMEZONE = new SimpleDateFormat("HH:mmZ");
@@ -79,6 +87,14 @@ public abstract class HistoryCleanupHelper {
     return c.getTime();
   }
 
+  /**
+   * The point in time from which on the historic data of an instance may be removed,
+   * i.e. its end time plus the history time to live in days.
+   */
+  public static Date calculateRemovalTime(Date endTime, int historyTimeToLive) {
+    return addDays(endTime, historyTimeToLive);
+  }
+
   private static Date addDays(Date date, int amount) {
     Calendar c = Calendar.getInstance();
     c.setTime(date);
@@ -94,6 +110,21 @@ public abstract class HistoryCleanupHelper {
     }
   }
 
+  /**
+   * Splits the minutes of an hour into the given number of disjoint ranges of (almost) equal size.
+   * @return the ranges as pairs of the first and last minute, both inclusive
+   */
+  public static List<int[]> listMinuteChunks(int numberOfChunks) {
+    List<int[]> minuteChunks = new ArrayList<int[]>();
+    int minutes = MAX_MINUTE + 1;
+    for (int i = 0; i < numberOfChunks; i++) {
+      int minuteFrom = i * minutes / numberOfChunks;
+      int minuteTo = (i + 1) * minutes / numberOfChunks - 1;
+      minuteChunks.add(new int[] { minuteFrom, minuteTo });
+    }
+    return minuteChunks;
+  }
+
   private static Integer getHistoryCleanupBatchSize(CommandContext commandContext) {
     return commandContext.getProcessEngineConfiguration().getHistoryCleanupBatchSize();
   }
@@ -105,12 +136,23 @@ public abstract class HistoryCleanupHelper {
    * @return
    */
   public static HistoryCleanupBatch getNextBatch(CommandContext commandContext) {
+    return getNextBatch(commandContext, new HistoryCleanupJobHandlerConfiguration());
+  }
+
+  /**
+   * Creates next batch object for history cleanup which only contains the data of the partition
+   * of the given job configuration.
+   */
+  public static HistoryCleanupBatch getNextBatch(CommandContext commandContext, HistoryCleanupJobHandlerConfiguration configuration) {
     final Integer batchSize = getHistoryCleanupBatchSize(commandContext);
-    HistoryCleanupBatch historyCleanupBatch = new HistoryCleanupBatch();
+    final int minuteFrom = configuration.getMinuteFrom();
+    final int minuteTo = configuration.getMinuteTo();
+    HistoryCleanupBatch historyCleanupBatch = new HistoryCleanupBatch(configuration);
+    historyCleanupBatch.setRemovalTimeBased(commandContext.getProcessEngineConfiguration().isHistoryCleanupRemovalTimeBased());
 
     //add process instance ids
     final List<String> historicProcessInstanceIds = commandContext.getHistoricProcessInstanceManager()
-        .findHistoricProcessInstanceIdsForCleanup(batchSize);
+        .findHistoricProcessInstanceIdsForCleanup(batchSize, minuteFrom, minuteTo);
     if (historicProcessInstanceIds.size() > 0) {
       historyCleanupBatch.setHistoricProcessInstanceIds(historicProcessInstanceIds);
     }
@@ -118,7 +160,7 @@ public abstract class HistoryCleanupHelper {
     //if batch is not full, add decision instance ids
     if (historyCleanupBatch.size() < batchSize && commandContext.getProcessEngineConfiguration().isDmnEnabled()) {
       final List<String> historicDecisionInstanceIds = commandContext.getHistoricDecisionInstanceManager()
-          .findHistoricDecisionInstanceIdsForCleanup(batchSize - historyCleanupBatch.size());
+          .findHistoricDecisionInstanceIdsForCleanup(batchSize - historyCleanupBatch.size(), minuteFrom, minuteTo);
       if (historicDecisionInstanceIds.size() > 0) {
         historyCleanupBatch.setHistoricDecisionInstanceIds(historicDecisionInstanceIds);
       }
@@ -127,7 +169,7 @@ public abstract class HistoryCleanupHelper {
     //if batch is not full, add case instance ids
     if (historyCleanupBatch.size() < batchSize && commandContext.getProcessEngineConfiguration().isCmmnEnabled()) {
       final List<String> historicCaseInstanceIds = commandContext.getHistoricCaseInstanceManager()
-          .findHistoricCaseInstanceIdsForCleanup(batchSize - historyCleanupBatch.size());
+          .findHistoricCaseInstanceIdsForCleanup(batchSize - historyCleanupBatch.size(), minuteFrom, minuteTo);
       if (historicCaseInstanceIds.size() > 0) {
         historyCleanupBatch.setHistoricCaseInstanceIds(historicCaseInstanceIds);
       }
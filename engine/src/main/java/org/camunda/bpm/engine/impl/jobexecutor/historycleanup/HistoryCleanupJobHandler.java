@@ -24,8 +24,8 @@ public class HistoryCleanupJobHandler implements JobHandler<HistoryCleanupJobHan
 
   @Override
   public void execute(HistoryCleanupJobHandlerConfiguration configuration, ExecutionEntity execution, CommandContext commandContext, String tenantId) {
-    //find JobEntity
-    JobEntity jobEntity = commandContext.getJobManager().findJobByHandlerType(getType());
+    //the job which is executed, there may be one job per partition of the historic data
+    JobEntity jobEntity = commandContext.getCurrentJob();
 
     boolean rescheduled = false;
 
@@ -33,21 +33,17 @@ public class HistoryCleanupJobHandler implements JobHandler<HistoryCleanupJobHan
         || (HistoryCleanupHelper.isBatchWindowConfigured(commandContext)
             && HistoryCleanupHelper.isWithinBatchWindow(ClockUtil.getCurrentTime(), commandContext)) ) {
       //find data to delete
-      final HistoryCleanupBatch nextBatch = HistoryCleanupHelper.getNextBatch(commandContext);
-      if (nextBatch.size() >= getBatchSizeThreshold(commandContext)) {
+      final HistoryCleanupBatch nextBatch = HistoryCleanupHelper.getNextBatch(commandContext, configuration);
 
-        //delete bunch of data
-        nextBatch.performCleanup();
+      //delete bunch of data, if there is something to delete
+      nextBatch.performCleanup();
 
+      if (nextBatch.size() >= getBatchSizeThreshold(commandContext)) {
         //reschedule now
         commandContext.getJobManager().reschedule(jobEntity, ClockUtil.getCurrentTime());
         rescheduled = true;
         cancelCountEmptyRuns(configuration, jobEntity);
       } else {
-        //still have something to delete
-        if (nextBatch.size() > 0) {
-          nextBatch.performCleanup();
-        }
         //not enough data for cleanup was found
         if (HistoryCleanupHelper.isWithinBatchWindow(ClockUtil.getCurrentTime(), commandContext)) {
           //reschedule after some delay
@@ -0,0 +1,244 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.json;
+
+import static org.camunda.bpm.engine.impl.util.JsonUtil.addArrayField;
+import static org.camunda.bpm.engine.impl.util.JsonUtil.addDefaultField;
+import static org.camunda.bpm.engine.impl.util.JsonUtil.addField;
+import static org.camunda.bpm.engine.impl.util.JsonUtil.addListField;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.ProcessInstanceQueryImpl;
+import org.camunda.bpm.engine.impl.QueryOperator;
+import org.camunda.bpm.engine.impl.QueryVariableValue;
+import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
+import org.camunda.bpm.engine.impl.util.JsonUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONArray;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+
+/**
+ * Converts the filter criteria of a process instance query to JSON and back, so that the
+ * query can be stored and executed later on, e.g. by a batch seed job. Ordering and pagination
+ * are not part of the JSON representation.
+ */
+public class JsonProcessInstanceQueryConverter extends JsonObjectConverter<ProcessInstanceQueryImpl> {
+
+  public static final JsonProcessInstanceQueryConverter INSTANCE = new JsonProcessInstanceQueryConverter();
+
+  public static final String PROCESS_INSTANCE_ID = "processInstanceId";
+  public static final String PROCESS_INSTANCE_IDS = "processInstanceIds";
+  public static final String BUSINESS_KEY = "businessKey";
+  public static final String BUSINESS_KEY_LIKE = "businessKeyLike";
+  public static final String PROCESS_DEFINITION_ID = "processDefinitionId";
+  public static final String PROCESS_DEFINITION_KEY = "processDefinitionKey";
+  public static final String DEPLOYMENT_ID = "deploymentId";
+  public static final String SUPER_PROCESS_INSTANCE_ID = "superProcessInstanceId";
+  public static final String SUB_PROCESS_INSTANCE_ID = "subProcessInstanceId";
+  public static final String SUSPENSION_STATE = "suspensionState";
+  public static final String INCIDENT_TYPE = "incidentType";
+  public static final String INCIDENT_ID = "incidentId";
+  public static final String INCIDENT_MESSAGE = "incidentMessage";
+  public static final String INCIDENT_MESSAGE_LIKE = "incidentMessageLike";
+  public static final String CASE_INSTANCE_ID = "caseInstanceId";
+  public static final String SUPER_CASE_INSTANCE_ID = "superCaseInstanceId";
+  public static final String SUB_CASE_INSTANCE_ID = "subCaseInstanceId";
+  public static final String ACTIVITY_ID_IN = "activityIdIn";
+  public static final String TENANT_IDS = "tenantIds";
+  public static final String WITHOUT_TENANT_ID = "withoutTenantId";
+  public static final String VARIABLES = "variables";
+  public static final String NAME = "name";
+  public static final String VALUE = "value";
+  public static final String OPERATOR = "operator";
+
+  /**
+   * @return true if all criteria of the given query survive the conversion to JSON. Variable
+   *   values are only supported for types which are read back from JSON as the same type.
+   */
+  public boolean isConvertible(ProcessInstanceQueryImpl query) {
+    for (QueryVariableValue variable : query.getQueryVariableValues()) {
+      Object value = variable.getValue();
+      if (value != null && !(value instanceof String) && !(value instanceof Boolean) && !(value instanceof Integer)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public JSONObject toJsonObject(ProcessInstanceQueryImpl query) {
+    JSONObject json = new JSONObject();
+
+    addField(json, PROCESS_INSTANCE_ID, query.getProcessInstanceId());
+    addListField(json, PROCESS_INSTANCE_IDS, query.getProcessInstanceIds());
+    addField(json, BUSINESS_KEY, query.getBusinessKey());
+    addField(json, BUSINESS_KEY_LIKE, query.getBusinessKeyLike());
+    addField(json, PROCESS_DEFINITION_ID, query.getProcessDefinitionId());
+    addField(json, PROCESS_DEFINITION_KEY, query.getProcessDefinitionKey());
+    addField(json, DEPLOYMENT_ID, query.getDeploymentId());
+    addField(json, SUPER_PROCESS_INSTANCE_ID, query.getSuperProcessInstanceId());
+    addField(json, SUB_PROCESS_INSTANCE_ID, query.getSubProcessInstanceId());
+    if (query.getSuspensionState() != null) {
+      addField(json, SUSPENSION_STATE, query.getSuspensionState().getStateCode());
+    }
+    addField(json, INCIDENT_TYPE, query.getIncidentType());
+    addField(json, INCIDENT_ID, query.getIncidentId());
+    addField(json, INCIDENT_MESSAGE, query.getIncidentMessage());
+    addField(json, INCIDENT_MESSAGE_LIKE, query.getIncidentMessageLike());
+    addField(json, CASE_INSTANCE_ID, query.getCaseInstanceId());
+    addField(json, SUPER_CASE_INSTANCE_ID, query.getSuperCaseInstanceId());
+    addField(json, SUB_CASE_INSTANCE_ID, query.getSubCaseInstanceId());
+    addArrayField(json, ACTIVITY_ID_IN, query.getActivityIds());
+    if (query.isTenantIdSet()) {
+      if (query.getTenantIds() != null) {
+        addArrayField(json, TENANT_IDS, query.getTenantIds());
+      }
+      else {
+        addDefaultField(json, WITHOUT_TENANT_ID, false, true);
+      }
+    }
+
+    List<QueryVariableValue> variables = query.getQueryVariableValues();
+    if (!variables.isEmpty()) {
+      JSONArray array = new JSONArray();
+      for (QueryVariableValue variable : variables) {
+        JSONObject variableJson = new JSONObject();
+        variableJson.put(NAME, variable.getName());
+        variableJson.put(VALUE, variable.getValue() != null ? variable.getValue() : JSONObject.NULL);
+        variableJson.put(OPERATOR, variable.getOperator().name());
+        array.put(variableJson);
+      }
+      json.put(VARIABLES, array);
+    }
+
+    return json;
+  }
+
+  public ProcessInstanceQueryImpl toObject(JSONObject json) {
+    ProcessInstanceQueryImpl query = new ProcessInstanceQueryImpl();
+
+    if (json.has(PROCESS_INSTANCE_ID)) {
+      query.processInstanceId(json.getString(PROCESS_INSTANCE_ID));
+    }
+    if (json.has(PROCESS_INSTANCE_IDS)) {
+      Set<String> processInstanceIds = new HashSet<String>();
+      for (Object processInstanceId : JsonUtil.jsonArrayAsList(json.getJSONArray(PROCESS_INSTANCE_IDS))) {
+        processInstanceIds.add((String) processInstanceId);
+      }
+      query.processInstanceIds(processInstanceIds);
+    }
+    if (json.has(BUSINESS_KEY)) {
+      query.processInstanceBusinessKey(json.getString(BUSINESS_KEY));
+    }
+    if (json.has(BUSINESS_KEY_LIKE)) {
+      query.processInstanceBusinessKeyLike(json.getString(BUSINESS_KEY_LIKE));
+    }
+    if (json.has(PROCESS_DEFINITION_ID)) {
+      query.processDefinitionId(json.getString(PROCESS_DEFINITION_ID));
+    }
+    if (json.has(PROCESS_DEFINITION_KEY)) {
+      query.processDefinitionKey(json.getString(PROCESS_DEFINITION_KEY));
+    }
+    if (json.has(DEPLOYMENT_ID)) {
+      query.deploymentId(json.getString(DEPLOYMENT_ID));
+    }
+    if (json.has(SUPER_PROCESS_INSTANCE_ID)) {
+      query.superProcessInstanceId(json.getString(SUPER_PROCESS_INSTANCE_ID));
+    }
+    if (json.has(SUB_PROCESS_INSTANCE_ID)) {
+      query.subProcessInstanceId(json.getString(SUB_PROCESS_INSTANCE_ID));
+    }
+    if (json.has(SUSPENSION_STATE)) {
+      int stateCode = json.getInt(SUSPENSION_STATE);
+      query.setSuspensionState(stateCode == SuspensionState.SUSPENDED.getStateCode() ? SuspensionState.SUSPENDED : SuspensionState.ACTIVE);
+    }
+    if (json.has(INCIDENT_TYPE)) {
+      query.incidentType(json.getString(INCIDENT_TYPE));
+    }
+    if (json.has(INCIDENT_ID)) {
+      query.incidentId(json.getString(INCIDENT_ID));
+    }
+    if (json.has(INCIDENT_MESSAGE)) {
+      query.incidentMessage(json.getString(INCIDENT_MESSAGE));
+    }
+    if (json.has(INCIDENT_MESSAGE_LIKE)) {
+      query.incidentMessageLike(json.getString(INCIDENT_MESSAGE_LIKE));
+    }
+    if (json.has(CASE_INSTANCE_ID)) {
+      query.caseInstanceId(json.getString(CASE_INSTANCE_ID));
+    }
+    if (json.has(SUPER_CASE_INSTANCE_ID)) {
+      query.superCaseInstanceId(json.getString(SUPER_CASE_INSTANCE_ID));
+    }
+    if (json.has(SUB_CASE_INSTANCE_ID)) {
+      query.subCaseInstanceId(json.getString(SUB_CASE_INSTANCE_ID));
+    }
+    if (json.has(ACTIVITY_ID_IN)) {
+      query.activityIdIn(getArray(json.getJSONArray(ACTIVITY_ID_IN)));
+    }
+    if (json.has(TENANT_IDS)) {
+      query.tenantIdIn(getArray(json.getJSONArray(TENANT_IDS)));
+    }
+    if (json.has(WITHOUT_TENANT_ID) && json.getBoolean(WITHOUT_TENANT_ID)) {
+      query.withoutTenantId();
+    }
+    if (json.has(VARIABLES)) {
+      JSONArray variables = json.getJSONArray(VARIABLES);
+      for (int i = 0; i < variables.length(); i++) {
+        addVariable(query, variables.getJSONObject(i));
+      }
+    }
+
+    return query;
+  }
+
+  protected void addVariable(ProcessInstanceQueryImpl query, JSONObject variable) {
+    String name = variable.getString(NAME);
+    Object value = JsonUtil.optJavaNull(variable.get(VALUE));
+    QueryOperator operator = QueryOperator.valueOf(variable.getString(OPERATOR));
+
+    switch (operator) {
+    case EQUALS:
+      query.variableValueEquals(name, value);
+      break;
+    case NOT_EQUALS:
+      query.variableValueNotEquals(name, value);
+      break;
+    case GREATER_THAN:
+      query.variableValueGreaterThan(name, value);
+      break;
+    case GREATER_THAN_OR_EQUAL:
+      query.variableValueGreaterThanOrEqual(name, value);
+      break;
+    case LESS_THAN:
+      query.variableValueLessThan(name, value);
+      break;
+    case LESS_THAN_OR_EQUAL:
+      query.variableValueLessThanOrEqual(name, value);
+      break;
+    case LIKE:
+      query.variableValueLike(name, (String) value);
+      break;
+    }
+  }
+
+  protected String[] getArray(JSONArray array) {
+    String[] values = new String[array.length()];
+    for (int i = 0; i < array.length(); i++) {
+      values[i] = array.getString(i);
+    }
+    return values;
+  }
+
+}
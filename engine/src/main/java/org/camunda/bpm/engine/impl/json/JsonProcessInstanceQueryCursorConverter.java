@@ -0,0 +1,87 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.camunda.bpm.engine.impl.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.batch.ProcessInstanceQueryCursor;
+import org.camunda.bpm.engine.impl.identity.Authentication;
+import org.camunda.bpm.engine.impl.util.JsonUtil;
+import org.camunda.bpm.engine.impl.util.json.JSONObject;
+
+public class JsonProcessInstanceQueryCursorConverter extends JsonObjectConverter<ProcessInstanceQueryCursor> {
+
+  public static final JsonProcessInstanceQueryCursorConverter INSTANCE = new JsonProcessInstanceQueryCursorConverter();
+
+  public static final String QUERY = "query";
+  public static final String STARTED_BEFORE = "startedBefore";
+  public static final String LAST_PROCESS_INSTANCE_ID = "lastProcessInstanceId";
+  public static final String AUTHENTICATED_USER_ID = "authenticatedUserId";
+  public static final String AUTHENTICATED_GROUP_IDS = "authenticatedGroupIds";
+  public static final String AUTHENTICATED_TENANT_IDS = "authenticatedTenantIds";
+
+  public JSONObject toJsonObject(ProcessInstanceQueryCursor cursor) {
+    JSONObject json = new JSONObject();
+
+    JsonUtil.addField(json, QUERY, JsonProcessInstanceQueryConverter.INSTANCE, cursor.getQuery());
+    JsonUtil.addDateField(json, STARTED_BEFORE, cursor.getStartedBefore());
+    JsonUtil.addField(json, LAST_PROCESS_INSTANCE_ID, cursor.getLastProcessInstanceId());
+
+    Authentication authentication = cursor.getAuthentication();
+    if (authentication != null) {
+      JsonUtil.addField(json, AUTHENTICATED_USER_ID, authentication.getUserId());
+      if (authentication.getGroupIds() != null) {
+        JsonUtil.addListField(json, AUTHENTICATED_GROUP_IDS, authentication.getGroupIds());
+      }
+      if (authentication.getTenantIds() != null) {
+        JsonUtil.addListField(json, AUTHENTICATED_TENANT_IDS, authentication.getTenantIds());
+      }
+    }
+
+    return json;
+  }
+
+  public ProcessInstanceQueryCursor toObject(JSONObject json) {
+    Authentication authentication = null;
+    if (json.has(AUTHENTICATED_USER_ID)) {
+      authentication = new Authentication(json.getString(AUTHENTICATED_USER_ID),
+          readStringList(json, AUTHENTICATED_GROUP_IDS), readStringList(json, AUTHENTICATED_TENANT_IDS));
+    }
+
+    ProcessInstanceQueryCursor cursor = new ProcessInstanceQueryCursor(
+        JsonProcessInstanceQueryConverter.INSTANCE.toObject(json.getJSONObject(QUERY)),
+        JsonUtil.getDateField(json, STARTED_BEFORE),
+        authentication);
+
+    if (json.has(LAST_PROCESS_INSTANCE_ID)) {
+      cursor.setLastProcessInstanceId(json.getString(LAST_PROCESS_INSTANCE_ID));
+    }
+
+    return cursor;
+  }
+
+  protected List<String> readStringList(JSONObject json, String name) {
+    if (!json.has(name)) {
+      return null;
+    }
+    List<String> values = new ArrayList<String>();
+    for (Object value : JsonUtil.jsonArrayAsList(json.getJSONArray(name))) {
+      values.add((String) value);
+    }
+    return values;
+  }
+
+}
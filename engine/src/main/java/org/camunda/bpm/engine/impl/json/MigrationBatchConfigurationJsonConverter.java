@@ -28,6 +28,7 @@ public class MigrationBatchConfigurationJsonConverter extends JsonObjectConverte
   public static final String PROCESS_INSTANCE_IDS = "processInstanceIds";
   public static final String SKIP_LISTENERS = "skipListeners";
   public static final String SKIP_IO_MAPPINGS = "skipIoMappings";
+  public static final String PROCESS_INSTANCE_QUERY_CURSOR = "processInstanceQueryCursor";
 
   public JSONObject toJsonObject(MigrationBatchConfiguration configuration) {
     JSONObject json = new JSONObject();
@@ -36,6 +37,7 @@ public class MigrationBatchConfigurationJsonConverter extends JsonObjectConverte
     JsonUtil.addListField(json, PROCESS_INSTANCE_IDS, configuration.getIds());
     JsonUtil.addField(json, SKIP_LISTENERS, configuration.isSkipCustomListeners());
     JsonUtil.addField(json, SKIP_IO_MAPPINGS, configuration.isSkipIoMappings());
+    JsonUtil.addField(json, PROCESS_INSTANCE_QUERY_CURSOR, JsonProcessInstanceQueryCursorConverter.INSTANCE, configuration.getProcessInstanceQueryCursor());
 
     return json;
   }
@@ -47,6 +49,10 @@ public class MigrationBatchConfigurationJsonConverter extends JsonObjectConverte
     configuration.setSkipCustomListeners(json.getBoolean(SKIP_LISTENERS));
     configuration.setSkipIoMappings(json.getBoolean(SKIP_IO_MAPPINGS));
 
+    if (json.has(PROCESS_INSTANCE_QUERY_CURSOR)) {
+      configuration.setProcessInstanceQueryCursor(JsonProcessInstanceQueryCursorConverter.INSTANCE.toObject(json.getJSONObject(PROCESS_INSTANCE_QUERY_CURSOR)));
+    }
+
     return configuration;
   }
 
@@ -0,0 +1,116 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Records the distribution of non-negative values, e.g. durations in milliseconds,
+ * without locking.</p>
+ *
+ * <p>Values are counted in buckets which subdivide every power of two into four buckets
+ * of the same width, so that percentiles can be estimated with a relative error of at most
+ * 25 percent. Values below four are counted exactly.</p>
+ */
+public class Histogram {
+
+  protected static final int SUB_BUCKET_BITS = 2;
+  protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  protected static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+  protected String name;
+
+  protected AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  protected AtomicLong count = new AtomicLong();
+  protected AtomicLong sum = new AtomicLong();
+  protected AtomicLong max = new AtomicLong();
+
+  public Histogram(String name) {
+    this.name = name;
+  }
+
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+
+    buckets.incrementAndGet(bucketIndex(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * @return the values recorded so far
+   */
+  public HistogramSnapshot snapshot() {
+    long[] bucketCounts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      bucketCounts[i] = buckets.get(i);
+    }
+    return new HistogramSnapshot(name, bucketCounts, count.get(), sum.get(), max.get());
+  }
+
+  /**
+   * @return the values recorded so far; the histogram starts a new interval afterwards.
+   *   Values recorded concurrently are either part of the returned snapshot or of the next interval.
+   */
+  public HistogramSnapshot getAndClear() {
+    long[] bucketCounts = new long[BUCKET_COUNT];
+    long totalCount = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      bucketCounts[i] = buckets.getAndSet(i, 0);
+      totalCount += bucketCounts[i];
+    }
+    // counts of the buckets are authoritative, the other fields may be slightly off
+    count.getAndSet(0);
+    return new HistogramSnapshot(name, bucketCounts, totalCount, sum.getAndSet(0), max.getAndSet(0));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  protected static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * @return the largest value counted in the bucket with the given index
+   */
+  protected static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+    int subBucket = index % SUB_BUCKET_COUNT;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lowerBound = (SUB_BUCKET_COUNT + subBucket) * width;
+    return lowerBound + width - 1;
+  }
+
+}
@@ -0,0 +1,91 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.metrics;
+
+import java.io.Serializable;
+
+import org.camunda.bpm.engine.management.MetricsHistogram;
+
+/**
+ * Immutable copy of the values recorded by a {@link Histogram}.
+ */
+public class HistogramSnapshot implements MetricsHistogram, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String name;
+  protected long[] bucketCounts;
+  protected long count;
+  protected long sum;
+  protected long max;
+
+  public HistogramSnapshot(String name, long[] bucketCounts, long count, long sum, long max) {
+    this.name = name;
+    this.bucketCounts = bucketCounts;
+    this.count = count;
+    this.sum = sum;
+    this.max = max;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public double getMean() {
+    return count > 0 ? (double) sum / count : 0;
+  }
+
+  public long getValueAtPercentile(double percentile) {
+    long totalCount = 0;
+    for (long bucketCount : bucketCounts) {
+      totalCount += bucketCount;
+    }
+    if (totalCount == 0) {
+      return 0;
+    }
+
+    long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * totalCount);
+    rank = Math.max(1, rank);
+
+    long countedValues = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      countedValues += bucketCounts[i];
+      if (countedValues >= rank) {
+        return Math.min(Histogram.bucketUpperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  public String toString() {
+    return "HistogramSnapshot["
+        + "name=" + name
+        + ", count=" + count
+        + ", sum=" + sum
+        + ", max=" + max
+        + "]";
+  }
+
+}
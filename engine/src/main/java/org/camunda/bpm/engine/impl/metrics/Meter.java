@@ -12,17 +12,28 @@
  */
 package org.camunda.bpm.engine.impl.metrics;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * A Meter implementation based on AtomicLong
+ * <p>A Meter implementation based on striped counters.</p>
+ *
+ * <p>Concurrent threads increment different counters which are spread across separate
+ * cache lines, so that frequently marked meters (e.g. activity instance starts) do not
+ * become a point of contention. Reading the meter sums up all counters.</p>
  *
  * @author Daniel Meyer
  *
  */
 public class Meter {
 
-  protected AtomicLong counter = new AtomicLong(0);
+  /**
+   * Distance between two counters in the array, so that each counter occupies its own cache line
+   */
+  protected static final int PADDING = 8;
+
+  protected static final int NUMBER_OF_STRIPES = numberOfStripes();
+
+  protected AtomicLongArray counters = new AtomicLongArray(NUMBER_OF_STRIPES * PADDING);
 
   protected String name;
 
@@ -31,11 +42,11 @@ public class Meter {
   }
 
   public void mark() {
-    counter.incrementAndGet();
+    markTimes(1);
   }
 
   public void markTimes(long times) {
-    counter.addAndGet(times);
+    counters.addAndGet(stripeIndex(), times);
   }
 
   public String getName() {
@@ -47,11 +58,35 @@ public class Meter {
   }
 
   public long getAndClear() {
-    return counter.getAndSet(0);
+    long value = 0;
+    for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+      value += counters.getAndSet(i * PADDING, 0);
+    }
+    return value;
   }
 
   public long get() {
-    return counter.get();
+    long value = 0;
+    for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+      value += counters.get(i * PADDING);
+    }
+    return value;
+  }
+
+  protected int stripeIndex() {
+    long threadId = Thread.currentThread().getId();
+    // spread sequential thread ids
+    int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+    return ((hash >>> 16) & (NUMBER_OF_STRIPES - 1)) * PADDING;
+  }
+
+  protected static int numberOfStripes() {
+    // the next power of two of twice the number of processors
+    int stripes = 1;
+    while (stripes < 2 * Runtime.getRuntime().availableProcessors() && stripes < 64) {
+      stripes <<= 1;
+    }
+    return stripes;
   }
 
 }
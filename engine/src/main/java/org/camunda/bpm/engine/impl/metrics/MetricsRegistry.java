@@ -12,8 +12,8 @@
  */
 package org.camunda.bpm.engine.impl.metrics;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Daniel Meyer
@@ -21,7 +21,9 @@ import java.util.Map;
  */
 public class MetricsRegistry {
 
-  protected Map<String, Meter> meters = new HashMap<String, Meter>();
+  protected Map<String, Meter> meters = new ConcurrentHashMap<String, Meter>();
+
+  protected Map<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
 
   public Meter getMeterByName(String name) {
     return meters.get(name);
@@ -49,4 +51,26 @@ public class MetricsRegistry {
     return meter;
   }
 
+  public Histogram getHistogramByName(String name) {
+    return histograms.get(name);
+  }
+
+  public Map<String, Histogram> getHistograms() {
+    return histograms;
+  }
+
+  public void recordValue(String name, long value) {
+    Histogram histogram = histograms.get(name);
+
+    if (histogram != null) {
+      histogram.record(value);
+    }
+  }
+
+  public Histogram createHistogram(String name) {
+    Histogram histogram = new Histogram(name);
+    histograms.put(name, histogram);
+    return histogram;
+  }
+
 }
@@ -20,6 +20,8 @@ import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.metrics.Histogram;
+import org.camunda.bpm.engine.impl.metrics.HistogramSnapshot;
 import org.camunda.bpm.engine.impl.metrics.Meter;
 import org.camunda.bpm.engine.impl.metrics.MetricsLogger;
 import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
@@ -35,6 +37,8 @@ public class MetricsCollectionTask extends TimerTask {
 
   private final static MetricsLogger LOG = ProcessEngineLogger.METRICS_LOGGER;
 
+  public static final String HISTOGRAM_COUNT_SUFFIX = "-count";
+
   protected MetricsRegistry metricsRegistry;
   protected CommandExecutor commandExecutor;
   protected String reporterId = null;
@@ -69,6 +73,10 @@ public class MetricsCollectionTask extends TimerTask {
 
     }
 
+    for (Histogram histogram : metricsRegistry.getHistograms().values()) {
+      addHistogramLog(logs, histogram.getAndClear());
+    }
+
     commandExecutor.execute(new Command<Void>() {
 
       public Void execute(CommandContext commandContext) {
@@ -80,6 +88,24 @@ public class MetricsCollectionTask extends TimerTask {
     });
   }
 
+  /**
+   * Reports the number of values recorded in this interval as metric, e.g. <code>command-duration-count</code>.
+   * Only the count is written to the meter log, since the metrics query sums up the logged values; the
+   * percentiles and the maximum are not summable and are provided by
+   * {@link org.camunda.bpm.engine.ManagementService#getMetricsHistograms()} instead.
+   * Nothing is reported for intervals without values.
+   */
+  protected void addHistogramLog(List<MeterLogEntity> logs, HistogramSnapshot histogram) {
+    if (histogram.getCount() == 0) {
+      return;
+    }
+
+    logs.add(new MeterLogEntity(histogram.getName() + HISTOGRAM_COUNT_SUFFIX,
+        reporterId,
+        histogram.getCount(),
+        ClockUtil.getCurrentTime()));
+  }
+
   public String getReporter() {
     return reporterId;
   }
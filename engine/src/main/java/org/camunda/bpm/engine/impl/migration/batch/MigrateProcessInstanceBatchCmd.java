@@ -20,6 +20,7 @@ import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.batch.BatchEntity;
 import org.camunda.bpm.engine.impl.batch.BatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.ProcessInstanceQueryCursor;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.migration.AbstractMigrationCmd;
@@ -30,6 +31,7 @@ import org.camunda.bpm.engine.migration.MigrationPlan;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotContainsNull;
 import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotEmpty;
@@ -47,9 +49,14 @@ public class MigrateProcessInstanceBatchCmd extends AbstractMigrationCmd<Batch>
   public Batch execute(CommandContext commandContext) {
 
     MigrationPlan migrationPlan = executionBuilder.getMigrationPlan();
+    ensureNotNull(BadUserRequestException.class, "Migration plan cannot be null", "migration plan", migrationPlan);
+
+    if (ProcessInstanceQueryCursor.isApplicable(commandContext, executionBuilder.getProcessInstanceQuery(), executionBuilder.getProcessInstanceIds())) {
+      return createBatchFromQuery(commandContext, migrationPlan);
+    }
+
     Collection<String> processInstanceIds = collectProcessInstanceIds(commandContext);
 
-    ensureNotNull(BadUserRequestException.class, "Migration plan cannot be null", "migration plan", migrationPlan);
     ensureNotEmpty(BadUserRequestException.class, "Process instance ids cannot empty", "process instance ids", processInstanceIds);
     ensureNotContainsNull(BadUserRequestException.class, "Process instance ids cannot be null", "process instance ids", processInstanceIds);
 
@@ -68,6 +75,62 @@ public class MigrateProcessInstanceBatchCmd extends AbstractMigrationCmd<Batch>
 
     BatchEntity batch = createBatch(commandContext, migrationPlan, processInstanceIds, sourceProcessDefinition);
 
+    startBatch(batch);
+
+    return batch;
+  }
+
+  /**
+   * Stores the process instance query in the batch instead of the ids it yields.
+   * The seed job pages through the query results.
+   */
+  protected Batch createBatchFromQuery(CommandContext commandContext, MigrationPlan migrationPlan) {
+    ProcessInstanceQueryCursor cursor = ProcessInstanceQueryCursor.create(commandContext, executionBuilder.getProcessInstanceQuery());
+
+    long numberOfInstances = cursor.count();
+    if (numberOfInstances == 0) {
+      throw new BadUserRequestException("Process instance ids cannot empty: process instance ids is empty");
+    }
+
+    ProcessDefinitionEntity sourceProcessDefinition = resolveSourceProcessDefinition(commandContext);
+    ProcessDefinitionEntity targetProcessDefinition = resolveTargetProcessDefinition(commandContext);
+
+    checkAuthorizations(commandContext,
+        sourceProcessDefinition,
+        targetProcessDefinition,
+        Collections.<String>emptyList());
+    writeUserOperationLog(commandContext,
+        sourceProcessDefinition,
+        targetProcessDefinition,
+        (int) numberOfInstances,
+        true);
+
+    MigrationBatchConfiguration configuration = new MigrationBatchConfiguration(
+        new ArrayList<String>(),
+        migrationPlan,
+        executionBuilder.isSkipCustomListeners(),
+        executionBuilder.isSkipIoMappings());
+    configuration.setProcessInstanceQueryCursor(cursor);
+
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+    BatchJobHandler<MigrationBatchConfiguration> batchJobHandler = getBatchJobHandler(processEngineConfiguration);
+    int invocationsPerBatchJob = processEngineConfiguration.getInvocationsPerBatchJob();
+
+    BatchEntity batch = new BatchEntity();
+    batch.setType(batchJobHandler.getType());
+    batch.setTotalJobs((int) ((numberOfInstances + invocationsPerBatchJob - 1) / invocationsPerBatchJob));
+    batch.setBatchJobsPerSeed(processEngineConfiguration.getBatchJobsPerSeed());
+    batch.setInvocationsPerBatchJob(invocationsPerBatchJob);
+    batch.setConfigurationBytes(batchJobHandler.writeConfiguration(configuration));
+    batch.setTenantId(sourceProcessDefinition.getTenantId());
+    commandContext.getBatchManager().insert(batch);
+
+    startBatch(batch);
+
+    return batch;
+  }
+
+  protected void startBatch(BatchEntity batch) {
     batch.createSeedJobDefinition();
     batch.createMonitorJobDefinition();
     batch.createBatchJobDefinition();
@@ -75,8 +138,6 @@ public class MigrateProcessInstanceBatchCmd extends AbstractMigrationCmd<Batch>
     batch.fireHistoricStartEvent();
 
     batch.createSeedJob();
-
-    return batch;
   }
 
   @Override
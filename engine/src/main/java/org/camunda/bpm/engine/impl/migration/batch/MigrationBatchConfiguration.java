@@ -14,6 +14,7 @@
 package org.camunda.bpm.engine.impl.migration.batch;
 
 import org.camunda.bpm.engine.impl.batch.BatchConfiguration;
+import org.camunda.bpm.engine.impl.batch.ProcessInstanceQueryCursor;
 import org.camunda.bpm.engine.migration.MigrationPlan;
 
 import java.util.List;
@@ -24,6 +25,9 @@ public class MigrationBatchConfiguration extends BatchConfiguration {
   protected boolean isSkipCustomListeners;
   protected boolean isSkipIoMappings;
 
+  /** if set, the seed job pages through the results of this query instead of the ids */
+  protected ProcessInstanceQueryCursor processInstanceQueryCursor;
+
   public MigrationBatchConfiguration(List<String> ids) {
     super(ids);
   }
@@ -62,5 +66,12 @@ public class MigrationBatchConfiguration extends BatchConfiguration {
     this.isSkipIoMappings = isSkipIoMappings;
   }
 
+  public ProcessInstanceQueryCursor getProcessInstanceQueryCursor() {
+    return processInstanceQueryCursor;
+  }
+
+  public void setProcessInstanceQueryCursor(ProcessInstanceQueryCursor processInstanceQueryCursor) {
+    this.processInstanceQueryCursor = processInstanceQueryCursor;
+  }
 
 }
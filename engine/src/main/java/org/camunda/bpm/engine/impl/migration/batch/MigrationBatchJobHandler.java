@@ -14,9 +14,13 @@ package org.camunda.bpm.engine.impl.migration.batch;
 
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.impl.batch.AbstractBatchJobHandler;
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.batch.BatchEntity;
 import org.camunda.bpm.engine.impl.batch.BatchJobConfiguration;
 import org.camunda.bpm.engine.impl.batch.BatchJobContext;
 import org.camunda.bpm.engine.impl.batch.BatchJobDeclaration;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.batch.ProcessInstanceQueryCursor;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.JobDeclaration;
@@ -29,6 +33,7 @@ import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.camunda.bpm.engine.migration.MigrationPlanExecutionBuilder;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -51,6 +56,32 @@ public class MigrationBatchJobHandler extends AbstractBatchJobHandler<MigrationB
     return MigrationBatchConfigurationJsonConverter.INSTANCE;
   }
 
+  @Override
+  protected BatchConfigurationCodec<MigrationBatchConfiguration> createCompactConfigurationCodec() {
+    return new CompactBatchConfigurationCodec<MigrationBatchConfiguration>(getJsonConverterInstance(), MigrationBatchConfigurationJsonConverter.PROCESS_INSTANCE_IDS);
+  }
+
+  @Override
+  public boolean createJobs(BatchEntity batch) {
+    MigrationBatchConfiguration configuration = readConfiguration(batch.getConfigurationBytes());
+
+    ProcessInstanceQueryCursor cursor = configuration.getProcessInstanceQueryCursor();
+    if (cursor == null) {
+      return super.createJobs(batch);
+    }
+
+    int pageSize = batch.getInvocationsPerBatchJob() * batch.getBatchJobsPerSeed();
+    List<String> processInstanceIds = cursor.nextPage(Context.getCommandContext(), pageSize);
+
+    // the jobs of the page are created like for a list of ids, which
+    // also writes the configuration with the new position of the cursor
+    configuration.setIds(new ArrayList<String>(processInstanceIds));
+    batch.setConfigurationBytes(writeConfiguration(configuration));
+    super.createJobs(batch);
+
+    return processInstanceIds.size() < pageSize;
+  }
+
   @Override
   protected MigrationBatchConfiguration createJobConfiguration(MigrationBatchConfiguration configuration, List<String> processIdsForJob) {
     return new MigrationBatchConfiguration(
@@ -0,0 +1,26 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+/**
+ * Is notified when a {@link WeightedLruCache} evicts an entry to stay within its bounds.
+ * Entries which are explicitly removed or cleared are not reported.
+ */
+public interface CacheEvictionListener<K, V> {
+
+  /**
+   * Called while holding the lock of the cache, so implementations must not access the cache.
+   */
+  void entryEvicted(K key, V value);
+
+}
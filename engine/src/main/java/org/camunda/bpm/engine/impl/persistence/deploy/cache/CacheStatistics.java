@@ -0,0 +1,111 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * Counts the accesses, loads and evictions of a deployment cache since it was created.
+ */
+public class CacheStatistics {
+
+  protected final AtomicLong hitCount = new AtomicLong();
+  protected final AtomicLong missCount = new AtomicLong();
+  protected final AtomicLong loadCount = new AtomicLong();
+  protected final AtomicLong totalLoadTime = new AtomicLong();
+  protected final AtomicLong evictionCount = new AtomicLong();
+
+  public void recordHit() {
+    hitCount.incrementAndGet();
+  }
+
+  public void recordMiss() {
+    missCount.incrementAndGet();
+  }
+
+  /**
+   * @param loadTime the time in milliseconds it took to parse or read the loaded value
+   */
+  public void recordLoad(long loadTime) {
+    loadCount.incrementAndGet();
+    totalLoadTime.addAndGet(loadTime);
+  }
+
+  public void recordEviction() {
+    evictionCount.incrementAndGet();
+  }
+
+  /**
+   * Records a load of a value of the given cache in its statistics, if it keeps any,
+   * and in the {@link Metrics#DEPLOYMENT_CACHE_LOAD_TIME} histogram of the current engine.
+   */
+  public static void recordLoad(Cache<?, ?> cache, long loadTime) {
+    if (cache instanceof WeightedLruCache) {
+      ((WeightedLruCache<?, ?>) cache).getStatistics().recordLoad(loadTime);
+    }
+
+    MetricsRegistry metricsRegistry = getMetricsRegistry();
+    if (metricsRegistry != null) {
+      metricsRegistry.recordValue(Metrics.DEPLOYMENT_CACHE_LOAD_TIME, loadTime);
+    }
+  }
+
+  /**
+   * Marks a lookup of a definition or model instance in the {@link Metrics#DEPLOYMENT_CACHE_HIT}
+   * or {@link Metrics#DEPLOYMENT_CACHE_MISS} meter of the current engine.
+   */
+  public static void recordLookup(boolean hit) {
+    MetricsRegistry metricsRegistry = getMetricsRegistry();
+    if (metricsRegistry != null) {
+      metricsRegistry.markOccurrence(hit ? Metrics.DEPLOYMENT_CACHE_HIT : Metrics.DEPLOYMENT_CACHE_MISS);
+    }
+  }
+
+  /**
+   * @return the metrics registry of the current engine or null if metrics are disabled
+   */
+  protected static MetricsRegistry getMetricsRegistry() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration != null && processEngineConfiguration.isMetricsEnabled()) {
+      return processEngineConfiguration.getMetricsRegistry();
+    }
+    return null;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getLoadCount() {
+    return loadCount.get();
+  }
+
+  public long getTotalLoadTime() {
+    return totalLoadTime.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+}
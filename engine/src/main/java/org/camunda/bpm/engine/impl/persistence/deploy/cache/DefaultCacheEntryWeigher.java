@@ -0,0 +1,55 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import org.camunda.bpm.engine.impl.core.model.CoreActivity;
+import org.camunda.bpm.model.xml.ModelInstance;
+import org.camunda.bpm.model.xml.instance.DomElement;
+
+/**
+ * <p>Weighs parsed process and case definitions by their number of activities and
+ * model instances by their number of XML elements, so that a large model takes up
+ * a correspondingly large share of the cache. Other values weigh 1.</p>
+ */
+public class DefaultCacheEntryWeigher implements CacheEntryWeigher {
+
+  public long weigh(Object value) {
+    if (value instanceof CoreActivity) {
+      return countActivities((CoreActivity) value);
+    }
+    else if (value instanceof ModelInstance) {
+      DomElement rootElement = ((ModelInstance) value).getDocument().getRootElement();
+      return rootElement != null ? countElements(rootElement) : 1;
+    }
+    else {
+      return 1;
+    }
+  }
+
+  protected long countActivities(CoreActivity activity) {
+    long count = 1;
+    for (CoreActivity childActivity : activity.getActivities()) {
+      count += countActivities(childActivity);
+    }
+    return count;
+  }
+
+  protected long countElements(DomElement element) {
+    long count = 1;
+    for (DomElement childElement : element.getChildElements()) {
+      count += countElements(childElement);
+    }
+    return count;
+  }
+
+}
@@ -22,6 +22,7 @@ import org.camunda.bpm.engine.impl.dmn.entity.repository.DecisionRequirementsDef
 import org.camunda.bpm.engine.impl.persistence.deploy.Deployer;
 import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
 import org.camunda.bpm.engine.repository.DecisionDefinition;
 import org.camunda.bpm.engine.repository.DecisionRequirementsDefinition;
 import org.camunda.bpm.model.bpmn.BpmnModelInstance;
@@ -29,6 +30,7 @@ import org.camunda.bpm.model.cmmn.CmmnModelInstance;
 import org.camunda.bpm.model.dmn.DmnModelInstance;
 import org.camunda.commons.utils.cache.Cache;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -61,6 +63,38 @@ public class DeploymentCache {
 
   public void deploy(final DeploymentEntity deployment) {
     cacheDeployer.deploy(deployment);
+
+    if (deployment.isNew()) {
+      // new versions supersede the indexed latest versions of their keys
+      processDefinitionEntityCache.invalidateLatestDefinitions(deployment.getDeployedArtifacts(ProcessDefinitionEntity.class));
+      caseDefinitionCache.invalidateLatestDefinitions(deployment.getDeployedArtifacts(CaseDefinitionEntity.class));
+      decisionDefinitionCache.invalidateLatestDefinitions(deployment.getDeployedArtifacts(DecisionDefinitionEntity.class));
+      decisionRequirementsDefinitionCache.invalidateLatestDefinitions(deployment.getDeployedArtifacts(DecisionRequirementsDefinitionEntity.class));
+    }
+  }
+
+  /**
+   * Enables resolving the latest definition versions by key from the cache without
+   * querying the database.
+   *
+   * @param timeToLive the time in milliseconds after which an indexed latest version
+   *   is queried again, which bounds how long deployments of other cluster nodes go unnoticed
+   */
+  public void enableLatestDefinitionIndex(long timeToLive) {
+    processDefinitionEntityCache.setLatestDefinitionIndex(new LatestDefinitionIndex(timeToLive));
+    caseDefinitionCache.setLatestDefinitionIndex(new LatestDefinitionIndex(timeToLive));
+    decisionDefinitionCache.setLatestDefinitionIndex(new LatestDefinitionIndex(timeToLive));
+    decisionRequirementsDefinitionCache.setLatestDefinitionIndex(new LatestDefinitionIndex(timeToLive));
+  }
+
+  /**
+   * Retains the parsed process definitions which are evicted from the cache as long as
+   * the heap permits, so that they are restored without parsing their resources again.
+   *
+   * @param capacity the maximum number of evicted process definitions which are retained
+   */
+  public void enableProcessDefinitionRetention(int capacity) {
+    processDefinitionEntityCache.setRetainedDefinitions(new RetainedDefinitions<ProcessDefinitionEntity>(capacity));
   }
 
   // PROCESS DEFINITION ////////////////////////////////////////////////////////////////////////////////
@@ -118,6 +152,14 @@ public class DeploymentCache {
     bpmnModelInstanceCache.remove(processDefinitionId);
   }
 
+  /**
+   * Must be called when the suspension state or other modifiable fields of
+   * process definitions are changed.
+   */
+  public void invalidateLatestProcessDefinitions() {
+    processDefinitionEntityCache.invalidateLatestDefinitions();
+  }
+
   public void discardProcessDefinitionCache() {
     processDefinitionEntityCache.clear();
     bpmnModelInstanceCache.clear();
@@ -230,6 +272,13 @@ public class DeploymentCache {
     dmnModelInstanceCache.remove(decisionDefinitionId);
   }
 
+  /**
+   * Must be called when modifiable fields of decision definitions are changed.
+   */
+  public void invalidateLatestDecisionDefinitions() {
+    decisionDefinitionCache.invalidateLatestDefinitions();
+  }
+
   public void discardDecisionDefinitionCache() {
     decisionDefinitionCache.clear();
     dmnModelInstanceCache.clear();
@@ -319,6 +368,22 @@ public class DeploymentCache {
     }
   }
 
+  /**
+   * @return the statistics of the caches, which include hits, misses, loads and evictions
+   *   if the caches were created by a {@link WeightedCacheFactory}
+   */
+  public List<DeploymentCacheStatistics> getStatistics() {
+    List<DeploymentCacheStatistics> statistics = new ArrayList<DeploymentCacheStatistics>();
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.PROCESS_DEF_CACHE, getProcessDefinitionCache()));
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.BPMN_MODEL_INST_CACHE, getBpmnModelInstanceCache()));
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.CASE_DEF_CACHE, getCaseDefinitionCache()));
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.CASE_MODEL_INST_CACHE, getCmmnModelInstanceCache()));
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.DMN_DEF_CACHE, getDecisionDefinitionCache()));
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.DMN_MODEL_INST_CACHE, getDmnDefinitionCache()));
+    statistics.add(new DeploymentCacheStatisticsImpl(CachePurgeReport.DMN_REQ_DEF_CACHE, getDecisionRequirementsDefinitionCache()));
+    return statistics;
+  }
+
   public CachePurgeReport purgeCache() {
 
     CachePurgeReport result = new CachePurgeReport();
@@ -327,6 +392,7 @@ public class DeploymentCache {
       result.addPurgeInformation(CachePurgeReport.PROCESS_DEF_CACHE, processDefinitionCache.keySet());
       processDefinitionCache.clear();
     }
+    processDefinitionEntityCache.clearRetainedDefinitions();
 
     Cache<String, BpmnModelInstance> bpmnModelInstanceCache = getBpmnModelInstanceCache();
     if (!bpmnModelInstanceCache.isEmpty()) {
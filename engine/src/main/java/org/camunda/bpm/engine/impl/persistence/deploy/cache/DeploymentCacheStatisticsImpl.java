@@ -0,0 +1,94 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * Snapshot of the {@link CacheStatistics} of a deployment cache.
+ */
+public class DeploymentCacheStatisticsImpl implements DeploymentCacheStatistics {
+
+  protected String name;
+  protected int size;
+  protected long weight = -1;
+  protected long hitCount = -1;
+  protected long missCount = -1;
+  protected long loadCount = -1;
+  protected long totalLoadTime = -1;
+  protected long evictionCount = -1;
+
+  public DeploymentCacheStatisticsImpl(String name, Cache<?, ?> cache) {
+    this.name = name;
+    this.size = cache.size();
+
+    if (cache instanceof WeightedLruCache) {
+      WeightedLruCache<?, ?> weightedCache = (WeightedLruCache<?, ?>) cache;
+      CacheStatistics statistics = weightedCache.getStatistics();
+
+      weight = weightedCache.getWeight();
+      hitCount = statistics.getHitCount();
+      missCount = statistics.getMissCount();
+      loadCount = statistics.getLoadCount();
+      totalLoadTime = statistics.getTotalLoadTime();
+      evictionCount = statistics.getEvictionCount();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long getWeight() {
+    return weight;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getLoadCount() {
+    return loadCount;
+  }
+
+  public long getTotalLoadTime() {
+    return totalLoadTime;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public String toString() {
+    return "DeploymentCacheStatisticsImpl [name=" + name
+        + ", size=" + size
+        + ", weight=" + weight
+        + ", hitCount=" + hitCount
+        + ", missCount=" + missCount
+        + ", loadCount=" + loadCount
+        + ", totalLoadTime=" + totalLoadTime
+        + ", evictionCount=" + evictionCount
+        + "]";
+  }
+
+}
@@ -0,0 +1,117 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Node-local index of values which are derived from deployed definitions and would otherwise
+ * be queried from the database. Entries are {@link #invalidate(Object) invalidated} when the
+ * definitions change on this node. Since changes on other nodes of a cluster are not noticed,
+ * entries expire after the configured {@link #getTimeToLive() time to live}.</p>
+ *
+ * <p>Readers which queried a value from the database pass the {@link #getGeneration() generation}
+ * they observed before the query to {@link #put(Object, Object, long)}, so that a result which was
+ * read before an invalidation is not indexed afterwards.</p>
+ *
+ * @see ExpiringIndexInvalidation
+ */
+public class ExpiringIndex<K, V> {
+
+  protected final long timeToLive;
+
+  protected final ConcurrentMap<K, IndexEntry<V>> entries = new ConcurrentHashMap<K, IndexEntry<V>>();
+
+  protected final AtomicLong generation = new AtomicLong();
+
+  /**
+   * @param timeToLive the time in milliseconds after which an entry expires
+   */
+  public ExpiringIndex(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * @return the indexed value or null if it is not indexed or the entry expired
+   */
+  protected V get(K key, long now) {
+    IndexEntry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    else if (now - entry.indexTime >= timeToLive) {
+      entries.remove(key, entry);
+      return null;
+    }
+    else {
+      return entry.value;
+    }
+  }
+
+  protected void put(K key, V value, long observedGeneration) {
+    if (observedGeneration == generation.get()) {
+      entries.put(key, new IndexEntry<V>(value, System.currentTimeMillis()));
+    }
+  }
+
+  /**
+   * @return the value which is indexed for the key after the call, or null if the
+   *   key was invalidated after the given generation was observed
+   */
+  protected V putIfAbsent(K key, V value, long observedGeneration) {
+    V indexedValue = get(key, System.currentTimeMillis());
+    if (indexedValue != null) {
+      return indexedValue;
+    }
+
+    if (observedGeneration == generation.get()) {
+      IndexEntry<V> existingEntry = entries.putIfAbsent(key, new IndexEntry<V>(value, System.currentTimeMillis()));
+      return existingEntry != null ? existingEntry.value : value;
+    }
+    else {
+      return null;
+    }
+  }
+
+  public void invalidate(K key) {
+    generation.incrementAndGet();
+    entries.remove(key);
+  }
+
+  public void clear() {
+    generation.incrementAndGet();
+    entries.clear();
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  protected static class IndexEntry<V> {
+
+    protected final V value;
+    protected final long indexTime;
+
+    public IndexEntry(V value, long indexTime) {
+      this.value = value;
+      this.indexTime = indexTime;
+    }
+  }
+
+}
@@ -0,0 +1,65 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.Collection;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Invalidates entries of an {@link ExpiringIndex} once the transaction which deployed
+ * or changed the definitions has been committed. This discards entries which concurrent
+ * transactions indexed before the changes became visible.
+ */
+public class ExpiringIndexInvalidation<K> implements TransactionListener {
+
+  protected ExpiringIndex<K, ?> index;
+  protected Collection<K> keys;
+
+  /**
+   * @param keys the keys to invalidate or null to invalidate the whole index
+   */
+  public ExpiringIndexInvalidation(ExpiringIndex<K, ?> index, Collection<K> keys) {
+    this.index = index;
+    this.keys = keys;
+  }
+
+  /**
+   * Invalidates the given keys (or the whole index if the keys are null) immediately
+   * and once the current transaction has been committed.
+   */
+  public static <K> void invalidate(ExpiringIndex<K, ?> index, Collection<K> keys) {
+    ExpiringIndexInvalidation<K> invalidation = new ExpiringIndexInvalidation<K>(index, keys);
+    invalidation.execute(null);
+
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      commandContext.getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, invalidation);
+    }
+  }
+
+  public void execute(CommandContext commandContext) {
+    if (keys == null) {
+      index.clear();
+    }
+    else {
+      for (K key : keys) {
+        index.invalidate(key);
+      }
+    }
+  }
+}
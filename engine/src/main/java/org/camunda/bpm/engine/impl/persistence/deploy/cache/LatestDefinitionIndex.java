@@ -0,0 +1,67 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Node-local index of the ids of the latest definition versions per key and tenant, which
+ * allows to resolve the latest version of a definition from the deployment cache without
+ * querying the database.</p>
+ *
+ * <p>The index is invalidated whenever a new version of a definition is deployed or a
+ * definition is deleted on this node. The lookups of a definition key are indexed and
+ * expire together.</p>
+ */
+public class LatestDefinitionIndex extends ExpiringIndex<String, ConcurrentMap<String, String>> {
+
+  /** lookup of the latest version from any tenant */
+  public static final String ANY_TENANT = "*";
+
+  protected static final String WITHOUT_TENANT = "-";
+  protected static final String TENANT_PREFIX = "+";
+
+  /**
+   * @param timeToLive the time in milliseconds after which an entry expires
+   */
+  public LatestDefinitionIndex(long timeToLive) {
+    super(timeToLive);
+  }
+
+  /**
+   * @return the lookup for the latest version of the given tenant
+   */
+  public static String tenantLookup(String tenantId) {
+    return tenantId == null ? WITHOUT_TENANT : TENANT_PREFIX + tenantId;
+  }
+
+  /**
+   * @param lookup either {@link #ANY_TENANT} or a {@link #tenantLookup(String) tenant lookup}
+   * @return the id of the latest version or null if it is not indexed or the entry expired
+   */
+  public String get(String key, String lookup, long now) {
+    ConcurrentMap<String, String> definitionIds = get(key, now);
+    return definitionIds != null ? definitionIds.get(lookup) : null;
+  }
+
+  public void put(String key, String lookup, String definitionId, long observedGeneration) {
+    ConcurrentMap<String, String> definitionIds = putIfAbsent(key, new ConcurrentHashMap<String, String>(), observedGeneration);
+
+    // a lookup which is added after an invalidation removed the entry is not reachable anymore
+    if (definitionIds != null && observedGeneration == getGeneration()) {
+      definitionIds.put(lookup, definitionId);
+    }
+  }
+
+}
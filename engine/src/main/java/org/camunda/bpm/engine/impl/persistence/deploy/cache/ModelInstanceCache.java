@@ -43,6 +43,7 @@ public abstract class ModelInstanceCache<InstanceType extends ModelInstance, Def
 
   public InstanceType findBpmnModelInstanceForDefinition(DefinitionType definitionEntity) {
     InstanceType bpmnModelInstance = instanceCache.get(definitionEntity.getId());
+    CacheStatistics.recordLookup(bpmnModelInstance != null);
     if (bpmnModelInstance == null) {
       bpmnModelInstance = loadAndCacheBpmnModelInstance(definitionEntity);
     }
@@ -51,6 +52,7 @@ public abstract class ModelInstanceCache<InstanceType extends ModelInstance, Def
 
   public InstanceType findBpmnModelInstanceForDefinition(String definitionId) {
     InstanceType bpmnModelInstance = instanceCache.get(definitionId);
+    CacheStatistics.recordLookup(bpmnModelInstance != null);
     if (bpmnModelInstance == null) {
       DefinitionType definition = definitionCache.findDeployedDefinitionById(definitionId);
       bpmnModelInstance = loadAndCacheBpmnModelInstance(definition);
@@ -59,6 +61,7 @@ public abstract class ModelInstanceCache<InstanceType extends ModelInstance, Def
   }
 
   protected InstanceType loadAndCacheBpmnModelInstance(final DefinitionType definitionEntity) {
+    long startTime = System.currentTimeMillis();
     final CommandContext commandContext = Context.getCommandContext();
     InputStream bpmnResourceInputStream = commandContext.runWithoutAuthorization(new Callable<InputStream>() {
       public InputStream call() throws Exception {
@@ -68,6 +71,7 @@ public abstract class ModelInstanceCache<InstanceType extends ModelInstance, Def
 
     try {
       InstanceType bpmnModelInstance = readModelFromStream(bpmnResourceInputStream);
+      CacheStatistics.recordLoad(instanceCache, System.currentTimeMillis() - startTime);
       instanceCache.put(definitionEntity.getId(), bpmnModelInstance);
       return bpmnModelInstance;
     } catch (Exception e) {
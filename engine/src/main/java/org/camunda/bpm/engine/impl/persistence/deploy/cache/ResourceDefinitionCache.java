@@ -20,6 +20,9 @@ import org.camunda.bpm.engine.impl.persistence.entity.DeploymentEntity;
 import org.camunda.bpm.engine.impl.repository.ResourceDefinitionEntity;
 import org.camunda.commons.utils.cache.Cache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 
@@ -31,6 +34,12 @@ public abstract class ResourceDefinitionCache<T extends ResourceDefinitionEntity
   protected Cache<String, T> cache;
   protected CacheDeployer cacheDeployer;
 
+  /** null if the latest versions are always queried from the database */
+  protected LatestDefinitionIndex latestDefinitionIndex;
+
+  /** null if evicted definitions are always parsed again */
+  protected RetainedDefinitions<T> retainedDefinitions;
+
   public ResourceDefinitionCache(CacheFactory factory, int cacheCapacity, CacheDeployer cacheDeployer) {
     this.cache = factory.createCache(cacheCapacity);
     this.cacheDeployer = cacheDeployer;
@@ -58,20 +67,68 @@ public abstract class ResourceDefinitionCache<T extends ResourceDefinitionEntity
    * @throws ProcessEngineException if more than one tenant has a definition with the given key
    */
   public T findDeployedLatestDefinitionByKey(String definitionKey) {
+    // the query is restricted to the tenants of the authenticated user
+    boolean useIndex = latestDefinitionIndex != null
+        && !Context.getCommandContext().getTenantManager().isTenantCheckEnabled();
+
+    if (useIndex) {
+      T cachedDefinition = findLatestDefinitionFromIndex(definitionKey, LatestDefinitionIndex.ANY_TENANT);
+      if (cachedDefinition != null) {
+        return cachedDefinition;
+      }
+    }
+
+    long generation = useIndex ? latestDefinitionIndex.getGeneration() : 0;
     T definition = getManager()
         .findLatestDefinitionByKey(definitionKey);
     checkInvalidDefinitionByKey(definitionKey, definition);
     definition = resolveDefinition(definition);
+
+    if (useIndex) {
+      latestDefinitionIndex.put(definitionKey, LatestDefinitionIndex.ANY_TENANT, definition.getId(), generation);
+    }
     return definition;
   }
 
   public T findDeployedLatestDefinitionByKeyAndTenantId(String definitionKey, String tenantId) {
+    String lookup = LatestDefinitionIndex.tenantLookup(tenantId);
+
+    if (latestDefinitionIndex != null) {
+      T cachedDefinition = findLatestDefinitionFromIndex(definitionKey, lookup);
+      if (cachedDefinition != null) {
+        return cachedDefinition;
+      }
+    }
+
+    long generation = latestDefinitionIndex != null ? latestDefinitionIndex.getGeneration() : 0;
     T definition = getManager()
         .findLatestDefinitionByKeyAndTenantId(definitionKey, tenantId);
     checkInvalidDefinitionByKeyAndTenantId(definitionKey, tenantId, definition);
     definition = resolveDefinition(definition);
+
+    if (latestDefinitionIndex != null) {
+      latestDefinitionIndex.put(definitionKey, lookup, definition.getId(), generation);
+    }
     return definition;
   }
+
+  /**
+   * @return the latest version if it is indexed, otherwise null
+   */
+  protected T findLatestDefinitionFromIndex(String definitionKey, String lookup) {
+    String definitionId = latestDefinitionIndex.get(definitionKey, lookup, System.currentTimeMillis());
+    if (definitionId == null) {
+      return null;
+    }
+
+    // the modifiable fields (e.g. the suspension state) may have been changed by another node,
+    // so they are refreshed like for a lookup by id, which is cheaper than the latest version query
+    T definition = getManager().getCachedResourceDefinitionEntity(definitionId);
+    if (definition == null) {
+      definition = getManager().findLatestDefinitionById(definitionId);
+    }
+    return definition != null ? resolveDefinition(definition) : null;
+  }
 public T findDeployedDefinitionByKeyVersionAndTenantId(final String definitionKey, final Integer definitionVersion, final String tenantId) { final CommandContext commandContext = Context.getCommandContext(); T definition = commandContext.runWithoutAuthorization(new Callable<T>() { public T call() throws Exception { return getManager(). findDefinitionByKeyVersionAndTenantId(definitionKey, definitionVersion, tenantId);
       }
     });
@@ -91,16 +148,22 @@ public T findDeployedDefinitionByKeyVersionAndTenantId(final String definitionKe
     String definitionId = definition.getId();
     String deploymentId = definition.getDeploymentId();
     T cachedDefinition = cache.get(definitionId);
+    CacheStatistics.recordLookup(cachedDefinition != null);
     if (cachedDefinition == null) {
       synchronized (this) {
         cachedDefinition = cache.get(definitionId);
+        if (cachedDefinition == null) {
+          cachedDefinition = restoreRetainedDefinition(definitionId);
+        }
         if (cachedDefinition == null) {
           DeploymentEntity deployment = Context
               .getCommandContext()
               .getDeploymentManager()
               .findDeploymentById(deploymentId);
+          long startTime = System.currentTimeMillis();
           deployment.setNew(false);
           cacheDeployer.deployOnlyGivenResourcesOfDeployment(deployment, definition.getResourceName(), definition.getDiagramResourceName());
+          CacheStatistics.recordLoad(cache, System.currentTimeMillis() - startTime);
           cachedDefinition = cache.get(definitionId);
         }
       }
@@ -112,6 +175,20 @@ public T findDeployedDefinitionByKeyVersionAndTenantId(final String definitionKe
     return cachedDefinition;
   }
 
+  /**
+   * @return the retained definition which was evicted from the cache, or null if it has to be parsed again
+   */
+  protected T restoreRetainedDefinition(String definitionId) {
+    T definition = null;
+    if (retainedDefinitions != null) {
+      definition = retainedDefinitions.restore(definitionId);
+      if (definition != null) {
+        cache.put(definitionId, definition);
+      }
+    }
+    return definition;
+  }
+
   public void addDefinition(T definition) {
     cache.put(definition.getId(), definition);
   }
@@ -122,10 +199,92 @@ public T findDeployedDefinitionByKeyVersionAndTenantId(final String definitionKe
 
   public void removeDefinitionFromCache(String id) {
     cache.remove(id);
+    if (retainedDefinitions != null) {
+      retainedDefinitions.remove(id);
+    }
+    invalidateLatestDefinitions();
   }
 
   public void clear() {
     cache.clear();
+    if (latestDefinitionIndex != null) {
+      latestDefinitionIndex.clear();
+    }
+    clearRetainedDefinitions();
+  }
+
+  public void clearRetainedDefinitions() {
+    if (retainedDefinitions != null) {
+      retainedDefinitions.clear();
+    }
+  }
+
+  /**
+   * Invalidates the latest versions of the keys of the given (newly deployed) definitions,
+   * immediately and once the current transaction is committed.
+   */
+  public void invalidateLatestDefinitions(Collection<T> definitions) {
+    if (latestDefinitionIndex != null && definitions != null && !definitions.isEmpty()) {
+      List<String> keys = new ArrayList<String>();
+      for (T definition : definitions) {
+        keys.add(definition.getKey());
+      }
+      invalidateLatestDefinitionIndex(keys);
+    }
+  }
+
+  /**
+   * Invalidates all indexed latest versions, immediately and once the current
+   * transaction is committed. Must be called when modifiable fields of definitions
+   * (e.g. the suspension state) are changed since the indexed versions are returned
+   * without being refreshed from the database.
+   */
+  public void invalidateLatestDefinitions() {
+    if (latestDefinitionIndex != null) {
+      invalidateLatestDefinitionIndex(null);
+    }
+  }
+
+  protected void invalidateLatestDefinitionIndex(Collection<String> keys) {
+    ExpiringIndexInvalidation.invalidate(latestDefinitionIndex, keys);
+  }
+
+  public LatestDefinitionIndex getLatestDefinitionIndex() {
+    return latestDefinitionIndex;
+  }
+
+  public void setLatestDefinitionIndex(LatestDefinitionIndex latestDefinitionIndex) {
+    this.latestDefinitionIndex = latestDefinitionIndex;
+  }
+
+  public RetainedDefinitions<T> getRetainedDefinitions() {
+    return retainedDefinitions;
+  }
+
+  /**
+   * Retains the definitions which are evicted from the cache.
+   *
+   * @throws ProcessEngineException if the cache is not a {@link WeightedLruCache}, which reports its evictions
+   */
+  public void setRetainedDefinitions(final RetainedDefinitions<T> retainedDefinitions) {
+    if (retainedDefinitions != null && !(cache instanceof WeightedLruCache)) {
+      throw new ProcessEngineException("Cannot retain evicted definitions of a cache of type " + cache.getClass().getName()
+          + ", only a " + WeightedLruCache.class.getName() + " reports its evictions");
+    }
+
+    this.retainedDefinitions = retainedDefinitions;
+
+    if (cache instanceof WeightedLruCache) {
+      CacheEvictionListener<String, T> evictionListener = null;
+      if (retainedDefinitions != null) {
+        evictionListener = new CacheEvictionListener<String, T>() {
+          public void entryEvicted(String definitionId, T definition) {
+            retainedDefinitions.put(definitionId, definition);
+          }
+        };
+      }
+      ((WeightedLruCache<String, T>) cache).setEvictionListener(evictionListener);
+    }
   }
 
   public Cache<String, T> getCache() {
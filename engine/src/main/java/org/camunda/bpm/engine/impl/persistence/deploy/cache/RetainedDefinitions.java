@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Softly references the parsed definitions which were evicted from a deployment cache,
+ * so that they can be restored without parsing their resources again.</p>
+ *
+ * <p>At most {@link #getCapacity() capacity} definitions are retained; retaining another one
+ * drops the least recently retained definition. The references are also cleared by the
+ * garbage collector before the heap is exhausted. A definition which is no longer retained
+ * is parsed again as before.</p>
+ *
+ * <p>The definitions are only retained in memory. After a restart of the engine, the
+ * definitions are parsed again when they are first used.</p>
+ */
+public class RetainedDefinitions<T> {
+
+  protected final int capacity;
+  protected final Map<String, DefinitionReference<T>> references;
+  protected final ReferenceQueue<T> clearedReferences = new ReferenceQueue<T>();
+
+  public RetainedDefinitions(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.references = new LinkedHashMap<String, DefinitionReference<T>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      protected boolean removeEldestEntry(Map.Entry<String, DefinitionReference<T>> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  public synchronized void put(String definitionId, T definition) {
+    expungeClearedReferences();
+    references.put(definitionId, new DefinitionReference<T>(definitionId, definition, clearedReferences));
+  }
+
+  /**
+   * Removes the definition so that it is only retained again once it is evicted again.
+   *
+   * @return the retained definition or null if it was not retained or has been garbage collected
+   */
+  public synchronized T restore(String definitionId) {
+    DefinitionReference<T> reference = references.remove(definitionId);
+    return reference != null ? reference.get() : null;
+  }
+
+  public synchronized void remove(String definitionId) {
+    references.remove(definitionId);
+  }
+
+  public synchronized void clear() {
+    references.clear();
+    expungeClearedReferences();
+  }
+
+  public synchronized int size() {
+    expungeClearedReferences();
+    return references.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  protected void expungeClearedReferences() {
+    Reference<? extends T> reference;
+    while ((reference = clearedReferences.poll()) != null) {
+      DefinitionReference<?> definitionReference = (DefinitionReference<?>) reference;
+      // the definition may have been retained again in the meantime
+      if (references.get(definitionReference.definitionId) == definitionReference) {
+        references.remove(definitionReference.definitionId);
+      }
+    }
+  }
+
+  protected static class DefinitionReference<T> extends SoftReference<T> {
+
+    protected final String definitionId;
+
+    public DefinitionReference(String definitionId, T definition, ReferenceQueue<? super T> queue) {
+      super(definition, queue);
+      this.definitionId = definitionId;
+    }
+  }
+
+}
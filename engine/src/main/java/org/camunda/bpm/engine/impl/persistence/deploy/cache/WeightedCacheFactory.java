@@ -0,0 +1,72 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * <p>Creates {@link WeightedLruCache weighted caches} for the deployment caches, which evict
+ * entries once their number exceeds the cache capacity or their total weight exceeds
+ * {@link #setMaxWeight(long) the maximum weight}, and which record
+ * {@link CacheStatistics statistics} on their hits, misses, loads and evictions.</p>
+ */
+public class WeightedCacheFactory implements CacheFactory {
+
+  /** 0 if the weight of the caches is not bounded */
+  protected long maxWeight = 0;
+
+  /** 0 if cache entries do not expire */
+  protected long expireAfterAccess = 0;
+
+  protected CacheEntryWeigher weigher = new DefaultCacheEntryWeigher();
+
+  @Override
+  public <T> Cache<String, T> createCache(int maxNumberOfElementsInCache) {
+    return new WeightedLruCache<String, T>(maxNumberOfElementsInCache, maxWeight, expireAfterAccess, weigher);
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * @param maxWeight the maximum total weight of the entries of each cache, i.e. the number of
+   *   activities or XML elements with the {@link DefaultCacheEntryWeigher}
+   */
+  public WeightedCacheFactory setMaxWeight(long maxWeight) {
+    this.maxWeight = maxWeight;
+    return this;
+  }
+
+  public long getExpireAfterAccess() {
+    return expireAfterAccess;
+  }
+
+  /**
+   * @param expireAfterAccess the time in milliseconds after which a cache entry which was not accessed expires
+   */
+  public WeightedCacheFactory setExpireAfterAccess(long expireAfterAccess) {
+    this.expireAfterAccess = expireAfterAccess;
+    return this;
+  }
+
+  public CacheEntryWeigher getWeigher() {
+    return weigher;
+  }
+
+  public WeightedCacheFactory setWeigher(CacheEntryWeigher weigher) {
+    this.weigher = weigher;
+    return this;
+  }
+
+}
@@ -0,0 +1,232 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.deploy.cache;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * <p>A least recently used cache which is bounded by the number of its entries and by their
+ * total weight, as estimated by a {@link CacheEntryWeigher}. Entries which were not accessed
+ * for longer than the expiry time are removed on their next access.</p>
+ *
+ * <p>The entries are kept in access order, so that the least recently used entries are
+ * evicted from the head of the order. Reads and additions hold the lock of the cache only
+ * while updating the order, which is cheap compared to loading an added value.</p>
+ */
+public class WeightedLruCache<K, V> implements Cache<K, V> {
+
+  protected final int capacity;
+  protected final long maxWeight;
+  protected final long expireAfterAccess;
+  protected final CacheEntryWeigher weigher;
+
+  /** in access order, guarded by the lock of the cache */
+  protected final LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true);
+  protected long totalWeight = 0;
+
+  protected final CacheStatistics statistics = new CacheStatistics();
+
+  /** null if evictions are not reported */
+  protected volatile CacheEvictionListener<K, V> evictionListener;
+
+  /**
+   * @param capacity the maximum number of entries
+   * @param maxWeight the maximum total weight of the entries or 0 if the weight is not bounded
+   * @param expireAfterAccess the time in milliseconds after which an entry which was not accessed expires,
+   *   or 0 if entries do not expire
+   */
+  public WeightedLruCache(int capacity, long maxWeight, long expireAfterAccess, CacheEntryWeigher weigher) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.maxWeight = maxWeight;
+    this.expireAfterAccess = expireAfterAccess;
+    this.weigher = weigher;
+  }
+
+  public V get(K key) {
+    CacheEntry<V> entry;
+
+    synchronized (this) {
+      // moves the entry to the tail of the access order
+      entry = entries.get(key);
+
+      if (entry != null && isExpired(entry)) {
+        removeEntry(key, true);
+        entry = null;
+      }
+
+      if (entry != null) {
+        touch(entry);
+      }
+    }
+
+    if (entry == null) {
+      statistics.recordMiss();
+      return null;
+    }
+    else {
+      statistics.recordHit();
+      return entry.value;
+    }
+  }
+
+  public void put(K key, V value) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+
+    CacheEntry<V> entry = new CacheEntry<V>(value, Math.max(1, weigher.weigh(value)));
+    touch(entry);
+
+    synchronized (this) {
+      CacheEntry<V> previousEntry = entries.put(key, entry);
+      if (previousEntry != null) {
+        totalWeight -= previousEntry.weight;
+      }
+      totalWeight += entry.weight;
+
+      evictEntries(key);
+    }
+  }
+
+  public synchronized void remove(K key) {
+    removeEntry(key, false);
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    totalWeight = 0;
+  }
+
+  public synchronized boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  /**
+   * @return a copy of the keys of the cached entries
+   */
+  public synchronized Set<K> keySet() {
+    return new HashSet<K>(entries.keySet());
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the total weight of the cached entries
+   */
+  public synchronized long getWeight() {
+    return totalWeight;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  public CacheEvictionListener<K, V> getEvictionListener() {
+    return evictionListener;
+  }
+
+  public void setEvictionListener(CacheEvictionListener<K, V> evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Evicts the least recently used entries from the head of the access order, except for
+   * the added one, as long as the capacity or the maximum weight is exceeded. Must be called
+   * while holding the lock of the cache.
+   */
+  protected void evictEntries(K addedKey) {
+    Iterator<Map.Entry<K, CacheEntry<V>>> eldestEntries = entries.entrySet().iterator();
+
+    while (isExceeded() && eldestEntries.hasNext()) {
+      Map.Entry<K, CacheEntry<V>> eldestEntry = eldestEntries.next();
+
+      // the added entry is the most recently used one, so that it is only reached
+      // if it exceeds the maximum weight on its own
+      if (!eldestEntry.getKey().equals(addedKey)) {
+        eldestEntries.remove();
+        entryRemoved(eldestEntry.getKey(), eldestEntry.getValue(), true);
+      }
+    }
+  }
+
+  protected boolean isExceeded() {
+    return entries.size() > capacity || (maxWeight > 0 && totalWeight > maxWeight);
+  }
+
+  /**
+   * Must be called while holding the lock of the cache.
+   */
+  protected void removeEntry(K key, boolean evicted) {
+    CacheEntry<V> entry = entries.remove(key);
+    if (entry != null) {
+      entryRemoved(key, entry, evicted);
+    }
+  }
+
+  protected void entryRemoved(K key, CacheEntry<V> entry, boolean evicted) {
+    totalWeight -= entry.weight;
+    if (evicted) {
+      statistics.recordEviction();
+
+      CacheEvictionListener<K, V> listener = evictionListener;
+      if (listener != null) {
+        listener.entryEvicted(key, entry.value);
+      }
+    }
+  }
+
+  protected void touch(CacheEntry<V> entry) {
+    if (expireAfterAccess > 0) {
+      entry.lastAccessTime = ClockUtil.getCurrentTime().getTime();
+    }
+  }
+
+  protected boolean isExpired(CacheEntry<V> entry) {
+    return expireAfterAccess > 0
+        && ClockUtil.getCurrentTime().getTime() - entry.lastAccessTime > expireAfterAccess;
+  }
+
+  protected static class CacheEntry<V> {
+
+    protected final V value;
+    protected final long weight;
+
+    protected volatile long lastAccessTime;
+
+    public CacheEntry(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+}
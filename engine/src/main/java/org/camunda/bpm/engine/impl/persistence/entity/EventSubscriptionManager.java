@@ -14,6 +14,7 @@
 package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -23,11 +24,14 @@ import java.util.Set;
 import org.camunda.bpm.engine.impl.EventSubscriptionQueryImpl;
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
 import org.camunda.bpm.engine.impl.event.EventType;
+import org.camunda.bpm.engine.impl.event.StartEventSubscriptionIndex;
 import org.camunda.bpm.engine.impl.jobexecutor.ProcessEventJobHandler;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.ExpiringIndexInvalidation;
 import org.camunda.bpm.engine.runtime.EventSubscription;
 import org.camunda.commons.utils.EnsureUtil;
 
@@ -47,6 +51,7 @@ public class EventSubscriptionManager extends AbstractManager {
     if (persistentObject.isSubscriptionForEventType(EventType.SIGNAL)) {
       createdSignalSubscriptions.add(persistentObject);
     }
+    invalidateStartEventSubscriptionIndex(persistentObject);
   }
 
   public void deleteEventSubscription(EventSubscriptionEntity persistentObject) {
@@ -54,6 +59,7 @@ public class EventSubscriptionManager extends AbstractManager {
     if (persistentObject.isSubscriptionForEventType(EventType.SIGNAL)) {
       createdSignalSubscriptions.remove(persistentObject);
     }
+    invalidateStartEventSubscriptionIndex(persistentObject);
 
     // if the event subscription has been triggered asynchronously but not yet executed
     List<JobEntity> asyncJobs = getJobManager().findJobsByConfiguration(ProcessEventJobHandler.TYPE, persistentObject.getId(), persistentObject.getTenantId());
@@ -89,8 +95,23 @@ public class EventSubscriptionManager extends AbstractManager {
    */
   @SuppressWarnings("unchecked")
   public List<EventSubscriptionEntity> findSignalEventSubscriptionsByEventName(String eventName) {
-    final String query = "selectSignalEventSubscriptionsByEventName";
-    Set<EventSubscriptionEntity> eventSubscriptions = new HashSet<EventSubscriptionEntity>( getDbEntityManager().selectList(query, configureParameterizedQuery(eventName)));
+    Set<EventSubscriptionEntity> eventSubscriptions;
+
+    if (getStartEventSubscriptionIndex() != null) {
+      // only the subscriptions of executions are queried, the start event subscriptions are indexed
+      final String query = "selectSignalEventSubscriptionsOfExecutionsByEventName";
+      eventSubscriptions = new HashSet<EventSubscriptionEntity>( getDbEntityManager().selectList(query, configureParameterizedQuery(eventName)));
+
+      for (EventSubscriptionEntity entity : findStartEventSubscriptions(EventType.SIGNAL, eventName)) {
+        if (getTenantManager().isAuthenticatedTenant(entity.getTenantId())) {
+          eventSubscriptions.add(entity);
+        }
+      }
+    }
+    else {
+      final String query = "selectSignalEventSubscriptionsByEventName";
+      eventSubscriptions = new HashSet<EventSubscriptionEntity>( getDbEntityManager().selectList(query, configureParameterizedQuery(eventName)));
+    }
 
     // add events created in this command (not visible yet in query)
     for (EventSubscriptionEntity entity : createdSignalSubscriptions) {
@@ -111,8 +132,17 @@ public class EventSubscriptionManager extends AbstractManager {
     Map<String, Object> parameter = new HashMap<String, Object>();
     parameter.put("eventName", eventName);
     parameter.put("tenantId", tenantId);
+    parameter.put("executionsOnly", getStartEventSubscriptionIndex() != null);
     Set<EventSubscriptionEntity> eventSubscriptions = new HashSet<EventSubscriptionEntity>( getDbEntityManager().selectList(query, parameter));
 
+    if (getStartEventSubscriptionIndex() != null) {
+      for (EventSubscriptionEntity entity : findStartEventSubscriptions(EventType.SIGNAL, eventName)) {
+        if (hasTenantId(entity, tenantId)) {
+          eventSubscriptions.add(entity);
+        }
+      }
+    }
+
     // add events created in this command (not visible yet in query)
     for (EventSubscriptionEntity entity : createdSignalSubscriptions) {
       if(eventName.equals(entity.getEventName()) && hasTenantId(entity, tenantId)) {
@@ -132,8 +162,17 @@ public class EventSubscriptionManager extends AbstractManager {
     Map<String, Object> parameter = new HashMap<String, Object>();
     parameter.put("eventName", eventName);
     parameter.put("tenantId", tenantId);
+    parameter.put("executionsOnly", getStartEventSubscriptionIndex() != null);
     Set<EventSubscriptionEntity> eventSubscriptions = new HashSet<EventSubscriptionEntity>( getDbEntityManager().selectList(query, parameter));
 
+    if (getStartEventSubscriptionIndex() != null) {
+      for (EventSubscriptionEntity entity : findStartEventSubscriptions(EventType.SIGNAL, eventName)) {
+        if (entity.getTenantId() == null || hasTenantId(entity, tenantId)) {
+          eventSubscriptions.add(entity);
+        }
+      }
+    }
+
     // add events created in this command (not visible yet in query)
     for (EventSubscriptionEntity entity : createdSignalSubscriptions) {
       if(eventName.equals(entity.getEventName()) && (entity.getTenantId() == null || hasTenantId(entity, tenantId))) {
@@ -265,6 +304,16 @@ public class EventSubscriptionManager extends AbstractManager {
    */
   @SuppressWarnings("unchecked")
   public List<EventSubscriptionEntity> findMessageStartEventSubscriptionByName(String messageName) {
+    if (getStartEventSubscriptionIndex() != null) {
+      List<EventSubscriptionEntity> eventSubscriptions = new ArrayList<EventSubscriptionEntity>();
+      for (EventSubscriptionEntity entity : findStartEventSubscriptions(EventType.MESSAGE, messageName)) {
+        if (getTenantManager().isAuthenticatedTenant(entity.getTenantId())) {
+          eventSubscriptions.add(entity);
+        }
+      }
+      return eventSubscriptions;
+    }
+
     return getDbEntityManager().selectList("selectMessageStartEventSubscriptionByName", configureParameterizedQuery(messageName));
   }
 
@@ -274,6 +323,15 @@ public class EventSubscriptionManager extends AbstractManager {
    * @see #findMessageStartEventSubscriptionByName(String)
    */
   public EventSubscriptionEntity findMessageStartEventSubscriptionByNameAndTenantId(String messageName, String tenantId) {
+    if (getStartEventSubscriptionIndex() != null) {
+      for (EventSubscriptionEntity entity : findStartEventSubscriptions(EventType.MESSAGE, messageName)) {
+        if (hasTenantId(entity, tenantId)) {
+          return entity;
+        }
+      }
+      return null;
+    }
+
     Map<String, String> parameters = new HashMap<String, String>();
     parameters.put("messageName", messageName);
     parameters.put("tenantId", tenantId);
@@ -281,6 +339,46 @@ public class EventSubscriptionManager extends AbstractManager {
     return (EventSubscriptionEntity) getDbEntityManager().selectOne("selectMessageStartEventSubscriptionByNameAndTenantId", parameters);
   }
 
+  /**
+   * @return the start event subscriptions of all tenants with the given event type and name,
+   *   either from the {@link StartEventSubscriptionIndex} or from the database
+   */
+  @SuppressWarnings("unchecked")
+  protected List<EventSubscriptionEntity> findStartEventSubscriptions(EventType eventType, String eventName) {
+    StartEventSubscriptionIndex index = getStartEventSubscriptionIndex();
+
+    List<EventSubscriptionEntity> eventSubscriptions = index.get(eventType.name(), eventName, System.currentTimeMillis());
+    if (eventSubscriptions == null) {
+      long generation = index.getGeneration();
+
+      Map<String, String> parameters = new HashMap<String, String>();
+      parameters.put("eventType", eventType.name());
+      parameters.put("eventName", eventName);
+      eventSubscriptions = getDbEntityManager().selectList("selectStartEventSubscriptionsByName", parameters);
+
+      index.put(eventType.name(), eventName, eventSubscriptions, generation);
+    }
+
+    return eventSubscriptions;
+  }
+
+  /**
+   * Invalidates the indexed start event subscriptions with the name of the given subscription,
+   * immediately and once the current transaction is committed.
+   */
+  protected void invalidateStartEventSubscriptionIndex(EventSubscriptionEntity eventSubscription) {
+    StartEventSubscriptionIndex index = getStartEventSubscriptionIndex();
+
+    if (index != null && eventSubscription.getExecutionId() == null) {
+      String key = StartEventSubscriptionIndex.indexKey(eventSubscription.getEventType(), eventSubscription.getEventName());
+      ExpiringIndexInvalidation.invalidate(index, Collections.singletonList(key));
+    }
+  }
+
+  protected StartEventSubscriptionIndex getStartEventSubscriptionIndex() {
+    return Context.getProcessEngineConfiguration().getStartEventSubscriptionIndex();
+  }
+
   protected void configureQuery(EventSubscriptionQueryImpl query) {
     getAuthorizationManager().configureEventSubscriptionQuery(query);
     getTenantManager().configureQuery(query);
@@ -56,8 +56,9 @@ public class EverLivingJobEntity extends JobEntity {
     String exceptionByteArrayIdToDelete =null;
     if (exceptionByteArrayId != null) {
       exceptionByteArrayIdToDelete = exceptionByteArrayId;
+      trackModification(exceptionByteArrayId, null);
       this.exceptionByteArrayId = null;
-      this.exceptionMessage = null;
+      setExceptionMessage(null);
     }
     //clean the lock information
     setLockOwner(null);
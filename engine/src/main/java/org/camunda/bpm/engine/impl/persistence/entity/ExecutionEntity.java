@@ -44,6 +44,7 @@ import org.camunda.bpm.engine.impl.core.variable.scope.*;
 import org.camunda.bpm.engine.impl.core.variable.scope.VariableStore.VariablesProvider;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.HasDbModificationCounter;
 import org.camunda.bpm.engine.impl.db.HasDbReferences;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.event.EventType;
@@ -91,7 +92,7 @@ import org.camunda.bpm.model.xml.type.ModelElementType;
  * @author Daniel Meyer
  * @author Falko Menge
  */
-public class ExecutionEntity extends PvmExecutionImpl implements Execution, ProcessInstance, DbEntity, HasDbRevision, HasDbReferences, VariablesProvider<VariableInstanceEntity> {
+public class ExecutionEntity extends PvmExecutionImpl implements Execution, ProcessInstance, DbEntity, HasDbRevision, HasDbReferences, HasDbModificationCounter, VariablesProvider<VariableInstanceEntity> {
 
   private static final long serialVersionUID = 1L;
 
@@ -156,6 +157,14 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   protected transient List<IncidentEntity> incidents;
   protected int cachedEntityState;
 
+  /**
+   * the referenced entities (flagged by their state bits) which have been prefetched for
+   * the whole process instance, only maintained by the process instance execution
+   *
+   * @see InstancePrefetchProfile
+   */
+  protected transient int prefetchState;
+
   @SuppressWarnings("unchecked")
   protected transient VariableStore<VariableInstanceEntity> variableStore =
       new VariableStore<VariableInstanceEntity>(this, new ExecutionEntityReferencer(this));
@@ -231,6 +240,12 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   protected transient List<VariableInstanceLifecycleListener<VariableInstanceEntity>> registeredVariableListeners
     = new ArrayList<VariableInstanceLifecycleListener<VariableInstanceEntity>>();
 
+  // counts changes of the persistent state, see HasDbModificationCounter
+  protected transient int modificationCounter = 0;
+
+  // the cached entity state seen by the last call of getModificationCounter()
+  protected transient int trackedCachedEntityState = 0;
+
   public ExecutionEntity() {
   }
 
@@ -261,7 +276,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     createdExecution.setSuspensionState(getSuspensionState());
 
     // make created execution start in same activity instance
-    createdExecution.activityInstanceId = activityInstanceId;
+    createdExecution.setActivityInstanceId(activityInstanceId);
 
     // inherit the tenant id from parent execution
     if(tenantId != null) {
@@ -680,7 +695,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
 
   @Override
   public void inactivate() {
-    this.isActive = false;
+    setActive(false);
   }
 
   // executions ///////////////////////////////////////////////////////////////
@@ -744,6 +759,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   public void setProcessDefinitionId(String processDefinitionId) {
+    trackModification(this.processDefinitionId, processDefinitionId);
     this.processDefinitionId = processDefinitionId;
   }
 
@@ -766,7 +782,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   @Override
   public void setProcessDefinition(ProcessDefinitionImpl processDefinition) {
     this.processDefinition = processDefinition;
-    this.processDefinitionId = processDefinition.getId();
+    setProcessDefinitionId(processDefinition.getId());
   }
 
   // process instance /////////////////////////////////////////////////////////
@@ -829,10 +845,10 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   public void setActivity(PvmActivity activity) {
     super.setActivity(activity);
     if (activity != null) {
-      this.activityId = activity.getId();
+      setActivityId(activity.getId());
       this.activityName = (String) activity.getProperty("name");
     } else {
-      this.activityId = null;
+      setActivityId(null);
       this.activityName = null;
     }
 
@@ -885,9 +901,9 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     this.parent = (ExecutionEntity) parent;
 
     if (parent != null) {
-      this.parentId = parent.getId();
+      setParentId(parent.getId());
     } else {
-      this.parentId = null;
+      setParentId(null);
     }
   }
 
@@ -913,10 +929,10 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     this.superExecution = (ExecutionEntity) superExecution;
 
     if (superExecution != null) {
-      this.superExecutionId = superExecution.getId();
+      setSuperExecutionId(superExecution.getId());
       this.superExecution.setSubProcessInstance(this);
     } else {
-      this.superExecutionId = null;
+      setSuperExecutionId(null);
     }
   }
 
@@ -951,6 +967,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   public void setSuperCaseExecutionId(String superCaseExecutionId) {
+    trackModification(this.superCaseExecutionId, superCaseExecutionId);
     this.superCaseExecutionId = superCaseExecutionId;
   }
 
@@ -965,11 +982,11 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     this.superCaseExecution = (CaseExecutionEntity) superCaseExecution;
 
     if (superCaseExecution != null) {
-      this.superCaseExecutionId = superCaseExecution.getId();
-      this.caseInstanceId = superCaseExecution.getCaseInstanceId();
+      setSuperCaseExecutionId(superCaseExecution.getId());
+      setCaseInstanceId(superCaseExecution.getCaseInstanceId());
     } else {
-      this.superCaseExecutionId = null;
-      this.caseInstanceId = null;
+      setSuperCaseExecutionId(null);
+      setCaseInstanceId(null);
     }
   }
 
@@ -1229,6 +1246,19 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
 
   @Override
   public Collection<VariableInstanceEntity> provideVariables() {
+    InstancePrefetchProfile prefetchProfile = getInstancePrefetchProfile(VARIABLES_STATE_BIT);
+    if (prefetchProfile != null && prefetchProfile.isVariables()) {
+      // the variable store of this execution is already initializing, so it does not
+      // pick up the prefetched variables by itself
+      List<VariableInstanceEntity> variables = getProcessInstance().prefetchVariables().get(id);
+      if (variables != null) {
+        return variables;
+      }
+      else {
+        return Collections.<VariableInstanceEntity>emptyList();
+      }
+    }
+
     return Context.getCommandContext().getVariableInstanceManager().findVariableInstancesByExecutionId(id);
   }
 
@@ -1426,6 +1456,128 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     }
   }
 
+  // instance prefetch ////////////////////////////////////////////////////////
+
+  /**
+   * @return the configured prefetch profile if the entities flagged by the given state bit
+   *   have not been prefetched for the process instance yet, null otherwise
+   */
+  protected InstancePrefetchProfile getInstancePrefetchProfile(int stateBit) {
+    if (processInstanceId == null || !isExecutionTreePrefetchEnabled()) {
+      return null;
+    }
+
+    InstancePrefetchProfile prefetchProfile = Context.getProcessEngineConfiguration().getInstancePrefetchProfile();
+    if (prefetchProfile == null || BitMaskUtil.isBitOn(getProcessInstance().prefetchState, stateBit)) {
+      return null;
+    }
+    else {
+      return prefetchProfile;
+    }
+  }
+
+  /**
+   * @return all executions of the tree below (and including) this execution
+   */
+  protected List<ExecutionEntity> collectExecutionTree() {
+    List<ExecutionEntity> executions = new ArrayList<ExecutionEntity>();
+    executions.add(this);
+    for (int i = 0; i < executions.size(); i++) {
+      executions.addAll(executions.get(i).getExecutions());
+    }
+    return executions;
+  }
+
+  /**
+   * Loads the variables of all executions and tasks of this process instance with a
+   * single query. Executions and known tasks whose variables are not initialized yet
+   * are initialized with the prefetched variables once they are accessed.
+   *
+   * @return the prefetched variables indexed by the id of their execution or task
+   */
+  protected Map<String, List<VariableInstanceEntity>> prefetchVariables() {
+    prefetchState = BitMaskUtil.setBitOn(prefetchState, VARIABLES_STATE_BIT);
+
+    List<VariableInstanceEntity> variables = Context.getCommandContext()
+      .getVariableInstanceManager()
+      .findVariableInstancesByProcessInstanceId(id);
+
+    Map<String, List<VariableInstanceEntity>> variablesByScope = new HashMap<String, List<VariableInstanceEntity>>();
+    for (VariableInstanceEntity variable : variables) {
+      CollectionUtil.addToMapOfLists(variablesByScope, variable.getVariableScopeId(), variable);
+    }
+
+    for (ExecutionEntity execution : collectExecutionTree()) {
+      // does not affect variable stores which are already initialized
+      execution.variableStore.setVariablesProvider(
+          new VariableCollectionProvider<VariableInstanceEntity>(variablesByScope.get(execution.id)));
+
+      if (execution.tasks != null) {
+        for (TaskEntity task : execution.tasks) {
+          task.variableStore.setVariablesProvider(
+              new VariableCollectionProvider<VariableInstanceEntity>(variablesByScope.get(task.getId())));
+        }
+      }
+    }
+
+    return variablesByScope;
+  }
+
+  /**
+   * Loads the tasks of all executions of this process instance with a single query
+   * and assigns them to the executions whose tasks are not initialized yet.
+   */
+  protected void prefetchTasks() {
+    prefetchState = BitMaskUtil.setBitOn(prefetchState, TASKS_STATE_BIT);
+
+    List<TaskEntity> tasks = Context.getCommandContext()
+      .getTaskManager()
+      .findTasksByProcessInstanceId(id);
+
+    Map<String, List<TaskEntity>> tasksByExecution = new HashMap<String, List<TaskEntity>>();
+    for (TaskEntity task : tasks) {
+      CollectionUtil.addToMapOfLists(tasksByExecution, task.getExecutionId(), task);
+    }
+
+    for (ExecutionEntity execution : collectExecutionTree()) {
+      if (execution.tasks == null) {
+        execution.tasks = new ArrayList<TaskEntity>();
+
+        List<TaskEntity> executionTasks = tasksByExecution.get(execution.id);
+        if (executionTasks != null) {
+          execution.tasks.addAll(executionTasks);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads the event subscriptions of all executions of this process instance with a single
+   * query and assigns them to the executions whose event subscriptions are not initialized yet.
+   */
+  protected void prefetchEventSubscriptions() {
+    prefetchState = BitMaskUtil.setBitOn(prefetchState, EVENT_SUBSCRIPTIONS_STATE_BIT);
+
+    List<EventSubscriptionEntity> eventSubscriptions = Context.getCommandContext()
+      .getEventSubscriptionManager()
+      .findEventSubscriptionsByProcessInstanceId(id);
+
+    Map<String, List<EventSubscriptionEntity>> eventSubscriptionsByExecution = new HashMap<String, List<EventSubscriptionEntity>>();
+    for (EventSubscriptionEntity eventSubscription : eventSubscriptions) {
+      CollectionUtil.addToMapOfLists(eventSubscriptionsByExecution, eventSubscription.getExecutionId(), eventSubscription);
+    }
+
+    for (ExecutionEntity execution : collectExecutionTree()) {
+      if (execution.eventSubscriptions == null) {
+        execution.eventSubscriptions = new ArrayList<EventSubscriptionEntity>();
+
+        List<EventSubscriptionEntity> executionEventSubscriptions = eventSubscriptionsByExecution.get(execution.id);
+        if (executionEventSubscriptions != null) {
+          execution.eventSubscriptions.addAll(executionEventSubscriptions);
+        }
+      }
+    }
+  }
 
   // persistent state /////////////////////////////////////////////////////////
 
@@ -1453,6 +1605,84 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
     Context.getCommandContext().getExecutionManager().insertExecution(this);
   }
 
+  // modification tracking ////////////////////////////////////////////////////
+
+  public int getModificationCounter() {
+    // the cached entity state is derived from the related entity collections,
+    // which change without passing a setter of this execution
+    int entityState = getCachedEntityState();
+    trackModification(trackedCachedEntityState, entityState);
+    trackedCachedEntityState = entityState;
+
+    return modificationCounter;
+  }
+
+  protected void trackModification(Object oldValue, Object newValue) {
+    if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+      modificationCounter++;
+    }
+  }
+
+  protected void trackModification(long oldValue, long newValue) {
+    if (oldValue != newValue) {
+      modificationCounter++;
+    }
+  }
+
+  @Override
+  public void setBusinessKey(String businessKey) {
+    trackModification(this.businessKey, businessKey);
+    super.setBusinessKey(businessKey);
+  }
+
+  @Override
+  public void setActivityInstanceId(String activityInstanceId) {
+    trackModification(this.activityInstanceId, activityInstanceId);
+    super.setActivityInstanceId(activityInstanceId);
+  }
+
+  @Override
+  public void setActive(boolean isActive) {
+    trackModification(this.isActive, isActive);
+    super.setActive(isActive);
+  }
+
+  @Override
+  public void setConcurrent(boolean isConcurrent) {
+    trackModification(this.isConcurrent, isConcurrent);
+    super.setConcurrent(isConcurrent);
+  }
+
+  @Override
+  public void setScope(boolean isScope) {
+    trackModification(this.isScope, isScope);
+    super.setScope(isScope);
+  }
+
+  @Override
+  public void setEventScope(boolean isEventScope) {
+    trackModification(this.isEventScope, isEventScope);
+    super.setEventScope(isEventScope);
+  }
+
+  @Override
+  public void setCaseInstanceId(String caseInstanceId) {
+    trackModification(this.caseInstanceId, caseInstanceId);
+    super.setCaseInstanceId(caseInstanceId);
+  }
+
+  @Override
+  public void setSequenceCounter(long sequenceCounter) {
+    trackModification(this.sequenceCounter, sequenceCounter);
+    super.setSequenceCounter(sequenceCounter);
+  }
+
+  @Override
+  public void incrementSequenceCounter() {
+    super.incrementSequenceCounter();
+    modificationCounter++;
+  }
+
   @Override
   public void deleteCascade2(String deleteReason) {
     this.deleteReason = deleteReason;
@@ -1519,6 +1749,13 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   protected void ensureEventSubscriptionsInitialized() {
+    if (eventSubscriptions == null) {
+      InstancePrefetchProfile prefetchProfile = getInstancePrefetchProfile(EVENT_SUBSCRIPTIONS_STATE_BIT);
+      if (prefetchProfile != null && prefetchProfile.isEventSubscriptions()) {
+        getProcessInstance().prefetchEventSubscriptions();
+      }
+    }
+
     if (eventSubscriptions == null) {
 
       eventSubscriptions = Context.getCommandContext().getEventSubscriptionManager().findEventSubscriptionsByExecution(id);
@@ -1606,6 +1843,13 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   // ///////////////////////////////////////////////////
 
   protected void ensureTasksInitialized() {
+    if (tasks == null) {
+      InstancePrefetchProfile prefetchProfile = getInstancePrefetchProfile(TASKS_STATE_BIT);
+      if (prefetchProfile != null && prefetchProfile.isTasks()) {
+        getProcessInstance().prefetchTasks();
+      }
+    }
+
     if (tasks == null) {
       tasks = Context.getCommandContext().getTaskManager().findTasksByExecutionId(id);
     }
@@ -1813,6 +2057,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   public void setParentId(String parentId) {
+    trackModification(this.parentId, parentId);
     this.parentId = parentId;
   }
 
@@ -1825,10 +2070,12 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   public void setActivityId(String activityId) {
+    trackModification(this.activityId, activityId);
     this.activityId = activityId;
   }
 
   public void setSuperExecutionId(String superExecutionId) {
+    trackModification(this.superExecutionId, superExecutionId);
     this.superExecutionId = superExecutionId;
   }
 
@@ -1851,6 +2098,7 @@ public class ExecutionEntity extends PvmExecutionImpl implements Execution, Proc
   }
 
   public void setSuspensionState(int suspensionState) {
+    trackModification(this.suspensionState, suspensionState);
     this.suspensionState = suspensionState;
   }
 
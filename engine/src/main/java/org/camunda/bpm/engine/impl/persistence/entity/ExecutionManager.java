@@ -124,6 +124,12 @@ public class ExecutionManager extends AbstractManager {
     return getDbEntityManager().selectList("selectExecutionsByQueryCriteria", executionQuery, page);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<String> findExecutionIdPageByQueryCriteria(ExecutionQueryImpl executionQuery, Page page) {
+    configureQuery(executionQuery);
+    return getDbEntityManager().selectList("selectExecutionIdPageByQueryCriteria", executionQuery, page);
+  }
+
   public long findProcessInstanceCountByQueryCriteria(ProcessInstanceQueryImpl processInstanceQuery) {
     configureQuery(processInstanceQuery);
     return (Long) getDbEntityManager().selectOne("selectProcessInstanceCountByQueryCriteria", processInstanceQuery);
@@ -141,6 +147,12 @@ public class ExecutionManager extends AbstractManager {
     return getDbEntityManager().selectList("selectProcessInstanceIdsByQueryCriteria", processInstanceQuery);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<String> findProcessInstanceIdPageByQueryCriteria(ProcessInstanceQueryImpl processInstanceQuery, Page page) {
+    configureQuery(processInstanceQuery);
+    return getDbEntityManager().selectList("selectProcessInstanceIdPageByQueryCriteria", processInstanceQuery, page);
+  }
+
   @SuppressWarnings("unchecked")
   public List<ExecutionEntity> findEventScopeExecutionsByActivityId(String activityRef, String parentExecutionId) {
     Map<String, String> parameters = new HashMap<String, String>();
@@ -21,10 +21,13 @@ import org.camunda.bpm.engine.delegate.BpmnError;
 import org.camunda.bpm.engine.externaltask.ExternalTask;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.bpmn.behavior.ExternalTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskAvailableNotification;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher;
 import org.camunda.bpm.engine.impl.incident.IncidentContext;
 import org.camunda.bpm.engine.impl.incident.IncidentHandler;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
@@ -327,6 +330,11 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
     this.lockExpirationTime = new Date(ClockUtil.getCurrentTime().getTime() + retryDuration);
     setRetriesAndManageIncidents(retries);
     produceHistoricExternalTaskFailedEvent();
+
+    if (retries > 0 && retryDuration <= 0) {
+      // the task can be fetched again right away
+      notifyExternalTaskDispatcher();
+    }
   }
   
   public void bpmnError(String errorCode) {
@@ -348,6 +356,7 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
     }
     else if (!areRetriesLeft() && retries > 0) {
       removeIncident();
+      notifyExternalTaskDispatcher();
     }
 
     setRetries(retries);
@@ -427,6 +436,8 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
   public void unlock() {
     workerId = null;
     lockExpirationTime = null;
+
+    notifyExternalTaskDispatcher();
   }
 
   public static ExternalTaskEntity createAndInsert(ExecutionEntity execution, String topic, long priority) {
@@ -446,10 +457,28 @@ public class ExternalTaskEntity implements ExternalTask, DbEntity, HasDbRevision
 
     externalTask.insert();
     externalTask.produceHistoricExternalTaskCreatedEvent();
+    externalTask.notifyExternalTaskDispatcher();
+
+    Context.getCommandContext()
+      .getExternalTaskManager()
+      .indexExternalTask(externalTask);
 
     return externalTask;
   }
 
+  /**
+   * Wakes up a client waiting for tasks of this topic once the transaction is committed.
+   * Called whenever the task becomes fetchable.
+   */
+  protected void notifyExternalTaskDispatcher() {
+    ExternalTaskDispatcher dispatcher = Context.getProcessEngineConfiguration().getExternalTaskDispatcher();
+    if (dispatcher != null && dispatcher.isInUse()) {
+      Context.getCommandContext()
+        .getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, new ExternalTaskAvailableNotification(dispatcher, topicName));
+    }
+  }
+
   protected void produceHistoricExternalTaskCreatedEvent() {
     CommandContext commandContext = Context.getCommandContext();
     commandContext.getHistoricExternalTaskLogManager().fireExternalTaskCreatedEvent(this);
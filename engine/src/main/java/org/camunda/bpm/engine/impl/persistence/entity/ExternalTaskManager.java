@@ -14,17 +14,27 @@ package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.camunda.bpm.engine.externaltask.ExternalTask;
 import org.camunda.bpm.engine.impl.Direction;
 import org.camunda.bpm.engine.impl.ExternalTaskQueryImpl;
 import org.camunda.bpm.engine.impl.ExternalTaskQueryProperty;
 import org.camunda.bpm.engine.impl.QueryOrderingProperty;
+import org.camunda.bpm.engine.impl.cfg.TransactionContext;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskIndex;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskIndexClaimListener;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskIndexNotification;
 import org.camunda.bpm.engine.impl.persistence.AbstractManager;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 
@@ -36,6 +46,8 @@ public class ExternalTaskManager extends AbstractManager {
 
   public static QueryOrderingProperty EXT_TASK_PRIORITY_ORDERING_PROPERTY = new QueryOrderingProperty(ExternalTaskQueryProperty.PRIORITY, Direction.DESCENDING);
 
+  public static final int MAX_INDEXED_TASKS_PER_FETCH = 1000;
+
   public ExternalTaskEntity findExternalTaskById(String id) {
     return getDbEntityManager().selectById(ExternalTaskEntity.class, id);
   }
@@ -63,6 +75,90 @@ public class ExternalTaskManager extends AbstractManager {
       return new ArrayList<ExternalTaskEntity>();
     }
 
+    ExternalTaskIndex index = Context.getProcessEngineConfiguration().getExternalTaskIndex();
+    if (index != null && !isAuthorizationOrTenantCheckEnabled()) {
+      return selectIndexedExternalTasksForTopics(index, topics, maxResults, usePriority);
+    }
+    else {
+      return selectAvailableExternalTasksForTopics(topics, maxResults, usePriority);
+    }
+  }
+
+  /**
+   * Takes the tasks from the {@link ExternalTaskIndex} first and loads them by id with a single query.
+   * The index is only a hint: if it cannot provide enough available tasks, the topics are queried,
+   * since tasks may have become available without this node indexing them.
+   */
+  protected List<ExternalTaskEntity> selectIndexedExternalTasksForTopics(ExternalTaskIndex index, Collection<String> topics, int maxResults, boolean usePriority) {
+    Date now = ClockUtil.getCurrentTime();
+
+    for (String topicToReconcile : index.getTopicsToReconcile(topics, now.getTime())) {
+      // one query per topic, so that each topic is limited on its own
+      List<ExternalTaskEntity> availableTasks = selectAvailableExternalTasksForTopics(Collections.singletonList(topicToReconcile), index.getMaxTasksPerTopic(), true);
+      index.reconcile(topicToReconcile, availableTasks, now.getTime());
+    }
+
+    List<ExternalTaskEntity> externalTasks = new ArrayList<ExternalTaskEntity>();
+    Set<String> externalTaskIds = new HashSet<String>();
+
+    List<String> claimedTaskIds = claimIndexedExternalTasks(index, topics, maxResults, usePriority);
+    if (!claimedTaskIds.isEmpty()) {
+      Map<String, ExternalTaskEntity> claimedTasks = new HashMap<String, ExternalTaskEntity>();
+      for (ExternalTaskEntity externalTask : findExternalTasksByIds(claimedTaskIds)) {
+        claimedTasks.put(externalTask.getId(), externalTask);
+      }
+
+      // keep the order of the index
+      for (String externalTaskId : claimedTaskIds) {
+        ExternalTaskEntity externalTask = claimedTasks.get(externalTaskId);
+        // indexed tasks may have been locked, suspended or removed in the meantime
+        if (externalTask != null
+            && topics.contains(externalTask.getTopicName())
+            && isAvailable(externalTask, now)
+            && externalTaskIds.add(externalTaskId)) {
+          externalTasks.add(externalTask);
+        }
+      }
+    }
+
+    if (externalTasks.size() < maxResults) {
+      for (ExternalTaskEntity externalTask : selectAvailableExternalTasksForTopics(topics, maxResults, usePriority)) {
+        if (externalTasks.size() >= maxResults) {
+          break;
+        }
+        if (externalTaskIds.add(externalTask.getId())) {
+          externalTasks.add(externalTask);
+        }
+      }
+    }
+
+    return externalTasks;
+  }
+
+  /**
+   * Claims tasks from the index. The claimed tasks are removed from the index once the
+   * transaction has been committed, and become available to other fetches again if it is rolled back.
+   */
+  protected List<String> claimIndexedExternalTasks(ExternalTaskIndex index, Collection<String> topics, int maxResults, boolean usePriority) {
+    // the claimed tasks are loaded with a single IN query, whose number of values is limited on some databases
+    List<String> claimedTaskIds = index.claim(topics, Math.min(maxResults, MAX_INDEXED_TASKS_PER_FETCH), usePriority);
+
+    if (!claimedTaskIds.isEmpty()) {
+      TransactionContext transactionContext = Context.getCommandContext().getTransactionContext();
+      transactionContext.addTransactionListener(TransactionState.COMMITTED, new ExternalTaskIndexClaimListener(index, claimedTaskIds, true));
+      transactionContext.addTransactionListener(TransactionState.ROLLED_BACK, new ExternalTaskIndexClaimListener(index, claimedTaskIds, false));
+    }
+
+    return claimedTaskIds;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<ExternalTaskEntity> findExternalTasksByIds(List<String> externalTaskIds) {
+    return getDbEntityManager().selectList("selectExternalTasksByIds", externalTaskIds);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<ExternalTaskEntity> selectAvailableExternalTasksForTopics(Collection<String> topics, int maxResults, boolean usePriority) {
     Map<String, Object> parameters = new HashMap<String, Object>();
     parameters.put("topics", topics);
     parameters.put("now", ClockUtil.getCurrentTime());
@@ -78,6 +174,39 @@ public class ExternalTaskManager extends AbstractManager {
     return manager.selectList("selectExternalTasksForTopics", parameter);
   }
 
+  protected boolean isAvailable(ExternalTaskEntity externalTask, Date now) {
+    Date lockExpirationTime = externalTask.getLockExpirationTime();
+
+    return (lockExpirationTime == null || !lockExpirationTime.after(now))
+        && !externalTask.isSuspended()
+        && externalTask.areRetriesLeft();
+  }
+
+  /**
+   * The index does not know about authorizations and tenants, so that
+   * it can only be used if the fetching is not restricted.
+   */
+  protected boolean isAuthorizationOrTenantCheckEnabled() {
+    return getAuthorizationManager().isAuthCheckExecuted()
+        || getTenantManager().isTenantCheckEnabled();
+  }
+
+  /**
+   * Adds the external task to the {@link ExternalTaskIndex} (if enabled)
+   * once the current transaction has been committed.
+   */
+  public void indexExternalTask(ExternalTaskEntity externalTask) {
+    ExternalTaskIndex index = Context.getProcessEngineConfiguration().getExternalTaskIndex();
+    if (index != null) {
+      ExternalTaskIndexNotification notification = new ExternalTaskIndexNotification(index,
+          externalTask.getTopicName(), externalTask.getId(), externalTask.getPriority());
+
+      Context.getCommandContext()
+        .getTransactionContext()
+        .addTransactionListener(TransactionState.COMMITTED, notification);
+    }
+  }
+
   public List<ExternalTask> findExternalTasksByQueryCriteria(ExternalTaskQueryImpl externalTaskQuery) {
     configureQuery(externalTaskQuery);
     return getDbEntityManager().selectList("selectExternalTaskByQueryCriteria", externalTaskQuery);
@@ -15,6 +15,8 @@ package org.camunda.bpm.engine.impl.persistence.entity;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,8 +29,11 @@ import org.camunda.bpm.engine.impl.HistoricProcessInstanceQueryImpl;
 import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.history.event.HistoricDetailEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricExternalTaskLogEntity;
 import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupHelper;
 import org.camunda.bpm.engine.impl.persistence.AbstractHistoricManager;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 
@@ -111,13 +116,87 @@ public class HistoricProcessInstanceManager extends AbstractHistoricManager {
   }
 
   public List<String> findHistoricProcessInstanceIdsForCleanup(Integer batchSize) {
+    return findHistoricProcessInstanceIdsForCleanup(batchSize, 0, HistoryCleanupHelper.MAX_MINUTE);
+  }
+
+  /**
+   * Only finds the instances which ended within the given range of minutes of an hour, both inclusive.
+   */
+  public List<String> findHistoricProcessInstanceIdsForCleanup(Integer batchSize, int minuteFrom, int minuteTo) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("currentTimestamp", ClockUtil.getCurrentTime());
+    parameters.put("minuteFrom", minuteFrom);
+    parameters.put("minuteTo", minuteTo);
+    // instances with a removal time are removed by their removal time instead
+    parameters.put("removalTimeBased", Context.getProcessEngineConfiguration().isHistoryCleanupRemovalTimeBased());
+
     ListQueryParameterObject parameterObject = new ListQueryParameterObject();
-    parameterObject.setParameter(ClockUtil.getCurrentTime());
+    parameterObject.setParameter(parameters);
     parameterObject.setFirstResult(0);
     parameterObject.setMaxResults(batchSize);
     return (List<String>) getDbEntityManager().selectList("selectHistoricProcessInstanceIdsForCleanup", parameterObject);
   }
 
+  /**
+   * Stores the given removal time in the historic process instance and all historic data
+   * belonging to it which has been written so far.
+   */
+  public void addRemovalTimeByProcessInstanceId(String processInstanceId, Date removalTime) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("processInstanceId", processInstanceId);
+    parameters.put("removalTime", removalTime);
+
+    getDbEntityManager().update(HistoricProcessInstanceEntity.class, "updateHistoricProcessInstanceRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricActivityInstanceEntity.class, "updateHistoricActivityInstanceRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricTaskInstanceEntity.class, "updateHistoricTaskInstanceRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricVariableInstanceEntity.class, "updateHistoricVariableInstanceRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricDetailEventEntity.class, "updateHistoricDetailRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricIdentityLinkLogEntity.class, "updateHistoricIdentityLinkRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(CommentEntity.class, "updateCommentRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(AttachmentEntity.class, "updateAttachmentRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricIncidentEntity.class, "updateHistoricIncidentRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricJobLogEventEntity.class, "updateHistoricJobLogRemovalTimeByProcessInstanceId", parameters);
+    getDbEntityManager().update(HistoricExternalTaskLogEntity.class, "updateHistoricExternalTaskLogRemovalTimeByProcessInstanceId", parameters);
+
+    // one statement per referencing table, so that each one selects the byte array ids by index
+    addByteArrayRemovalTime(processInstanceId, removalTime, "ACT_HI_VARINST", "BYTEARRAY_ID_", "PROC_INST_ID_");
+    addByteArrayRemovalTime(processInstanceId, removalTime, "ACT_HI_DETAIL", "BYTEARRAY_ID_", "PROC_INST_ID_");
+    addByteArrayRemovalTime(processInstanceId, removalTime, "ACT_HI_ATTACHMENT", "CONTENT_ID_", "PROC_INST_ID_");
+    addByteArrayRemovalTime(processInstanceId, removalTime, "ACT_HI_JOB_LOG", "JOB_EXCEPTION_STACK_ID_", "PROCESS_INSTANCE_ID_");
+    addByteArrayRemovalTime(processInstanceId, removalTime, "ACT_HI_EXT_TASK_LOG", "ERROR_DETAILS_ID_", "PROC_INST_ID_");
+  }
+
+  protected void addByteArrayRemovalTime(String processInstanceId, Date removalTime, String tableName, String byteArrayColumn, String processInstanceColumn) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("processInstanceId", processInstanceId);
+    parameters.put("removalTime", removalTime);
+    parameters.put("tableName", tableName);
+    parameters.put("byteArrayColumn", byteArrayColumn);
+    parameters.put("processInstanceColumn", processInstanceColumn);
+
+    getDbEntityManager().update(ByteArrayEntity.class, "updateHistoricByteArrayRemovalTimeByProcessInstanceId", parameters);
+  }
+
+  /**
+   * Deletes at most <code>maxResults</code> rows of the given history table whose removal time
+   * is not after the given one. The statement is executed right away, so that the number of
+   * deleted rows is known.
+   *
+   * @param minuteFrom if not <code>null</code>, only the rows whose removal time lies within
+   *   the given range of minutes of an hour, both inclusive, are deleted
+   */
+  public int deleteHistoryByRemovalTime(String tableName, Date removalTime, int maxResults, Integer minuteFrom, Integer minuteTo) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("tableName", tableName);
+    parameters.put("removalTime", removalTime);
+    parameters.put("maxResults", maxResults);
+    parameters.put("partition", minuteFrom != null);
+    parameters.put("minuteFrom", minuteFrom);
+    parameters.put("minuteTo", minuteTo);
+
+    return getDbSqlSession().executeNonEmptyUpdateStmt("deleteHistoryByRemovalTime", parameters);
+  }
+
   public Long findHistoricProcessInstanceIdsForCleanupCount() {
     ListQueryParameterObject parameterObject = new ListQueryParameterObject();
     parameterObject.setParameter(ClockUtil.getCurrentTime());
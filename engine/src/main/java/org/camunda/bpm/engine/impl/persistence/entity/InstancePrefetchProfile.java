@@ -0,0 +1,59 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.persistence.entity;
+
+/**
+ * <p>Determines which entities referenced by the executions of a process instance are
+ * prefetched together. When an execution lazily loads one of the included entities,
+ * the entities of the whole process instance are loaded with a single query and handed
+ * to all executions of the tree which have not loaded them yet.</p>
+ *
+ * <p>Prefetching requires the execution tree prefetch to be enabled. It pays off for
+ * process instances with many executions that are touched in one transaction, e.g.
+ * parallel multi-instance activities, and wastes resources if only few executions of a
+ * large process instance are accessed.</p>
+ */
+public class InstancePrefetchProfile {
+
+  protected boolean variables;
+  protected boolean tasks;
+  protected boolean eventSubscriptions;
+
+  public boolean isVariables() {
+    return variables;
+  }
+
+  public InstancePrefetchProfile setVariables(boolean variables) {
+    this.variables = variables;
+    return this;
+  }
+
+  public boolean isTasks() {
+    return tasks;
+  }
+
+  public InstancePrefetchProfile setTasks(boolean tasks) {
+    this.tasks = tasks;
+    return this;
+  }
+
+  public boolean isEventSubscriptions() {
+    return eventSubscriptions;
+  }
+
+  public InstancePrefetchProfile setEventSubscriptions(boolean eventSubscriptions) {
+    this.eventSubscriptions = eventSubscriptions;
+    return this;
+  }
+
+}
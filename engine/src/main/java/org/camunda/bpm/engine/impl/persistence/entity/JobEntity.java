@@ -27,6 +27,7 @@ import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.context.Context;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.HasDbModificationCounter;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.incident.IncidentContext;
 import org.camunda.bpm.engine.impl.incident.IncidentHandler;
@@ -49,7 +50,7 @@ import org.camunda.bpm.engine.runtime.Job;
  * @author Dave Syer
  * @author Frederik Heremans
  */
-public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRevision {
+public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRevision, HasDbModificationCounter {
 
   private final static EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
 
@@ -110,6 +111,9 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   // sequence counter //////////////////////////
   protected long sequenceCounter = 1;
 
+  // counts changes of the persistent state, see HasDbModificationCounter
+  protected transient int modificationCounter = 0;
+
   public void execute(CommandContext commandContext) {
     if (executionId != null) {
       ExecutionEntity execution = getExecution();
@@ -153,7 +157,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
       execution.addJob(this);
 
       ProcessDefinitionImpl processDefinition = execution.getProcessDefinition();
-      this.deploymentId = processDefinition.getDeploymentId();
+      setDeploymentId(processDefinition.getDeploymentId());
     }
 
     commandContext
@@ -222,6 +226,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   public void setExecution(ExecutionEntity execution) {
     if (execution != null) {
       this.execution = execution;
+      trackModification(executionId, execution.getId());
       executionId = execution.getId();
       processInstanceId = execution.getProcessInstanceId();
       this.execution.addJob(this);
@@ -230,6 +235,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
       this.execution.removeJob(this);
       this.execution = execution;
       processInstanceId = null;
+      trackModification(executionId, null);
       executionId = null;
     }
   }
@@ -255,6 +261,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setExecutionId(String executionId) {
+    trackModification(this.executionId, executionId);
     this.executionId = executionId;
   }
 
@@ -294,11 +301,13 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
     if(retries == 0 && this.retries > 0) {
       createFailedJobIncident();
     }
+    trackModification(this.retries, retries);
     this.retries = retries;
   }
 
   // special setter for MyBatis which does not influence incidents
   public void setRetriesFromPersistence(int retries) {
+    trackModification(this.retries, retries);
     this.retries = retries;
   }
 
@@ -371,6 +380,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setSuspensionState(int state) {
+    trackModification(this.suspensionState, state);
     this.suspensionState = state;
   }
 
@@ -387,6 +397,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setLockOwner(String claimedBy) {
+    trackModification(this.lockOwner, claimedBy);
     this.lockOwner = claimedBy;
   }
 
@@ -395,6 +406,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setLockExpirationTime(Date claimedUntil) {
+    trackModification(this.lockExpirationTime, claimedUntil);
     this.lockExpirationTime = claimedUntil;
   }
 
@@ -411,6 +423,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setProcessDefinitionId(String processDefinitionId) {
+    trackModification(this.processDefinitionId, processDefinitionId);
     this.processDefinitionId = processDefinitionId;
   }
 
@@ -442,6 +455,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setDuedate(Date duedate) {
+    trackModification(this.duedate, duedate);
     this.duedate = duedate;
   }
 
@@ -452,6 +466,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
 
     if(byteArray == null) {
       byteArray = createJobExceptionByteArray(exceptionBytes);
+      trackModification(exceptionByteArrayId, byteArray.getId());
       exceptionByteArrayId = byteArray.getId();
       exceptionByteArray = byteArray;
     }
@@ -470,7 +485,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setJobHandlerConfiguration(JobHandlerConfiguration configuration) {
-    this.jobHandlerConfiguration = configuration.toCanonicalString();
+    setJobHandlerConfigurationRaw(configuration.toCanonicalString());
   }
 
   public String getJobHandlerType() {
@@ -486,6 +501,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setJobHandlerConfigurationRaw(String jobHandlerConfiguration) {
+    trackModification(this.jobHandlerConfiguration, jobHandlerConfiguration);
     this.jobHandlerConfiguration = jobHandlerConfiguration;
   }
 
@@ -506,6 +522,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setJobDefinitionId(String jobDefinitionId) {
+    trackModification(this.jobDefinitionId, jobDefinitionId);
     this.jobDefinitionId = jobDefinitionId;
   }
 
@@ -517,10 +534,10 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   public void setJobDefinition(JobDefinition jobDefinition) {
     this.jobDefinition = jobDefinition;
     if (jobDefinition != null) {
-      jobDefinitionId = jobDefinition.getId();
+      setJobDefinitionId(jobDefinition.getId());
     }
     else {
-      jobDefinitionId = null;
+      setJobDefinitionId(null);
     }
   }
 
@@ -535,10 +552,10 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
 
   public void setExceptionMessage(String exceptionMessage) {
     if(exceptionMessage != null && exceptionMessage.length() > MAX_EXCEPTION_MESSAGE_LENGTH) {
-      this.exceptionMessage = exceptionMessage.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH);
-    } else {
-      this.exceptionMessage = exceptionMessage;
+      exceptionMessage = exceptionMessage.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH);
     }
+    trackModification(this.exceptionMessage, exceptionMessage);
+    this.exceptionMessage = exceptionMessage;
   }
 
   public String getExceptionByteArrayId() {
@@ -564,6 +581,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setDeploymentId(String deploymentId) {
+    trackModification(this.deploymentId, deploymentId);
     this.deploymentId = deploymentId;
   }
 
@@ -573,8 +591,8 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void resetLock() {
-    this.lockOwner = null;
-    this.lockExpirationTime = null;
+    setLockOwner(null);
+    setLockExpirationTime(null);
   }
 
   public String getActivityId() {
@@ -591,6 +609,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setPriority(long priority) {
+    trackModification(this.priority, priority);
     this.priority = priority;
   }
 
@@ -599,6 +618,7 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
   }
 
   public void setTenantId(String tenantId) {
+    trackModification(this.tenantId, tenantId);
     this.tenantId = tenantId;
   }
 
@@ -624,8 +644,26 @@ public abstract class JobEntity implements Serializable, Job, DbEntity, HasDbRev
    */
 
   public void unlock() {
-    this.lockOwner = null;
-    this.lockExpirationTime = null;
+    setLockOwner(null);
+    setLockExpirationTime(null);
+  }
+
+  // modification tracking ////////////////////////////////////////////////////
+
+  public int getModificationCounter() {
+    return modificationCounter;
+  }
+
+  protected void trackModification(Object oldValue, Object newValue) {
+    if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+      modificationCounter++;
+    }
+  }
+
+  protected void trackModification(long oldValue, long newValue) {
+    if (oldValue != newValue) {
+      modificationCounter++;
+    }
   }
 
   public abstract String getType();
@@ -162,6 +162,22 @@ public class JobManager extends AbstractManager {
 
   @SuppressWarnings("unchecked")
   public List<JobEntity> findNextJobsToExecute(Page page) {
+    Map<String,Object> params = createNextJobsToExecuteParameters();
+    return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+  }
+
+  /**
+   * Selects the same jobs as {@link #findNextJobsToExecute(Page)} but locks the
+   * selected rows until the end of the transaction. Rows locked by other transactions
+   * are skipped, so that concurrent acquisitions do not select the same jobs.
+   */
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findNextJobsToExecuteSkipLocked(Page page) {
+    Map<String,Object> params = createNextJobsToExecuteParameters();
+    return getDbEntityManager().selectList("selectNextJobsToExecuteSkipLocked", params, page);
+  }
+
+  protected Map<String, Object> createNextJobsToExecuteParameters() {
     Map<String,Object> params = new HashMap<String, Object>();
     Date now = ClockUtil.getCurrentTime();
     params.put("now", now);
@@ -188,7 +204,7 @@ public class JobManager extends AbstractManager {
     // don't apply default sorting
     params.put("applyOrdering", !orderingProperties.isEmpty());
 
-    return getDbEntityManager().selectList("selectNextJobsToExecute", params, page);
+    return params;
   }
 
   @SuppressWarnings("unchecked")
@@ -211,6 +227,11 @@ public class JobManager extends AbstractManager {
     return (JobEntity)getDbEntityManager().selectOne("selectJobsByHandlerType", handlerType);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findJobsByHandlerType(String handlerType) {
+    return getDbEntityManager().selectList("selectJobsByHandlerType", handlerType);
+  }
+
   @SuppressWarnings("unchecked")
   public List<TimerEntity> findUnlockedTimersByDuedate(Date duedate, Page page) {
     final String query = "selectUnlockedTimersByDuedate";
@@ -252,6 +273,14 @@ public class JobManager extends AbstractManager {
     return (Long) getDbEntityManager().selectOne("selectJobCountByQueryCriteria", jobQuery);
   }
 
+  public void updateJobLocks(List<String> jobIds, String lockOwner, Date lockExpirationTime) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("jobIds", jobIds);
+    parameters.put("lockOwner", lockOwner);
+    parameters.put("lockExpirationTime", lockExpirationTime);
+    getDbEntityManager().update(JobEntity.class, "updateJobLocksByIds", parameters);
+  }
+
   public void updateJobSuspensionStateById(String jobId, SuspensionState suspensionState) {
     Map<String, Object> parameters = new HashMap<String, Object>();
     parameters.put("jobId", jobId);
@@ -166,6 +166,7 @@ public class ProcessDefinitionManager extends AbstractManager implements Abstrac
     parameters.put("processDefinitionId", processDefinitionId);
     parameters.put("suspensionState", suspensionState.getStateCode());
     getDbEntityManager().update(ProcessDefinitionEntity.class, "updateProcessDefinitionSuspensionStateByParameters", configureParameterizedQuery(parameters));
+    invalidateLatestProcessDefinitions();
   }
 
   public void updateProcessDefinitionSuspensionStateByKey(String processDefinitionKey, SuspensionState suspensionState) {
@@ -174,6 +175,7 @@ public class ProcessDefinitionManager extends AbstractManager implements Abstrac
     parameters.put("isTenantIdSet", false);
     parameters.put("suspensionState", suspensionState.getStateCode());
     getDbEntityManager().update(ProcessDefinitionEntity.class, "updateProcessDefinitionSuspensionStateByParameters", configureParameterizedQuery(parameters));
+    invalidateLatestProcessDefinitions();
   }
 
   public void updateProcessDefinitionSuspensionStateByKeyAndTenantId(String processDefinitionKey, String tenantId, SuspensionState suspensionState) {
@@ -183,6 +185,18 @@ public class ProcessDefinitionManager extends AbstractManager implements Abstrac
     parameters.put("tenantId", tenantId);
     parameters.put("suspensionState", suspensionState.getStateCode());
     getDbEntityManager().update(ProcessDefinitionEntity.class, "updateProcessDefinitionSuspensionStateByParameters", configureParameterizedQuery(parameters));
+    invalidateLatestProcessDefinitions();
+  }
+
+  /**
+   * Latest versions are resolved from the deployment cache without refreshing their
+   * suspension state from the database if the latest definition index is enabled.
+   */
+  protected void invalidateLatestProcessDefinitions() {
+    Context
+      .getProcessEngineConfiguration()
+      .getDeploymentCache()
+      .invalidateLatestProcessDefinitions();
   }
 
   // delete  ///////////////////////////////////////////////////////////
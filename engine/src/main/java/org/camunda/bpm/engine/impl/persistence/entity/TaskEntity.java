@@ -36,6 +36,7 @@ import org.camunda.bpm.engine.impl.core.variable.scope.VariableStore;
 import org.camunda.bpm.engine.impl.core.variable.scope.VariableStore.VariablesProvider;
 import org.camunda.bpm.engine.impl.db.DbEntity;
 import org.camunda.bpm.engine.impl.db.EnginePersistenceLogger;
+import org.camunda.bpm.engine.impl.db.HasDbModificationCounter;
 import org.camunda.bpm.engine.impl.db.HasDbRevision;
 import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
 import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
@@ -76,7 +77,7 @@ import static org.camunda.bpm.engine.impl.util.EnsureUtil.ensureNotNull;
  * @author Falko Menge
  * @author Deivarayan Azhagappan
  */
-public class TaskEntity extends AbstractVariableScope implements Task, DelegateTask, Serializable, DbEntity, HasDbRevision, CommandContextListener, VariablesProvider<VariableInstanceEntity> {
+public class TaskEntity extends AbstractVariableScope implements Task, DelegateTask, Serializable, DbEntity, HasDbRevision, HasDbModificationCounter, CommandContextListener, VariablesProvider<VariableInstanceEntity> {
 
   protected static final EnginePersistenceLogger LOG = ProcessEngineLogger.PERSISTENCE_LOGGER;
 
@@ -148,6 +149,9 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
 
   protected transient List<PropertyChange> identityLinkChanges = new ArrayList<PropertyChange>();
 
+  // counts changes of the persistent state, see HasDbModificationCounter
+  protected transient int modificationCounter = 0;
+
   // name references of tracked properties
   public static final String ASSIGNEE = "assignee";
   public static final String DELEGATION = "delegation";
@@ -417,6 +421,24 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
     return revision+1;
   }
 
+  // modification tracking ////////////////////////////////////////////////////
+
+  public int getModificationCounter() {
+    return modificationCounter;
+  }
+
+  protected void trackModification(Object oldValue, Object newValue) {
+    if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+      modificationCounter++;
+    }
+  }
+
+  protected void trackModification(long oldValue, long newValue) {
+    if (oldValue != newValue) {
+      modificationCounter++;
+    }
+  }
+
   protected void ensureParentTaskActive() {
     if (parentTaskId != null) {
       TaskEntity parentTask = Context
@@ -552,23 +574,23 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
     if (execution!=null) {
 
       this.execution = (ExecutionEntity) execution;
-      this.executionId = this.execution.getId();
+      setExecutionId(this.execution.getId());
       this.processInstanceId = this.execution.getProcessInstanceId();
-      this.processDefinitionId = this.execution.getProcessDefinitionId();
+      setProcessDefinitionId(this.execution.getProcessDefinitionId());
 
       // get the process instance
       ExecutionEntity instance = this.execution.getProcessInstance();
       if (instance != null) {
         // set case instance id on this task
-        this.caseInstanceId = instance.getCaseInstanceId();
+        setCaseInstanceIdWithoutCascade(instance.getCaseInstanceId());
       }
 
     } else {
       this.execution = null;
-      this.executionId = null;
+      setExecutionId(null);
       this.processInstanceId = null;
-      this.processDefinitionId = null;
-      this.caseInstanceId = null;
+      setProcessDefinitionId(null);
+      setCaseInstanceIdWithoutCascade(null);
     }
   }
 
@@ -593,15 +615,15 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
     if (caseExecution!=null) {
 
       this.caseExecution = (CaseExecutionEntity) caseExecution;
-      this.caseExecutionId = this.caseExecution.getId();
-      this.caseInstanceId = this.caseExecution.getCaseInstanceId();
-      this.caseDefinitionId = this.caseExecution.getCaseDefinitionId();
+      setCaseExecutionId(this.caseExecution.getId());
+      setCaseInstanceIdWithoutCascade(this.caseExecution.getCaseInstanceId());
+      setCaseDefinitionId(this.caseExecution.getCaseDefinitionId());
 
     } else {
       this.caseExecution = null;
-      this.caseExecutionId = null;
-      this.caseInstanceId = null;
-      this.caseDefinitionId = null;
+      setCaseExecutionId(null);
+      setCaseInstanceIdWithoutCascade(null);
+      setCaseDefinitionId(null);
     }
   }
 
@@ -611,6 +633,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   }
 
   public void setCaseExecutionId(String caseExecutionId) {
+    trackModification(this.caseExecutionId, caseExecutionId);
     this.caseExecutionId = caseExecutionId;
   }
 
@@ -623,11 +646,13 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setCaseInstanceId(String caseInstanceId) {
     registerCommandContextCloseListener();
     propertyChanged(CASE_INSTANCE_ID, this.caseInstanceId, caseInstanceId);
+    trackModification(this.caseInstanceId, caseInstanceId);
     this.caseInstanceId = caseInstanceId;
   }
 
   /* plain setter for persistence */
   public void setCaseInstanceIdWithoutCascade(String caseInstanceId) {
+    trackModification(this.caseInstanceId, caseInstanceId);
     this.caseInstanceId = caseInstanceId;
   }
 
@@ -647,6 +672,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   }
 
   public void setCaseDefinitionId(String caseDefinitionId) {
+    trackModification(this.caseDefinitionId, caseDefinitionId);
     this.caseDefinitionId = caseDefinitionId;
   }
 
@@ -809,11 +835,13 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setName(String taskName) {
     registerCommandContextCloseListener();
     propertyChanged(NAME, this.name, taskName);
+    trackModification(this.name, taskName);
     this.name = taskName;
   }
 
   /* plain setter for persistence */
   public void setNameWithoutCascade(String taskName) {
+    trackModification(this.name, taskName);
     this.name = taskName;
   }
 
@@ -821,11 +849,13 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setDescription(String description) {
     registerCommandContextCloseListener();
     propertyChanged(DESCRIPTION, this.description, description);
+    trackModification(this.description, description);
     this.description = description;
   }
 
   /* plain setter for persistence */
   public void setDescriptionWithoutCascade(String description) {
+    trackModification(this.description, description);
     this.description = description;
   }
 
@@ -841,6 +871,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
 
     addIdentityLinkChanges(IdentityLinkType.ASSIGNEE, oldAssignee, assignee);
     propertyChanged(ASSIGNEE, oldAssignee, assignee);
+    trackModification(this.assignee, assignee);
     this.assignee = assignee;
 
     CommandContext commandContext = Context.getCommandContext();
@@ -857,6 +888,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
 
   /* plain setter for persistence */
   public void setAssigneeWithoutCascade(String assignee) {
+    trackModification(this.assignee, assignee);
     this.assignee = assignee;
   }
 
@@ -872,6 +904,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
 
     addIdentityLinkChanges(IdentityLinkType.OWNER, oldOwner, owner);
     propertyChanged(OWNER, oldOwner, owner);
+    trackModification(this.owner, owner);
     this.owner = owner;
 
     CommandContext commandContext = Context.getCommandContext();
@@ -886,6 +919,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
 
   /* plain setter for persistence */
   public void setOwnerWithoutCascade(String owner) {
+    trackModification(this.owner, owner);
     this.owner = owner;
   }
 
@@ -893,10 +927,12 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setDueDate(Date dueDate) {
     registerCommandContextCloseListener();
     propertyChanged(DUE_DATE, this.dueDate, dueDate);
+    trackModification(this.dueDate, dueDate);
     this.dueDate = dueDate;
   }
 
   public void setDueDateWithoutCascade(Date dueDate) {
+    trackModification(this.dueDate, dueDate);
     this.dueDate = dueDate;
   }
 
@@ -904,10 +940,12 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setPriority(int priority) {
     registerCommandContextCloseListener();
     propertyChanged(PRIORITY, this.priority, priority);
+    trackModification(this.priority, priority);
     this.priority = priority;
   }
 
   public void setPriorityWithoutCascade(int priority) {
+    trackModification(this.priority, priority);
     this.priority = priority;
   }
 
@@ -915,10 +953,12 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setParentTaskId(String parentTaskId) {
     registerCommandContextCloseListener();
     propertyChanged(PARENT_TASK, this.parentTaskId, parentTaskId);
+    trackModification(this.parentTaskId, parentTaskId);
     this.parentTaskId = parentTaskId;
   }
 
   public void setParentTaskIdWithoutCascade(String parentTaskId) {
+    trackModification(this.parentTaskId, parentTaskId);
     this.parentTaskId = parentTaskId;
   }
 
@@ -1170,6 +1210,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   }
 
   public void setCreateTime(Date createTime) {
+    trackModification(this.createTime, createTime);
     this.createTime = createTime;
   }
 
@@ -1220,6 +1261,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   }
 
   public void setProcessDefinitionId(String processDefinitionId) {
+    trackModification(this.processDefinitionId, processDefinitionId);
     this.processDefinitionId = processDefinitionId;
   }
 
@@ -1252,6 +1294,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
     this.eventName = eventName;
   }
   public void setExecutionId(String executionId) {
+    trackModification(this.executionId, executionId);
     this.executionId = executionId;
   }
   public ExecutionEntity getProcessInstance() {
@@ -1274,10 +1317,12 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   @Override
   public void setDelegationState(DelegationState delegationState) {
     propertyChanged(DELEGATION, this.delegationState, delegationState);
+    trackModification(this.delegationState, delegationState);
     this.delegationState = delegationState;
   }
 
   public void setDelegationStateWithoutCascade(DelegationState delegationState) {
+    trackModification(this.delegationState, delegationState);
     this.delegationState = delegationState;
   }
 
@@ -1320,6 +1365,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
     return suspensionState;
   }
   public void setSuspensionState(int suspensionState) {
+    trackModification(this.suspensionState, suspensionState);
     this.suspensionState = suspensionState;
   }
   @Override
@@ -1339,6 +1385,7 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
 
   @Override
   public void setTenantId(String tenantId) {
+    trackModification(this.tenantId, tenantId);
     this.tenantId = tenantId;
   }
 
@@ -1346,10 +1393,12 @@ public class TaskEntity extends AbstractVariableScope implements Task, DelegateT
   public void setFollowUpDate(Date followUpDate) {
     registerCommandContextCloseListener();
     propertyChanged(FOLLOW_UP_DATE, this.followUpDate, followUpDate);
+    trackModification(this.followUpDate, followUpDate);
     this.followUpDate = followUpDate;
   }
 
   public void setFollowUpDateWithoutCascade(Date followUpDate) {
+    trackModification(this.followUpDate, followUpDate);
     this.followUpDate = followUpDate;
   }
 
@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.profiling;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.camunda.bpm.engine.management.CommandProfile;
+
+/**
+ * A {@link CommandProfile} which is filled by the thread executing the command. It is only
+ * published to other threads by the {@link CommandProfiler} once the command has completed.
+ */
+public class CommandProfileImpl implements CommandProfile, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String commandName;
+  protected Date startTime;
+  protected long duration;
+  protected boolean failed;
+  protected Map<String, Integer> statementCounts = new HashMap<String, Integer>();
+  protected Map<String, Integer> flushedEntityCounts = new HashMap<String, Integer>();
+  protected int entityCacheSize;
+
+  public CommandProfileImpl(String commandName, Date startTime) {
+    this.commandName = commandName;
+    this.startTime = startTime;
+  }
+
+  public void statementExecuted(String statement) {
+    increment(statementCounts, statement);
+  }
+
+  public void entityFlushed(String entityType) {
+    increment(flushedEntityCounts, entityType);
+  }
+
+  public void entityCacheFlushed(int size) {
+    entityCacheSize = Math.max(entityCacheSize, size);
+  }
+
+  protected void increment(Map<String, Integer> counts, String key) {
+    Integer count = counts.get(key);
+    counts.put(key, count == null ? 1 : count + 1);
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  public Date getStartTime() {
+    return startTime;
+  }
+
+  public long getDuration() {
+    return duration;
+  }
+
+  public void setDuration(long duration) {
+    this.duration = duration;
+  }
+
+  public boolean isFailed() {
+    return failed;
+  }
+
+  public void setFailed(boolean failed) {
+    this.failed = failed;
+  }
+
+  public Map<String, Integer> getStatementCounts() {
+    return statementCounts;
+  }
+
+  public Map<String, Integer> getFlushedEntityCounts() {
+    return flushedEntityCounts;
+  }
+
+  public int getEntityCacheSize() {
+    return entityCacheSize;
+  }
+
+  public String toString() {
+    return "CommandProfile["
+      + "commandName=" + commandName
+      + ", duration=" + duration
+      + ", failed=" + failed
+      + ", statementCounts=" + statementCounts
+      + ", flushedEntityCounts=" + flushedEntityCounts
+      + ", entityCacheSize=" + entityCacheSize
+      + "]";
+  }
+
+}
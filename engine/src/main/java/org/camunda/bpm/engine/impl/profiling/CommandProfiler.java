@@ -0,0 +1,140 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.impl.profiling;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.management.CommandProfile;
+
+/**
+ * <p>Keeps the profiles of the most recently completed commands of this node in a ring buffer
+ * of fixed capacity. Once the buffer is full, each completed command overwrites the profile
+ * of the oldest one.</p>
+ *
+ * <p>The profile of the command executed by the current thread is held in a thread local so
+ * that the persistence layer can attribute SQL statements and flushed entities to it without
+ * any reference to the profiler. Commands invoked while another command is profiled on the
+ * same thread are attributed to the outermost command.</p>
+ */
+public class CommandProfiler {
+
+  public static final int DEFAULT_CAPACITY = 1000;
+
+  protected static final ThreadLocal<CommandProfileImpl> currentProfile = new ThreadLocal<CommandProfileImpl>();
+
+  protected final AtomicReferenceArray<CommandProfileImpl> profiles;
+  protected final AtomicLong completedCommands = new AtomicLong();
+
+  public CommandProfiler() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public CommandProfiler(int capacity) {
+    profiles = new AtomicReferenceArray<CommandProfileImpl>(capacity);
+  }
+
+  /**
+   * @return the profile of the command executed by the current thread or null
+   *   if no command is profiled
+   */
+  public static CommandProfileImpl getCurrentProfile() {
+    return currentProfile.get();
+  }
+
+  public static void statementExecuted(String statement) {
+    CommandProfileImpl profile = currentProfile.get();
+    if (profile != null) {
+      profile.statementExecuted(statement);
+    }
+  }
+
+  public static void entityFlushed(Class<? extends DbEntity> entityType) {
+    CommandProfileImpl profile = currentProfile.get();
+    if (profile != null && entityType != null) {
+      profile.entityFlushed(entityType.getSimpleName());
+    }
+  }
+
+  public static void entityCacheFlushed(int size) {
+    CommandProfileImpl profile = currentProfile.get();
+    if (profile != null) {
+      profile.entityCacheFlushed(size);
+    }
+  }
+
+  public CommandProfileImpl startProfile(Command<?> command) {
+    CommandProfileImpl profile = new CommandProfileImpl(command.getClass().getName(), new Date());
+    currentProfile.set(profile);
+    return profile;
+  }
+
+  public void endProfile(CommandProfileImpl profile, boolean failed) {
+    currentProfile.remove();
+
+    profile.setDuration(System.currentTimeMillis() - profile.getStartTime().getTime());
+    profile.setFailed(failed);
+
+    long index = completedCommands.getAndIncrement();
+    profiles.set((int) (index % profiles.length()), profile);
+  }
+
+  /**
+   * @return the profiles held in the buffer, ordered from the least to the most recently completed command
+   */
+  public List<CommandProfile> getProfiles() {
+    int capacity = profiles.length();
+    long end = completedCommands.get();
+    long start = Math.max(0, end - capacity);
+
+    List<CommandProfile> result = new ArrayList<CommandProfile>();
+    for (long i = start; i < end; i++) {
+      CommandProfileImpl profile = profiles.get((int) (i % capacity));
+      // slots are written concurrently, so the result is only a consistent view
+      // of the buffer if no command completes in the meantime
+      if (profile != null) {
+        result.add(profile);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the profiles held in the buffer of commands of the given class
+   */
+  public List<CommandProfile> getProfiles(String commandName) {
+    List<CommandProfile> result = new ArrayList<CommandProfile>();
+    for (CommandProfile profile : getProfiles()) {
+      if (profile.getCommandName().equals(commandName)) {
+        result.add(profile);
+      }
+    }
+    return result;
+  }
+
+  public void clear() {
+    for (int i = 0; i < profiles.length(); i++) {
+      profiles.set(i, null);
+    }
+  }
+
+  public int getCapacity() {
+    return profiles.length();
+  }
+
+}
@@ -331,7 +331,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
 
     setCompleteScope(completeScope);
 
-    isActive = false;
+    setActive(false);
     isEnded = true;
 
     if (hasReplacedParent()) {
@@ -395,7 +395,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
 
     }
 
-    isActive = false;
+    setActive(false);
     isEnded = true;
 
     if (hasReplacedParent()) {
@@ -683,8 +683,8 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
    */
   public void replace(PvmExecutionImpl execution) {
     // activity instance id handling
-    this.activityInstanceId = execution.getActivityInstanceId();
-    this.isActive = execution.isActive;
+    setActivityInstanceId(execution.getActivityInstanceId());
+    setActive(execution.isActive);
 
     this.replacedBy = null;
     execution.replacedBy = this;
@@ -879,7 +879,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
 
     this.skipCustomListeners = skipCustomListeners;
     this.skipIoMapping = skipIoMappings;
-    this.activityInstanceId = null;
+    setActivityInstanceId(null);
     this.isEnded = false;
 
     if (!activityStack.isEmpty()) {
@@ -996,7 +996,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
       propagatingExecution = getReplacedBy();
     }
 
-    propagatingExecution.isActive = true;
+    propagatingExecution.setActive(true);
     propagatingExecution.isEnded = false;
 
     if (_transitions.isEmpty()) {
@@ -1015,7 +1015,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
 
   @Override
   public void inactivate() {
-    this.isActive = false;
+    setActive(false);
   }
 
   // executions ///////////////////////////////////////////////////////////////
@@ -1184,7 +1184,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
   @Override
   public void enterActivityInstance() {
     ActivityImpl activity = getActivity();
-    activityInstanceId = generateActivityInstanceId(activity.getId());
+    setActivityInstanceId(generateActivityInstanceId(activity.getId()));
 
     LOG.debugEnterActivityInstance(this, getParentActivityInstanceId());
 
@@ -1220,7 +1220,7 @@ public abstract class PvmExecutionImpl extends CoreExecution implements Activity
     if (activityInstanceId != null) {
       LOG.debugLeavesActivityInstance(this, activityInstanceId);
     }
-    activityInstanceId = getParentActivityInstanceId();
+    setActivityInstanceId(getParentActivityInstanceId());
 
     activityInstanceState = ActivityInstanceState.DEFAULT.getStateCode();
   }
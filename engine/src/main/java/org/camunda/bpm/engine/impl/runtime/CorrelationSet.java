@@ -37,6 +37,17 @@ public class CorrelationSet {
     this.isTenantIdSet = builder.isTenantIdSet();
   }
 
+  public CorrelationSet(String businessKey, Map<String, Object> correlationKeys, Map<String, Object> localCorrelationKeys,
+      String processInstanceId, String processDefinitionId, String tenantId, boolean isTenantIdSet) {
+    this.businessKey = businessKey;
+    this.correlationKeys = correlationKeys;
+    this.localCorrelationKeys = localCorrelationKeys;
+    this.processInstanceId = processInstanceId;
+    this.processDefinitionId = processDefinitionId;
+    this.tenantId = tenantId;
+    this.isTenantIdSet = isTenantIdSet;
+  }
+
   public String getBusinessKey() {
     return businessKey;
   }
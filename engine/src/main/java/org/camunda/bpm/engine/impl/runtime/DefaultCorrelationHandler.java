@@ -15,10 +15,12 @@ package org.camunda.bpm.engine.impl.runtime;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 import org.camunda.bpm.engine.impl.ExecutionQueryImpl;
+import org.camunda.bpm.engine.impl.Page;
 import org.camunda.bpm.engine.impl.ProcessEngineLogger;
 import org.camunda.bpm.engine.impl.bpmn.parser.EventSubscriptionDeclaration;
 import org.camunda.bpm.engine.impl.cmd.CommandLogger;
@@ -78,7 +80,108 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
   }
 
   protected List<CorrelationHandlerResult> correlateMessageToExecutions(CommandContext commandContext, String messageName, CorrelationSet correlationSet) {
+    ExecutionQueryImpl query = createCorrelationQuery(messageName, correlationSet);
 
+    List<Execution> matchingExecutions = query.evaluateExpressionsAndExecuteList(commandContext, null);
+
+    return toCorrelationHandlerResults(matchingExecutions);
+  }
+
+  /**
+   * Correlates the message to the next page of matching executions in the order of their ids,
+   * so that a message can be correlated to a large number of executions in chunks.
+   *
+   * @param executionIdAfter only executions with a greater id are matched, may be null
+   * @param executionIdUpTo only executions with a lower or equal id are matched, may be null
+   * @param subscribedBefore only executions which subscribed to the message at or before this time
+   *   are matched, may be null
+   * @param maxResults the maximal number of matched executions
+   */
+  public List<CorrelationHandlerResult> correlateMessageToExecutions(CommandContext commandContext, String messageName,
+      CorrelationSet correlationSet, String executionIdAfter, String executionIdUpTo, Date subscribedBefore, int maxResults) {
+
+    ExecutionQueryImpl query = createCorrelationPageQuery(messageName, correlationSet, executionIdAfter, executionIdUpTo, subscribedBefore);
+
+    List<Execution> matchingExecutions = query.evaluateExpressionsAndExecuteList(commandContext, new Page(0, maxResults));
+
+    return toCorrelationHandlerResults(matchingExecutions);
+  }
+
+  /**
+   * Selects the ids of the next page of matching executions in the order of their ids.
+   *
+   * @param executionIdAfter only executions with a greater id are matched, may be null
+   * @param executionIdUpTo only executions with a lower or equal id are matched, may be null
+   * @param subscribedBefore only executions which subscribed to the message at or before this time
+   *   are matched, may be null
+   * @param maxResults the maximal number of matched executions
+   */
+  public List<String> findCorrelatedExecutionIds(CommandContext commandContext, String messageName,
+      CorrelationSet correlationSet, String executionIdAfter, String executionIdUpTo, Date subscribedBefore, int maxResults) {
+
+    ExecutionQueryImpl query = createCorrelationPageQuery(messageName, correlationSet, executionIdAfter, executionIdUpTo, subscribedBefore);
+
+    return query.executeIdPage(commandContext, new Page(0, maxResults));
+  }
+
+  /**
+   * Selects the greatest id of the matching executions. Executions which are created later
+   * may get a greater id, so that the id can bound the pages of a correlation in chunks.
+   *
+   * @param subscribedBefore only executions which subscribed to the message at or before this time
+   *   are matched, may be null
+   * @return the greatest id or <code>null</code> if no execution matches
+   */
+  public String findLastCorrelatedExecutionId(CommandContext commandContext, String messageName,
+      CorrelationSet correlationSet, Date subscribedBefore) {
+
+    ExecutionQueryImpl query = createCorrelationQuery(messageName, correlationSet);
+    query.eventSubscriptionCreatedBefore(subscribedBefore);
+    query.orderByExecutionId().desc();
+
+    List<String> executionIds = query.executeIdPage(commandContext, new Page(0, 1));
+
+    return executionIds.isEmpty() ? null : executionIds.get(0);
+  }
+
+  /**
+   * @param subscribedBefore only executions which subscribed to the message at or before this time
+   *   are counted, may be null
+   * @return the number of matching executions
+   */
+  public long countCorrelatedExecutions(CommandContext commandContext, String messageName,
+      CorrelationSet correlationSet, Date subscribedBefore) {
+
+    ExecutionQueryImpl query = createCorrelationQuery(messageName, correlationSet);
+    query.eventSubscriptionCreatedBefore(subscribedBefore);
+
+    return query.evaluateExpressionsAndExecuteCount(commandContext);
+  }
+
+  protected ExecutionQueryImpl createCorrelationPageQuery(String messageName, CorrelationSet correlationSet,
+      String executionIdAfter, String executionIdUpTo, Date subscribedBefore) {
+
+    ExecutionQueryImpl query = createCorrelationQuery(messageName, correlationSet);
+    query.executionIdAfter(executionIdAfter);
+    query.executionIdUpTo(executionIdUpTo);
+    query.eventSubscriptionCreatedBefore(subscribedBefore);
+    query.orderByExecutionId().asc();
+
+    return query;
+  }
+
+  protected List<CorrelationHandlerResult> toCorrelationHandlerResults(List<Execution> matchingExecutions) {
+    List<CorrelationHandlerResult> result = new ArrayList<CorrelationHandlerResult>(matchingExecutions.size());
+
+    for (Execution matchingExecution : matchingExecutions) {
+      CorrelationHandlerResult correlationResult = CorrelationHandlerResult.matchedExecution((ExecutionEntity) matchingExecution);
+      result.add(correlationResult);
+    }
+
+    return result;
+  }
+
+  protected ExecutionQueryImpl createCorrelationQuery(String messageName, CorrelationSet correlationSet) {
     ExecutionQueryImpl query = new ExecutionQueryImpl();
 
     Map<String, Object> correlationKeys = correlationSet.getCorrelationKeys();
@@ -123,16 +226,7 @@ public class DefaultCorrelationHandler implements CorrelationHandler {
     // restrict to active executions
     query.active();
 
-    List<Execution> matchingExecutions = query.evaluateExpressionsAndExecuteList(commandContext, null);
-
-    List<CorrelationHandlerResult> result = new ArrayList<CorrelationHandlerResult>(matchingExecutions.size());
-
-    for (Execution matchingExecution : matchingExecutions) {
-      CorrelationHandlerResult correlationResult = CorrelationHandlerResult.matchedExecution((ExecutionEntity) matchingExecution);
-      result.add(correlationResult);
-    }
-
-    return result;
+    return query;
   }
 
   @Override
@@ -21,7 +21,15 @@ import javax.xml.parsers.SAXParserFactory;
  */
 public class Parser {
 
-  protected static SAXParserFactory defaultSaxParserFactory = SAXParserFactory.newInstance();
+  /**
+   * A parse configures the factory (e.g. to validate against a schema) before it creates its parser.
+   * Since deployment resources may be parsed concurrently, each thread uses its own factory.
+   */
+  protected static ThreadLocal<SAXParserFactory> saxParserFactories = new ThreadLocal<SAXParserFactory>() {
+    protected SAXParserFactory initialValue() {
+      return SAXParserFactory.newInstance();
+    }
+  };
   
   public static final Parser INSTANCE = new Parser();
 
@@ -34,6 +42,6 @@ public class Parser {
   }
 
   protected SAXParserFactory getSaxParserFactory() {
-    return defaultSaxParserFactory;
+    return saxParserFactories.get();
   }
 }
@@ -0,0 +1,63 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Where a command executed on this node spent its time: the SQL statements it executed,
+ * the entities it flushed and the size of its entity cache. Command profiles are only
+ * recorded if command profiling is enabled in the process engine configuration.
+ *
+ * @since 7.8
+ */
+public interface CommandProfile {
+
+  /**
+   * @return the fully qualified class name of the command
+   */
+  String getCommandName();
+
+  /**
+   * @return the time when the execution of the command started
+   */
+  Date getStartTime();
+
+  /**
+   * @return the wall time in milliseconds spent executing the command,
+   *   including closing its command context and flushing its entities
+   */
+  long getDuration();
+
+  /**
+   * @return true if the command failed with an exception
+   */
+  boolean isFailed();
+
+  /**
+   * @return the number of executions of each SQL statement, keyed by the id of the MyBatis statement
+   */
+  Map<String, Integer> getStatementCounts();
+
+  /**
+   * @return the number of flushed database operations, keyed by the simple class name of the entity
+   */
+  Map<String, Integer> getFlushedEntityCounts();
+
+  /**
+   * @return the largest number of entities held in the entity cache when the command flushed
+   */
+  int getEntityCacheSize();
+
+}
@@ -0,0 +1,64 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * The size and usage of one of the deployment caches of the engine on this node,
+ * e.g. the process definition cache.
+ *
+ * @since 7.8
+ */
+public interface DeploymentCacheStatistics {
+
+  /**
+   * @return the name of the cache, e.g. <code>PROC_DEF_CACHE</code>
+   */
+  String getName();
+
+  /**
+   * @return the number of cached entries
+   */
+  int getSize();
+
+  /**
+   * @return the total estimated weight of the cached entries, or -1 if the cache is not weighted
+   */
+  long getWeight();
+
+  /**
+   * @return the number of lookups which found a cached entry, or -1 if the cache keeps no statistics
+   */
+  long getHitCount();
+
+  /**
+   * @return the number of lookups which found no cached entry, or -1 if the cache keeps no statistics
+   */
+  long getMissCount();
+
+  /**
+   * @return the number of entries which were parsed or read because they were not cached,
+   *   or -1 if the cache keeps no statistics
+   */
+  long getLoadCount();
+
+  /**
+   * @return the total time in milliseconds spent on loading entries, or -1 if the cache keeps no statistics
+   */
+  long getTotalLoadTime();
+
+  /**
+   * @return the number of entries which were evicted or expired, or -1 if the cache keeps no statistics
+   */
+  long getEvictionCount();
+
+}
@@ -57,9 +57,48 @@ public class Metrics {
   public final static String EXECUTED_DECISION_ELEMENTS = "executed-decision-elements";
 
   /**
-   * Number of instances removed by history cleanup.
+   * Number of instances removed by history cleanup. If the history cleanup runs in several partitions,
+   * the instances removed per partition are additionally reported with the partition's range of minutes
+   * as suffix, e.g. <code>history-cleanup-removed-process-instances-0-29</code>.
    */
   public final static String HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES = "history-cleanup-removed-process-instances";
   public final static String HISTORY_CLEANUP_REMOVED_CASE_INSTANCES = "history-cleanup-removed-case-instances";
   public final static String HISTORY_CLEANUP_REMOVED_DECISION_INSTANCES = "history-cleanup-removed-decision-instances";
+
+  /**
+   * Duration in milliseconds of the commands executed by the engine (recorded as histogram).
+   */
+  public final static String COMMAND_DURATION = "command-duration";
+
+  /**
+   * Duration in milliseconds of the execution of a job by the job executor (recorded as histogram).
+   */
+  public final static String JOB_EXECUTION_TIME = "job-execution-time";
+
+  /**
+   * Duration in milliseconds of a job acquisition for an engine (recorded as histogram).
+   */
+  public final static String JOB_ACQUISITION_ROUND_TIME = "job-acquisition-round-time";
+
+  /**
+   * Number of database operations executed by a flush of the entity manager (recorded as histogram).
+   */
+  public final static String FLUSH_SIZE = "flush-size";
+
+  /**
+   * Duration in milliseconds of parsing a definition or reading a model instance which was
+   * not found in the deployment cache (recorded as histogram).
+   */
+  public final static String DEPLOYMENT_CACHE_LOAD_TIME = "deployment-cache-load-time";
+
+  /**
+   * Number of definitions and model instances which were found in the deployment cache.
+   */
+  public final static String DEPLOYMENT_CACHE_HIT = "deployment-cache-hit";
+
+  /**
+   * Number of definitions and model instances which were not found in the deployment cache
+   * and had to be parsed or read.
+   */
+  public final static String DEPLOYMENT_CACHE_MISS = "deployment-cache-miss";
 }
@@ -0,0 +1,58 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.management;
+
+/**
+ * The distribution of the values recorded for a metric (e.g. durations in milliseconds)
+ * by the engine on this node since the metrics were last reported.
+ *
+ * @since 7.8
+ */
+public interface MetricsHistogram {
+
+  /**
+   * Returns the name of the metric.
+   *
+   * @see constants in {@link Metrics} for a list of names which can be returned here
+   */
+  String getName();
+
+  /**
+   * @return the number of recorded values
+   */
+  long getCount();
+
+  /**
+   * @return the sum of all recorded values
+   */
+  long getSum();
+
+  /**
+   * @return the largest recorded value or 0 if no value was recorded
+   */
+  long getMax();
+
+  /**
+   * @return the arithmetic mean of the recorded values or 0 if no value was recorded
+   */
+  double getMean();
+
+  /**
+   * Returns an upper bound of the given percentile of the recorded values. The bound
+   * deviates from the exact percentile by at most 25 percent.
+   *
+   * @param percentile a value between 0 and 100, e.g. 99 for the 99th percentile
+   */
+  long getValueAtPercentile(double percentile);
+
+}
@@ -16,9 +16,11 @@ import java.util.List;
 import java.util.Map;
 
 import org.camunda.bpm.engine.AuthorizationException;
+import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
 import org.camunda.bpm.engine.authorization.Permissions;
 import org.camunda.bpm.engine.authorization.Resources;
+import org.camunda.bpm.engine.batch.Batch;
 
 /**
  * <p>A fluent builder for defining message correlation</p>
@@ -233,6 +235,50 @@ public interface MessageCorrelationBuilder {
    */
   List<MessageCorrelationResult> correlateAllWithResult();
 
+  /**
+   * <p>Behaves like {@link #correlateAll()}, however correlates the message to the waiting executions in chunks of
+   * the given size, ordered by their ids. Each chunk is correlated in a separate transaction if this method is not
+   * invoked inside of a command, so that a failing chunk does not roll back the chunks correlated before.</p>
+   *
+   * <p>Matching message start events are triggered together with the first chunk. Executions which start to wait for
+   * the message while it is correlated may be correlated as well.</p>
+   *
+   * <p>Note that chunked correlation is only supported with the default correlation handler.</p>
+   *
+   * @param chunkSize the maximal number of executions correlated in one transaction
+   *
+   * @throws AuthorizationException
+   *          <li>if at least one execution is matched and the user has no {@link Permissions#UPDATE} permission on
+   *          {@link Resources#PROCESS_INSTANCE} or no {@link Permissions#UPDATE_INSTANCE} permission on
+   *          {@link Resources#PROCESS_DEFINITION}.</li>
+   *          <li>if one process definition is matched and the user has no {@link Permissions#CREATE} permission on
+   *          {@link Resources#PROCESS_INSTANCE} and no {@link Permissions#CREATE_INSTANCE} permission on
+   *          {@link Resources#PROCESS_DEFINITION}.</li>
+   *
+   * @return the number of message correlations
+   * @since 7.8
+   */
+  long correlateAllInChunks(int chunkSize);
+
+  /**
+   * <p>Correlates the message asynchronously to all waiting executions which match the correlation.
+   * The matching executions are determined when the batch is created, the message is correlated to
+   * them by the jobs of the batch. Executions which are no longer waiting for the message when a job
+   * is executed are skipped.</p>
+   *
+   * <p>Message start events are not triggered. The payload variables must have
+   * a primitive value, i.e. a string, boolean, number or null.</p>
+   *
+   * @throws BadUserRequestException
+   *          if no execution is matched by the correlation
+   * @throws AuthorizationException
+   *          if the user has no {@link Permissions#CREATE} permission on {@link Resources#BATCH}.
+   *
+   * @return the batch which correlates the message
+   * @since 7.8
+   */
+  Batch correlateAllAsync();
+
   /**
    * Executes the message correlation.
    *
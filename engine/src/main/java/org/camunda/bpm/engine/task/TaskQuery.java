@@ -19,6 +19,7 @@ import java.util.List;
 import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.query.Query;
 import org.camunda.bpm.engine.variable.type.ValueType;
 
@@ -947,4 +948,15 @@ public interface TaskQuery extends Query<TaskQuery, Task>{
    * </ul>
    */
   TaskQuery endOr();
+
+  /**
+   * Executes the query and returns at most <code>maxResults</code> tasks ordered by id
+   * which come after the given one. Unlike {@link #listPage(int, int)}, the database does not need to
+   * skip the results of the previous pages, so that iterating through many results stays fast.
+   *
+   * @param afterId the id of the last task of the previous page or <code>null</code> to get the first page
+   *
+   * @throws NotValidException if an ordering other than the default ordering by id was specified
+   */
+  List<Task> listAfter(String afterId, int maxResults);
 }
@@ -157,6 +157,8 @@ drop index ACT_IDX_PROCDEF_VER_TAG;
 drop index ACT_IDX_JOB_EXECUTION_ID;
 drop index ACT_IDX_JOB_HANDLER;
 
+drop index ACT_IDX_BYTEARRAY_RM_TIME;
+
 drop table ACT_GE_PROPERTY;
 drop table ACT_GE_BYTEARRAY;
 drop table ACT_RE_DEPLOYMENT;
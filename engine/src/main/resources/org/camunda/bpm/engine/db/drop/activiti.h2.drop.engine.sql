@@ -149,6 +149,8 @@ drop index ACT_IDX_PROCDEF_VER_TAG;
 drop index ACT_IDX_JOB_EXECUTION_ID;
 drop index ACT_IDX_JOB_HANDLER;
 
+drop index ACT_IDX_BYTEARRAY_RM_TIME;
+
 drop table ACT_GE_PROPERTY if exists;
 drop table ACT_GE_BYTEARRAY if exists;
 drop table ACT_RE_DEPLOYMENT if exists;
@@ -52,6 +52,23 @@ drop index ACT_HI_EXT_TASK_LOG_TENANT_ID;
 drop index ACT_IDX_HI_OP_LOG_PROCINST;
 drop index ACT_IDX_HI_OP_LOG_PROCDEF;
 
+drop index ACT_IDX_HI_PRO_INST_RM_TIME;
+drop index ACT_IDX_HI_ACT_INST_RM_TIME;
+drop index ACT_IDX_HI_TASK_INST_RM_TIME;
+drop index ACT_IDX_HI_TASK_INST_PROCINST;
+drop index ACT_IDX_HI_VAR_INST_RM_TIME;
+drop index ACT_IDX_HI_DETAIL_RM_TIME;
+drop index ACT_IDX_HI_IDENT_LINK_RM_TIME;
+drop index ACT_IDX_HI_IDENT_LNK_TASK_ID;
+drop index ACT_IDX_HI_COMMENT_RM_TIME;
+drop index ACT_IDX_HI_COMMENT_PROCINST;
+drop index ACT_IDX_HI_ATTACHMENT_RM_TIME;
+drop index ACT_IDX_HI_ATTACHMENT_PROCINST;
+drop index ACT_IDX_HI_INCIDENT_RM_TIME;
+drop index ACT_IDX_HI_INCIDENT_PROCINST;
+drop index ACT_IDX_HI_JOB_LOG_RM_TIME;
+drop index ACT_IDX_HI_EXT_TASK_RM_TIME;
+
 drop table ACT_HI_PROCINST if exists;
 drop table ACT_HI_ACTINST if exists;
 drop table ACT_HI_VARINST if exists;
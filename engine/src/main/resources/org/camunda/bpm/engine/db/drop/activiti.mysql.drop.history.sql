@@ -52,6 +52,23 @@ drop index ACT_HI_EXT_TASK_LOG_TENANT_ID on ACT_HI_EXT_TASK_LOG;
 drop index ACT_IDX_HI_OP_LOG_PROCINST on ACT_HI_OP_LOG;
 drop index ACT_IDX_HI_OP_LOG_PROCDEF on ACT_HI_OP_LOG;
 
+drop index ACT_IDX_HI_PRO_INST_RM_TIME on ACT_HI_PROCINST;
+drop index ACT_IDX_HI_ACT_INST_RM_TIME on ACT_HI_ACTINST;
+drop index ACT_IDX_HI_TASK_INST_RM_TIME on ACT_HI_TASKINST;
+drop index ACT_IDX_HI_TASK_INST_PROCINST on ACT_HI_TASKINST;
+drop index ACT_IDX_HI_VAR_INST_RM_TIME on ACT_HI_VARINST;
+drop index ACT_IDX_HI_DETAIL_RM_TIME on ACT_HI_DETAIL;
+drop index ACT_IDX_HI_IDENT_LINK_RM_TIME on ACT_HI_IDENTITYLINK;
+drop index ACT_IDX_HI_IDENT_LNK_TASK_ID on ACT_HI_IDENTITYLINK;
+drop index ACT_IDX_HI_COMMENT_RM_TIME on ACT_HI_COMMENT;
+drop index ACT_IDX_HI_COMMENT_PROCINST on ACT_HI_COMMENT;
+drop index ACT_IDX_HI_ATTACHMENT_RM_TIME on ACT_HI_ATTACHMENT;
+drop index ACT_IDX_HI_ATTACHMENT_PROCINST on ACT_HI_ATTACHMENT;
+drop index ACT_IDX_HI_INCIDENT_RM_TIME on ACT_HI_INCIDENT;
+drop index ACT_IDX_HI_INCIDENT_PROCINST on ACT_HI_INCIDENT;
+drop index ACT_IDX_HI_JOB_LOG_RM_TIME on ACT_HI_JOB_LOG;
+drop index ACT_IDX_HI_EXT_TASK_RM_TIME on ACT_HI_EXT_TASK_LOG;
+
 drop table if exists ACT_HI_PROCINST;
 drop table if exists ACT_HI_ACTINST;
 drop table if exists ACT_HI_VARINST;
@@ -165,6 +165,22 @@ public class ManagementAuthorizationTest extends AuthorizationTest {
     assertEquals(processEngineConfiguration.getHistoryLevel().getId(), historyLevel);
   }
 
+  // get metrics histograms ///////////////////////////
+
+  public void testGetMetricsHistogramsWithoutAuthorization() {
+    // given
+
+    try {
+      // when
+      managementService.getMetricsHistograms();
+      fail("Exception expected: It should not be possible to get the metrics histograms");
+    } catch (AuthorizationException e) {
+      // then
+      String message = e.getMessage();
+      assertTextPresent("ENGINE-03029 Required authenticated group 'camunda-admin'", message);
+    }
+  }
+
   // database schema upgrade ///////////////////////////
 
   public void testDataSchemaUpgradeWithoutAuthorization() {
@@ -0,0 +1,197 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperationType;
+import org.camunda.bpm.engine.impl.db.sql.DbSqlSession;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class JdbcBatchProcessingCfgTest {
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .userTask("task")
+      .endEvent()
+      .done();
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setJdbcBatchProcessing(true);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+
+  @Before
+  public void setUp() {
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+  }
+
+  @Test
+  public void shouldUseBatchProcessingInDbSqlSession() {
+    boolean isBatchProcessing = engineRule.getProcessEngineConfiguration()
+      .getCommandExecutorTxRequired()
+      .execute(new Command<Boolean>() {
+        public Boolean execute(CommandContext commandContext) {
+          return commandContext.getDbSqlSession().isBatchProcessing();
+        }
+      });
+
+    assertTrue(isBatchProcessing);
+  }
+
+  @Test
+  public void shouldExecuteProcessWithBatchedFlush() {
+    // given
+    testRule.deploy(PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskService.complete(task.getId());
+    }
+
+    // then
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+
+  @Test
+  public void shouldDetectConcurrentUpdateInBatchedFlush() {
+    // given
+    testRule.deploy(PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+
+    Task task1 = taskService.createTaskQuery().singleResult();
+    Task task2 = taskService.createTaskQuery().singleResult();
+
+    task1.setName("first");
+    taskService.saveTask(task1);
+
+    // when
+    task2.setName("second");
+    try {
+      taskService.saveTask(task2);
+      fail("expected optimistic locking exception");
+    } catch (OptimisticLockingException e) {
+      // then
+      assertEquals("first", taskService.createTaskQuery().singleResult().getName());
+    }
+  }
+
+  @Test
+  public void shouldFlushInsertsUpdatesAndDeletesTogether() {
+    // given
+    Task taskToUpdate = taskService.newTask("taskToUpdate");
+    taskService.saveTask(taskToUpdate);
+    Task taskToDelete = taskService.newTask("taskToDelete");
+    taskService.saveTask(taskToDelete);
+
+    // when a single flush inserts, updates and deletes
+    final Task updatedTask = taskService.createTaskQuery().taskId("taskToUpdate").singleResult();
+    engineRule.getProcessEngineConfiguration()
+      .getCommandExecutorTxRequired()
+      .execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          taskService.saveTask(taskService.newTask("insertedTask"));
+
+          updatedTask.setName("updated");
+          taskService.saveTask(updatedTask);
+
+          taskService.deleteTask("taskToDelete", true);
+          return null;
+        }
+      });
+
+    // then
+    assertEquals(1, taskService.createTaskQuery().taskId("insertedTask").count());
+    assertEquals("updated", taskService.createTaskQuery().taskId("taskToUpdate").singleResult().getName());
+    assertNull(taskService.createTaskQuery().taskId("taskToDelete").singleResult());
+
+    taskService.deleteTask("insertedTask", true);
+    taskService.deleteTask("taskToUpdate", true);
+  }
+
+  @Test
+  public void shouldReportBatchedOperationsSentBeforeSelect() {
+    // given
+    taskService.saveTask(taskService.newTask("task"));
+
+    // when a stale update is pending while a select is executed
+    List<DbOperation> flushedOperations = engineRule.getProcessEngineConfiguration()
+      .getCommandExecutorTxRequired()
+      .execute(new Command<List<DbOperation>>() {
+        public List<DbOperation> execute(CommandContext commandContext) {
+          DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+          TaskEntity task = commandContext.getTaskManager().findTaskById("task");
+
+          int revision = task.getRevision();
+          task.setRevision(revision + 1);
+
+          DbEntityOperation update = new DbEntityOperation();
+          update.setOperationType(DbOperationType.UPDATE);
+          update.setEntityType(TaskEntity.class);
+          update.setEntity(task);
+          dbSqlSession.executeDbOperation(update);
+
+          dbSqlSession.selectById(TaskEntity.class, "task");
+
+          List<DbOperation> operations = dbSqlSession.flushOperations();
+          task.setRevision(revision);
+          return operations;
+        }
+      });
+
+    // then the update is reported as failed instead of being discarded
+    assertEquals(1, flushedOperations.size());
+    assertTrue(flushedOperations.get(0).isFailed());
+
+    taskService.deleteTask("task", true);
+  }
+
+}
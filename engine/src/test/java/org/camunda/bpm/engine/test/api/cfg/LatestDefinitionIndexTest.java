@@ -0,0 +1,228 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceCmd;
+import org.camunda.bpm.engine.impl.db.ListQueryParameterObject;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.LatestDefinitionIndex;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
+import org.camunda.bpm.engine.management.CommandProfile;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class LatestDefinitionIndexTest {
+
+  protected static final String SELECT_LATEST_STATEMENT = "selectLatestProcessDefinitionByKey";
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setLatestDefinitionIndexEnabled(true);
+      configuration.setCommandProfilingEnabled(true);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RepositoryService repositoryService;
+  protected RuntimeService runtimeService;
+  protected CommandProfiler commandProfiler;
+
+  @Before
+  public void setUp() {
+    repositoryService = engineRule.getRepositoryService();
+    runtimeService = engineRule.getRuntimeService();
+    commandProfiler = engineRule.getProcessEngineConfiguration().getCommandProfiler();
+  }
+
+  @Test
+  public void testStartLatestVersionWithoutQuery() {
+    // given
+    testRule.deploy(PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+    commandProfiler.clear();
+
+    // when
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then the latest version is not queried
+    assertNull(getStatementCountOfLastStart(SELECT_LATEST_STATEMENT));
+  }
+
+  @Test
+  public void testStartNewVersion() {
+    // given
+    testRule.deploy(PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when a new version is deployed
+    testRule.deploy(PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    String latestDefinitionId = repositoryService.createProcessDefinitionQuery()
+      .processDefinitionKey("process")
+      .latestVersion()
+      .singleResult()
+      .getId();
+    assertEquals(latestDefinitionId, processInstance.getProcessDefinitionId());
+  }
+
+  @Test
+  public void testStartPreviousVersionAfterDeletion() {
+    // given
+    testRule.deploy(PROCESS);
+    Deployment deployment = repositoryService.createDeployment()
+      .addModelInstance("process.bpmn", PROCESS)
+      .deploy();
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    repositoryService.deleteDeployment(deployment.getId(), true);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    assertEquals(1, repositoryService.getProcessDefinition(processInstance.getProcessDefinitionId()).getVersion());
+  }
+
+  @Test
+  public void testSuspendIndexedVersion() {
+    // given
+    testRule.deploy(PROCESS);
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    repositoryService.suspendProcessDefinitionByKey("process");
+
+    // then
+    try {
+      runtimeService.startProcessInstanceByKey("process");
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSuspendIndexedVersionOnOtherNode() {
+    // given
+    testRule.deploy(PROCESS);
+    final String processDefinitionId = runtimeService.startProcessInstanceByKey("process").getProcessDefinitionId();
+
+    // when the definition is suspended without invalidating the index, like on another node
+    engineRule.getProcessEngineConfiguration().getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("processDefinitionId", processDefinitionId);
+        parameters.put("suspensionState", SuspensionState.SUSPENDED.getStateCode());
+        commandContext.getDbEntityManager().update(ProcessDefinitionEntity.class,
+            "updateProcessDefinitionSuspensionStateByParameters", new ListQueryParameterObject(parameters, 0, 1));
+        return null;
+      }
+    });
+
+    // then the indexed version is not started
+    try {
+      runtimeService.startProcessInstanceByKey("process");
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testExpireEntry() {
+    // given
+    LatestDefinitionIndex index = new LatestDefinitionIndex(100);
+    index.put("process", LatestDefinitionIndex.ANY_TENANT, "id", index.getGeneration());
+
+    // then
+    assertEquals("id", index.get("process", LatestDefinitionIndex.ANY_TENANT, System.currentTimeMillis()));
+    assertNull(index.get("process", LatestDefinitionIndex.ANY_TENANT, System.currentTimeMillis() + 100));
+  }
+
+  @Test
+  public void testDoNotIndexResultReadBeforeInvalidation() {
+    // given
+    LatestDefinitionIndex index = new LatestDefinitionIndex(10000);
+    long generation = index.getGeneration();
+
+    // when the key is invalidated while the latest version is queried
+    index.invalidate("process");
+    index.put("process", LatestDefinitionIndex.ANY_TENANT, "id", generation);
+
+    // then
+    assertNull(index.get("process", LatestDefinitionIndex.ANY_TENANT, System.currentTimeMillis()));
+  }
+
+  @Test
+  public void testSeparateTenantLookups() {
+    // given
+    LatestDefinitionIndex index = new LatestDefinitionIndex(10000);
+    index.put("process", LatestDefinitionIndex.tenantLookup("tenant1"), "id1", index.getGeneration());
+    index.put("process", LatestDefinitionIndex.tenantLookup(null), "id2", index.getGeneration());
+
+    // then
+    long now = System.currentTimeMillis();
+    assertEquals("id1", index.get("process", LatestDefinitionIndex.tenantLookup("tenant1"), now));
+    assertEquals("id2", index.get("process", LatestDefinitionIndex.tenantLookup(null), now));
+    assertNull(index.get("process", LatestDefinitionIndex.ANY_TENANT, now));
+  }
+
+  protected Integer getStatementCountOfLastStart(String statement) {
+    List<CommandProfile> profiles = commandProfiler.getProfiles(StartProcessInstanceCmd.class.getName());
+    assertFalse(profiles.isEmpty());
+    CommandProfile profile = profiles.get(profiles.size() - 1);
+    assertTrue(profile.getStatementCounts().containsKey("insertExecution"));
+    return profile.getStatementCounts().get(statement);
+  }
+
+}
@@ -0,0 +1,234 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DefaultCacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.WeightedCacheFactory;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ProcessDefinitionRetentionTest {
+
+  protected static int parsedProcesses = 0;
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setProcessDefinitionRetentionEnabled(true);
+      configuration.setProcessDefinitionRetentionCapacity(1);
+      configuration.setCacheCapacity(2);
+
+      List<BpmnParseListener> parseListeners = Collections.<BpmnParseListener>singletonList(new AbstractBpmnParseListener() {
+        public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+          parsedProcesses++;
+        }
+      });
+      configuration.setCustomPostBPMNParseListeners(parseListeners);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RepositoryService repositoryService;
+  protected RuntimeService runtimeService;
+  protected DeploymentCache deploymentCache;
+
+  @Before
+  public void setUp() {
+    repositoryService = engineRule.getRepositoryService();
+    runtimeService = engineRule.getRuntimeService();
+    deploymentCache = engineRule.getProcessEngineConfiguration().getDeploymentCache();
+  }
+
+  @Test
+  public void testRestoreEvictedProcessDefinition() {
+    // given
+    testRule.deploy(createProcess("process0"));
+    String processDefinitionId = getProcessDefinitionId("process0");
+    ProcessDefinitionEntity processDefinition = (ProcessDefinitionEntity) repositoryService.getProcessDefinition(processDefinitionId);
+
+    // the cache holds two definitions, so that process0 is evicted
+    testRule.deploy(createProcess("process1"));
+    testRule.deploy(createProcess("process2"));
+    assertNull(deploymentCache.getProcessDefinitionCache().get(processDefinitionId));
+    parsedProcesses = 0;
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then the definition is restored without parsing it again
+    assertEquals(0, parsedProcesses);
+    assertSame(processDefinition, deploymentCache.getProcessDefinitionCache().get(processDefinitionId));
+  }
+
+  @Test
+  public void testParseEvictedProcessDefinitionBeyondRetentionCapacity() {
+    // given
+    testRule.deploy(createProcess("process0"));
+    String processDefinitionId = getProcessDefinitionId("process0");
+    ProcessDefinitionEntity processDefinition = (ProcessDefinitionEntity) repositoryService.getProcessDefinition(processDefinitionId);
+
+    // process0 and process1 are evicted but only one definition is retained
+    testRule.deploy(createProcess("process1"));
+    testRule.deploy(createProcess("process2"));
+    testRule.deploy(createProcess("process3"));
+    parsedProcesses = 0;
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then
+    assertEquals(1, parsedProcesses);
+    assertNotSame(processDefinition, deploymentCache.getProcessDefinitionCache().get(processDefinitionId));
+  }
+
+  @Test
+  public void testParseProcessDefinitionRemovedFromCache() {
+    // given
+    testRule.deploy(createProcess("process0"));
+    String processDefinitionId = getProcessDefinitionId("process0");
+
+    ProcessDefinitionEntity processDefinition = (ProcessDefinitionEntity) repositoryService.getProcessDefinition(processDefinitionId);
+    deploymentCache.getProcessDefinitionCache().remove(processDefinitionId);
+    parsedProcesses = 0;
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then only evicted definitions are retained
+    assertEquals(1, parsedProcesses);
+    assertNotSame(processDefinition, deploymentCache.getProcessDefinitionCache().get(processDefinitionId));
+  }
+
+  @Test
+  public void testParseProcessDefinitionAfterPurge() {
+    // given
+    testRule.deploy(createProcess("process0"));
+    String processDefinitionId = getProcessDefinitionId("process0");
+
+    ProcessDefinitionEntity processDefinition = (ProcessDefinitionEntity) repositoryService.getProcessDefinition(processDefinitionId);
+    deploymentCache.purgeCache();
+    parsedProcesses = 0;
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then
+    assertEquals(1, parsedProcesses);
+    assertNotSame(processDefinition, deploymentCache.getProcessDefinitionCache().get(processDefinitionId));
+  }
+
+  @Test
+  public void testParseRemovedProcessDefinition() {
+    // given
+    testRule.deploy(createProcess("process0"));
+    String processDefinitionId = getProcessDefinitionId("process0");
+
+    ProcessDefinitionEntity processDefinition = (ProcessDefinitionEntity) repositoryService.getProcessDefinition(processDefinitionId);
+    deploymentCache.removeProcessDefinition(processDefinitionId);
+    parsedProcesses = 0;
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then
+    assertEquals(1, parsedProcesses);
+    assertNotSame(processDefinition, deploymentCache.getProcessDefinitionCache().get(processDefinitionId));
+  }
+
+  @Test
+  public void testUseWeightedCacheFactoryByDefault() {
+    // given
+    TestProcessEngineConfiguration configuration = new TestProcessEngineConfiguration();
+    configuration.setProcessDefinitionRetentionEnabled(true);
+
+    // when
+    configuration.initCacheFactory();
+
+    // then
+    assertTrue(configuration.getCacheFactory() instanceof WeightedCacheFactory);
+  }
+
+  @Test
+  public void testFailWithCacheFactoryNotReportingEvictions() {
+    // given
+    TestProcessEngineConfiguration configuration = new TestProcessEngineConfiguration();
+    configuration.setProcessDefinitionRetentionEnabled(true);
+    configuration.setCacheFactory(new DefaultCacheFactory());
+
+    try {
+      // when
+      configuration.initCacheFactory();
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // then
+      assertTrue(e.getMessage().contains("cacheFactory"));
+    }
+  }
+
+  protected String getProcessDefinitionId(String processDefinitionKey) {
+    return repositoryService.createProcessDefinitionQuery()
+      .processDefinitionKey(processDefinitionKey)
+      .singleResult()
+      .getId();
+  }
+
+  protected BpmnModelInstance createProcess(String processDefinitionKey) {
+    return Bpmn.createExecutableProcess(processDefinitionKey)
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+  }
+
+  protected static class TestProcessEngineConfiguration extends StandaloneInMemProcessEngineConfiguration {
+
+    public void initCacheFactory() {
+      super.initCacheFactory();
+    }
+  }
+
+}
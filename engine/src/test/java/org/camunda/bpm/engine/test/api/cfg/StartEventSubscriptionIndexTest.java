@@ -0,0 +1,201 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.CorrelateMessageCmd;
+import org.camunda.bpm.engine.impl.cmd.SignalEventReceivedCmd;
+import org.camunda.bpm.engine.impl.event.StartEventSubscriptionIndex;
+import org.camunda.bpm.engine.impl.persistence.entity.EventSubscriptionEntity;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
+import org.camunda.bpm.engine.management.CommandProfile;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class StartEventSubscriptionIndexTest {
+
+  protected static final String SELECT_START_EVENT_SUBSCRIPTIONS_STATEMENT = "selectStartEventSubscriptionsByName";
+
+  protected static final BpmnModelInstance SIGNAL_START_PROCESS = Bpmn.createExecutableProcess("signalStartProcess")
+      .startEvent().signal("aSignal")
+      .userTask()
+      .endEvent()
+      .done();
+
+  protected static final BpmnModelInstance SIGNAL_CATCH_PROCESS = Bpmn.createExecutableProcess("signalCatchProcess")
+      .startEvent()
+      .intermediateCatchEvent().signal("aSignal")
+      .userTask()
+      .endEvent()
+      .done();
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setStartEventSubscriptionIndexEnabled(true);
+      configuration.setCommandProfilingEnabled(true);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected CommandProfiler commandProfiler;
+
+  @Before
+  public void setUp() {
+    runtimeService = engineRule.getRuntimeService();
+    commandProfiler = engineRule.getProcessEngineConfiguration().getCommandProfiler();
+  }
+
+  @Test
+  public void testThrowSignalWithoutStartEventQuery() {
+    // given
+    testRule.deploy(SIGNAL_START_PROCESS, SIGNAL_CATCH_PROCESS);
+    runtimeService.signalEventReceived("aSignal");
+    runtimeService.startProcessInstanceByKey("signalCatchProcess");
+    commandProfiler.clear();
+
+    // when
+    runtimeService.signalEventReceived("aSignal");
+
+    // then the start event subscriptions are not queried
+    CommandProfile profile = getLastProfile(SignalEventReceivedCmd.class.getName());
+    assertNull(profile.getStatementCounts().get(SELECT_START_EVENT_SUBSCRIPTIONS_STATEMENT));
+    assertNull(profile.getStatementCounts().get("selectSignalEventSubscriptionsByEventName"));
+
+    // and both the start and the intermediate event are triggered
+    assertEquals(2, runtimeService.createProcessInstanceQuery().processDefinitionKey("signalStartProcess").count());
+    assertEquals(0, runtimeService.createEventSubscriptionQuery().eventType("signal").processInstanceId(
+        runtimeService.createProcessInstanceQuery().processDefinitionKey("signalCatchProcess").singleResult().getId()).count());
+  }
+
+  @Test
+  public void testCorrelateStartMessageWithoutQuery() {
+    // given
+    testRule.deploy(createMessageStartProcess("aMessage"));
+    runtimeService.correlateMessage("aMessage");
+    commandProfiler.clear();
+
+    // when
+    runtimeService.correlateMessage("aMessage");
+
+    // then
+    CommandProfile profile = getLastProfile(CorrelateMessageCmd.class.getName());
+    assertNull(profile.getStatementCounts().get(SELECT_START_EVENT_SUBSCRIPTIONS_STATEMENT));
+    assertEquals(2, runtimeService.createProcessInstanceQuery().processDefinitionKey("messageStartProcess").count());
+  }
+
+  @Test
+  public void testRedeployWithOtherMessageName() {
+    // given
+    testRule.deploy(createMessageStartProcess("aMessage"));
+    runtimeService.correlateMessage("aMessage");
+
+    // when a new version with another message name is deployed
+    testRule.deploy(createMessageStartProcess("anotherMessage"));
+
+    // then the subscription of the previous version is not used anymore
+    try {
+      runtimeService.correlateMessage("aMessage");
+      fail("exception expected");
+    } catch (MismatchingMessageCorrelationException e) {
+      // expected
+    }
+
+    runtimeService.correlateMessage("anotherMessage");
+    assertEquals(2, runtimeService.createProcessInstanceQuery().processDefinitionKey("messageStartProcess").count());
+  }
+
+  @Test
+  public void testReturnCopies() {
+    // given
+    StartEventSubscriptionIndex index = new StartEventSubscriptionIndex(10000);
+    EventSubscriptionEntity subscription = new EventSubscriptionEntity();
+    subscription.setId("id");
+    subscription.setEventName("aMessage");
+    subscription.setConfiguration("processDefinitionId");
+    index.put("message", "aMessage", Collections.singletonList(subscription), index.getGeneration());
+
+    // when
+    List<EventSubscriptionEntity> subscriptions = index.get("message", "aMessage", System.currentTimeMillis());
+
+    // then
+    assertEquals(1, subscriptions.size());
+    assertEquals("id", subscriptions.get(0).getId());
+    assertEquals("processDefinitionId", subscriptions.get(0).getConfiguration());
+    assertFalse(subscription == subscriptions.get(0));
+  }
+
+  @Test
+  public void testExpireEntry() {
+    // given
+    StartEventSubscriptionIndex index = new StartEventSubscriptionIndex(100);
+    index.put("signal", "aSignal", Collections.<EventSubscriptionEntity>emptyList(), index.getGeneration());
+
+    // then
+    assertEquals(0, index.get("signal", "aSignal", System.currentTimeMillis()).size());
+    assertNull(index.get("signal", "aSignal", System.currentTimeMillis() + 100));
+  }
+
+  @Test
+  public void testDoNotIndexResultReadBeforeInvalidation() {
+    // given
+    StartEventSubscriptionIndex index = new StartEventSubscriptionIndex(10000);
+    long generation = index.getGeneration();
+
+    // when the event name is invalidated while the subscriptions are queried
+    index.invalidate("signal", "aSignal");
+    index.put("signal", "aSignal", Collections.<EventSubscriptionEntity>emptyList(), generation);
+
+    // then
+    assertNull(index.get("signal", "aSignal", System.currentTimeMillis()));
+  }
+
+  protected BpmnModelInstance createMessageStartProcess(String messageName) {
+    return Bpmn.createExecutableProcess("messageStartProcess")
+      .startEvent().message(messageName)
+      .userTask()
+      .endEvent()
+      .done();
+  }
+
+  protected CommandProfile getLastProfile(String commandClassName) {
+    List<CommandProfile> profiles = commandProfiler.getProfiles(commandClassName);
+    assertFalse(profiles.isEmpty());
+    return profiles.get(profiles.size() - 1);
+  }
+
+}
@@ -0,0 +1,226 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheEntryWeigher;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CachePurgeReport;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.WeightedCacheFactory;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.WeightedLruCache;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.DeploymentCacheStatistics;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class WeightedDeploymentCacheTest {
+
+  protected static final CacheEntryWeigher STRING_LENGTH_WEIGHER = new CacheEntryWeigher() {
+    public long weigh(Object value) {
+      return ((String) value).length();
+    }
+  };
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setCacheFactory(new WeightedCacheFactory().setMaxWeight(1000));
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RepositoryService repositoryService;
+  protected RuntimeService runtimeService;
+  protected ManagementService managementService;
+
+  @Before
+  public void setUp() {
+    repositoryService = engineRule.getRepositoryService();
+    runtimeService = engineRule.getRuntimeService();
+    managementService = engineRule.getManagementService();
+  }
+
+  @After
+  public void resetClock() {
+    ClockUtil.reset();
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsedEntriesByWeight() {
+    // given
+    WeightedLruCache<String, String> cache = new WeightedLruCache<String, String>(10, 10, 0, STRING_LENGTH_WEIGHER);
+    cache.put("a", "aaaa");
+    cache.put("b", "bbbb");
+    cache.get("a");
+
+    // when the maximum weight is exceeded
+    cache.put("c", "cccc");
+
+    // then the least recently used entry is evicted
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+    assertEquals(8, cache.getWeight());
+    assertEquals(1, cache.getStatistics().getEvictionCount());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsedEntriesByCapacity() {
+    // given
+    WeightedLruCache<String, String> cache = new WeightedLruCache<String, String>(2, 0, 0, STRING_LENGTH_WEIGHER);
+    cache.put("a", "a");
+    cache.put("b", "b");
+
+    // when
+    cache.put("c", "c");
+
+    // then
+    assertEquals(2, cache.size());
+    assertNull(cache.get("a"));
+  }
+
+  @Test
+  public void testKeepEntryExceedingMaxWeight() {
+    // given
+    WeightedLruCache<String, String> cache = new WeightedLruCache<String, String>(10, 2, 0, STRING_LENGTH_WEIGHER);
+    cache.put("a", "a");
+
+    // when
+    cache.put("b", "bbbb");
+
+    // then
+    assertNull(cache.get("a"));
+    assertNotNull(cache.get("b"));
+    assertEquals(4, cache.getWeight());
+  }
+
+  @Test
+  public void testExpireEntryAfterAccess() {
+    // given
+    ClockUtil.setCurrentTime(new Date(0));
+    WeightedLruCache<String, String> cache = new WeightedLruCache<String, String>(10, 0, 1000, STRING_LENGTH_WEIGHER);
+    cache.put("a", "a");
+
+    // when
+    ClockUtil.setCurrentTime(new Date(1001));
+
+    // then
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getStatistics().getEvictionCount());
+  }
+
+  @Test
+  public void testGetDeploymentCacheStatistics() {
+    // given
+    testRule.deploy(createProcess("process"));
+    String processDefinitionId = repositoryService.createProcessDefinitionQuery().singleResult().getId();
+    engineRule.getProcessEngineConfiguration().getDeploymentCache().purgeCache();
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then
+    DeploymentCacheStatistics statistics = getStatistics(CachePurgeReport.PROCESS_DEF_CACHE);
+    assertEquals(1, statistics.getSize());
+    assertEquals(1, statistics.getLoadCount());
+    // the process, the start event, the user task and the end event
+    assertEquals(4, statistics.getWeight());
+  }
+
+  @Test
+  public void testEvictEntryAfterAccessingTheOthers() {
+    // given
+    WeightedLruCache<String, String> cache = new WeightedLruCache<String, String>(3, 0, 0, STRING_LENGTH_WEIGHER);
+    cache.put("a", "a");
+    cache.put("b", "b");
+    cache.put("c", "c");
+    cache.get("a");
+    cache.get("c");
+
+    // when
+    cache.put("d", "d");
+
+    // then
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("a"));
+    assertNotNull(cache.get("c"));
+    assertNotNull(cache.get("d"));
+  }
+
+  @Test
+  public void testReportCacheHitsAndMisses() {
+    // given
+    testRule.deploy(createProcess("process"));
+    String processDefinitionId = repositoryService.createProcessDefinitionQuery().singleResult().getId();
+    engineRule.getProcessEngineConfiguration().getDeploymentCache().purgeCache();
+
+    MetricsRegistry metricsRegistry = engineRule.getProcessEngineConfiguration().getMetricsRegistry();
+    long hits = metricsRegistry.getMeterByName(Metrics.DEPLOYMENT_CACHE_HIT).get();
+    long misses = metricsRegistry.getMeterByName(Metrics.DEPLOYMENT_CACHE_MISS).get();
+
+    // when
+    runtimeService.startProcessInstanceById(processDefinitionId);
+    runtimeService.startProcessInstanceById(processDefinitionId);
+
+    // then
+    assertTrue(metricsRegistry.getMeterByName(Metrics.DEPLOYMENT_CACHE_HIT).get() > hits);
+    assertTrue(metricsRegistry.getMeterByName(Metrics.DEPLOYMENT_CACHE_MISS).get() > misses);
+  }
+
+  protected DeploymentCacheStatistics getStatistics(String cacheName) {
+    List<DeploymentCacheStatistics> statistics = managementService.getDeploymentCacheStatistics();
+    for (DeploymentCacheStatistics cacheStatistics : statistics) {
+      if (cacheName.equals(cacheStatistics.getName())) {
+        return cacheStatistics;
+      }
+    }
+    return null;
+  }
+
+  protected BpmnModelInstance createProcess(String processDefinitionKey) {
+    return Bpmn.createExecutableProcess(processDefinitionKey)
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+  }
+
+}
@@ -0,0 +1,191 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.externaltask;
+
+import java.util.Arrays;
+
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskDispatcher.Waiter;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.test.Deployment;
+
+public class ExternalTaskDispatcherTest extends PluggableProcessEngineTestCase {
+
+  protected ExternalTaskDispatcher dispatcher;
+
+  protected void setUp() throws Exception {
+    dispatcher = processEngineConfiguration.getExternalTaskDispatcher();
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testNotifyWaiterOnExternalTaskCreation() throws InterruptedException {
+    // given
+    Waiter waiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+
+    try {
+      // when
+      runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+
+      // then
+      assertTrue(waiter.await(0));
+    } finally {
+      dispatcher.unregister(waiter);
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testDoNotNotifyWaiterOfOtherTopic() throws InterruptedException {
+    // given
+    Waiter waiter = dispatcher.register(Arrays.asList("anotherTopic"));
+
+    try {
+      // when
+      runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+
+      // then
+      assertFalse(waiter.await(10));
+    } finally {
+      dispatcher.unregister(waiter);
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testNotifyWaiterOnUnlock() throws InterruptedException {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    LockedExternalTask task = externalTaskService.fetchAndLock(1, "aWorkerId")
+      .topic("externalTaskTopic", 10000L)
+      .execute()
+      .get(0);
+
+    Waiter waiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+
+    try {
+      // when
+      externalTaskService.unlock(task.getId());
+
+      // then
+      assertTrue(waiter.await(0));
+    } finally {
+      dispatcher.unregister(waiter);
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testNotifyWaiterOnFailureWithoutRetryTimeout() throws InterruptedException {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    LockedExternalTask task = externalTaskService.fetchAndLock(1, "aWorkerId")
+      .topic("externalTaskTopic", 10000L)
+      .execute()
+      .get(0);
+
+    Waiter waiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+
+    try {
+      // when
+      externalTaskService.handleFailure(task.getId(), "aWorkerId", "anErrorMessage", 1, 0);
+
+      // then
+      assertTrue(waiter.await(0));
+    } finally {
+      dispatcher.unregister(waiter);
+    }
+  }
+
+  public void testNotifyOnlyOneWaiterPerTask() throws InterruptedException {
+    // given
+    Waiter firstWaiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+    Waiter secondWaiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+
+    try {
+      // when
+      dispatcher.notifyExternalTaskAvailable("externalTaskTopic");
+
+      // then the longest waiting client is notified
+      assertTrue(firstWaiter.await(0));
+      assertFalse(secondWaiter.await(0));
+
+      // and a second task notifies the next client
+      dispatcher.notifyExternalTaskAvailable("externalTaskTopic");
+      assertTrue(secondWaiter.await(0));
+    } finally {
+      dispatcher.unregister(firstWaiter);
+      dispatcher.unregister(secondWaiter);
+    }
+  }
+
+  public void testDoNotRegisterMoreThanMaxWaiters() {
+    // given
+    int maxWaiters = dispatcher.getMaxWaiters();
+    dispatcher.setMaxWaiters(1);
+    Waiter waiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+
+    try {
+      // when
+      Waiter rejectedWaiter = dispatcher.register(Arrays.asList("anotherTopic"));
+
+      // then
+      assertNull(rejectedWaiter);
+      assertEquals(0, dispatcher.getNumberOfWaiters("anotherTopic"));
+    } finally {
+      dispatcher.unregister(waiter);
+      dispatcher.setMaxWaiters(maxWaiters);
+    }
+  }
+
+  public void testUnregisterWaiter() {
+    // given
+    Waiter waiter = dispatcher.register(Arrays.asList("externalTaskTopic", "anotherTopic"));
+    assertEquals(1, dispatcher.getNumberOfWaiters("externalTaskTopic"));
+    assertEquals(1, dispatcher.getNumberOfWaiters("anotherTopic"));
+
+    // when
+    dispatcher.unregister(waiter);
+
+    // then
+    assertEquals(0, dispatcher.getNumberOfWaiters("externalTaskTopic"));
+    assertEquals(0, dispatcher.getNumberOfWaiters("anotherTopic"));
+  }
+
+  public void testWakeUpWaitingThread() throws InterruptedException {
+    // given a thread waiting for a task
+    final Waiter waiter = dispatcher.register(Arrays.asList("externalTaskTopic"));
+    final boolean[] notified = new boolean[1];
+
+    Thread waitingThread = new Thread() {
+      public void run() {
+        try {
+          notified[0] = waiter.await(10000);
+        } catch (InterruptedException e) {
+          // not notified
+        }
+      }
+    };
+
+    try {
+      waitingThread.start();
+
+      // when
+      dispatcher.notifyExternalTaskAvailable("externalTaskTopic");
+      waitingThread.join(10000);
+
+      // then
+      assertTrue(notified[0]);
+    } finally {
+      dispatcher.unregister(waiter);
+    }
+  }
+
+}
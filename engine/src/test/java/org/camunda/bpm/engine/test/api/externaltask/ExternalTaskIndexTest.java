@@ -0,0 +1,253 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.externaltask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.externaltask.ExternalTask;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.impl.externaltask.ExternalTaskIndex;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.test.PluggableProcessEngineTestCase;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.test.Deployment;
+
+public class ExternalTaskIndexTest extends PluggableProcessEngineTestCase {
+
+  protected static final String WORKER_ID = "aWorkerId";
+  protected static final long LOCK_TIME = 10000L;
+  protected static final String TOPIC_NAME = "externalTaskTopic";
+
+  protected ExternalTaskIndex index;
+
+  protected void setUp() throws Exception {
+    index = new ExternalTaskIndex();
+    processEngineConfiguration.setExternalTaskIndex(index);
+  }
+
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setExternalTaskIndex(null);
+  }
+
+  public void testClaimByPriority() {
+    // given
+    index.add("topic1", "1", 0);
+    index.add("topic2", "2", 10);
+    index.add("topic1", "3", 5);
+    index.add("topic2", "4", 5);
+
+    // when
+    List<String> externalTaskIds = index.claim(Arrays.asList("topic1", "topic2"), 10, true);
+
+    // then the tasks are ordered by priority and the order of indexing
+    assertEquals(Arrays.asList("2", "3", "4", "1"), externalTaskIds);
+
+    // and stay indexed until they are removed
+    assertEquals(2, index.size("topic1"));
+    index.remove(externalTaskIds);
+    assertEquals(0, index.size("topic1"));
+    assertEquals(0, index.size("topic2"));
+  }
+
+  public void testClaimMaxResults() {
+    // given
+    index.add("topic1", "1", 0);
+    index.add("topic1", "2", 0);
+    index.add("topic2", "3", 0);
+
+    // when
+    List<String> externalTaskIds = index.claim(Arrays.asList("topic1"), 1, false);
+
+    // then
+    assertEquals(Arrays.asList("1"), externalTaskIds);
+  }
+
+  public void testDoNotClaimClaimedTasksAgain() {
+    // given
+    index.add("topic1", "1", 0);
+    index.add("topic1", "2", 0);
+    index.claim(Arrays.asList("topic1"), 1, false);
+
+    // when
+    List<String> externalTaskIds = index.claim(Arrays.asList("topic1"), 2, false);
+
+    // then
+    assertEquals(Arrays.asList("2"), externalTaskIds);
+  }
+
+  public void testReleaseClaimedTasks() {
+    // given
+    index.add("topic1", "1", 0);
+    List<String> claimedTaskIds = index.claim(Arrays.asList("topic1"), 1, false);
+
+    // when
+    index.release(claimedTaskIds);
+
+    // then
+    assertEquals(Arrays.asList("1"), index.claim(Arrays.asList("topic1"), 1, false));
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/twoExternalTaskWithPriorityProcess.bpmn20.xml")
+  public void testFetchIndexedExternalTasks() {
+    // given
+    runtimeService.startProcessInstanceByKey("twoExternalTaskWithPriorityProcess");
+    assertEquals(2, index.size(TOPIC_NAME));
+
+    // when
+    List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(1, WORKER_ID, true)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    // then the task with the highest priority is locked
+    assertEquals(1, tasks.size());
+    assertEquals(7, tasks.get(0).getPriority());
+    assertEquals(1, index.size(TOPIC_NAME));
+
+    ExternalTask task = externalTaskService.createExternalTaskQuery().externalTaskId(tasks.get(0).getId()).singleResult();
+    assertEquals(WORKER_ID, task.getWorkerId());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testSkipLockedIndexedExternalTask() {
+    // given a task which is locked but still indexed
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+    assertEquals(1, tasks.size());
+
+    index.add(TOPIC_NAME, tasks.get(0).getId(), 0);
+
+    // when
+    tasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    // then
+    assertTrue(tasks.isEmpty());
+    assertEquals(0, index.size(TOPIC_NAME));
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testFetchNotIndexedExternalTask() {
+    // given a task created while the index was disabled
+    processEngineConfiguration.setExternalTaskIndex(null);
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    processEngineConfiguration.setExternalTaskIndex(index);
+
+    // when
+    List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    // then the task is found by the query
+    assertEquals(1, tasks.size());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testKeepIndexedExternalTaskOnRollback() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+
+    // when the transaction which fetches the task is rolled back
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          externalTaskService.fetchAndLock(1, WORKER_ID)
+            .topic(TOPIC_NAME, LOCK_TIME)
+            .execute();
+          throw new RuntimeException("expected exception");
+        }
+      });
+      fail("exception expected");
+    } catch (RuntimeException e) {
+      assertEquals("expected exception", e.getMessage());
+    }
+
+    // then the task is still indexed and can be fetched
+    assertEquals(1, index.size(TOPIC_NAME));
+
+    List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+    assertEquals(1, tasks.size());
+    assertEquals(0, index.size(TOPIC_NAME));
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testQueryTopicIfIndexProvidesTooFewTasks() {
+    // given a task which is not indexed after the last reconciliation
+    index.reconcile(TOPIC_NAME, new ArrayList<ExternalTaskEntity>(), ClockUtil.getCurrentTime().getTime());
+    processEngineConfiguration.setExternalTaskIndex(null);
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    processEngineConfiguration.setExternalTaskIndex(index);
+
+    // and a task dropped because of the size limit
+    index.setMaxTasksPerTopic(0);
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+
+    // when
+    List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(2, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+
+    // then both tasks are found by the query
+    assertEquals(2, tasks.size());
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testFetchExternalTaskWithExpiredLock() {
+    // given a task whose lock expired after the topic was reconciled
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+    index.reconcile(TOPIC_NAME, new ArrayList<ExternalTaskEntity>(), ClockUtil.getCurrentTime().getTime());
+
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + LOCK_TIME + 1000L));
+
+    try {
+      // when
+      List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+        .topic(TOPIC_NAME, LOCK_TIME)
+        .execute();
+
+      // then the task is found by the query
+      assertEquals(1, tasks.size());
+    } finally {
+      ClockUtil.reset();
+    }
+  }
+
+  @Deployment(resources = "org/camunda/bpm/engine/test/api/externaltask/oneExternalTaskProcess.bpmn20.xml")
+  public void testIndexUnlockedExternalTask() {
+    // given
+    runtimeService.startProcessInstanceByKey("oneExternalTaskProcess");
+    List<LockedExternalTask> tasks = externalTaskService.fetchAndLock(1, WORKER_ID)
+      .topic(TOPIC_NAME, LOCK_TIME)
+      .execute();
+    assertEquals(0, index.size(TOPIC_NAME));
+
+    // when
+    externalTaskService.unlock(tasks.get(0).getId());
+
+    // then
+    assertEquals(1, index.size(TOPIC_NAME));
+  }
+
+}
@@ -15,6 +15,7 @@ package org.camunda.bpm.engine.test.api.history;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
@@ -29,16 +30,20 @@ import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.RepositoryService;
 import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
 import org.camunda.bpm.engine.history.HistoricCaseInstance;
 import org.camunda.bpm.engine.history.HistoricDecisionInstance;
+import org.camunda.bpm.engine.history.HistoricDetail;
 import org.camunda.bpm.engine.history.HistoricIncident;
 import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.camunda.bpm.engine.impl.interceptor.Command;
 import org.camunda.bpm.engine.impl.interceptor.CommandContext;
 import org.camunda.bpm.engine.impl.jobexecutor.ExecuteJobHelper;
 import org.camunda.bpm.engine.impl.jobexecutor.historycleanup.HistoryCleanupJobHandlerConfiguration;
 import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.impl.persistence.entity.ByteArrayEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.HistoricIncidentEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.impl.persistence.entity.SuspensionState;
@@ -138,11 +143,10 @@ public class HistoryCleanupTest {
       public Void execute(CommandContext commandContext) {
 
         List<Job> jobs = managementService.createJobQuery().list();
-        if (jobs.size() > 0) {
-          assertEquals(1, jobs.size());
-          String jobId = jobs.get(0).getId();
-          commandContext.getJobManager().deleteJob((JobEntity) jobs.get(0));
-          commandContext.getHistoricJobLogManager().deleteHistoricJobLogByJobId(jobId);
+        assertTrue(jobs.size() <= processEngineConfiguration.getHistoryCleanupDegreeOfParallelism());
+        for (Job job : jobs) {
+          commandContext.getJobManager().deleteJob((JobEntity) job);
+          commandContext.getHistoricJobLogManager().deleteHistoricJobLogByJobId(job.getId());
         }
 
         List<HistoricIncident> historicIncidents = historyService.createHistoricIncidentQuery().list();
@@ -156,6 +160,9 @@ public class HistoryCleanupTest {
       }
     });
 
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(1);
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_END_TIME_BASED);
+
     List<HistoricProcessInstance> historicProcessInstances = historyService.createHistoricProcessInstanceQuery().list();
     for (HistoricProcessInstance historicProcessInstance: historicProcessInstances) {
       historyService.deleteHistoricProcessInstance(historicProcessInstance.getId());
@@ -222,6 +229,88 @@ public class HistoryCleanupTest {
     assertEquals(15, removedProcessInstances + removedCaseInstances + removedDecisionInstances);
   }
 
+  @Test
+  public void testHistoryCleanupParallelism() {
+    //given
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(3);
+    prepareData(15);
+
+    ClockUtil.setCurrentTime(new Date());
+    //when
+    historyService.cleanUpHistoryAsync(true);
+
+    //then there is one job per partition
+    List<Job> historyCleanupJobs = historyService.findHistoryCleanupJobs();
+    assertEquals(3, historyCleanupJobs.size());
+
+    List<String> partitions = new ArrayList<String>();
+    for (Job historyCleanupJob : historyCleanupJobs) {
+      HistoryCleanupJobHandlerConfiguration configuration = getConfiguration((JobEntity) historyCleanupJob);
+      partitions.add(configuration.getMinuteFrom() + "-" + configuration.getMinuteTo());
+    }
+    assertTrue(partitions.containsAll(Arrays.asList("0-19", "20-39", "40-59")));
+
+    //and all partitions together clean up everything
+    for (Job historyCleanupJob : historyCleanupJobs) {
+      managementService.executeJob(historyCleanupJob.getId());
+    }
+    assertResult(0);
+  }
+
+  @Test
+  public void testHistoryCleanupPartitionMetrics() {
+    //given
+    processEngineConfiguration.setHistoryCleanupMetricsEnabled(true);
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(2);
+    prepareData(15);
+
+    ClockUtil.setCurrentTime(new Date());
+    historyService.cleanUpHistoryAsync(true);
+
+    //when
+    for (Job historyCleanupJob : historyService.findHistoryCleanupJobs()) {
+      managementService.executeJob(historyCleanupJob.getId());
+    }
+
+    //then the removed instances are reported per partition as well
+    long removedInstances = 0;
+    for (String partition : Arrays.asList("0-29", "30-59")) {
+      removedInstances += managementService.createMetricsQuery().name(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES + "-" + partition).sum()
+          + managementService.createMetricsQuery().name(Metrics.HISTORY_CLEANUP_REMOVED_DECISION_INSTANCES + "-" + partition).sum()
+          + managementService.createMetricsQuery().name(Metrics.HISTORY_CLEANUP_REMOVED_CASE_INSTANCES + "-" + partition).sum();
+    }
+    assertEquals(15, removedInstances);
+  }
+
+  @Test
+  public void testHistoryCleanupChangedDegreeOfParallelism() {
+    //given
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(3);
+    historyService.cleanUpHistoryAsync(true);
+    final List<Job> formerHistoryCleanupJobs = historyService.findHistoryCleanupJobs();
+
+    //when
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(1);
+    historyService.cleanUpHistoryAsync(true);
+
+    //then the jobs of the former partitions are removed
+    List<Job> historyCleanupJobs = historyService.findHistoryCleanupJobs();
+    assertEquals(1, historyCleanupJobs.size());
+
+    HistoryCleanupJobHandlerConfiguration configuration = getConfiguration((JobEntity) historyCleanupJobs.get(0));
+    assertEquals(0, configuration.getMinuteFrom());
+    assertEquals(59, configuration.getMinuteTo());
+
+    processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        for (Job job : formerHistoryCleanupJobs) {
+          commandContext.getHistoricJobLogManager().deleteHistoricJobLogByJobId(job.getId());
+        }
+        return null;
+      }
+    });
+  }
+
   @Test
   @Deployment(resources = { "org/camunda/bpm/engine/test/dmn/businessruletask/DmnBusinessRuleTaskTest.testDecisionRef.bpmn20.xml",
       "org/camunda/bpm/engine/test/api/history/testDmnWithPojo.dmn11.xml", "org/camunda/bpm/engine/test/api/authorization/oneTaskCase.cmmn" })
@@ -1033,6 +1122,170 @@ public class HistoryCleanupTest {
     processEngineConfiguration.initHistoryCleanup();
   }
 
+  @Test
+  public void testConfigurationFailureWrongDegreeOfParallelism() {
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(0);
+
+    thrown.expect(ProcessEngineException.class);
+    thrown.expectMessage("historyCleanupDegreeOfParallelism");
+
+    processEngineConfiguration.initHistoryCleanup();
+  }
+
+  @Test
+  public void testConfigurationFailureWrongDegreeOfParallelism2() {
+    processEngineConfiguration.setHistoryCleanupDegreeOfParallelism(61);
+
+    thrown.expect(ProcessEngineException.class);
+    thrown.expectMessage("historyCleanupDegreeOfParallelism");
+
+    processEngineConfiguration.initHistoryCleanup();
+  }
+
+  @Test
+  public void testRemovalTimeSetOnProcessInstanceEnd() {
+    //given
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+    String processInstanceId = runtimeService.startProcessInstanceByKey(ONE_TASK_PROCESS, getVariables()).getId();
+    assertEquals(0, countRowsWithRemovalTime(HistoricProcessInstance.class));
+
+    //when
+    String taskId = engineRule.getTaskService().createTaskQuery().processInstanceId(processInstanceId).singleResult().getId();
+    engineRule.getTaskService().complete(taskId);
+
+    //then the history of the instance carries the removal time
+    assertEquals(1, countRowsWithRemovalTime(HistoricProcessInstance.class));
+    assertEquals(3, countRowsWithRemovalTime(HistoricActivityInstance.class));
+    assertEquals(2, countRowsWithRemovalTime(HistoricVariableInstance.class));
+  }
+
+  @Test
+  public void testRemovalTimeSetOnHistoricByteArrays() {
+    //given
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+    VariableMap variables = Variables.createVariables().putValue("aBytesVariable", "someBytes".getBytes());
+    String processInstanceId = runtimeService.startProcessInstanceByKey(ONE_TASK_PROCESS, variables).getId();
+
+    //when
+    String taskId = engineRule.getTaskService().createTaskQuery().processInstanceId(processInstanceId).singleResult().getId();
+    engineRule.getTaskService().complete(taskId);
+
+    //then the byte arrays of the historic variable and its detail carry the removal time
+    String byteArrayTableName = managementService.getTableName(ByteArrayEntity.class);
+    long historicByteArrays = historyService.createNativeHistoricProcessInstanceQuery()
+        .sql("SELECT count(*) FROM " + byteArrayTableName
+            + " WHERE ID_ in (SELECT BYTEARRAY_ID_ FROM " + managementService.getTableName(HistoricVariableInstance.class) + ")"
+            + " OR ID_ in (SELECT BYTEARRAY_ID_ FROM " + managementService.getTableName(HistoricDetail.class) + ")")
+        .count();
+    assertEquals(2, historicByteArrays);
+    assertEquals(historicByteArrays, countRowsWithRemovalTime(ByteArrayEntity.class));
+  }
+
+  @Test
+  public void testHistoryCleanupRemovalTimeBased() {
+    //given
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+    prepareData(15);
+    assertEquals(5, countRowsWithRemovalTime(HistoricProcessInstance.class));
+
+    ClockUtil.setCurrentTime(new Date());
+
+    //when
+    String jobId = historyService.cleanUpHistoryAsync(true).getId();
+    managementService.executeJob(jobId);
+
+    //then
+    assertResult(0);
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricVariableInstanceQuery().count());
+    assertEquals(5, managementService.createMetricsQuery().name(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES).sum());
+  }
+
+  @Test
+  public void testHistoryCleanupRemovalTimeBasedRemovesInstancesAfterTheirHistory() {
+    //given
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+    int batchSize = processEngineConfiguration.getHistoryCleanupBatchSize();
+    int batchThreshold = processEngineConfiguration.getHistoryCleanupBatchThreshold();
+    processEngineConfiguration.setHistoryCleanupBatchSize(3);
+    processEngineConfiguration.setHistoryCleanupBatchThreshold(3);
+    prepareBPMNData(5, ONE_TASK_PROCESS);
+
+    ClockUtil.setCurrentTime(new Date());
+
+    try {
+      //when the activity instances do not fit into one batch
+      String jobId = historyService.cleanUpHistoryAsync(true).getId();
+      managementService.executeJob(jobId);
+
+      //then the process instances are kept until the rest of their history is removed
+      assertResult(5);
+      assertTrue(historyService.createHistoricActivityInstanceQuery().count() > 0);
+
+      //when
+      for (int i = 0; i < 20 && historyService.createHistoricProcessInstanceQuery().count() > 0; i++) {
+        managementService.executeJob(jobId);
+      }
+
+      //then
+      assertResult(0);
+      assertEquals(0, historyService.createHistoricActivityInstanceQuery().count());
+      assertEquals(0, historyService.createHistoricVariableInstanceQuery().count());
+    } finally {
+      processEngineConfiguration.setHistoryCleanupBatchSize(batchSize);
+      processEngineConfiguration.setHistoryCleanupBatchThreshold(batchThreshold);
+    }
+  }
+
+  @Test
+  public void testHistoryCleanupRemovalTimeBasedNotYetDue() {
+    //given
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+    prepareBPMNData(5, ONE_TASK_PROCESS);
+
+    //when the removal time has not been reached yet
+    ClockUtil.setCurrentTime(DateUtils.addDays(new Date(), -2));
+    String jobId = historyService.cleanUpHistoryAsync(true).getId();
+    managementService.executeJob(jobId);
+
+    //then
+    assertResult(5);
+  }
+
+  @Test
+  public void testHistoryCleanupRemovalTimeBasedInstancesWithoutRemovalTime() {
+    //given instances which ended before the strategy was switched
+    prepareBPMNData(5, ONE_TASK_PROCESS);
+    assertEquals(0, countRowsWithRemovalTime(HistoricProcessInstance.class));
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+
+    ClockUtil.setCurrentTime(new Date());
+
+    //when
+    String jobId = historyService.cleanUpHistoryAsync(true).getId();
+    managementService.executeJob(jobId);
+
+    //then they are removed by their end time
+    assertResult(0);
+  }
+
+  @Test
+  public void testConfigurationFailureWrongHistoryCleanupStrategy() {
+    processEngineConfiguration.setHistoryCleanupStrategy("someStrategy");
+
+    thrown.expect(ProcessEngineException.class);
+    thrown.expectMessage("historyCleanupStrategy");
+
+    processEngineConfiguration.initHistoryCleanup();
+  }
+
+  protected long countRowsWithRemovalTime(Class<?> entityClass) {
+    String tableName = managementService.getTableName(entityClass);
+    return historyService.createNativeHistoricProcessInstanceQuery()
+        .sql("SELECT count(*) FROM " + tableName + " WHERE REMOVAL_TIME_ is not null")
+        .count();
+  }
+
   private Date getNextRunWithinBatchWindow(Date currentTime) {
     Date batchWindowStartTime = processEngineConfiguration.getHistoryCleanupBatchWindowStartTimeAsDate();
     return getNextRunWithinBatchWindow(currentTime, batchWindowStartTime);
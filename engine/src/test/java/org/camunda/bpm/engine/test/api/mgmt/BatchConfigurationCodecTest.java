@@ -0,0 +1,138 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.impl.batch.BatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.batch.CompactBatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.batch.JsonBatchConfigurationCodec;
+import org.camunda.bpm.engine.impl.batch.SetRetriesBatchConfiguration;
+import org.camunda.bpm.engine.impl.batch.deletion.DeleteProcessInstanceBatchConfiguration;
+import org.camunda.bpm.engine.impl.batch.deletion.DeleteProcessInstanceBatchConfigurationJsonConverter;
+import org.camunda.bpm.engine.impl.batch.job.SetJobRetriesBatchConfigurationJsonConverter;
+import org.junit.Test;
+
+public class BatchConfigurationCodecTest {
+
+  protected BatchConfigurationCodec<SetRetriesBatchConfiguration> jsonCodec =
+      new JsonBatchConfigurationCodec<SetRetriesBatchConfiguration>(SetJobRetriesBatchConfigurationJsonConverter.INSTANCE);
+
+  protected BatchConfigurationCodec<SetRetriesBatchConfiguration> compactCodec =
+      new CompactBatchConfigurationCodec<SetRetriesBatchConfiguration>(SetJobRetriesBatchConfigurationJsonConverter.INSTANCE,
+          SetJobRetriesBatchConfigurationJsonConverter.JOB_IDS);
+
+  @Test
+  public void testEncodeAndDecode() {
+    // given
+    SetRetriesBatchConfiguration configuration = new SetRetriesBatchConfiguration(createIds(3), 5);
+
+    // when
+    byte[] bytes = compactCodec.encode(configuration);
+    SetRetriesBatchConfiguration decodedConfiguration = compactCodec.decode(bytes);
+
+    // then
+    assertTrue(CompactBatchConfigurationCodec.isCompact(bytes));
+    assertEquals(configuration.getIds(), decodedConfiguration.getIds());
+    assertEquals(5, decodedConfiguration.getRetries());
+  }
+
+  @Test
+  public void testEncodeAndDecodeDeflated() {
+    // given
+    SetRetriesBatchConfiguration configuration = new SetRetriesBatchConfiguration(createIds(1000), 5);
+
+    // when
+    byte[] bytes = compactCodec.encode(configuration);
+    SetRetriesBatchConfiguration decodedConfiguration = compactCodec.decode(bytes);
+
+    // then
+    assertEquals(CompactBatchConfigurationCodec.FLAG_DEFLATED, bytes[2] & CompactBatchConfigurationCodec.FLAG_DEFLATED);
+    assertEquals(configuration.getIds(), decodedConfiguration.getIds());
+  }
+
+  @Test
+  public void testEncodeEmptyIds() {
+    // given
+    SetRetriesBatchConfiguration configuration = new SetRetriesBatchConfiguration(new ArrayList<String>(), 1);
+
+    // when
+    SetRetriesBatchConfiguration decodedConfiguration = compactCodec.decode(compactCodec.encode(configuration));
+
+    // then
+    assertTrue(decodedConfiguration.getIds().isEmpty());
+    assertEquals(1, decodedConfiguration.getRetries());
+  }
+
+  @Test
+  public void testCompactFormatIsSmallerThanJson() {
+    // given
+    SetRetriesBatchConfiguration configuration = new SetRetriesBatchConfiguration(createIds(1000), 5);
+
+    // when
+    byte[] jsonBytes = jsonCodec.encode(configuration);
+    byte[] compactBytes = compactCodec.encode(configuration);
+
+    // then
+    assertTrue(compactBytes.length < jsonBytes.length);
+  }
+
+  @Test
+  public void testDecodeJson() {
+    // given a configuration written before the compact format was enabled
+    SetRetriesBatchConfiguration configuration = new SetRetriesBatchConfiguration(createIds(3), 5);
+    byte[] jsonBytes = jsonCodec.encode(configuration);
+
+    // when
+    SetRetriesBatchConfiguration decodedConfiguration = compactCodec.decode(jsonBytes);
+
+    // then
+    assertFalse(CompactBatchConfigurationCodec.isCompact(jsonBytes));
+    assertEquals(configuration.getIds(), decodedConfiguration.getIds());
+    assertEquals(5, decodedConfiguration.getRetries());
+  }
+
+  @Test
+  public void testEncodeAndDecodeProperties() {
+    // given
+    BatchConfigurationCodec<DeleteProcessInstanceBatchConfiguration> codec =
+        new CompactBatchConfigurationCodec<DeleteProcessInstanceBatchConfiguration>(DeleteProcessInstanceBatchConfigurationJsonConverter.INSTANCE,
+            DeleteProcessInstanceBatchConfigurationJsonConverter.PROCESS_INSTANCE_IDS);
+
+    DeleteProcessInstanceBatchConfiguration configuration = new DeleteProcessInstanceBatchConfiguration(createIds(2), "a reason", true);
+
+    // when
+    byte[] bytes = codec.encode(configuration);
+    DeleteProcessInstanceBatchConfiguration decodedConfiguration = codec.decode(bytes);
+
+    // then
+    assertEquals(configuration.getIds(), decodedConfiguration.getIds());
+    assertEquals("a reason", decodedConfiguration.getDeleteReason());
+    assertTrue(decodedConfiguration.isSkipCustomListeners());
+  }
+
+  protected List<String> createIds(int numberOfIds) {
+    List<String> ids = new ArrayList<String>();
+    for (int i = 0; i < numberOfIds; i++) {
+      ids.add(UUID.randomUUID().toString());
+    }
+    return ids;
+  }
+
+}
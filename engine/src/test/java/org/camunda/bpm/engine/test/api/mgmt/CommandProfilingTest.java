@@ -0,0 +1,139 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cmd.StartProcessInstanceCmd;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
+import org.camunda.bpm.engine.management.CommandProfile;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class CommandProfilingTest {
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setCommandProfilingEnabled(true);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected ManagementService managementService;
+  protected CommandProfiler commandProfiler;
+
+  @Before
+  public void setUp() {
+    runtimeService = engineRule.getRuntimeService();
+    managementService = engineRule.getManagementService();
+    commandProfiler = engineRule.getProcessEngineConfiguration().getCommandProfiler();
+
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done());
+
+    commandProfiler.clear();
+  }
+
+  @Test
+  public void testProfileCommand() {
+    // when
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    List<CommandProfile> profiles = commandProfiler.getProfiles(StartProcessInstanceCmd.class.getName());
+    assertEquals(1, profiles.size());
+
+    CommandProfile profile = profiles.get(0);
+    assertFalse(profile.isFailed());
+    assertTrue(profile.getDuration() >= 0);
+    assertEquals(Integer.valueOf(1), profile.getStatementCounts().get("insertExecution"));
+    assertEquals(Integer.valueOf(1), profile.getFlushedEntityCounts().get("TaskEntity"));
+    assertTrue(profile.getEntityCacheSize() > 0);
+  }
+
+  @Test
+  public void testAttributeNestedCommandsToOutermostCommand() {
+    // given
+    int profileCount = commandProfiler.getProfiles().size();
+
+    // when the command invokes further commands
+    runtimeService.startProcessInstanceByKey("process");
+
+    // then
+    assertEquals(profileCount + 1, commandProfiler.getProfiles().size());
+  }
+
+  @Test
+  public void testProfileFailedCommand() {
+    // when
+    try {
+      runtimeService.startProcessInstanceByKey("unknownProcess");
+    } catch (Exception e) {
+      // expected
+    }
+
+    // then
+    List<CommandProfile> profiles = commandProfiler.getProfiles(StartProcessInstanceCmd.class.getName());
+    assertEquals(1, profiles.size());
+    assertTrue(profiles.get(0).isFailed());
+  }
+
+  @Test
+  public void testBoundedCapacity() {
+    // when more commands than the capacity are executed
+    for (int i = 0; i < commandProfiler.getCapacity() + 10; i++) {
+      managementService.getTableCount();
+    }
+
+    // then only the most recent profiles are kept
+    assertEquals(commandProfiler.getCapacity(), commandProfiler.getProfiles().size());
+  }
+
+  @Test
+  public void testGetCommandProfiles() {
+    // given
+    runtimeService.startProcessInstanceByKey("process");
+
+    // when
+    List<CommandProfile> profiles = managementService.getCommandProfiles();
+
+    // then the most recent profile is last
+    assertFalse(profiles.isEmpty());
+    assertEquals(StartProcessInstanceCmd.class.getName(), profiles.get(profiles.size() - 1).getCommandName());
+  }
+
+}
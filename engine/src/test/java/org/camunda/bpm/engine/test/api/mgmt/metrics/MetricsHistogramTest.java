@@ -0,0 +1,104 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.mgmt.metrics;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.metrics.Histogram;
+import org.camunda.bpm.engine.impl.metrics.HistogramSnapshot;
+import org.camunda.bpm.engine.impl.metrics.MetricsRegistry;
+import org.camunda.bpm.engine.impl.metrics.reporter.MetricsCollectionTask;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.management.MetricsHistogram;
+
+public class MetricsHistogramTest extends AbstractMetricsTest {
+
+  protected MetricsRegistry metricsRegistry;
+
+  protected void setUp() throws Exception {
+    super.setUp();
+    metricsRegistry = processEngineConfiguration.getMetricsRegistry();
+    metricsRegistry.createHistogram(Metrics.COMMAND_DURATION);
+  }
+
+  protected void tearDown() throws Exception {
+    metricsRegistry.getHistograms().remove(Metrics.COMMAND_DURATION);
+    super.tearDown();
+  }
+
+  public void testPercentiles() {
+    // given
+    Histogram histogram = new Histogram("test");
+
+    // when 1..100 is recorded
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+
+    // then
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(100, snapshot.getCount());
+    assertEquals(5050, snapshot.getSum());
+    assertEquals(100, snapshot.getMax());
+    assertEquals(50.5, snapshot.getMean(), 0.001);
+
+    assertPercentile(50, snapshot.getValueAtPercentile(50));
+    assertPercentile(99, snapshot.getValueAtPercentile(99));
+    assertEquals(100, snapshot.getValueAtPercentile(100));
+  }
+
+  public void testGetAndClear() {
+    // given
+    Histogram histogram = new Histogram("test");
+    histogram.record(3);
+
+    // when
+    HistogramSnapshot snapshot = histogram.getAndClear();
+
+    // then
+    assertEquals(1, snapshot.getCount());
+    assertEquals(3, snapshot.getValueAtPercentile(99));
+    assertEquals(0, histogram.snapshot().getCount());
+    assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+  }
+
+  public void testRecordCommandDuration() {
+    // when
+    managementService.createJobQuery().list();
+
+    // then
+    List<MetricsHistogram> histograms = managementService.getMetricsHistograms();
+    assertEquals(1, histograms.size());
+    assertEquals(Metrics.COMMAND_DURATION, histograms.get(0).getName());
+    assertTrue(histograms.get(0).getCount() > 0);
+  }
+
+  public void testReportHistogram() {
+    // given
+    managementService.createJobQuery().list();
+
+    // when
+    processEngineConfiguration.getDbMetricsReporter().reportNow();
+
+    // then the number of recorded values is reported
+    String name = Metrics.COMMAND_DURATION + MetricsCollectionTask.HISTOGRAM_COUNT_SUFFIX;
+    assertTrue(managementService.createMetricsQuery().name(name).sum() > 0);
+  }
+
+  protected void assertPercentile(long expected, long actual) {
+    // buckets are at most 25% wide
+    assertTrue(actual >= expected);
+    assertTrue(actual <= expected * 1.25);
+  }
+
+}
@@ -0,0 +1,187 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.util.xml.Parser;
+import org.camunda.bpm.engine.repository.DeploymentBuilder;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ParallelDeploymentParsingTest {
+
+  /**
+   * Only rejected if the schema is validated, since unqualified attributes are not allowed by the BPMN schema
+   */
+  protected static final String SCHEMA_INVALID_PROCESS =
+      "<definitions xmlns='http://www.omg.org/spec/BPMN/20100524/MODEL' targetNamespace='test'>"
+    + "<process id='schemaInvalidProcess' isExecutable='true'>"
+    + "<startEvent id='start' invalidAttribute='true' />"
+    + "</process>"
+    + "</definitions>";
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setParallelDeploymentParsingEnabled(true);
+      configuration.setDeploymentParsingPoolSize(3);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RepositoryService repositoryService;
+
+  @Before
+  public void setUp() {
+    repositoryService = engineRule.getRepositoryService();
+  }
+
+  @Test
+  public void testParseProcessesInParallel() {
+    // given
+    DeploymentBuilder deploymentBuilder = repositoryService.createDeployment();
+    for (int i = 0; i < 10; i++) {
+      deploymentBuilder.addModelInstance("process" + i + ".bpmn", createProcess("process" + i));
+    }
+
+    // when
+    testRule.deploy(deploymentBuilder);
+
+    // then
+    assertNotNull(engineRule.getProcessEngineConfiguration().getDeploymentParsingExecutor());
+    assertEquals(10, repositoryService.createProcessDefinitionQuery().count());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(1, repositoryService.createProcessDefinitionQuery().processDefinitionKey("process" + i).count());
+    }
+  }
+
+  @Test
+  public void testMergeJobDeclarations() {
+    // given processes with timer start events, whose job declarations are collected per resource
+    BpmnModelInstance timerProcess = Bpmn.createExecutableProcess("timerProcess")
+      .startEvent().timerWithDuration("PT1H")
+      .userTask()
+      .endEvent()
+      .done();
+    BpmnModelInstance anotherTimerProcess = Bpmn.createExecutableProcess("anotherTimerProcess")
+      .startEvent().timerWithDuration("PT1H")
+      .userTask()
+      .endEvent()
+      .done();
+
+    // when
+    testRule.deploy(timerProcess, anotherTimerProcess);
+
+    // then
+    assertEquals(2, engineRule.getManagementService().createJobQuery().timers().count());
+    assertEquals(2, engineRule.getManagementService().createJobDefinitionQuery().count());
+  }
+
+  @Test
+  public void testParseDecisionsInParallel() {
+    // when
+    testRule.deploy(repositoryService.createDeployment()
+      .addClasspathResource("org/camunda/bpm/engine/test/api/repository/drdXyz_.dmn11.xml")
+      .addClasspathResource("org/camunda/bpm/engine/test/api/repository/noVersionTag.dmn"));
+
+    // then
+    assertEquals(3, repositoryService.createDecisionDefinitionQuery().count());
+    assertEquals(1, repositoryService.createDecisionDefinitionQuery().decisionDefinitionKey("noVersionTag").count());
+  }
+
+  @Test
+  public void testReportParseErrorOfResource() {
+    // given
+    DeploymentBuilder deploymentBuilder = repositoryService.createDeployment()
+      .addModelInstance("valid.bpmn", createProcess("validProcess"))
+      .addString("invalid.bpmn", "<definitions/>");
+
+    // when
+    try {
+      deploymentBuilder.deploy();
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // then
+      assertTrue(e.getMessage().contains("invalid.bpmn"));
+    }
+
+    assertEquals(0, repositoryService.createDeploymentQuery().count());
+  }
+
+  @Test
+  public void testValidateSchemaWhileOtherThreadsParseWithoutValidation() throws InterruptedException {
+    // given a thread which keeps parsing without schema validation
+    final AtomicBoolean isParsing = new AtomicBoolean(true);
+    Thread nonValidatingThread = new Thread() {
+      public void run() {
+        while (isParsing.get()) {
+          Parser.INSTANCE.createParse().sourceString(SCHEMA_INVALID_PROCESS).execute();
+        }
+      }
+    };
+    nonValidatingThread.start();
+
+    try {
+      for (int i = 0; i < 20; i++) {
+        // when a resource which violates the schema is deployed
+        DeploymentBuilder deploymentBuilder = repositoryService.createDeployment()
+          .addModelInstance("valid.bpmn", createProcess("validProcess"))
+          .addString("schemaInvalid.bpmn", SCHEMA_INVALID_PROCESS);
+
+        try {
+          deploymentBuilder.deploy();
+          fail("exception expected");
+        } catch (ProcessEngineException e) {
+          // then it is always validated
+          assertTrue(e.getMessage().contains("schemaInvalid.bpmn"));
+        }
+      }
+    } finally {
+      isParsing.set(false);
+      nonValidatingThread.join();
+    }
+
+    assertEquals(0, repositoryService.createDeploymentQuery().count());
+  }
+
+  protected BpmnModelInstance createProcess(String key) {
+    return Bpmn.createExecutableProcess(key)
+      .startEvent()
+      .userTask()
+      .endEvent()
+      .done();
+  }
+
+}
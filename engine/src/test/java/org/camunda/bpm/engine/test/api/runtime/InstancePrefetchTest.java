@@ -0,0 +1,191 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.InstancePrefetchProfile;
+import org.camunda.bpm.engine.impl.profiling.CommandProfiler;
+import org.camunda.bpm.engine.management.CommandProfile;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class InstancePrefetchTest {
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setCommandProfilingEnabled(true);
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected RuntimeService runtimeService;
+  protected CommandProfiler commandProfiler;
+
+  protected String processInstanceId;
+
+  @Before
+  public void setUp() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    runtimeService = engineRule.getRuntimeService();
+    commandProfiler = processEngineConfiguration.getCommandProfiler();
+
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .userTask("task")
+        .multiInstance().camundaCollection("${items}").camundaElementVariable("item").multiInstanceDone()
+      .endEvent()
+      .done());
+
+    processInstanceId = runtimeService.startProcessInstanceByKey("process",
+        Variables.createVariables().putValue("items", Arrays.asList(1, 2, 3, 4, 5))).getId();
+
+    commandProfiler.clear();
+  }
+
+  @After
+  public void resetPrefetchProfile() {
+    processEngineConfiguration.setInstancePrefetchProfile(null);
+  }
+
+  @Test
+  public void testLoadVariablesPerExecution() {
+    // when the variables of all executions are accessed
+    int variableCount = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AccessExecutionTreeCmd(processInstanceId));
+
+    // then they are loaded per execution
+    CommandProfile profile = getProfile();
+    assertTrue(profile.getStatementCounts().get("selectVariablesByExecutionId") > 1);
+    assertNull(profile.getStatementCounts().get("selectVariablesByProcessInstanceId"));
+    assertEquals(getVariableCount(), variableCount);
+  }
+
+  @Test
+  public void testPrefetchVariables() {
+    // given
+    processEngineConfiguration.setInstancePrefetchProfile(new InstancePrefetchProfile().setVariables(true));
+
+    // when the variables of all executions are accessed
+    int variableCount = processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AccessExecutionTreeCmd(processInstanceId));
+
+    // then they are loaded with a single query
+    CommandProfile profile = getProfile();
+    assertNull(profile.getStatementCounts().get("selectVariablesByExecutionId"));
+    assertEquals(Integer.valueOf(1), profile.getStatementCounts().get("selectVariablesByProcessInstanceId"));
+    assertEquals(getVariableCount(), variableCount);
+  }
+
+  @Test
+  public void testPrefetchTasks() {
+    // given
+    processEngineConfiguration.setInstancePrefetchProfile(new InstancePrefetchProfile().setTasks(true));
+
+    // when the tasks of all executions are accessed
+    processEngineConfiguration.getCommandExecutorTxRequired()
+        .execute(new AccessExecutionTreeCmd(processInstanceId));
+
+    // then they are loaded with a single query
+    CommandProfile profile = getProfile();
+    assertNull(profile.getStatementCounts().get("selectTasksByExecutionId"));
+    assertEquals(Integer.valueOf(1), profile.getStatementCounts().get("selectTasksByProcessInstanceId"));
+  }
+
+  @Test
+  public void testCompleteTaskWithPrefetchProfile() {
+    // given
+    processEngineConfiguration.setInstancePrefetchProfile(new InstancePrefetchProfile()
+        .setVariables(true)
+        .setTasks(true)
+        .setEventSubscriptions(true));
+
+    // when all tasks are completed
+    for (Task task : engineRule.getTaskService().createTaskQuery().list()) {
+      engineRule.getTaskService().complete(task.getId());
+    }
+
+    // then the process instance has ended
+    testRule.assertProcessEnded(processInstanceId);
+  }
+
+  protected CommandProfile getProfile() {
+    List<CommandProfile> profiles = commandProfiler.getProfiles(AccessExecutionTreeCmd.class.getName());
+    assertEquals(1, profiles.size());
+    return profiles.get(0);
+  }
+
+  protected int getVariableCount() {
+    return (int) runtimeService.createVariableInstanceQuery().processInstanceIdIn(processInstanceId).count();
+  }
+
+  /**
+   * Accesses the variables and tasks of every execution of a process instance
+   * and returns the number of variables.
+   */
+  protected static class AccessExecutionTreeCmd implements Command<Integer> {
+
+    protected String processInstanceId;
+
+    public AccessExecutionTreeCmd(String processInstanceId) {
+      this.processInstanceId = processInstanceId;
+    }
+
+    public Integer execute(CommandContext commandContext) {
+      ExecutionEntity processInstance = commandContext.getExecutionManager().findExecutionById(processInstanceId);
+
+      List<ExecutionEntity> executions = new ArrayList<ExecutionEntity>();
+      executions.add(processInstance);
+      for (int i = 0; i < executions.size(); i++) {
+        executions.addAll(executions.get(i).getExecutions());
+      }
+
+      int variableCount = 0;
+      for (ExecutionEntity execution : executions) {
+        variableCount += execution.getVariablesLocal().size();
+        execution.getTasks();
+      }
+
+      return variableCount;
+    }
+  }
+
+}
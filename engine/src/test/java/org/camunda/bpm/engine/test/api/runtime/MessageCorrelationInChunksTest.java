@@ -0,0 +1,323 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.api.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.batch.Batch;
+import org.camunda.bpm.engine.batch.history.HistoricBatch;
+import org.camunda.bpm.engine.history.UserOperationLogEntry;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.management.JobDefinition;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class MessageCorrelationInChunksTest {
+
+  protected static final String MESSAGE_NAME = "aMessage";
+
+  protected static final BpmnModelInstance RECEIVE_TASK_PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .receiveTask("receiveTask").message(MESSAGE_NAME)
+      .userTask("afterMessage")
+      .endEvent()
+      .done();
+
+  protected static final BpmnModelInstance NESTED_RECEIVE_TASK_PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .receiveTask("receiveTask").message(MESSAGE_NAME)
+      .subProcess()
+      .embeddedSubProcess()
+        .startEvent()
+        .receiveTask("nestedReceiveTask").message(MESSAGE_NAME)
+        .endEvent()
+      .subProcessDone()
+      .endEvent()
+      .done();
+
+  protected ProcessEngineRule engineRule = new ProvidedProcessEngineRule();
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected ManagementService managementService;
+  protected HistoryService historyService;
+
+  protected BatchHelper helper = new BatchHelper(engineRule) {
+    public JobDefinition getExecutionJobDefinition(Batch batch) {
+      return getManagementService().createJobDefinitionQuery()
+          .jobDefinitionId(batch.getBatchJobDefinitionId())
+          .jobType(Batch.TYPE_MESSAGE_CORRELATION)
+          .singleResult();
+    }
+  };
+
+  @Before
+  public void initServices() {
+    runtimeService = engineRule.getRuntimeService();
+    managementService = engineRule.getManagementService();
+    historyService = engineRule.getHistoryService();
+  }
+
+  @After
+  public void removeBatches() {
+    for (Batch batch : managementService.createBatchQuery().list()) {
+      managementService.deleteBatch(batch.getId(), true);
+    }
+
+    for (HistoricBatch historicBatch : historyService.createHistoricBatchQuery().list()) {
+      historyService.deleteHistoricBatch(historicBatch.getId());
+    }
+  }
+
+  @Test
+  public void testCorrelateAllInChunks() {
+    // given
+    testRule.deploy(RECEIVE_TASK_PROCESS);
+    startInstances(5);
+
+    // when
+    long correlations = runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .setVariable("aVariable", "aValue")
+      .correlateAllInChunks(2);
+
+    // then
+    assertEquals(5, correlations);
+    assertEquals(0, runtimeService.createExecutionQuery().messageEventSubscriptionName(MESSAGE_NAME).count());
+    assertEquals(5, engineRule.getTaskService().createTaskQuery().taskDefinitionKey("afterMessage").count());
+    assertEquals(5, runtimeService.createVariableInstanceQuery().variableName("aVariable").count());
+  }
+
+  @Test
+  public void testCorrelateAllInChunksWithCorrelationKeys() {
+    // given
+    testRule.deploy(RECEIVE_TASK_PROCESS);
+    startInstances(3);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", "aBusinessKey");
+
+    // when
+    long correlations = runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceBusinessKey("aBusinessKey")
+      .correlateAllInChunks(1);
+
+    // then
+    assertEquals(1, correlations);
+    assertEquals(3, runtimeService.createExecutionQuery().messageEventSubscriptionName(MESSAGE_NAME).count());
+    assertEquals(0, runtimeService.createExecutionQuery()
+        .processInstanceId(processInstance.getId())
+        .messageEventSubscriptionName(MESSAGE_NAME)
+        .count());
+  }
+
+  @Test
+  public void testCorrelateAllInChunksSkipsExecutionsCreatedByCorrelation() {
+    // given
+    testRule.deploy(NESTED_RECEIVE_TASK_PROCESS);
+    startInstances(3);
+
+    // when each correlation creates a new execution waiting for the message
+    long correlations = runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllInChunks(1);
+
+    // then only the executions which waited before the correlation are correlated
+    assertEquals(3, correlations);
+    assertEquals(3, runtimeService.createExecutionQuery().activityId("nestedReceiveTask").count());
+    assertEquals(0, runtimeService.createExecutionQuery().activityId("receiveTask").count());
+  }
+
+  @Test
+  public void testCorrelateAllInChunksToStartEvent() {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("messageStartProcess")
+      .startEvent().message(MESSAGE_NAME)
+      .userTask()
+      .endEvent()
+      .done());
+
+    // when
+    long correlations = runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllInChunks(10);
+
+    // then
+    assertEquals(1, correlations);
+    assertEquals(1, runtimeService.createProcessInstanceQuery().processDefinitionKey("messageStartProcess").count());
+  }
+
+  @Test
+  public void testCorrelateAllInChunksInvalidChunkSize() {
+    try {
+      runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllInChunks(0);
+      fail("exception expected");
+    } catch (BadUserRequestException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCorrelateAllAsync() {
+    // given
+    testRule.deploy(RECEIVE_TASK_PROCESS);
+    startInstances(3);
+
+    // when
+    Batch batch = runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .setVariable("aVariable", 42L)
+      .correlateAllAsync();
+
+    // then the message is not correlated yet
+    assertNotNull(batch);
+    assertEquals(Batch.TYPE_MESSAGE_CORRELATION, batch.getType());
+    assertEquals(3, runtimeService.createExecutionQuery().messageEventSubscriptionName(MESSAGE_NAME).count());
+
+    // when the batch is completed
+    helper.completeBatch(batch);
+
+    // then
+    assertEquals(0, runtimeService.createExecutionQuery().messageEventSubscriptionName(MESSAGE_NAME).count());
+    assertEquals(3, engineRule.getTaskService().createTaskQuery().taskDefinitionKey("afterMessage").count());
+    assertEquals(3, runtimeService.createVariableInstanceQuery().variableValueEquals("aVariable", 42L).count());
+  }
+
+  @Test
+  public void testCorrelateAllAsyncSkipsExecutionsCreatedByCorrelation() {
+    // given
+    testRule.deploy(NESTED_RECEIVE_TASK_PROCESS);
+    startInstances(3);
+
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    int defaultBatchJobsPerSeed = configuration.getBatchJobsPerSeed();
+    configuration.setBatchJobsPerSeed(1);
+
+    try {
+      Batch batch = runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllAsync();
+
+      // when the jobs of a page are executed before the next page is selected
+      while (helper.getSeedJob(batch) != null) {
+        helper.executeSeedJob(batch);
+        helper.executeJobs(batch);
+      }
+      helper.completeMonitorJobs(batch);
+    }
+    finally {
+      configuration.setBatchJobsPerSeed(defaultBatchJobsPerSeed);
+    }
+
+    // then the executions created by the correlation are not correlated
+    assertEquals(3, runtimeService.createExecutionQuery().activityId("nestedReceiveTask").count());
+    assertEquals(0, runtimeService.createExecutionQuery().activityId("receiveTask").count());
+  }
+
+  @Test
+  @RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+  public void testCorrelateAllAsyncWritesUserOperationLog() {
+    // given
+    testRule.deploy(RECEIVE_TASK_PROCESS);
+    startInstances(3);
+
+    // when
+    engineRule.getIdentityService().setAuthenticatedUserId("userId");
+    runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllAsync();
+    engineRule.getIdentityService().clearAuthentication();
+
+    // then
+    UserOperationLogEntry entry = historyService.createUserOperationLogQuery()
+      .operationType(UserOperationLogEntry.OPERATION_TYPE_CORRELATE_MESSAGE)
+      .property("nrOfExecutions")
+      .singleResult();
+    assertNotNull(entry);
+    assertEquals("3", entry.getNewValue());
+    assertEquals("userId", entry.getUserId());
+  }
+
+  @Test
+  public void testCorrelateAllAsyncSkipsCorrelatedExecutions() {
+    // given
+    testRule.deploy(RECEIVE_TASK_PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", "aBusinessKey");
+    startInstances(1);
+
+    Batch batch = runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllAsync();
+
+    // when one of the executions is correlated before the batch is executed
+    runtimeService.createMessageCorrelation(MESSAGE_NAME)
+      .processInstanceBusinessKey("aBusinessKey")
+      .correlate();
+    helper.completeBatch(batch);
+
+    // then it is not correlated a second time
+    assertEquals(0, runtimeService.createExecutionQuery().messageEventSubscriptionName(MESSAGE_NAME).count());
+    assertEquals(1, engineRule.getTaskService().createTaskQuery()
+        .processInstanceId(processInstance.getId())
+        .count());
+    assertTrue(managementService.createJobQuery().withException().list().isEmpty());
+  }
+
+  @Test
+  public void testCorrelateAllAsyncNoMatchingExecution() {
+    try {
+      runtimeService.createMessageCorrelation(MESSAGE_NAME).correlateAllAsync();
+      fail("exception expected");
+    } catch (BadUserRequestException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCorrelateAllAsyncUnsupportedPayload() {
+    // given
+    testRule.deploy(RECEIVE_TASK_PROCESS);
+    startInstances(1);
+
+    try {
+      // when
+      runtimeService.createMessageCorrelation(MESSAGE_NAME)
+        .setVariable("aVariable", new Date())
+        .correlateAllAsync();
+      fail("exception expected");
+    } catch (ProcessEngineException e) {
+      // then
+      assertTrue(e.getMessage().contains("aVariable"));
+    }
+
+    assertEquals(0, managementService.createBatchQuery().count());
+  }
+
+  protected void startInstances(int count) {
+    for (int i = 0; i < count; i++) {
+      runtimeService.startProcessInstanceByKey("process", Variables.createVariables());
+    }
+  }
+
+}
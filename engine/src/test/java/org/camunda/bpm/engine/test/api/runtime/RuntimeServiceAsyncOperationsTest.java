@@ -13,17 +13,20 @@
 
 package org.camunda.bpm.engine.test.api.runtime;
 
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.batch.Batch;
 import org.camunda.bpm.engine.batch.history.HistoricBatch;
 import org.camunda.bpm.engine.delegate.ExecutionListener;
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.Job;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
 import org.camunda.bpm.engine.test.Deployment;
 import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
 import org.camunda.bpm.engine.test.api.AbstractAsyncOperationsTest;
 import org.camunda.bpm.engine.test.api.runtime.migration.MigrationTestRule;
 import org.camunda.bpm.engine.test.api.runtime.migration.models.ProcessModels;
@@ -95,11 +98,18 @@ public class RuntimeServiceAsyncOperationsTest extends AbstractAsyncOperationsTe
     defaultInvocationsPerBatchJob = configuration.getInvocationsPerBatchJob();
   }
 
+  @After
+  public void resetClock() {
+    ClockUtil.reset();
+  }
+
   @After
   public void restoreEngineSettings() {
     ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
     configuration.setBatchJobsPerSeed(defaultBatchJobsPerSeed);
     configuration.setInvocationsPerBatchJob(defaultInvocationsPerBatchJob);
+    configuration.setBatchQueryPagingEnabled(false);
+    configuration.setCompactBatchConfigurationEnabled(false);
   }
 
   @Deployment(resources = {
@@ -121,6 +131,26 @@ public class RuntimeServiceAsyncOperationsTest extends AbstractAsyncOperationsTe
     assertProcessInstancesAreDeleted();
   }
 
+  @Deployment(resources = {
+      "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  @Test
+  public void testDeleteProcessInstancesAsyncWithCompactConfiguration() throws Exception {
+    // given
+    engineRule.getProcessEngineConfiguration().setCompactBatchConfigurationEnabled(true);
+    List<String> processIds = startTestProcesses(2);
+
+    // when
+    Batch batch = runtimeService.deleteProcessInstancesAsync(processIds, null, TESTING_INSTANCE_DELETE);
+
+    executeSeedJob(batch);
+    executeBatchJobs(batch);
+
+    // then
+    assertHistoricTaskDeletionPresent(processIds, TESTING_INSTANCE_DELETE, testRule);
+    assertHistoricBatchExists(testRule);
+    assertProcessInstancesAreDeleted();
+  }
+
   @Deployment(resources = {
       "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml"})
   @Test
@@ -211,6 +241,71 @@ public class RuntimeServiceAsyncOperationsTest extends AbstractAsyncOperationsTe
     assertProcessInstancesAreDeleted();
   }
 
+  @Deployment(resources = {
+      "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  @Test
+  public void testDeleteProcessInstancesAsyncWithQueryPaging() throws Exception {
+    // given
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setBatchQueryPagingEnabled(true);
+    configuration.setBatchJobsPerSeed(2);
+    configuration.setInvocationsPerBatchJob(1);
+
+    List<String> processIds = startTestProcesses(5);
+    ProcessInstanceQuery processInstanceQuery = runtimeService
+        .createProcessInstanceQuery().processDefinitionKey(ONE_TASK_PROCESS);
+
+    // when
+    Batch batch = runtimeService.deleteProcessInstancesAsync(null, processInstanceQuery, TESTING_INSTANCE_DELETE);
+
+    // then the query results are paged through by three seed job executions
+    assertEquals(5, batch.getTotalJobs());
+
+    executeSeedJob(batch);
+    assertEquals(2, managementService.createJobQuery().jobDefinitionId(batch.getBatchJobDefinitionId()).count());
+
+    executeSeedJob(batch);
+    assertEquals(4, managementService.createJobQuery().jobDefinitionId(batch.getBatchJobDefinitionId()).count());
+
+    executeSeedJob(batch);
+    assertEquals(5, managementService.createJobQuery().jobDefinitionId(batch.getBatchJobDefinitionId()).count());
+    assertEquals(0, managementService.createJobQuery().jobDefinitionId(batch.getSeedJobDefinitionId()).count());
+
+    executeBatchJobs(batch);
+
+    assertHistoricTaskDeletionPresent(processIds, TESTING_INSTANCE_DELETE, testRule);
+    assertHistoricBatchExists(testRule);
+    assertProcessInstancesAreDeleted();
+  }
+
+  @Deployment(resources = {
+      "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  @RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_ACTIVITY)
+  @Test
+  public void testDeleteProcessInstancesAsyncWithQueryPagingExcludesLaterInstances() throws Exception {
+    // given
+    ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
+    configuration.setBatchQueryPagingEnabled(true);
+
+    List<String> processIds = startTestProcesses(2);
+    ProcessInstanceQuery processInstanceQuery = runtimeService
+        .createProcessInstanceQuery().processDefinitionKey(ONE_TASK_PROCESS);
+
+    Batch batch = runtimeService.deleteProcessInstancesAsync(null, processInstanceQuery, TESTING_INSTANCE_DELETE);
+
+    // and a process instance started after the batch was created
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 1000));
+    String laterProcessInstanceId = runtimeService.startProcessInstanceByKey(ONE_TASK_PROCESS).getId();
+
+    // when
+    executeSeedJob(batch);
+    executeBatchJobs(batch);
+
+    // then only the process instances started before the batch was created are deleted
+    assertHistoricTaskDeletionPresent(processIds, TESTING_INSTANCE_DELETE, testRule);
+    assertEquals(laterProcessInstanceId, runtimeService.createProcessInstanceQuery().singleResult().getId());
+  }
+
   @Deployment(resources = {
       "org/camunda/bpm/engine/test/api/oneTaskProcess.bpmn20.xml"})
   @Test
@@ -29,6 +29,7 @@ import java.util.List;
 
 import org.camunda.bpm.engine.HistoryService;
 import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.batch.Batch;
@@ -50,6 +51,7 @@ import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
 import org.camunda.bpm.engine.runtime.VariableInstance;
 import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
 import org.camunda.bpm.engine.test.api.runtime.migration.MigrationTestRule;
 import org.camunda.bpm.engine.test.api.runtime.migration.models.ProcessModels;
 import org.camunda.bpm.engine.test.bpmn.multiinstance.DelegateEvent;
@@ -112,6 +114,7 @@ public class BatchMigrationTest {
     ProcessEngineConfigurationImpl configuration = engineRule.getProcessEngineConfiguration();
     configuration.setBatchJobsPerSeed(defaultBatchJobsPerSeed);
     configuration.setInvocationsPerBatchJob(defaultInvocationsPerBatchJob);
+    configuration.setBatchQueryPagingEnabled(false);
   }
 
 
@@ -308,6 +311,52 @@ public class BatchMigrationTest {
     assertNotNull(seedJob);
   }
 
+  @Test
+  @RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_ACTIVITY)
+  public void testMigrationJobsCreationWithQueryPaging() {
+    // given
+    ProcessEngineConfigurationImpl processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    processEngineConfiguration.setBatchQueryPagingEnabled(true);
+    processEngineConfiguration.setBatchJobsPerSeed(2);
+    processEngineConfiguration.setInvocationsPerBatchJob(1);
+
+    ProcessDefinition sourceProcessDefinition = migrationRule.deployAndGetDefinition(ProcessModels.ONE_TASK_PROCESS);
+    ProcessDefinition targetProcessDefinition = migrationRule.deployAndGetDefinition(ProcessModels.ONE_TASK_PROCESS);
+    for (int i = 0; i < 3; i++) {
+      runtimeService.startProcessInstanceById(sourceProcessDefinition.getId());
+    }
+
+    MigrationPlan migrationPlan = runtimeService.createMigrationPlan(sourceProcessDefinition.getId(), targetProcessDefinition.getId())
+      .mapEqualActivities()
+      .build();
+    ProcessInstanceQuery processInstanceQuery = runtimeService.createProcessInstanceQuery()
+      .processDefinitionId(sourceProcessDefinition.getId());
+
+    Batch batch = runtimeService.newMigration(migrationPlan).processInstanceQuery(processInstanceQuery).executeAsync();
+    assertEquals(3, batch.getTotalJobs());
+
+    // and a process instance started after the batch was created
+    ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + 1000));
+    String laterProcessInstanceId = runtimeService.startProcessInstanceById(sourceProcessDefinition.getId()).getId();
+
+    // when the query results are paged through by two seed job executions
+    helper.executeSeedJob(batch);
+    assertEquals(2, helper.getExecutionJobs(batch).size());
+
+    helper.executeSeedJob(batch);
+    assertEquals(3, helper.getExecutionJobs(batch).size());
+    assertNull(helper.getSeedJob(batch));
+
+    for (Job migrationJob : helper.getExecutionJobs(batch)) {
+      helper.executeJob(migrationJob);
+    }
+
+    // then only the process instances started before the batch was created are migrated
+    assertEquals(3, runtimeService.createProcessInstanceQuery().processDefinitionId(targetProcessDefinition.getId()).count());
+    assertEquals(laterProcessInstanceId, runtimeService.createProcessInstanceQuery()
+      .processDefinitionId(sourceProcessDefinition.getId()).singleResult().getId());
+  }
+
   @Test
   public void testMonitorJobCreation() {
     Batch batch = helper.migrateProcessInstancesAsync(10);
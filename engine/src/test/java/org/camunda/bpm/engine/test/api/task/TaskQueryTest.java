@@ -47,6 +47,7 @@ import java.util.Set;
 
 import org.camunda.bpm.engine.BadUserRequestException;
 import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.exception.NotValidException;
 import org.camunda.bpm.engine.exception.NullValueException;
 import org.camunda.bpm.engine.filter.Filter;
 import org.camunda.bpm.engine.impl.TaskQueryImpl;
@@ -1664,6 +1665,35 @@ public class TaskQueryTest extends PluggableProcessEngineTestCase {
     assertEquals(10, query.listPage(0, 15).size()); // there are only 10 tasks
   }
 
+  public void testQueryPagingAfterId() {
+    TaskQuery query = taskService.createTaskQuery().taskCandidateUser("kermit");
+    List<Task> allTasks = query.list();
+
+    // when paging through the tasks by the id of the last result
+    List<Task> pagedTasks = new ArrayList<Task>();
+    List<Task> page = query.listPage(0, 3);
+    while (!page.isEmpty()) {
+      assertTrue(page.size() <= 3);
+      pagedTasks.addAll(page);
+      page = query.listAfter(page.get(page.size() - 1).getId(), 3);
+    }
+
+    // then every task is returned once in the default ordering by id
+    assertEquals(10, pagedTasks.size());
+    for (int i = 0; i < allTasks.size(); i++) {
+      assertEquals(allTasks.get(i).getId(), pagedTasks.get(i).getId());
+    }
+  }
+
+  public void testQueryPagingAfterIdWithOrdering() {
+    try {
+      taskService.createTaskQuery().orderByTaskName().asc().listAfter("anId", 3);
+      fail("exception expected");
+    } catch (NotValidException e) {
+      assertThat(e.getMessage(), containsString("only supports the default ordering by id"));
+    }
+  }
+
   public void testQuerySorting() {
     // default ordering is by id
     int expectedCount = 12;
@@ -0,0 +1,357 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.handler.AsyncDbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventJournal;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventWriter;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.RequiredHistoryLevel;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+@RequiredHistoryLevel(ProcessEngineConfiguration.HISTORY_FULL)
+public class AsyncDbHistoryEventHandlerTest {
+
+  protected static final long WRITE_TIMEOUT = 10000L;
+
+  protected File journalDirectory = createTempDirectory();
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      configuration.setAsyncHistoryEnabled(true);
+      configuration.setAsyncHistoryJournalDirectory(journalDirectory.getAbsolutePath());
+      return configuration;
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected RuntimeService runtimeService;
+  protected TaskService taskService;
+  protected HistoryService historyService;
+  protected HistoryEventWriter historyEventWriter;
+
+  @Before
+  public void setUp() {
+    processEngineConfiguration = engineRule.getProcessEngineConfiguration();
+    runtimeService = engineRule.getRuntimeService();
+    taskService = engineRule.getTaskService();
+    historyService = engineRule.getHistoryService();
+    historyEventWriter = processEngineConfiguration.getHistoryEventWriter();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    historyEventWriter.awaitWritten(WRITE_TIMEOUT);
+    deleteDirectory(journalDirectory);
+  }
+
+  @Test
+  public void testWriteHistoryAfterCommit() throws InterruptedException {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent("start")
+      .userTask("task")
+      .endEvent("end")
+      .done());
+
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process", Variables.createVariables().putValue("var", "foo"));
+    runtimeService.setVariable(processInstance.getId(), "var", "bar");
+
+    // when
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+
+    // then
+    assertTrue(historyEventWriter.awaitWritten(WRITE_TIMEOUT));
+
+    HistoricProcessInstance historicProcessInstance = historyService.createHistoricProcessInstanceQuery().singleResult();
+    assertEquals(processInstance.getId(), historicProcessInstance.getId());
+    assertNotNull(historicProcessInstance.getStartTime());
+    assertNotNull(historicProcessInstance.getEndTime());
+
+    List<HistoricActivityInstance> activityInstances = historyService.createHistoricActivityInstanceQuery().list();
+    assertEquals(3, activityInstances.size());
+    for (HistoricActivityInstance activityInstance : activityInstances) {
+      assertNotNull(activityInstance.getStartTime());
+      assertNotNull(activityInstance.getEndTime());
+    }
+
+    assertNotNull(historyService.createHistoricTaskInstanceQuery().singleResult().getEndTime());
+    assertEquals("bar", historyService.createHistoricVariableInstanceQuery().singleResult().getValue());
+  }
+
+  @Test
+  public void testDiscardHistoryOfRolledBackTransaction() throws InterruptedException {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .serviceTask()
+        .camundaExpression("${unknownBean.execute()}")
+      .endEvent()
+      .done());
+
+    // when
+    try {
+      runtimeService.startProcessInstanceByKey("process");
+      fail("exception expected");
+    }
+    catch (ProcessEngineException e) {
+      // expected
+    }
+
+    // then
+    assertTrue(historyEventWriter.awaitWritten(WRITE_TIMEOUT));
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().count());
+  }
+
+  @Test
+  public void testSpillToJournal() throws InterruptedException {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .endEvent()
+      .done());
+    ProcessDefinition processDefinition = engineRule.getRepositoryService().createProcessDefinitionQuery().singleResult();
+
+    File spillDirectory = new File(journalDirectory, "spill");
+    HistoryEventJournal journal = new HistoryEventJournal(spillDirectory);
+    AsyncDbHistoryEventHandler historyEventHandler = (AsyncDbHistoryEventHandler) processEngineConfiguration.getHistoryEventHandler();
+    HistoryEventWriter writer = new HistoryEventWriter(processEngineConfiguration.getCommandExecutorTxRequired(), historyEventHandler, 1, journal);
+
+    // when more events are submitted than the queue can hold
+    for (int i = 0; i < 3; i++) {
+      writer.submit(createProcessInstanceEvents("instance" + i, processDefinition));
+    }
+
+    // then
+    assertEquals(1, writer.getQueueSize());
+    assertEquals(2, journal.size());
+
+    // when
+    writer.start();
+
+    try {
+      // then the journal is replayed after the queue
+      assertTrue(writer.awaitWritten(WRITE_TIMEOUT));
+      assertEquals(3, historyService.createHistoricProcessInstanceQuery().count());
+      assertTrue(journal.isEmpty());
+    }
+    finally {
+      writer.stop();
+    }
+  }
+
+  @Test
+  public void testQuarantineOnlyFailingEvents() throws InterruptedException {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .endEvent()
+      .done());
+    ProcessDefinition processDefinition = engineRule.getRepositoryService().createProcessDefinitionQuery().singleResult();
+
+    File failureDirectory = new File(journalDirectory, "failure");
+    HistoryEventJournal journal = new HistoryEventJournal(failureDirectory);
+    AsyncDbHistoryEventHandler historyEventHandler = (AsyncDbHistoryEventHandler) processEngineConfiguration.getHistoryEventHandler();
+    HistoryEventWriter writer = new HistoryEventWriter(processEngineConfiguration.getCommandExecutorTxRequired(), historyEventHandler, 10, journal);
+    writer.setRetryWaitTime(0);
+
+    // and a submission whose event cannot be inserted between valid ones
+    writer.submit(createProcessInstanceEvents("instance0", processDefinition));
+    List<HistoryEvent> invalidEvents = createProcessInstanceEvents("invalidInstance", processDefinition);
+    ((HistoricProcessInstanceEventEntity) invalidEvents.get(0)).setProcessDefinitionId(null);
+    writer.submit(invalidEvents);
+    writer.submit(createProcessInstanceEvents("instance1", processDefinition));
+
+    writer.start();
+
+    try {
+      // when the submissions are written together
+      assertTrue(writer.awaitWritten(WRITE_TIMEOUT));
+
+      // then only the invalid event is quarantined
+      assertEquals(2, historyService.createHistoricProcessInstanceQuery().count());
+      assertEquals(1, countFailedEntries(failureDirectory));
+
+      // when the quarantined instance is updated later
+      List<HistoryEvent> updateEvents = createProcessInstanceEvents("invalidInstance", processDefinition);
+      ((HistoricProcessInstanceEventEntity) updateEvents.get(0)).setEventType(HistoryEventTypes.PROCESS_INSTANCE_END.getEventName());
+      writer.submit(updateEvents);
+
+      // then the update is quarantined as well instead of being lost
+      assertTrue(writer.awaitWritten(WRITE_TIMEOUT));
+      assertEquals(2, countFailedEntries(failureDirectory));
+    }
+    finally {
+      writer.stop();
+    }
+  }
+
+  @Test
+  public void testRemovalTimeSetOnProcessInstanceEndWrittenWithItsStart() throws InterruptedException {
+    // given
+    testRule.deploy(Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .endEvent()
+      .done());
+    ProcessDefinition processDefinition = engineRule.getRepositoryService().createProcessDefinitionQuery().singleResult();
+    engineRule.getRepositoryService().updateProcessDefinitionHistoryTimeToLive(processDefinition.getId(), 5);
+
+    processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_REMOVAL_TIME_BASED);
+
+    try {
+      // when the instance starts and ends in the same transaction
+      runtimeService.startProcessInstanceById(processDefinition.getId());
+
+      // then the end event is merged into the cached start event and still sets the removal time
+      assertTrue(historyEventWriter.awaitWritten(WRITE_TIMEOUT));
+
+      String tableName = engineRule.getManagementService().getTableName(HistoricProcessInstance.class);
+      assertEquals(1, historyService.createNativeHistoricProcessInstanceQuery()
+          .sql("SELECT count(*) FROM " + tableName + " WHERE REMOVAL_TIME_ is not null")
+          .count());
+    }
+    finally {
+      processEngineConfiguration.setHistoryCleanupStrategy(ProcessEngineConfiguration.HISTORY_CLEANUP_STRATEGY_END_TIME_BASED);
+    }
+  }
+
+  @Test
+  public void testGroupVariableUpdatesByVariableInstance() {
+    // given a writer exposing its grouping
+    AsyncDbHistoryEventHandler historyEventHandler = (AsyncDbHistoryEventHandler) processEngineConfiguration.getHistoryEventHandler();
+    HistoryEventJournal journal = new HistoryEventJournal(new File(journalDirectory, "grouping"));
+    GroupingHistoryEventWriter writer = new GroupingHistoryEventWriter(processEngineConfiguration.getCommandExecutorTxRequired(), historyEventHandler, journal);
+
+    // and the create and update of a variable, whose events have different detail ids
+    List<HistoryEvent> events = new ArrayList<HistoryEvent>();
+    events.add(createVariableUpdateEvent("detail1", "variable"));
+    events.add(createVariableUpdateEvent("detail2", "otherVariable"));
+    events.add(createVariableUpdateEvent("detail3", "variable"));
+
+    // when the events are grouped
+    List<List<HistoryEvent>> eventsByEntity = writer.groupByEntity(events);
+
+    // then the events of a variable instance are kept together
+    assertEquals(2, eventsByEntity.size());
+    assertEquals(2, eventsByEntity.get(0).size());
+    assertEquals("detail1", eventsByEntity.get(0).get(0).getId());
+    assertEquals("detail3", eventsByEntity.get(0).get(1).getId());
+    assertEquals(1, eventsByEntity.get(1).size());
+  }
+
+  protected int countFailedEntries(File directory) {
+    int failedEntries = 0;
+    for (File file : directory.listFiles()) {
+      if (file.getName().endsWith(HistoryEventJournal.FAILED_SUFFIX)) {
+        failedEntries++;
+      }
+    }
+    return failedEntries;
+  }
+
+  protected List<HistoryEvent> createProcessInstanceEvents(String processInstanceId, ProcessDefinition processDefinition) {
+    HistoricProcessInstanceEventEntity event = new HistoricProcessInstanceEventEntity();
+    event.setId(processInstanceId);
+    event.setProcessInstanceId(processInstanceId);
+    event.setProcessDefinitionId(processDefinition.getId());
+    event.setProcessDefinitionKey(processDefinition.getKey());
+    event.setStartTime(new Date());
+    event.setEndTime(new Date());
+    event.setState(HistoricProcessInstance.STATE_COMPLETED);
+    event.setEventType(HistoryEventTypes.PROCESS_INSTANCE_START.getEventName());
+
+    List<HistoryEvent> events = new ArrayList<HistoryEvent>();
+    events.add(event);
+    return events;
+  }
+
+  protected HistoricVariableUpdateEventEntity createVariableUpdateEvent(String detailId, String variableInstanceId) {
+    HistoricVariableUpdateEventEntity event = new HistoricVariableUpdateEventEntity();
+    event.setId(detailId);
+    event.setVariableInstanceId(variableInstanceId);
+    return event;
+  }
+
+  protected static File createTempDirectory() {
+    File directory = new File(System.getProperty("java.io.tmpdir"), "history-journal-" + System.nanoTime());
+    directory.mkdirs();
+    return directory;
+  }
+
+  protected static void deleteDirectory(File directory) {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isDirectory()) {
+          deleteDirectory(file);
+        }
+        else {
+          file.delete();
+        }
+      }
+    }
+    directory.delete();
+  }
+
+  protected static class GroupingHistoryEventWriter extends HistoryEventWriter {
+
+    public GroupingHistoryEventWriter(CommandExecutor commandExecutor, AsyncDbHistoryEventHandler historyEventHandler, HistoryEventJournal journal) {
+      super(commandExecutor, historyEventHandler, 10, journal);
+    }
+
+    public List<List<HistoryEvent>> groupByEntity(List<HistoryEvent> historyEvents) {
+      return super.groupByEntity(historyEvents);
+    }
+  }
+
+}
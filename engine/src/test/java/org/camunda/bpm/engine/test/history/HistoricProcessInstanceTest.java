@@ -536,6 +536,38 @@ public class HistoricProcessInstanceTest extends PluggableProcessEngineTestCase
     }
   }
 
+  @Deployment(resources = {"org/camunda/bpm/engine/test/history/oneTaskProcess.bpmn20.xml"})
+  public void testQueryPagingAfterId() {
+    for (int i = 0; i < 5; i++) {
+      runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    }
+    HistoricProcessInstanceQuery query = historyService.createHistoricProcessInstanceQuery();
+    List<HistoricProcessInstance> allInstances = query.list();
+
+    // when paging through the instances by the id of the last result
+    List<HistoricProcessInstance> pagedInstances = new ArrayList<HistoricProcessInstance>();
+    List<HistoricProcessInstance> page = query.listPage(0, 2);
+    while (!page.isEmpty()) {
+      pagedInstances.addAll(page);
+      page = query.listAfter(page.get(page.size() - 1).getId(), 2);
+    }
+
+    // then every instance is returned once in the default ordering by id
+    assertEquals(5, pagedInstances.size());
+    for (int i = 0; i < allInstances.size(); i++) {
+      assertEquals(allInstances.get(i).getId(), pagedInstances.get(i).getId());
+    }
+  }
+
+  public void testQueryPagingAfterIdWithOrdering() {
+    try {
+      historyService.createHistoricProcessInstanceQuery().orderByProcessInstanceStartTime().asc().listAfter("anId", 2);
+      fail("exception expected");
+    } catch (NotValidException e) {
+      // expected
+    }
+  }
+
   @Deployment(resources = {"org/camunda/bpm/engine/test/history/oneTaskProcess.bpmn20.xml"})
   // ACT-1098
   public void testDeleteReason() {
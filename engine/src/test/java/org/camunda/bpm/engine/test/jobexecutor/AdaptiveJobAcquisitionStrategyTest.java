@@ -0,0 +1,241 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.AdaptiveJobAcquisitionStrategy;
+import org.camunda.bpm.engine.impl.jobexecutor.BackoffJobAcquisitionStrategy;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionContext;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveJobAcquisitionStrategyTest {
+
+  protected static final int BASE_IDLE_WAIT_TIME = 50;
+  protected static final float WAIT_INCREASE_FACTOR = 2.0f;
+  protected static final long MAX_IDLE_TIME = 500;
+
+  protected static final int NUM_JOBS_TO_ACQUIRE = 4;
+
+  protected static final String ENGINE_NAME = "engine";
+
+  protected LoadReportingJobExecutor jobExecutor;
+  protected AdaptiveJobAcquisitionStrategy strategy;
+
+  @Before
+  public void setUp() {
+    jobExecutor = new LoadReportingJobExecutor();
+    jobExecutor.setWaitTimeInMillis(BASE_IDLE_WAIT_TIME);
+    jobExecutor.setWaitIncreaseFactor(WAIT_INCREASE_FACTOR);
+    jobExecutor.setMaxWait(MAX_IDLE_TIME);
+    jobExecutor.setMaxJobsPerAcquisition(NUM_JOBS_TO_ACQUIRE);
+
+    strategy = new AdaptiveJobAcquisitionStrategy(jobExecutor);
+  }
+
+  @Test
+  public void testAcquireMoreJobsWhenCapacityIsFree() {
+    // given an idle job executor which can take 20 job batches
+    jobExecutor.capacity = 20;
+    jobExecutor.load = 0;
+
+    // when all requested jobs are acquired
+    JobAcquisitionContext context = new JobAcquisitionContext();
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE));
+    strategy.reconfigure(context);
+
+    // then the number of jobs to acquire moves half way towards the free capacity (80% of 20)
+    Assert.assertEquals(NUM_JOBS_TO_ACQUIRE + (16 - NUM_JOBS_TO_ACQUIRE) / 2, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    Assert.assertEquals(0, strategy.getWaitTime());
+
+    // and converges towards it in the next cycles
+    for (int i = 0; i < 5; i++) {
+      int numJobsToAcquire = strategy.getNumJobsToAcquire(ENGINE_NAME);
+      context.reset();
+      context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(numJobsToAcquire, numJobsToAcquire));
+      strategy.reconfigure(context);
+    }
+
+    int numJobsToAcquire = strategy.getNumJobsToAcquire(ENGINE_NAME);
+    Assert.assertTrue(numJobsToAcquire >= 15);
+    Assert.assertTrue(numJobsToAcquire <= 16);
+  }
+
+  @Test
+  public void testShareFreeCapacityBetweenEngines() {
+    // given
+    jobExecutor.capacity = 20;
+    jobExecutor.load = 0;
+    strategy.setMaxNumJobsToAcquire(100);
+
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    // when the strategy converges for two engines
+    for (int i = 0; i < 10; i++) {
+      context.reset();
+      context.submitAcquiredJobs("engine1", buildAcquiredJobs(1, 1));
+      context.submitAcquiredJobs("engine2", buildAcquiredJobs(1, 1));
+      strategy.reconfigure(context);
+    }
+
+    // then each engine acquires at most half of the free capacity
+    Assert.assertTrue(strategy.getNumJobsToAcquire("engine1") <= 8);
+    Assert.assertTrue(strategy.getNumJobsToAcquire("engine2") <= 8);
+  }
+
+  @Test
+  public void testWaitWhenExecutionIsSaturated() {
+    // given a job executor above the target occupancy
+    jobExecutor.capacity = 20;
+    jobExecutor.load = 18;
+
+    // and jobs that take 300 ms on average
+    jobExecutor.logJobExecution(2, 600);
+
+    // when
+    JobAcquisitionContext context = new JobAcquisitionContext();
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE));
+    strategy.reconfigure(context);
+
+    // then the acquisition waits for about one job execution
+    Assert.assertEquals(300, strategy.getWaitTime());
+    Assert.assertEquals(300.0, strategy.getAverageJobExecutionTime(), 0.01);
+
+    // and acquires less jobs
+    Assert.assertTrue(strategy.getNumJobsToAcquire(ENGINE_NAME) < NUM_JOBS_TO_ACQUIRE);
+  }
+
+  @Test
+  public void testAdditiveIncreaseWithUnknownCapacity() {
+    // given a job executor without load information
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    // when all requested jobs are acquired
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE));
+    strategy.reconfigure(context);
+
+    // then the strategy acquires one job more
+    Assert.assertEquals(NUM_JOBS_TO_ACQUIRE + 1, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    Assert.assertEquals(0, strategy.getWaitTime());
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseOnRejection() {
+    // given
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    AcquiredJobs acquiredJobs = buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE);
+    context.submitAcquiredJobs(ENGINE_NAME, acquiredJobs);
+
+    // when one job is rejected
+    context.submitRejectedBatch(ENGINE_NAME, acquiredJobs.getJobIdBatches().get(0));
+    strategy.reconfigure(context);
+
+    // then the number of jobs is halved and the rejected job is resubmitted in the next cycle
+    Assert.assertEquals(NUM_JOBS_TO_ACQUIRE / 2 - 1, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    Assert.assertEquals(BackoffJobAcquisitionStrategy.DEFAULT_EXECUTION_SATURATION_WAIT_TIME, strategy.getWaitTime());
+  }
+
+  @Test
+  public void testStopAcquisitionOnFullRejection() {
+    // given
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    AcquiredJobs acquiredJobs = buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, NUM_JOBS_TO_ACQUIRE);
+    context.submitAcquiredJobs(ENGINE_NAME, acquiredJobs);
+
+    // when all jobs are rejected
+    for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
+      context.submitRejectedBatch(ENGINE_NAME, jobIds);
+    }
+    strategy.reconfigure(context);
+
+    // then no jobs are acquired until the rejected jobs could be submitted
+    Assert.assertEquals(0, strategy.getNumJobsToAcquire(ENGINE_NAME));
+    Assert.assertEquals(BackoffJobAcquisitionStrategy.DEFAULT_EXECUTION_SATURATION_WAIT_TIME, strategy.getWaitTime());
+  }
+
+  @Test
+  public void testIdleWaitTime() {
+    // given
+    jobExecutor.capacity = 20;
+    jobExecutor.load = 0;
+
+    JobAcquisitionContext context = new JobAcquisitionContext();
+
+    // when no jobs are acquired
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, 0));
+    strategy.reconfigure(context);
+
+    // then the idle wait time applies
+    Assert.assertEquals(BASE_IDLE_WAIT_TIME, strategy.getWaitTime());
+
+    // and increases up to the maximum idle time
+    long expectedWaitTime = BASE_IDLE_WAIT_TIME;
+    for (int i = 0; i < 5; i++) {
+      context.reset();
+      context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, 0));
+      strategy.reconfigure(context);
+
+      expectedWaitTime = Math.min(MAX_IDLE_TIME, (long) (expectedWaitTime * WAIT_INCREASE_FACTOR));
+      Assert.assertEquals(expectedWaitTime, strategy.getWaitTime());
+    }
+
+    // when a job is added
+    context.reset();
+    context.submitAcquiredJobs(ENGINE_NAME, buildAcquiredJobs(NUM_JOBS_TO_ACQUIRE, 0));
+    context.setJobAdded(true);
+    strategy.reconfigure(context);
+
+    // then there is no wait time
+    Assert.assertEquals(0, strategy.getWaitTime());
+  }
+
+  protected AcquiredJobs buildAcquiredJobs(int numJobsToAcquire, int numJobsAcquired) {
+    AcquiredJobs acquiredJobs = new AcquiredJobs(numJobsToAcquire);
+    for (int i = 0; i < numJobsAcquired; i++) {
+      acquiredJobs.addJobIdBatch(Arrays.asList(Integer.toString(i)));
+    }
+    return acquiredJobs;
+  }
+
+  public static class LoadReportingJobExecutor extends JobExecutor {
+
+    protected int capacity = -1;
+    protected int load = -1;
+
+    public int getExecutionCapacity() {
+      return capacity;
+    }
+
+    public int getExecutionLoad() {
+      return load;
+    }
+
+    protected void startExecutingJobs() {
+    }
+
+    protected void stopExecutingJobs() {
+    }
+
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+    }
+  }
+
+}
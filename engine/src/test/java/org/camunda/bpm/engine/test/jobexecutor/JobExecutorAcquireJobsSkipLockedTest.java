@@ -0,0 +1,119 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cmd.AcquireJobsSkipLockedCmd;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.test.Deployment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobExecutorAcquireJobsSkipLockedTest extends AbstractJobExecutorAcquireJobsTest {
+
+  protected boolean jobExecutorAcquireWithSkipLocked;
+
+  @Before
+  public void enableSkipLocked() {
+    jobExecutorAcquireWithSkipLocked = configuration.isJobExecutorAcquireWithSkipLocked();
+    configuration.setJobExecutorAcquireWithSkipLocked(true);
+  }
+
+  @After
+  public void resetSkipLocked() {
+    configuration.setJobExecutorAcquireWithSkipLocked(jobExecutorAcquireWithSkipLocked);
+  }
+
+  @Test
+  @Deployment(resources = "org/camunda/bpm/engine/test/jobexecutor/simpleAsyncProcess.bpmn20.xml")
+  public void testAcquireAndLockJobs() {
+    // given
+    startProcess("simpleAsyncProcess", "servicetask1", 3);
+
+    // when
+    AcquiredJobs acquiredJobs = acquireJobs(2);
+
+    // then two jobs are acquired and locked by the job executor
+    assertEquals(2, acquiredJobs.size());
+    assertEquals(0, acquiredJobs.getNumberOfJobsFailedToLock());
+
+    String lockOwner = configuration.getJobExecutor().getLockOwner();
+    for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
+      for (String jobId : jobIds) {
+        JobEntity job = (JobEntity) managementService.createJobQuery().jobId(jobId).singleResult();
+        assertEquals(lockOwner, job.getLockOwner());
+        assertNotNull(job.getLockExpirationTime());
+      }
+    }
+
+    // and the remaining job is the only one left to acquire
+    List<JobEntity> acquirableJobs = findAcquirableJobs();
+    assertEquals(1, acquirableJobs.size());
+    assertFalse(acquiredJobs.contains(acquirableJobs.get(0).getId()));
+    assertNull(acquirableJobs.get(0).getLockOwner());
+  }
+
+  @Test
+  @Deployment(resources = "org/camunda/bpm/engine/test/jobexecutor/simpleAsyncProcess.bpmn20.xml")
+  public void testSubsequentAcquisitionSkipsLockedJobs() {
+    // given
+    startProcess("simpleAsyncProcess", "servicetask1", 3);
+
+    // when
+    AcquiredJobs firstAcquisition = acquireJobs(2);
+    AcquiredJobs secondAcquisition = acquireJobs(2);
+
+    // then
+    assertEquals(2, firstAcquisition.size());
+    assertEquals(1, secondAcquisition.size());
+
+    String jobId = secondAcquisition.getJobIdBatches().get(0).get(0);
+    assertFalse(firstAcquisition.contains(jobId));
+    assertTrue(findAcquirableJobs().isEmpty());
+  }
+
+  @Test
+  @Deployment(resources = "org/camunda/bpm/engine/test/jobexecutor/simpleAsyncProcess.bpmn20.xml")
+  public void testFallbackIfSkipLockedIsDisabled() {
+    // given
+    configuration.setJobExecutorAcquireWithSkipLocked(false);
+    startProcess("simpleAsyncProcess", "servicetask1");
+
+    // when
+    AcquiredJobs acquiredJobs = acquireJobs(2);
+
+    // then the job is acquired with an optimistic update
+    assertEquals(1, acquiredJobs.size());
+
+    Job job = managementService.createJobQuery().singleResult();
+    assertEquals(configuration.getJobExecutor().getLockOwner(), ((JobEntity) job).getLockOwner());
+  }
+
+  protected AcquiredJobs acquireJobs(int numJobsToAcquire) {
+    JobExecutor jobExecutor = configuration.getJobExecutor();
+    return configuration.getCommandExecutorTxRequired()
+      .execute(new AcquireJobsSkipLockedCmd(jobExecutor, numJobsToAcquire));
+  }
+
+}
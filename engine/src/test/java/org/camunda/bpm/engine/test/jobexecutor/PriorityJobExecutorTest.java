@@ -0,0 +1,195 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobAcquisitionContext;
+import org.camunda.bpm.engine.impl.jobexecutor.PriorityJobExecutor;
+import org.camunda.bpm.engine.test.jobexecutor.VirtualThreadJobExecutorTest.RecordingRejectedJobsHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityJobExecutorTest {
+
+  protected RecordingPriorityJobExecutor jobExecutor;
+  protected RecordingRejectedJobsHandler rejectedJobsHandler;
+
+  @Before
+  public void setUp() {
+    rejectedJobsHandler = new RecordingRejectedJobsHandler();
+
+    jobExecutor = new RecordingPriorityJobExecutor();
+    jobExecutor.setPoolSize(1);
+    jobExecutor.setQueueSize(3);
+    jobExecutor.setRejectedJobsHandler(rejectedJobsHandler);
+  }
+
+  @After
+  public void tearDown() {
+    jobExecutor.proceed.countDown();
+    jobExecutor.shutdown();
+  }
+
+  @Test
+  public void testExecuteJobBatchesByPriority() throws InterruptedException {
+    // given a busy thread
+    jobExecutor.setAgingInterval(0);
+    jobExecutor.start();
+    occupyThread();
+
+    // when job batches of different priorities are queued
+    jobExecutor.executeJobs(Arrays.asList("low"), 0, null);
+    jobExecutor.executeJobs(Arrays.asList("high"), 10, null);
+    jobExecutor.executeJobs(Arrays.asList("medium"), 5, null);
+    jobExecutor.proceed.countDown();
+
+    // then they are executed by priority
+    assertTrue(jobExecutor.finished.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("blocking", "high", "medium", "low"), jobExecutor.executedJobIds);
+  }
+
+  @Test
+  public void testExecuteAgedJobBatchFirst() throws InterruptedException {
+    // given a busy thread
+    jobExecutor.setAgingInterval(10);
+    jobExecutor.start();
+    occupyThread();
+
+    // when a low priority batch waits longer than its priority difference in aging intervals
+    jobExecutor.executeJobs(Arrays.asList("low"), 0, null);
+    Thread.sleep(100);
+    jobExecutor.executeJobs(Arrays.asList("high"), 1, null);
+    jobExecutor.executeJobs(Arrays.asList("highest"), 100, null);
+    jobExecutor.proceed.countDown();
+
+    // then it precedes the batch of slightly higher priority
+    assertTrue(jobExecutor.finished.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("blocking", "highest", "low", "high"), jobExecutor.executedJobIds);
+  }
+
+  @Test
+  public void testLimitConcurrencyOfPriorityBand() throws InterruptedException {
+    // given two threads of which only one may execute low priority batches
+    jobExecutor.setPoolSize(2);
+    jobExecutor.setAgingInterval(0);
+    jobExecutor.setPriorityBandConcurrency(0, 1);
+    jobExecutor.setPriorityBandConcurrency(10, 2);
+    jobExecutor.start();
+    occupyThread();
+
+    // when
+    jobExecutor.executeJobs(Arrays.asList("low"), 0, null);
+    jobExecutor.executeJobs(Arrays.asList("high"), 10, null);
+
+    // then the high priority batch is executed by the second thread
+    waitForExecutedJob("high");
+    assertEquals(Arrays.asList("blocking", "high"), jobExecutor.executedJobIds);
+  }
+
+  @Test
+  public void testRejectJobBatchesExceedingQueueSize() throws InterruptedException {
+    // given a busy thread and a full queue
+    jobExecutor.start();
+    occupyThread();
+    jobExecutor.executeJobs(Arrays.asList("1"), 0, null);
+    jobExecutor.executeJobs(Arrays.asList("2"), 0, null);
+    jobExecutor.executeJobs(Arrays.asList("3"), 0, null);
+
+    // when
+    jobExecutor.executeJobs(Arrays.asList("4"), 10, null);
+
+    // then
+    assertEquals(1, rejectedJobsHandler.rejectedJobBatches.size());
+    assertEquals(Arrays.asList("4"), rejectedJobsHandler.rejectedJobBatches.get(0));
+    assertEquals(4, jobExecutor.getExecutionLoad());
+    assertEquals(4, jobExecutor.getExecutionCapacity());
+  }
+
+  @Test
+  public void testResubmitRejectedJobBatchWithPriority() {
+    // given
+    JobAcquisitionContext context = new JobAcquisitionContext();
+    context.submitRejectedBatch("engine", Arrays.asList("1"), 10);
+    context.submitRejectedBatch("engine", Arrays.asList("2"));
+
+    // when
+    context.reset();
+
+    // then
+    List<List<String>> additionalJobBatches = context.getAdditionalJobsByEngine().get("engine");
+    assertEquals(10, context.getAdditionalJobBatchPriority(additionalJobBatches.get(0)));
+    assertEquals(0, context.getAdditionalJobBatchPriority(additionalJobBatches.get(1)));
+
+    // and the priority is dropped with the batch in the next cycle
+    context.reset();
+    assertTrue(context.getAdditionalJobsByEngine().isEmpty());
+    assertEquals(0, context.getAdditionalJobBatchPriority(additionalJobBatches.get(0)));
+  }
+
+  protected void occupyThread() throws InterruptedException {
+    jobExecutor.executeJobs(Arrays.asList("blocking"), 0, null);
+    assertTrue(jobExecutor.started.await(10, TimeUnit.SECONDS));
+  }
+
+  protected void waitForExecutedJob(String jobId) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (!jobExecutor.executedJobIds.contains(jobId) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(jobExecutor.executedJobIds.contains(jobId));
+  }
+
+  public static class RecordingPriorityJobExecutor extends PriorityJobExecutor {
+
+    protected List<String> executedJobIds = Collections.synchronizedList(new ArrayList<String>());
+    protected CountDownLatch started = new CountDownLatch(1);
+    protected CountDownLatch finished = new CountDownLatch(4);
+    protected CountDownLatch proceed = new CountDownLatch(1);
+
+    protected void startJobAcquisitionThread() {
+      // jobs are submitted by the test
+    }
+
+    protected void stopJobAcquisitionThread() {
+    }
+
+    public Runnable getExecuteJobsRunnable(final List<String> jobIds, ProcessEngineImpl processEngine) {
+      return new Runnable() {
+        public void run() {
+          executedJobIds.add(jobIds.get(0));
+          started.countDown();
+          if (jobIds.get(0).equals("blocking")) {
+            try {
+              proceed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          finished.countDown();
+        }
+      };
+    }
+  }
+
+}
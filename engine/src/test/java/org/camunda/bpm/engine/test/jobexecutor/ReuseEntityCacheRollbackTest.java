@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutorContext;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.util.ProcessEngineBootstrapRule;
+import org.camunda.bpm.engine.test.util.ProcessEngineTestRule;
+import org.camunda.bpm.engine.test.util.ProvidedProcessEngineRule;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+public class ReuseEntityCacheRollbackTest {
+
+  protected static final BpmnModelInstance PROCESS = Bpmn.createExecutableProcess("process")
+      .startEvent()
+      .parallelGateway("fork")
+      .serviceTask("failingTask")
+        .camundaClass(UpdateAndFailDelegate.class.getName())
+        .camundaAsyncBefore()
+      .userTask()
+      .endEvent()
+      .moveToNode("fork")
+      .serviceTask("readingTask")
+        .camundaClass(ReadVariableDelegate.class.getName())
+        .camundaAsyncBefore()
+      .userTask()
+      .endEvent()
+      .done();
+
+  protected ProcessEngineBootstrapRule bootstrapRule = new ProcessEngineBootstrapRule() {
+    public ProcessEngineConfiguration configureEngine(ProcessEngineConfigurationImpl configuration) {
+      return configuration.setDbEntityCacheReuseEnabled(true);
+    }
+  };
+
+  protected ProvidedProcessEngineRule engineRule = new ProvidedProcessEngineRule(bootstrapRule);
+  protected ProcessEngineTestRule testRule = new ProcessEngineTestRule(engineRule);
+
+  @Rule
+  public RuleChain ruleChain = RuleChain.outerRule(bootstrapRule).around(engineRule).around(testRule);
+
+  protected RuntimeService runtimeService;
+  protected ManagementService managementService;
+  protected JobExecutorContext jobExecutorContext;
+
+  @Before
+  public void setUp() {
+    runtimeService = engineRule.getRuntimeService();
+    managementService = engineRule.getManagementService();
+
+    // the jobs are executed as if by one job executor thread
+    jobExecutorContext = new JobExecutorContext();
+    Context.setJobExecutorContext(jobExecutorContext);
+  }
+
+  @After
+  public void tearDown() {
+    Context.removeJobExecutorContext();
+  }
+
+  @Test
+  public void testDiscardEntityCacheOfFailedJob() {
+    // given
+    testRule.deploy(PROCESS);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("process",
+        Variables.createVariables().putValue("aVariable", "initialValue"));
+
+    Job failingJob = managementService.createJobQuery().activityId("failingTask").singleResult();
+    Job readingJob = managementService.createJobQuery().activityId("readingTask").singleResult();
+
+    // when the first job changes a variable and fails
+    try {
+      managementService.executeJob(failingJob.getId());
+      fail("exception expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+
+    // then the reused entity cache is discarded
+    assertNull(jobExecutorContext.getEntityCache());
+
+    // and the next job reads the committed variable value
+    managementService.executeJob(readingJob.getId());
+
+    assertEquals("initialValue", runtimeService.getVariable(processInstance.getId(), "readValue"));
+    assertEquals("initialValue", runtimeService.getVariable(processInstance.getId(), "aVariable"));
+  }
+
+  public static class UpdateAndFailDelegate implements JavaDelegate {
+
+    public void execute(DelegateExecution execution) throws Exception {
+      execution.setVariable("aVariable", "uncommittedValue");
+      throw new RuntimeException("expected exception");
+    }
+  }
+
+  public static class ReadVariableDelegate implements JavaDelegate {
+
+    public void execute(DelegateExecution execution) throws Exception {
+      execution.setVariable("readValue", execution.getVariable("aVariable"));
+    }
+  }
+
+}
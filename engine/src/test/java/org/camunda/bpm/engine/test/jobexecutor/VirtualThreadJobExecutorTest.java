@@ -0,0 +1,134 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.jobexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.RejectedJobsHandler;
+import org.camunda.bpm.engine.impl.jobexecutor.VirtualThreadJobExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VirtualThreadJobExecutorTest {
+
+  protected BlockingVirtualThreadJobExecutor jobExecutor;
+  protected RecordingRejectedJobsHandler rejectedJobsHandler;
+
+  @Before
+  public void setUp() {
+    rejectedJobsHandler = new RecordingRejectedJobsHandler();
+
+    jobExecutor = new BlockingVirtualThreadJobExecutor();
+    jobExecutor.setMaxConcurrency(2);
+    jobExecutor.setRejectedJobsHandler(rejectedJobsHandler);
+    jobExecutor.start();
+  }
+
+  @After
+  public void tearDown() {
+    jobExecutor.proceed.countDown();
+    jobExecutor.shutdown();
+  }
+
+  @Test
+  public void testRejectJobsExceedingMaxConcurrency() throws InterruptedException {
+    // when three job batches are submitted
+    jobExecutor.executeJobs(Arrays.asList("1"), null);
+    jobExecutor.executeJobs(Arrays.asList("2", "3"), null);
+    jobExecutor.executeJobs(Arrays.asList("4"), null);
+
+    // then two are executed
+    assertTrue(jobExecutor.started.await(10, TimeUnit.SECONDS));
+    assertEquals(2, jobExecutor.getExecutionLoad());
+    assertEquals(2, jobExecutor.getExecutionCapacity());
+
+    // and the third one is rejected
+    assertEquals(1, rejectedJobsHandler.rejectedJobBatches.size());
+    assertEquals(Arrays.asList("4"), rejectedJobsHandler.rejectedJobBatches.get(0));
+  }
+
+  @Test
+  public void testReleasePermitsAfterExecution() throws InterruptedException {
+    // given two running job batches
+    jobExecutor.executeJobs(Arrays.asList("1"), null);
+    jobExecutor.executeJobs(Arrays.asList("2"), null);
+    assertTrue(jobExecutor.started.await(10, TimeUnit.SECONDS));
+
+    // when they complete
+    jobExecutor.proceed.countDown();
+    assertTrue(jobExecutor.finished.await(10, TimeUnit.SECONDS));
+
+    waitForExecutionLoad(0);
+
+    // then further job batches can be executed
+    jobExecutor.executeJobs(Arrays.asList("3"), null);
+    assertEquals(0, rejectedJobsHandler.rejectedJobBatches.size());
+  }
+
+  protected void waitForExecutionLoad(int load) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (jobExecutor.getExecutionLoad() != load && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(load, jobExecutor.getExecutionLoad());
+  }
+
+  public static class BlockingVirtualThreadJobExecutor extends VirtualThreadJobExecutor {
+
+    protected CountDownLatch started = new CountDownLatch(2);
+    protected CountDownLatch finished = new CountDownLatch(2);
+    protected CountDownLatch proceed = new CountDownLatch(1);
+
+    protected void startJobAcquisitionThread() {
+      // jobs are submitted by the test
+    }
+
+    protected void stopJobAcquisitionThread() {
+    }
+
+    public Runnable getExecuteJobsRunnable(List<String> jobIds, ProcessEngineImpl processEngine) {
+      return new Runnable() {
+        public void run() {
+          started.countDown();
+          try {
+            proceed.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          finished.countDown();
+        }
+      };
+    }
+  }
+
+  public static class RecordingRejectedJobsHandler implements RejectedJobsHandler {
+
+    protected List<List<String>> rejectedJobBatches = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    public void jobsRejected(List<String> jobIds, ProcessEngineImpl processEngine, JobExecutor jobExecutor) {
+      rejectedJobBatches.add(jobIds);
+    }
+  }
+
+}
@@ -0,0 +1,198 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.db.ConcurrentDbIdGenerator;
+import org.camunda.bpm.engine.impl.db.IdBlock;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentDbIdGeneratorTest {
+
+  protected static final int ID_BLOCK_SIZE = 100;
+
+  protected IdBlockCommandExecutor commandExecutor;
+  protected ConcurrentDbIdGenerator idGenerator;
+
+  @Before
+  public void setUp() {
+    commandExecutor = new IdBlockCommandExecutor();
+
+    idGenerator = new ConcurrentDbIdGenerator();
+    idGenerator.setIdBlockSize(ID_BLOCK_SIZE);
+    idGenerator.setCommandExecutor(commandExecutor);
+  }
+
+  @Test
+  public void shouldRoundStripeCountToPowerOfTwo() {
+    idGenerator.setStripeCount(5);
+
+    assertEquals(8, idGenerator.getStripeCount());
+  }
+
+  @Test
+  public void shouldGenerateIdsFromSingleThread() {
+    idGenerator.setStripeCount(1);
+
+    for (int i = 0; i < 5 * ID_BLOCK_SIZE; i++) {
+      assertEquals(Long.toString(i), idGenerator.getNextId());
+    }
+  }
+
+  @Test
+  public void shouldGenerateUniqueIdsConcurrently() throws Exception {
+    final int numberOfThreads = 16;
+    final int idsPerThread = 10 * ID_BLOCK_SIZE;
+    final Set<String> ids = Collections.synchronizedSet(new HashSet<String>());
+
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < numberOfThreads; i++) {
+      threads.add(new Thread() {
+        public void run() {
+          for (int j = 0; j < idsPerThread; j++) {
+            ids.add(idGenerator.getNextId());
+          }
+        }
+      });
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(numberOfThreads * idsPerThread, ids.size());
+  }
+
+  @Test
+  public void shouldPrefetchNextBlock() throws Exception {
+    idGenerator.setStripeCount(1);
+    idGenerator.setPrefetchThresholdPercentage(100);
+
+    idGenerator.getNextId();
+
+    // the first block is fetched synchronously, the second one is prefetched
+    long timeout = System.currentTimeMillis() + 10000;
+    while (commandExecutor.executions.get() < 2 && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10);
+    }
+    assertEquals(2, commandExecutor.executions.get());
+
+    // when the first block is used up, the prefetched block is used
+    for (int i = 1; i < 2 * ID_BLOCK_SIZE; i++) {
+      assertEquals(Long.toString(i), idGenerator.getNextId());
+    }
+    assertTrue(commandExecutor.executions.get() <= 3);
+  }
+
+  @Test
+  public void shouldFetchNewBlockAfterReset() {
+    idGenerator.setPrefetchThresholdPercentage(0);
+    idGenerator.getNextId();
+
+    idGenerator.reset();
+    commandExecutor.nextId.set(1000);
+
+    assertEquals("1000", idGenerator.getNextId());
+  }
+
+  @Test
+  public void shouldNotPrefetchAfterClose() {
+    idGenerator.setStripeCount(1);
+    idGenerator.setPrefetchThresholdPercentage(100);
+
+    idGenerator.close();
+
+    // ids are still generated, but each block is fetched synchronously
+    for (int i = 0; i < 2 * ID_BLOCK_SIZE; i++) {
+      assertEquals(Long.toString(i), idGenerator.getNextId());
+    }
+    assertEquals(2, commandExecutor.executions.get());
+  }
+
+  @Test(timeout = 10000)
+  public void shouldNotWaitForPrefetchDiscardedOnClose() throws Exception {
+    idGenerator.setStripeCount(1);
+    idGenerator.setPrefetchThresholdPercentage(100);
+    commandExecutor.prefetchLatch = new CountDownLatch(1);
+
+    try {
+      idGenerator.getNextId();
+
+      // wait until the prefetch is running
+      while (commandExecutor.executions.get() < 2) {
+        Thread.sleep(10);
+      }
+
+      idGenerator.close();
+
+      // the discarded prefetch is not waited for, the next block is fetched synchronously
+      for (int i = 1; i < ID_BLOCK_SIZE; i++) {
+        idGenerator.getNextId();
+      }
+      assertEquals(Long.toString(ID_BLOCK_SIZE), idGenerator.getNextId());
+
+    } finally {
+      commandExecutor.prefetchLatch.countDown();
+    }
+  }
+
+  /**
+   * Hands out id blocks like the GetNextIdBlockCmd without a database.
+   */
+  protected static class IdBlockCommandExecutor implements CommandExecutor {
+
+    protected AtomicLong nextId = new AtomicLong(0);
+    protected AtomicInteger executions = new AtomicInteger(0);
+    // if set, prefetches block until the latch is released, ignoring interrupts
+    protected CountDownLatch prefetchLatch;
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Command<T> command) {
+      executions.incrementAndGet();
+      if (prefetchLatch != null && Thread.currentThread().getName().equals("camunda-id-block-prefetch")) {
+        awaitUninterruptibly(prefetchLatch);
+      }
+      long firstId = nextId.getAndAdd(ID_BLOCK_SIZE);
+      return (T) new IdBlock(firstId, firstId + ID_BLOCK_SIZE - 1);
+    }
+
+    protected void awaitUninterruptibly(CountDownLatch latch) {
+      while (true) {
+        try {
+          latch.await();
+          return;
+        } catch (InterruptedException e) {
+          // keep blocking like a statement which does not react to interrupts
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,164 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.engine.test.standalone.db.entitymanager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.CachedDbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.cache.DbEntityCache;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DbEntityModificationTrackingTest {
+
+  protected DbEntityCache entityCache;
+
+  @Before
+  public void setUp() {
+    entityCache = new DbEntityCache();
+    entityCache.setModificationTrackingEnabled(true);
+  }
+
+  @Test
+  public void shouldDetectModificationByCounter() {
+    MessageEntity job = createJob("1");
+    entityCache.putPersistent(job);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(job);
+
+    assertFalse(cachedEntity.isDirty());
+
+    job.setLockOwner("owner");
+    assertTrue(cachedEntity.isDirty());
+
+    cachedEntity.makeCopy();
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldIgnoreUnchangedValue() {
+    MessageEntity job = createJob("1");
+    job.setLockOwner("owner");
+    entityCache.putPersistent(job);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(job);
+
+    job.setLockOwner("owner");
+    job.setPriority(job.getPriority());
+
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldForceDirty() {
+    MessageEntity job = createJob("1");
+    entityCache.putPersistent(job);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(job);
+
+    cachedEntity.forceSetDirty();
+
+    assertTrue(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldFallBackToPersistentStateForUntrackedEntities() {
+    PropertyEntity property = new PropertyEntity("name", "value");
+    entityCache.putPersistent(property);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(property);
+
+    assertFalse(cachedEntity.isDirty());
+
+    property.setValue("otherValue");
+    assertTrue(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldUsePersistentStateIfTrackingIsDisabled() {
+    entityCache.setModificationTrackingEnabled(false);
+
+    MessageEntity job = createJob("1");
+    entityCache.putPersistent(job);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(job);
+
+    job.setLockOwner("owner");
+    assertTrue(cachedEntity.isDirty());
+
+    job.setLockOwner(null);
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldDetectExecutionModificationByCounter() {
+    ExecutionEntity execution = createExecution("1");
+    entityCache.putPersistent(execution);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(execution);
+
+    assertFalse(cachedEntity.isDirty());
+
+    execution.setActive(false);
+    assertTrue(cachedEntity.isDirty());
+
+    cachedEntity.makeCopy();
+    execution.incrementSequenceCounter();
+    assertTrue(cachedEntity.isDirty());
+
+    cachedEntity.makeCopy();
+    execution.setActivityInstanceId(execution.getActivityInstanceId());
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldDetectChangedCachedEntityStateOfExecution() {
+    ExecutionEntity execution = createExecution("1");
+    entityCache.putPersistent(execution);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(execution);
+
+    execution.addTask(new TaskEntity("2"));
+
+    assertTrue(cachedEntity.isDirty());
+  }
+
+  @Test
+  public void shouldDetectTaskModificationByCounter() {
+    TaskEntity task = new TaskEntity("1");
+    entityCache.putPersistent(task);
+    CachedDbEntity cachedEntity = entityCache.getCachedEntity(task);
+
+    assertFalse(cachedEntity.isDirty());
+
+    task.setAssigneeWithoutCascade("assignee");
+    assertTrue(cachedEntity.isDirty());
+
+    cachedEntity.makeCopy();
+    task.setPriorityWithoutCascade(task.getPriority());
+    assertFalse(cachedEntity.isDirty());
+  }
+
+  protected ExecutionEntity createExecution(String id) {
+    ExecutionEntity execution = new ExecutionEntity();
+    execution.setId(id);
+    // all related entity collections are known to be empty
+    execution.setCachedEntityState(0);
+    return execution;
+  }
+
+  protected MessageEntity createJob(String id) {
+    MessageEntity job = new MessageEntity();
+    job.setId(id);
+    return job;
+  }
+
+}
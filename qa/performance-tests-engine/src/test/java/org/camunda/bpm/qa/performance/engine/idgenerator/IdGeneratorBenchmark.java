@@ -0,0 +1,126 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.camunda.bpm.qa.performance.engine.idgenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.camunda.bpm.engine.impl.cfg.IdGenerator;
+import org.camunda.bpm.engine.impl.db.ConcurrentDbIdGenerator;
+import org.camunda.bpm.engine.impl.db.DbIdGenerator;
+import org.camunda.bpm.engine.impl.db.IdBlock;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput of the id generators under contention. The database
+ * round trip of fetching an id block is simulated by a command executor which
+ * waits for {@link #ID_BLOCK_FETCH_MILLIS} before handing out the block.
+ *
+ * Run with <code>mvn clean install -Pid-generator-benchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class IdGeneratorBenchmark {
+
+  public static final long ID_BLOCK_FETCH_MILLIS = 2;
+
+  @Param({"db", "concurrent", "uuid"})
+  public String generatorType;
+
+  @Param({"100", "1000"})
+  public int idBlockSize;
+
+  protected IdGenerator idGenerator;
+
+  @Setup
+  public void createIdGenerator() {
+    if ("db".equals(generatorType)) {
+      idGenerator = createDbIdGenerator(new DbIdGenerator());
+
+    } else if ("concurrent".equals(generatorType)) {
+      idGenerator = createDbIdGenerator(new ConcurrentDbIdGenerator());
+
+    } else {
+      idGenerator = new StrongUuidGenerator();
+    }
+  }
+
+  protected DbIdGenerator createDbIdGenerator(DbIdGenerator dbIdGenerator) {
+    dbIdGenerator.setIdBlockSize(idBlockSize);
+    dbIdGenerator.setCommandExecutor(new SimulatedIdBlockCommandExecutor(idBlockSize));
+    return dbIdGenerator;
+  }
+
+  @Benchmark
+  public String getNextId() {
+    return idGenerator.getNextId();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+      .include(IdGeneratorBenchmark.class.getSimpleName())
+      .build();
+
+    new Runner(options).run();
+  }
+
+  /**
+   * Hands out consecutive id blocks like the GetNextIdBlockCmd does, but
+   * replaces the database transaction by a fixed delay.
+   */
+  public static class SimulatedIdBlockCommandExecutor implements CommandExecutor {
+
+    protected final AtomicLong nextId = new AtomicLong(0);
+    protected final int idBlockSize;
+
+    public SimulatedIdBlockCommandExecutor(int idBlockSize) {
+      this.idBlockSize = idBlockSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Command<T> command) {
+      try {
+        Thread.sleep(ID_BLOCK_FETCH_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      long firstId = nextId.getAndAdd(idBlockSize);
+      return (T) new IdBlock(firstId, firstId + idBlockSize - 1);
+    }
+  }
+
+}